@@ -0,0 +1,32 @@
+package com.bytz.modules.cms.payment.application;
+
+import com.bytz.modules.cms.payment.interfaces.model.CreditLineVO;
+
+import java.math.BigDecimal;
+
+/**
+ * 信用额度服务接口
+ * Credit Line Service Interface
+ * 
+ * 经销商信用额度的查询与设定，额度扣减由信用账户渠道在支付时完成
+ */
+public interface CreditLineService {
+    
+    /**
+     * 查询经销商的信用额度状态
+     * 
+     * @param resellerId 经销商ID
+     * @return 信用额度状态
+     */
+    CreditLineVO getCreditLine(String resellerId);
+    
+    /**
+     * 设定经销商的信用额度（已用与预占额度不变）
+     * 
+     * @param resellerId  经销商ID
+     * @param creditLimit 信用额度
+     * @return 设定后的信用额度状态
+     * @throws IllegalArgumentException 如果信用额度为负
+     */
+    CreditLineVO setCreditLimit(String resellerId, BigDecimal creditLimit);
+}
@@ -1,10 +1,14 @@
 package com.bytz.modules.cms.payment.application;
 
+import com.bytz.modules.cms.payment.application.command.BulkTransitionPaymentCommand;
 import com.bytz.modules.cms.payment.application.command.CancelPaymentCommand;
 import com.bytz.modules.cms.payment.application.command.CreatePaymentCommand;
 import com.bytz.modules.cms.payment.application.command.ExecutePaymentCommand;
 import com.bytz.modules.cms.payment.application.command.ExecuteRefundCommand;
+import com.bytz.modules.cms.payment.domain.command.ChannelRecordCallbackCommand;
+import com.bytz.modules.cms.payment.domain.command.PaymentCallbackCommand;
 import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.response.CallbackResult;
 import com.bytz.modules.cms.payment.interfaces.model.PaymentVO;
 
 import java.util.List;
@@ -29,6 +33,17 @@ public interface IPaymentApplicationService {
      */
     PaymentVO createPayment(CreatePaymentCommand command);
 
+    /**
+     * 批量创建支付单
+     * 此方法供月末信用还款等批量场景调用
+     *
+     * 一次校验全部命令（任一项不合法则整体拒绝），批量分配支付单号、批量写入，并发布一次批量创建事件
+     *
+     * @param commands 创建支付单命令列表
+     * @return 支付单DTO列表（与命令顺序一致）
+     */
+    List<PaymentVO> createPayments(List<CreatePaymentCommand> commands);
+
 
     /**
      * 取消支付单
@@ -47,6 +62,22 @@ public interface IPaymentApplicationService {
      */
     PaymentVO cancelPayment(CancelPaymentCommand command);
 
+    /**
+     * 按订单/经销商/关联业务批量取消、冻结、停止支付单
+     * 此方法供订单系统、风控等内部模块调用
+     *
+     * 使用场景：
+     * - 订单作废时取消该订单下尚未发起支付的支付单
+     * - 经销商因信用风险冻结时冻结其全部未结清的支付单
+     *
+     * 业务规则与单条操作一致（见PaymentStatusTransition），以集合更新分批执行，不满足条件的支付单保持不变；
+     * 有实际变更时发布一次PaymentBatchStatusChangedEvent
+     *
+     * @param command 批量状态迁移支付单命令
+     * @return 实际变更的支付单ID列表
+     */
+    List<String> transitionPayments(BulkTransitionPaymentCommand command);
+
 
     /**
      * 执行批量支付
@@ -71,6 +102,37 @@ public interface IPaymentApplicationService {
      */
     String executeRefund(ExecuteRefundCommand command);
 
+    /**
+     * 批量执行退款
+     * 此方法供订单系统整单退货等场景调用
+     *
+     * 一次加载并校验全部支付单（任一不合法则整体拒绝），按原渠道支付记录合并渠道退款请求，批量持久化
+     *
+     * @param commands 执行退款命令列表（同一支付单在一批内只能出现一次）
+     * @return 退款流水ID列表（与命令顺序一致）
+     */
+    List<String> executeRefunds(List<ExecuteRefundCommand> commands);
+
+
+    /**
+     * 批量处理渠道回调
+     * 此方法供渠道批量结算通知调用，一次加载、批量持久化
+     *
+     * @param commands 回调命令列表（支付/退款可混合）
+     * @return 与请求顺序一致的逐项处理结果
+     */
+    List<CallbackResult> processCallbacks(List<PaymentCallbackCommand> commands);
+
+
+    /**
+     * 按渠道支付记录ID处理回调
+     * 此方法供统一支付的渠道结算通知调用，一次回调结算同批全部支付单
+     *
+     * @param command 渠道支付记录回调命令
+     * @return 每个支付单的处理结果
+     */
+    List<CallbackResult> processChannelRecordCallback(ChannelRecordCallbackCommand command);
+
 
     /**
      * 查询经销商可用的支付渠道列表
@@ -2,7 +2,12 @@ package com.bytz.modules.cms.payment.application;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.bytz.modules.cms.payment.application.command.QueryTransactionRollupCommand;
+import com.bytz.modules.cms.payment.application.command.SearchPaymentsCommand;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.ResellerPaymentSummaryEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.TransactionRollupEntity;
+import com.bytz.modules.cms.payment.infrastructure.search.PaymentSearchResult;
 
 import java.util.List;
 
@@ -45,4 +50,44 @@ public interface PaymentQueryService extends IService<PaymentEntity> {
      * @return 支付单列表
      */
     List<PaymentEntity> getPaymentsByRelatedBusinessId(String relatedBusinessId);
+    
+    /**
+     * 支付单组合查询（游标分页）
+     * 条件须命中固定的组合索引之一，否则拒绝；总数按条件短时缓存
+     * 
+     * @param command 组合查询命令
+     * @return 一页支付单、下一页游标、总数（按需）
+     * @throws IllegalArgumentException 如果条件无法命中索引或参数不合法
+     */
+    PaymentSearchResult searchPayments(SearchPaymentsCommand command);
+    
+    /**
+     * 查询经销商可支付的支付单（游标分页）
+     * 与 PaymentAggregate#canPay 一致：未支付/部分支付且待支付金额大于0；
+     * 按支付截止时间先到期在前，无截止时间的排最后
+     * 
+     * @param resellerId 经销商ID
+     * @param cursor     上一页返回的游标，首页为空
+     * @param pageSize   每页条数，为空时使用默认值
+     * @return 一页支付单与下一页游标
+     */
+    PaymentSearchResult getPayablePayments(String resellerId, String cursor, Integer pageSize);
+    
+    /**
+     * 查询经销商支付汇总（按币种、支付状态，含已归档支付单）
+     * 直接读取增量维护的汇总表，不扫描支付单
+     * 
+     * @param resellerId 经销商ID
+     * @return 汇总行
+     */
+    List<ResellerPaymentSummaryEntity> getResellerSummary(String resellerId);
+    
+    /**
+     * 查询流水汇总（按支付渠道、支付类型、流水类型、流水状态、币种）
+     * 读取增量维护的小时/日汇总表，多分片时合并各分片同一桶、同一维度的汇总
+     * 
+     * @param command 查询流水汇总命令
+     * @return 汇总行，按桶起点与维度排序
+     */
+    List<TransactionRollupEntity> getTransactionRollups(QueryTransactionRollupCommand command);
 }
@@ -0,0 +1,22 @@
+package com.bytz.modules.cms.payment.application;
+
+import com.bytz.modules.cms.payment.interfaces.model.StatementImportResultVO;
+
+/**
+ * 电汇对账单导入服务接口
+ * Statement Import Service Interface
+ * 
+ * 电汇没有渠道回调，以银行对账单到账为准结算支付单
+ */
+public interface StatementImportService {
+    
+    /**
+     * 导入银行对账单：解析、批量匹配（精确、容差、合并）、分批结算匹配到的支付单
+     * 同一对账单重复导入时，已入账的支付单按重复处理，不重复结算
+     * 
+     * @param fileName 对账单文件名（相对对账单目录）
+     * @return 导入结果
+     * @throws IllegalArgumentException 如果文件不存在或格式错误（格式错误时不结算任何支付单）
+     */
+    StatementImportResultVO importStatement(String fileName);
+}
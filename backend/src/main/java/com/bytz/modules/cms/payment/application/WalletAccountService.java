@@ -0,0 +1,32 @@
+package com.bytz.modules.cms.payment.application;
+
+import com.bytz.modules.cms.payment.interfaces.model.WalletBalanceVO;
+
+import java.math.BigDecimal;
+
+/**
+ * 钱包账户服务接口
+ * Wallet Account Service Interface
+ * 
+ * 经销商钱包余额的查询与充值，冻结与扣款由钱包支付渠道在支付时完成
+ */
+public interface WalletAccountService {
+    
+    /**
+     * 查询经销商钱包余额
+     * 
+     * @param resellerId 经销商ID
+     * @return 余额、冻结与可用余额
+     */
+    WalletBalanceVO getBalance(String resellerId);
+    
+    /**
+     * 钱包充值，账户不存在时创建
+     * 
+     * @param resellerId 经销商ID
+     * @param amount     充值金额
+     * @return 充值后的余额状态
+     * @throws IllegalArgumentException 如果金额不大于0
+     */
+    WalletBalanceVO deposit(String resellerId, BigDecimal amount);
+}
@@ -1,18 +1,34 @@
 package com.bytz.modules.cms.payment.application.assembler;
 
+import com.bytz.modules.cms.payment.application.command.BulkTransitionPaymentCommand;
 import com.bytz.modules.cms.payment.application.command.CancelPaymentCommand;
 import com.bytz.modules.cms.payment.application.command.CreatePaymentCommand;
 import com.bytz.modules.cms.payment.application.command.ExecutePaymentCommand;
+import com.bytz.modules.cms.payment.application.command.ExecuteRefundCommand;
+import com.bytz.modules.cms.payment.application.command.SearchPaymentsCommand;
+import com.bytz.modules.cms.payment.domain.command.BulkStatusTransitionCommand;
+import com.bytz.modules.cms.payment.domain.command.ChannelRecordCallbackCommand;
+import com.bytz.modules.cms.payment.domain.command.PaymentCallbackCommand;
+import com.bytz.modules.cms.payment.domain.command.RefundCommand;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
 import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
 import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.domain.response.CallbackResult;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.ResellerPaymentSummaryEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.TransactionRollupEntity;
+import com.bytz.modules.cms.payment.infrastructure.search.PaymentSearchCriteria;
+import com.bytz.modules.cms.payment.infrastructure.search.PaymentSearchResult;
 import com.bytz.modules.cms.payment.interfaces.model.*;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -90,7 +106,13 @@ public interface PaymentAssembler {
      * @return 待支付金额
      */
     default BigDecimal calculatePendingAmount(PaymentEntity entity) {
-        if (entity == null || entity.getPaymentAmount() == null || entity.getPaidAmount() == null) {
+        if (entity == null) {
+            return BigDecimal.ZERO;
+        }
+        if (entity.getPendingAmount() != null) {
+            return entity.getPendingAmount();
+        }
+        if (entity.getPaymentAmount() == null || entity.getPaidAmount() == null) {
             return BigDecimal.ZERO;
         }
         return entity.getPaymentAmount().subtract(entity.getPaidAmount());
@@ -123,6 +145,47 @@ public interface PaymentAssembler {
     }
 
 
+    /**
+     * ExecuteRefundCommand转换为领域退款命令
+     *
+     * @param command 执行退款命令
+     * @return 领域退款命令
+     */
+    @Mapping(target = "businessOrderId", source = "refundOrderId")
+    RefundCommand toRefundCommand(ExecuteRefundCommand command);
+
+    /**
+     * BulkTransitionPaymentCommand转换为领域批量状态迁移命令
+     *
+     * @param command 批量状态迁移支付单命令
+     * @return 领域批量状态迁移命令
+     */
+    BulkStatusTransitionCommand toBulkStatusTransitionCommand(BulkTransitionPaymentCommand command);
+
+    /**
+     * 批量回调项转换为回调命令
+     *
+     * @param items 批量回调项列表
+     * @return 回调命令列表
+     */
+    List<PaymentCallbackCommand> toCallbackCommands(List<BatchCallbackRO.CallbackItem> items);
+
+    /**
+     * ChannelRecordCallbackRO转换为ChannelRecordCallbackCommand
+     *
+     * @param ro 渠道支付记录回调请求对象
+     * @return 渠道支付记录回调命令
+     */
+    ChannelRecordCallbackCommand toChannelRecordCallbackCommand(ChannelRecordCallbackRO ro);
+
+    /**
+     * 回调处理结果转换为响应结果项
+     *
+     * @param results 回调处理结果列表
+     * @return 回调结果项列表
+     */
+    List<BatchCallbackResultVO.CallbackResultItem> toCallbackResultItems(List<CallbackResult> results);
+
     /**
      * CancelPaymentRO转换为CancelPaymentCommand
      *
@@ -138,4 +201,92 @@ public interface PaymentAssembler {
                 .reason(ro.getReason())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * PaymentSearchRO转换为SearchPaymentsCommand
+     *
+     * @param ro 组合查询请求对象
+     * @return 组合查询命令
+     */
+    SearchPaymentsCommand toSearchCommand(PaymentSearchRO ro);
+
+    /**
+     * SearchPaymentsCommand转换为组合查询条件（规划结果由规划器填写）
+     *
+     * @param command 组合查询命令
+     * @return 组合查询条件
+     */
+    @Mapping(target = "index", ignore = true)
+    @Mapping(target = "cursorTime", ignore = true)
+    @Mapping(target = "cursorId", ignore = true)
+    @Mapping(target = "limit", ignore = true)
+    PaymentSearchCriteria toSearchCriteria(SearchPaymentsCommand command);
+
+    /**
+     * 组合查询结果转换为响应对象
+     *
+     * @param result 组合查询结果
+     * @return 组合查询响应对象
+     */
+    default PaymentSearchResultVO toSearchResultVO(PaymentSearchResult result) {
+        return PaymentSearchResultVO.builder()
+                .items(entitiesToVOs(result.getItems()))
+                .nextCursor(result.getNextCursor())
+                .total(result.getTotal())
+                .build();
+    }
+
+    /**
+     * 流水汇总行列表转换为流水汇总响应对象列表
+     *
+     * @param rollups 流水汇总行列表
+     * @return 流水汇总响应对象列表
+     */
+    List<TransactionRollupVO> toTransactionRollupVOs(List<TransactionRollupEntity> rollups);
+
+    /**
+     * 经销商汇总行转换为汇总响应对象
+     * 按币种合计；待支付金额不计已取消、已停止的支付单；支付单数为0的状态行不输出
+     *
+     * @param resellerId 经销商ID
+     * @param rows       汇总行（按币种、状态排序）
+     * @return 经销商支付汇总响应对象
+     */
+    default ResellerPaymentSummaryVO toResellerSummaryVO(String resellerId, List<ResellerPaymentSummaryEntity> rows) {
+        Map<String, ResellerPaymentSummaryVO.CurrencySummary> byCurrency = new LinkedHashMap<>();
+        for (ResellerPaymentSummaryEntity row : rows) {
+            if (row.getPaymentCount() == null || row.getPaymentCount() == 0) {
+                continue;
+            }
+            ResellerPaymentSummaryVO.CurrencySummary summary = byCurrency.computeIfAbsent(row.getCurrency(),
+                    currency -> ResellerPaymentSummaryVO.CurrencySummary.builder()
+                            .currency(currency)
+                            .paymentCount(0L)
+                            .paymentAmount(BigDecimal.ZERO)
+                            .paidAmount(BigDecimal.ZERO)
+                            .refundedAmount(BigDecimal.ZERO)
+                            .outstandingAmount(BigDecimal.ZERO)
+                            .statuses(new ArrayList<>())
+                            .build());
+            summary.setPaymentCount(summary.getPaymentCount() + row.getPaymentCount());
+            summary.setPaymentAmount(summary.getPaymentAmount().add(row.getPaymentAmount()));
+            summary.setPaidAmount(summary.getPaidAmount().add(row.getPaidAmount()));
+            summary.setRefundedAmount(summary.getRefundedAmount().add(row.getRefundedAmount()));
+            if (row.getPaymentStatus() != PaymentStatus.CANCELED && row.getPaymentStatus() != PaymentStatus.STOPPED) {
+                summary.setOutstandingAmount(summary.getOutstandingAmount()
+                        .add(row.getPaymentAmount().subtract(row.getPaidAmount())));
+            }
+            summary.getStatuses().add(ResellerPaymentSummaryVO.StatusSummary.builder()
+                    .paymentStatus(row.getPaymentStatus())
+                    .paymentCount(row.getPaymentCount())
+                    .paymentAmount(row.getPaymentAmount())
+                    .paidAmount(row.getPaidAmount())
+                    .refundedAmount(row.getRefundedAmount())
+                    .build());
+        }
+        return ResellerPaymentSummaryVO.builder()
+                .resellerId(resellerId)
+                .currencies(new ArrayList<>(byCurrency.values()))
+                .build();
+    }
+}
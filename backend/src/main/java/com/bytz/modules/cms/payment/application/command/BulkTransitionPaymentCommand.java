@@ -0,0 +1,47 @@
+package com.bytz.modules.cms.payment.application.command;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentScope;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatusTransition;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * 批量状态迁移支付单命令
+ * Bulk Transition Payment Command
+ * 
+ * 用于封装按订单/经销商/关联业务批量取消、冻结、停止支付单的请求参数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransitionPaymentCommand {
+    
+    /**
+     * 状态迁移（必填）
+     */
+    @NotNull
+    private PaymentStatusTransition transition;
+    
+    /**
+     * 范围维度（必填）
+     */
+    @NotNull
+    private PaymentScope scope;
+    
+    /**
+     * 范围ID：订单号/经销商ID/关联业务ID（必填）
+     */
+    @NotBlank
+    private String scopeId;
+    
+    /**
+     * 迁移原因（可选）
+     */
+    private String reason;
+}
@@ -0,0 +1,65 @@
+package com.bytz.modules.cms.payment.application.command;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RollupGranularity;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * 查询流水汇总命令
+ * Query Transaction Rollup Command
+ * 
+ * 按时间范围和可选维度查询流水小时/日汇总
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryTransactionRollupCommand {
+    
+    /**
+     * 汇总粒度（必填）
+     */
+    @NotNull
+    private RollupGranularity granularity;
+    
+    /**
+     * 起始时间（含，必填），按桶起点比较
+     */
+    @NotNull
+    private LocalDateTime from;
+    
+    /**
+     * 结束时间（不含，必填），按桶起点比较
+     */
+    @NotNull
+    private LocalDateTime to;
+    
+    /**
+     * 支付渠道（可选）
+     */
+    private PaymentChannel paymentChannel;
+    
+    /**
+     * 支付类型（可选）
+     */
+    private PaymentType paymentType;
+    
+    /**
+     * 流水类型（可选）
+     */
+    private TransactionType transactionType;
+    
+    /**
+     * 流水状态（可选）
+     */
+    private TransactionStatus transactionStatus;
+}
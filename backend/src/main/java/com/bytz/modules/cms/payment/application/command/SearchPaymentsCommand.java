@@ -0,0 +1,92 @@
+package com.bytz.modules.cms.payment.application.command;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RelatedBusinessType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * 支付单组合查询命令
+ * Search Payments Command
+ * 
+ * 条件须能命中组合索引之一：经销商ID；或有界的创建时间范围（可附加关联业务类型）；
+ * 或支付状态 + 有界的支付截止时间范围。时间范围均为左闭右开
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPaymentsCommand {
+    
+    /**
+     * 经销商ID（可选）
+     */
+    private String resellerId;
+    
+    /**
+     * 支付状态集合（可选）
+     */
+    private Set<PaymentStatus> statuses;
+    
+    /**
+     * 支付类型（可选）
+     */
+    private PaymentType paymentType;
+    
+    /**
+     * 关联业务类型（可选）
+     */
+    private RelatedBusinessType relatedBusinessType;
+    
+    /**
+     * 最小支付金额（含，可选）
+     */
+    private BigDecimal minAmount;
+    
+    /**
+     * 最大支付金额（含，可选）
+     */
+    private BigDecimal maxAmount;
+    
+    /**
+     * 创建时间起（含，可选）
+     */
+    private LocalDateTime createFrom;
+    
+    /**
+     * 创建时间止（不含，可选）
+     */
+    private LocalDateTime createTo;
+    
+    /**
+     * 支付截止时间起（含，可选）
+     */
+    private LocalDateTime deadlineFrom;
+    
+    /**
+     * 支付截止时间止（不含，可选）
+     */
+    private LocalDateTime deadlineTo;
+    
+    /**
+     * 上一页返回的游标，首页为空
+     */
+    private String cursor;
+    
+    /**
+     * 每页条数（可选）
+     */
+    private Integer pageSize;
+    
+    /**
+     * 是否返回总数
+     */
+    private boolean includeTotal;
+}
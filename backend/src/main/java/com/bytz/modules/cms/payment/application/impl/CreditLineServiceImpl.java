@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.application.impl;
+
+import com.bytz.modules.cms.payment.application.CreditLineService;
+import com.bytz.modules.cms.payment.infrastructure.credit.CreditBalance;
+import com.bytz.modules.cms.payment.infrastructure.credit.CreditLedger;
+import com.bytz.modules.cms.payment.interfaces.model.CreditLineVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+
+/**
+ * 信用额度服务实现
+ * Credit Line Service Implementation
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CreditLineServiceImpl implements CreditLineService {
+
+    private final CreditLedger creditLedger;
+
+    @Override
+    public CreditLineVO getCreditLine(String resellerId) {
+        return toVO(creditLedger.balance(resellerId));
+    }
+
+    @Override
+    public CreditLineVO setCreditLimit(String resellerId, BigDecimal creditLimit) {
+        log.info("设定经销商信用额度，经销商ID: {}, 信用额度: {}", resellerId, creditLimit);
+        return toVO(creditLedger.setLimit(resellerId, creditLimit));
+    }
+
+    private static CreditLineVO toVO(CreditBalance balance) {
+        return CreditLineVO.builder()
+                .resellerId(balance.getResellerId())
+                .creditLimit(balance.getCreditLimit())
+                .usedAmount(balance.getUsedAmount())
+                .reservedAmount(balance.getReservedAmount())
+                .availableAmount(balance.getAvailableAmount())
+                .build();
+    }
+}
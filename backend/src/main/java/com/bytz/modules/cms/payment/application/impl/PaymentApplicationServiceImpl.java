@@ -2,32 +2,46 @@ package com.bytz.modules.cms.payment.application.impl;
 
 import com.bytz.modules.cms.payment.application.IPaymentApplicationService;
 import com.bytz.modules.cms.payment.application.assembler.PaymentAssembler;
+import com.bytz.modules.cms.payment.application.command.BulkTransitionPaymentCommand;
 import com.bytz.modules.cms.payment.application.command.CancelPaymentCommand;
 import com.bytz.modules.cms.payment.application.command.CreatePaymentCommand;
 import com.bytz.modules.cms.payment.application.command.ExecutePaymentCommand;
 import com.bytz.modules.cms.payment.application.command.ExecuteRefundCommand;
 import com.bytz.modules.cms.payment.domain.PaymentCodeGenerator;
 import com.bytz.modules.cms.payment.domain.PaymentDomainService;
+import com.bytz.modules.cms.payment.domain.command.ChannelRecordCallbackCommand;
+import com.bytz.modules.cms.payment.domain.command.PaymentCallbackCommand;
 import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
 import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
 import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
 import com.bytz.modules.cms.payment.domain.repository.IPaymentChannelService;
 import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.domain.response.CallbackResult;
+import com.bytz.modules.cms.payment.domain.response.RefundResult;
+import com.bytz.modules.cms.payment.infrastructure.config.ExecutionProperties;
 import com.bytz.modules.cms.payment.interfaces.model.PaymentVO;
 import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import com.bytz.modules.cms.payment.shared.model.PaymentBatchCreatedEvent;
+import com.bytz.modules.cms.payment.shared.model.PaymentBatchStatusChangedEvent;
 import com.bytz.modules.cms.payment.shared.model.PaymentCreatedEvent;
 import com.bytz.modules.cms.payment.shared.model.RefundExecutedEvent;
+import com.bytz.modules.cms.payment.shared.util.GroupCommitter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.PostConstruct;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 /**
@@ -60,24 +74,124 @@ public class PaymentApplicationServiceImpl implements IPaymentApplicationService
 
     private final PaymentCodeGenerator paymentCodeGenerator;
 
+    // 渠道调用执行器（平台线程池或虚拟线程，见ExecutionConfig）
+    private final ExecutorService channelCallExecutor;
+
+    private final ExecutionProperties executionProperties;
+
     // MapStruct 转换器：Domain ↔ DTO
     private final PaymentAssembler paymentAssembler;
 
+    private final Validator validator;
+
+    // 创建支付单组提交器（payment.group-commit.enabled 开启时存在，见GroupCommitConfig）
+    private final ObjectProvider<GroupCommitter<PaymentAggregate, PaymentAggregate>> paymentCreateCommitter;
+
     /**
      * 创建支付单（实现内部接口）
      * <p>
      * 此方法应该由系统内部调用（如订单系统、信用管理系统等），不应该通过外部REST接口调用
+     * <p>
+     * 不在外层开启事务：持久化本身在独立事务中提交（save为REQUIRES_NEW，组提交时由刷写线程提交），
+     * 外层事务只会空占一个连接，组提交等待期间还可能耗尽连接池
      *
      * @param command 创建支付单命令
      * @return 支付单DTO
      */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public PaymentVO createPayment(@Validated CreatePaymentCommand command) {
         log.info("创建支付单，订单号: {}, 支付类型: {}", command.getOrderId(), command.getPaymentType());
 
 
-        // 创建支付单聚合根
+        // 创建支付单聚合根，设置支付单号和审计信息
+        PaymentAggregate payment = newPayment(command, paymentCodeGenerator.generatePaymentCode());
+
+        // 持久化（开启组提交时与并发的创建请求合并为一次批量写入）
+        GroupCommitter<PaymentAggregate, PaymentAggregate> committer = paymentCreateCommitter.getIfAvailable();
+        payment = committer != null ? awaitGroupCommit(committer, payment) : paymentRepository.save(payment);
+
+        // 发布支付单已创建事件
+        publishPaymentCreatedEvent(payment);
+
+        log.info("支付单创建成功，支付单号: {}", payment.getCode());
+        // 返回 DTO（由 MapStruct 转换）
+        return paymentAssembler.toVO(payment);
+    }
+
+    /**
+     * 批量创建支付单（实现内部接口）
+     * <p>
+     * 不在外层开启事务：全部支付单一次saveAll，每个分片一个事务，分片内全部写入或全部不写入，
+     * 未分片部署时整批原子提交。分片部署时某个分片写入失败，之前的分片已提交：
+     * 为已提交的支付单补发批量创建事件后再抛出异常，不会出现已落库却无事件的支付单
+     *
+     * @param commands 创建支付单命令列表
+     * @return 支付单DTO列表
+     */
+    @Override
+    public List<PaymentVO> createPayments(List<CreatePaymentCommand> commands) {
+        log.info("批量创建支付单，数量: {}", commands.size());
+        if (commands.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 一次遍历校验全部命令，汇总所有错误后整体拒绝
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            for (ConstraintViolation<CreatePaymentCommand> violation : validator.validate(commands.get(i))) {
+                errors.add(String.format("第%d项: %s", i + 1, violation.getMessage()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("批量创建支付单参数校验失败: " + String.join("; ", errors));
+        }
+
+        // 批量分配支付单号
+        List<String> codes = paymentCodeGenerator.generatePaymentCodes(commands.size());
+        List<PaymentAggregate> payments = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            payments.add(newPayment(commands.get(i), codes.get(i)));
+        }
+
+        // 批量写入（每个分片一个事务）
+        try {
+            paymentRepository.saveAll(payments);
+        } catch (RuntimeException e) {
+            try {
+                publishCommittedPayments(payments);
+            } catch (RuntimeException lookupFailure) {
+                e.addSuppressed(lookupFailure);
+            }
+            throw e;
+        }
+
+        publishPaymentBatchCreatedEvent(payments);
+
+        log.info("批量创建支付单成功，数量: {}", payments.size());
+        return payments.stream()
+                .map(paymentAssembler::toVO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 提交到组提交器并等待本条写入完成，批量写入的异常原样抛出
+     */
+    private static PaymentAggregate awaitGroupCommit(
+            GroupCommitter<PaymentAggregate, PaymentAggregate> committer, PaymentAggregate payment) {
+        try {
+            return committer.submit(payment).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PaymentException("支付单写入失败", e.getCause());
+        }
+    }
+
+    /**
+     * 根据创建命令构建新支付单聚合根
+     */
+    private static PaymentAggregate newPayment(CreatePaymentCommand command, String code) {
         PaymentAggregate payment = PaymentAggregate.create(
                 command.getOrderId(),
                 command.getResellerId(),
@@ -90,19 +204,8 @@ public class PaymentApplicationServiceImpl implements IPaymentApplicationService
                 command.getRelatedBusinessType(),
                 command.getBusinessExpireDate()
         );
-
-        // 设置支付单号和审计信息
-        payment.setCode(paymentCodeGenerator.generatePaymentCode());
-
-        // 持久化
-        payment = paymentRepository.save(payment);
-
-        // 发布支付单已创建事件
-        publishPaymentCreatedEvent(payment);
-
-        log.info("支付单创建成功，支付单号: {}", payment.getCode());
-        // 返回 DTO（由 MapStruct 转换）
-        return paymentAssembler.toVO(payment);
+        payment.setCode(code);
+        return payment;
     }
 
 
@@ -139,6 +242,38 @@ public class PaymentApplicationServiceImpl implements IPaymentApplicationService
     }
 
 
+    /**
+     * 按范围批量执行状态迁移
+     * <p>
+     * 不加外层事务：仓储按分片分批提交，每批一个短事务
+     *
+     * @param command 批量状态迁移支付单命令
+     * @return 实际变更的支付单ID列表
+     */
+    @Override
+    public List<String> transitionPayments(@Validated BulkTransitionPaymentCommand command) {
+        // 参数验证
+        if (command.getTransition() == null || command.getScope() == null) {
+            throw new IllegalArgumentException("状态迁移和范围维度不能为空");
+        }
+        if (command.getScopeId() == null || command.getScopeId().trim().isEmpty()) {
+            throw new IllegalArgumentException("范围ID不能为空");
+        }
+        log.info("开始批量{}支付单，范围: {} {}, 原因: {}", command.getTransition().getDescription(),
+                command.getScope().getDescription(), command.getScopeId(), command.getReason());
+
+        List<String> paymentIds = paymentRepository.transitionStatus(paymentAssembler.toBulkStatusTransitionCommand(command));
+
+        if (!paymentIds.isEmpty()) {
+            eventPublisher.publishEvent(new PaymentBatchStatusChangedEvent(this, UUID.randomUUID().toString(),
+                    command.getTransition(), command.getScope(), command.getScopeId(), command.getReason(),
+                    paymentIds, LocalDateTime.now()));
+        }
+
+        log.info("批量{}支付单完成，变更数量: {}", command.getTransition().getDescription(), paymentIds.size());
+        return paymentIds;
+    }
+
     /**
      * 执行批量支付（重构版 - 委托给领域服务）
      * <p>
@@ -148,12 +283,14 @@ public class PaymentApplicationServiceImpl implements IPaymentApplicationService
      * 3. 委托给领域服务执行
      * <p>
      * 业务逻辑已移至PaymentDomainService领域服务
+     * <p>
+     * 不在外层开启事务：逐单支付的渠道调用并发扇出，外层事务会在渠道IO期间占用连接；
+     * 合并支付由领域服务在事务中执行，逐单支付的支付单由仓储逐个保存
      *
      * @param command 执行支付命令
      * @return 渠道交易id
      */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public String executeBatchPayment(@Validated ExecutePaymentCommand command) {
         log.info("开始执行批量支付，支付单数量: {}, 支付渠道: {}",
                 command.getPaymentItems().size(), command.getPaymentChannel());
@@ -203,29 +340,28 @@ public class PaymentApplicationServiceImpl implements IPaymentApplicationService
         Map<String, BigDecimal> allocatedAmounts = command.getPaymentItems().stream()
                 .collect(Collectors.toMap(ExecutePaymentCommand.PaymentItem::getPaymentId, ExecutePaymentCommand.PaymentItem::getAmount));
 
+        String channelRecordId;
         if (batchPay) {
-
+            // 渠道支持合并支付：一次渠道调用
+            channelRecordId = domainService.executeUnifiedPayment(
+                    payments,
+                    allocatedAmounts,
+                    paymentChannelService,
+                    resellerId
+            );
         } else {
-            payments.forEach(payment ->
-                    domainService.executeSinglePayment(payment,
-                            paymentChannelService,
-                            allocatedAmounts.get(payment.getId()),
-                            null, // todo: 增加支付订单信息
-                            resellerId
-
-                    )
+            // 渠道不支持合并支付：逐单渠道调用并发扇出
+            List<String> channelRecordIds = domainService.executeSinglePayments(
+                    payments,
+                    allocatedAmounts,
+                    paymentChannelService,
+                    resellerId,
+                    channelCallExecutor,
+                    executionProperties.getChannelCallTimeout()
             );
+            channelRecordId = String.join(",", channelRecordIds);
         }
 
-
-        // 委托给领域服务执行
-        String channelRecordId = domainService.executeUnifiedPayment(
-                payments,
-                allocatedAmounts,
-                paymentChannelService,
-                resellerId
-        );
-
         log.info("批量支付执行完成，渠道交易id: {}", channelRecordId);
         return channelRecordId;
     }
@@ -239,28 +375,73 @@ public class PaymentApplicationServiceImpl implements IPaymentApplicationService
      * @return 退款流水号
      */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public String executeRefund(ExecuteRefundCommand command) {
         log.info("开始执行退款，支付单ID: {}, 退款金额: {}", command.getPaymentId(), command.getRefundAmount());
 
-        // 委托给领域服务处理
-        PaymentTransaction refundTransaction = domainService.executeRefund(
-                command.getPaymentId(),
-                command.getRefundAmount(),
-                command.getOriginalTransactionId(),
-                command.getRefundOrderId(),
-                command.getRefundReason()
-        );
+        // 与批量退款同一路径：一次加载、发起渠道退款请求、持久化
+        String refundTransactionId = executeRefunds(Collections.singletonList(command)).get(0);
 
-        // 查询支付单用于发布事件
-        PaymentAggregate payment = paymentRepository.findById(command.getPaymentId())
-                .orElseThrow(() -> new IllegalArgumentException("支付单不存在"));
+        log.info("退款执行成功，退款流水号: {}", refundTransactionId);
+        return refundTransactionId;
+    }
 
-        // 发布退款已执行事件
-        publishRefundExecutedEvent(payment, refundTransaction, command);
 
-        log.info("退款执行成功，退款流水号: {}", refundTransaction.getId());
-        return refundTransaction.getId();
+    /**
+     * 批量执行退款（实现内部接口）
+     * <p>
+     * 不在外层开启事务：渠道退款请求在持久化之前发起，外层事务会在渠道IO期间占用连接；
+     * 支付单由仓储批量保存（分片部署时每个分片一个事务）
+     *
+     * @param commands 执行退款命令列表
+     * @return 退款流水ID列表
+     */
+    @Override
+    public List<String> executeRefunds(List<ExecuteRefundCommand> commands) {
+        log.info("开始批量执行退款，数量: {}", commands.size());
+
+        List<RefundResult> results = domainService.executeRefunds(
+                commands.stream().map(paymentAssembler::toRefundCommand).collect(Collectors.toList()),
+                channelCallExecutor,
+                executionProperties.getChannelCallTimeout());
+
+        // 发布退款已执行事件（渠道即时完成的退款，流水此时已结算）
+        List<String> refundTransactionIds = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            RefundResult result = results.get(i);
+            PaymentTransaction refundTransaction = result.getRefundTransaction();
+            publishRefundExecutedEvent(result.getPayment(), refundTransaction, commands.get(i));
+            refundTransactionIds.add(refundTransaction.getId());
+        }
+
+        log.info("批量退款执行成功，数量: {}", refundTransactionIds.size());
+        return refundTransactionIds;
+    }
+
+
+    /**
+     * 批量处理渠道回调（实现内部接口）
+     * <p>
+     * 不在外层开启事务：回调登记逐项提交，支付单由仓储批量保存（分片部署时每个分片一个事务）
+     *
+     * @param commands 回调命令列表
+     * @return 逐项处理结果
+     */
+    @Override
+    public List<CallbackResult> processCallbacks(List<PaymentCallbackCommand> commands) {
+        log.info("开始批量处理渠道回调，数量: {}", commands.size());
+        return domainService.processCallbacks(commands);
+    }
+
+
+    /**
+     * 按渠道支付记录ID处理回调（实现内部接口）
+     *
+     * @param command 渠道支付记录回调命令
+     * @return 每个支付单的处理结果
+     */
+    @Override
+    public List<CallbackResult> processChannelRecordCallback(ChannelRecordCallbackCommand command) {
+        return domainService.processChannelRecordCallback(command);
     }
 
 
@@ -289,7 +470,44 @@ public class PaymentApplicationServiceImpl implements IPaymentApplicationService
      * 发布支付单已创建事件
      */
     private void publishPaymentCreatedEvent(PaymentAggregate payment) {
-        PaymentCreatedEvent event = new PaymentCreatedEvent(
+        eventPublisher.publishEvent(toPaymentCreatedEvent(payment));
+        log.info("已发布支付单创建事件，支付单号: {}", payment.getCode());
+    }
+
+    /**
+     * 批量写入失败时，为已提交分片上的支付单补发批量创建事件
+     * <p>
+     * 写入时按分片依次提交，ID在写入前分配：已分配ID的支付单按ID回查，查到的即已提交
+     */
+    private void publishCommittedPayments(List<PaymentAggregate> payments) {
+        List<String> assignedIds = payments.stream()
+                .map(PaymentAggregate::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (assignedIds.isEmpty()) {
+            return;
+        }
+        List<PaymentAggregate> committed = paymentRepository.findByIds(assignedIds);
+        log.warn("批量创建支付单部分分片写入失败，已提交数量: {}, 总数量: {}", committed.size(), payments.size());
+        if (!committed.isEmpty()) {
+            publishPaymentBatchCreatedEvent(committed);
+        }
+    }
+
+    /**
+     * 发布支付单批量已创建事件
+     */
+    private void publishPaymentBatchCreatedEvent(List<PaymentAggregate> payments) {
+        List<PaymentCreatedEvent> events = payments.stream()
+                .map(this::toPaymentCreatedEvent)
+                .collect(Collectors.toList());
+        eventPublisher.publishEvent(new PaymentBatchCreatedEvent(
+                this, UUID.randomUUID().toString(), events, LocalDateTime.now()));
+        log.info("已发布支付单批量创建事件，数量: {}", payments.size());
+    }
+
+    private PaymentCreatedEvent toPaymentCreatedEvent(PaymentAggregate payment) {
+        return new PaymentCreatedEvent(
                 this,
                 UUID.randomUUID().toString(),
                 payment.getCode(),
@@ -300,9 +518,6 @@ public class PaymentApplicationServiceImpl implements IPaymentApplicationService
                 payment.getRelatedBusinessId(),
                 payment.getCreateTime()
         );
-
-        eventPublisher.publishEvent(event);
-        log.info("已发布支付单创建事件，支付单号: {}", payment.getCode());
     }
 
     /**
@@ -1,25 +1,54 @@
 package com.bytz.modules.cms.payment.application.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.bytz.modules.cms.payment.application.PaymentQueryService;
+import com.bytz.modules.cms.payment.application.assembler.PaymentAssembler;
+import com.bytz.modules.cms.payment.application.command.QueryTransactionRollupCommand;
+import com.bytz.modules.cms.payment.application.command.SearchPaymentsCommand;
+import com.bytz.modules.cms.payment.domain.enums.RollupGranularity;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.ResellerPaymentSummaryEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.TransactionRollupEntity;
 import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.ResellerPaymentSummaryMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.TransactionRollupMapper;
+import com.bytz.modules.cms.payment.infrastructure.search.PayablePaymentReader;
+import com.bytz.modules.cms.payment.infrastructure.search.PaymentSearchResult;
+import com.bytz.modules.cms.payment.infrastructure.search.PaymentSearcher;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * 支付单查询服务实现
  * Payment Query Service Implementation
  * 
  * 实现CQRS模式，查询服务直通数据库层，继承MyBatis-Plus的ServiceImpl
+ * 本类声明的查询方法均为只读事务，开启读写分离时路由到从库；
+ * 开启分片时按单号/经销商定位分片，按订单号/关联业务向全部分片并行查询
+ * （各分片查询在散发线程上执行，由分片路由器传递只读路由，同样走各分片的从库）
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class PaymentQueryServiceImpl extends ServiceImpl<PaymentMapper, PaymentEntity> implements PaymentQueryService {
     
+    private final PaymentShardRouter shardRouter;
+    private final ResellerPaymentSummaryMapper summaryMapper;
+    private final TransactionRollupMapper rollupMapper;
+    private final PaymentSearcher paymentSearcher;
+    private final PayablePaymentReader payablePaymentReader;
+    private final PaymentAssembler paymentAssembler;
+    
     /**
      * 根据支付单号查询支付单
      * 
@@ -29,9 +58,9 @@ public class PaymentQueryServiceImpl extends ServiceImpl<PaymentMapper, PaymentE
     @Override
     public PaymentEntity getPaymentByCode(String paymentCode) {
         log.info("查询支付单，支付单号: {}", paymentCode);
-        LambdaQueryWrapper<PaymentEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentEntity::getCode, paymentCode);
-        return getOne(wrapper);
+        return shardRouter.shardOfPaymentCode(paymentCode)
+                .map(shard -> shardRouter.onShard(shard, () -> baseMapper.selectByCode(paymentCode)))
+                .orElse(null);
     }
     
     /**
@@ -43,9 +72,7 @@ public class PaymentQueryServiceImpl extends ServiceImpl<PaymentMapper, PaymentE
     @Override
     public List<PaymentEntity> getPaymentsByOrderId(String orderId) {
         log.info("根据订单号查询支付单列表，订单号: {}", orderId);
-        LambdaQueryWrapper<PaymentEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentEntity::getOrderId, orderId);
-        return list(wrapper);
+        return shardRouter.scatterGather(shard -> baseMapper.selectByOrderId(orderId));
     }
     
     /**
@@ -57,9 +84,8 @@ public class PaymentQueryServiceImpl extends ServiceImpl<PaymentMapper, PaymentE
     @Override
     public List<PaymentEntity> getPaymentsByResellerId(String resellerId) {
         log.info("根据经销商ID查询支付单列表，经销商ID: {}", resellerId);
-        LambdaQueryWrapper<PaymentEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentEntity::getResellerId, resellerId);
-        return list(wrapper);
+        return shardRouter.onShard(shardRouter.shardOfReseller(resellerId),
+                () -> baseMapper.selectByResellerId(resellerId));
     }
     
     /**
@@ -71,8 +97,93 @@ public class PaymentQueryServiceImpl extends ServiceImpl<PaymentMapper, PaymentE
     @Override
     public List<PaymentEntity> getPaymentsByRelatedBusinessId(String relatedBusinessId) {
         log.info("根据关联业务ID查询支付单列表，关联业务ID: {}", relatedBusinessId);
-        LambdaQueryWrapper<PaymentEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentEntity::getRelatedBusinessId, relatedBusinessId);
-        return list(wrapper);
+        return shardRouter.scatterGather(shard -> baseMapper.selectByRelatedBusinessId(relatedBusinessId));
+    }
+    
+    /**
+     * 支付单组合查询
+     * 
+     * @param command 组合查询命令
+     * @return 一页支付单、下一页游标、总数（按需）
+     */
+    @Override
+    public PaymentSearchResult searchPayments(SearchPaymentsCommand command) {
+        if (command == null) {
+            throw new IllegalArgumentException("查询条件不能为空");
+        }
+        log.info("支付单组合查询，条件: {}", command);
+        return paymentSearcher.search(paymentAssembler.toSearchCriteria(command));
+    }
+    
+    /**
+     * 查询经销商可支付的支付单
+     * 
+     * @param resellerId 经销商ID
+     * @param cursor     上一页返回的游标
+     * @param pageSize   每页条数
+     * @return 一页支付单与下一页游标
+     */
+    @Override
+    public PaymentSearchResult getPayablePayments(String resellerId, String cursor, Integer pageSize) {
+        log.info("查询经销商可支付支付单，经销商ID: {}", resellerId);
+        return payablePaymentReader.read(resellerId, cursor, pageSize);
+    }
+    
+    /**
+     * 查询经销商支付汇总
+     * 
+     * @param resellerId 经销商ID
+     * @return 汇总行
+     */
+    @Override
+    public List<ResellerPaymentSummaryEntity> getResellerSummary(String resellerId) {
+        log.info("查询经销商支付汇总，经销商ID: {}", resellerId);
+        return shardRouter.onShard(shardRouter.shardOfReseller(resellerId),
+                () -> summaryMapper.selectByResellerId(resellerId));
+    }
+    
+    /**
+     * 查询流水汇总
+     * 
+     * @param command 查询流水汇总命令
+     * @return 汇总行
+     */
+    @Override
+    public List<TransactionRollupEntity> getTransactionRollups(QueryTransactionRollupCommand command) {
+        if (command == null || command.getGranularity() == null || command.getFrom() == null || command.getTo() == null) {
+            throw new IllegalArgumentException("汇总粒度与起止时间不能为空");
+        }
+        if (!command.getFrom().isBefore(command.getTo())) {
+            throw new IllegalArgumentException("起始时间必须早于结束时间");
+        }
+        log.info("查询流水汇总，粒度: {}, 时间范围: [{}, {})", command.getGranularity(), command.getFrom(), command.getTo());
+        List<TransactionRollupEntity> rows = shardRouter.scatterGather(shard ->
+                command.getGranularity() == RollupGranularity.HOUR
+                        ? rollupMapper.selectHourly(command.getFrom(), command.getTo(), command.getPaymentChannel(),
+                        command.getPaymentType(), command.getTransactionType(), command.getTransactionStatus())
+                        : rollupMapper.selectDaily(command.getFrom(), command.getTo(), command.getPaymentChannel(),
+                        command.getPaymentType(), command.getTransactionType(), command.getTransactionStatus()));
+        if (!shardRouter.isSharded()) {
+            return rows;
+        }
+        
+        // 各分片同一桶、同一维度的汇总行相加
+        Map<String, TransactionRollupEntity> merged = new TreeMap<>();
+        for (TransactionRollupEntity row : rows) {
+            String key = row.getBucketStart() + "\u0000" + row.getPaymentChannel() + '\u0000' + row.getPaymentType()
+                    + '\u0000' + row.getTransactionType() + '\u0000' + row.getTransactionStatus() + '\u0000' + row.getCurrency();
+            merged.merge(key, row, (left, right) -> {
+                left.setTransactionCount(left.getTransactionCount() + right.getTransactionCount());
+                left.setTotalAmount(left.getTotalAmount().add(right.getTotalAmount()));
+                if (right.getUpdateTime() != null
+                        && (left.getUpdateTime() == null || right.getUpdateTime().isAfter(left.getUpdateTime()))) {
+                    left.setUpdateTime(right.getUpdateTime());
+                }
+                return left;
+            });
+        }
+        List<TransactionRollupEntity> result = new ArrayList<>(merged.values());
+        result.sort(Comparator.comparing(TransactionRollupEntity::getBucketStart));
+        return result;
     }
 }
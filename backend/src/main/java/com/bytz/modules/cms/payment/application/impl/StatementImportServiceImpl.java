@@ -0,0 +1,111 @@
+package com.bytz.modules.cms.payment.application.impl;
+
+import com.bytz.modules.cms.payment.application.StatementImportService;
+import com.bytz.modules.cms.payment.domain.PaymentDomainService;
+import com.bytz.modules.cms.payment.domain.command.WireTransferSettlementCommand;
+import com.bytz.modules.cms.payment.domain.enums.CallbackOutcome;
+import com.bytz.modules.cms.payment.domain.enums.StatementMatchType;
+import com.bytz.modules.cms.payment.domain.response.CallbackResult;
+import com.bytz.modules.cms.payment.infrastructure.config.WireTransferProperties;
+import com.bytz.modules.cms.payment.infrastructure.statement.StatementLine;
+import com.bytz.modules.cms.payment.infrastructure.statement.StatementMatch;
+import com.bytz.modules.cms.payment.infrastructure.statement.StatementMatchResult;
+import com.bytz.modules.cms.payment.infrastructure.statement.StatementMatchingEngine;
+import com.bytz.modules.cms.payment.interfaces.model.StatementImportResultVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 电汇对账单导入服务实现
+ * Statement Import Service Implementation
+ * <p>
+ * 匹配引擎只读；匹配结果按 settleBatchSize 分批交给领域服务结算（每批一次加载、一次批量写入），
+ * 与批量回调一样不在外层开启事务
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatementImportServiceImpl implements StatementImportService {
+
+    private final StatementMatchingEngine matchingEngine;
+    private final PaymentDomainService domainService;
+    private final WireTransferProperties properties;
+
+    @Override
+    public StatementImportResultVO importStatement(String fileName) {
+        log.info("开始导入电汇对账单，文件: {}", fileName);
+        long start = System.nanoTime();
+
+        StatementMatchResult matchResult = matchingEngine.match(fileName);
+
+        // 每个支付单一条结算命令（合并匹配的一笔到账拆为多条）
+        List<WireTransferSettlementCommand> commands = new ArrayList<>();
+        Map<StatementMatchType, Integer> matchedByType = new EnumMap<>(StatementMatchType.class);
+        for (StatementMatch match : matchResult.getMatches()) {
+            matchedByType.merge(match.getMatchType(), 1, Integer::sum);
+            StatementLine line = match.getLine();
+            for (StatementMatch.Allocation allocation : match.getAllocations()) {
+                commands.add(WireTransferSettlementCommand.builder()
+                        .paymentId(allocation.getPaymentId())
+                        .amount(allocation.getAmount())
+                        .bankReference(line.getReference())
+                        .valueTime(line.getValueDate().atStartOfDay())
+                        .remark("电汇到账（" + match.getMatchType().getDescription() + "）: " + line.getReference())
+                        .build());
+            }
+        }
+
+        // 分批结算
+        List<CallbackResult> results = new ArrayList<>(commands.size());
+        int batchSize = properties.getSettleBatchSize();
+        for (int from = 0; from < commands.size(); from += batchSize) {
+            results.addAll(domainService.settleWireTransfers(
+                    commands.subList(from, Math.min(from + batchSize, commands.size()))));
+        }
+
+        Map<CallbackOutcome, Long> outcomes = results.stream()
+                .collect(Collectors.groupingBy(CallbackResult::getOutcome, () -> new EnumMap<>(CallbackOutcome.class),
+                        Collectors.counting()));
+        StatementImportResultVO vo = StatementImportResultVO.builder()
+                .fileName(fileName)
+                .totalLines(matchResult.getTotalLines())
+                .exactMatched(matchedByType.getOrDefault(StatementMatchType.EXACT, 0))
+                .toleranceMatched(matchedByType.getOrDefault(StatementMatchType.TOLERANCE, 0))
+                .manyToOneMatched(matchedByType.getOrDefault(StatementMatchType.MANY_TO_ONE, 0))
+                .unmatched(matchResult.getUnmatched().size())
+                .duplicateLines(matchResult.getDuplicates().size())
+                .settledPayments(outcomes.getOrDefault(CallbackOutcome.PROCESSED, 0L).intValue())
+                .duplicatePayments(outcomes.getOrDefault(CallbackOutcome.DUPLICATE, 0L).intValue())
+                .failedPayments(results.size()
+                        - outcomes.getOrDefault(CallbackOutcome.PROCESSED, 0L).intValue()
+                        - outcomes.getOrDefault(CallbackOutcome.DUPLICATE, 0L).intValue())
+                .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+                .unmatchedReferences(matchResult.getUnmatched().stream()
+                        .limit(properties.getMaxReportedUnmatched())
+                        .map(StatementLine::getReference)
+                        .collect(Collectors.toList()))
+                .failures(results.stream()
+                        .filter(result -> result.getOutcome() == CallbackOutcome.FAILED
+                                || result.getOutcome() == CallbackOutcome.NOT_FOUND)
+                        .map(result -> StatementImportResultVO.FailureItem.builder()
+                                .reference(result.getChannelTransactionNumber())
+                                .paymentId(result.getPaymentId())
+                                .outcome(result.getOutcome())
+                                .message(result.getMessage())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+
+        log.info("电汇对账单导入完成，文件: {}, 到账行数: {}, 结算支付单: {}, 重复: {}, 失败: {}, 未匹配到账: {}, 耗时: {}ms",
+                fileName, vo.getTotalLines(), vo.getSettledPayments(), vo.getDuplicatePayments(),
+                vo.getFailedPayments(), vo.getUnmatched(), vo.getElapsedMillis());
+        return vo;
+    }
+}
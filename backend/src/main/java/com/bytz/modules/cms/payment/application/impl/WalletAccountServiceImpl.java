@@ -0,0 +1,43 @@
+package com.bytz.modules.cms.payment.application.impl;
+
+import com.bytz.modules.cms.payment.application.WalletAccountService;
+import com.bytz.modules.cms.payment.infrastructure.wallet.WalletBalance;
+import com.bytz.modules.cms.payment.infrastructure.wallet.WalletService;
+import com.bytz.modules.cms.payment.interfaces.model.WalletBalanceVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+
+/**
+ * 钱包账户服务实现
+ * Wallet Account Service Implementation
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WalletAccountServiceImpl implements WalletAccountService {
+
+    private final WalletService walletService;
+
+    @Override
+    public WalletBalanceVO getBalance(String resellerId) {
+        return toVO(walletService.balance(resellerId));
+    }
+
+    @Override
+    public WalletBalanceVO deposit(String resellerId, BigDecimal amount) {
+        log.info("钱包充值，经销商ID: {}, 金额: {}", resellerId, amount);
+        return toVO(walletService.deposit(resellerId, amount));
+    }
+
+    private static WalletBalanceVO toVO(WalletBalance balance) {
+        return WalletBalanceVO.builder()
+                .resellerId(balance.getResellerId())
+                .balance(balance.getBalance())
+                .heldAmount(balance.getHeldAmount())
+                .availableAmount(balance.getAvailableAmount())
+                .build();
+    }
+}
@@ -1,24 +1,52 @@
 package com.bytz.modules.cms.payment.domain;
 
+import com.bytz.modules.cms.payment.domain.command.ChannelRecordCallbackCommand;
+import com.bytz.modules.cms.payment.domain.command.CreateRefundRequestCommand;
+import com.bytz.modules.cms.payment.domain.command.PaymentCallbackCommand;
+import com.bytz.modules.cms.payment.domain.command.RefundCommand;
 import com.bytz.modules.cms.payment.domain.command.StartPaymentCommand;
+import com.bytz.modules.cms.payment.domain.command.WireTransferSettlementCommand;
+import com.bytz.modules.cms.payment.domain.enums.CallbackOutcome;
 import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
 import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
 import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.domain.repository.ICallbackRecordRepository;
 import com.bytz.modules.cms.payment.domain.repository.IPaymentChannelService;
 import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.domain.response.CallbackResult;
+import com.bytz.modules.cms.payment.domain.response.RefundRequestResponse;
+import com.bytz.modules.cms.payment.domain.response.RefundResult;
 import com.bytz.modules.cms.payment.domain.response.StarPaymentResponse;
 import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import com.bytz.modules.cms.payment.shared.util.BatchTaskScope;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -42,6 +70,7 @@ import java.util.stream.Collectors;
 public class PaymentDomainService {
 
     private final IPaymentRepository paymentRepository;
+    private final ICallbackRecordRepository callbackRecordRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final List<IPaymentChannelService> paymentChannelServices;
 
@@ -56,26 +85,121 @@ public class PaymentDomainService {
             BigDecimal amount,
             String businessRemark,
             String resellerId) {
-        PaymentChannel channelType = paymentChannelService.getChannelType();
+        StartPaymentCommand command = prepareSinglePayment(payment, paymentChannelService, amount, businessRemark, resellerId);
+        StarPaymentResponse paymentResponse = paymentChannelService.starPaymentRequest(command);
+        return applySinglePaymentResponse(payment, command.getPaymentTransaction(), paymentResponse);
+    }
+
+    /**
+     * 逐单支付扇出：多个支付单分别向不支持合并支付的渠道发起支付
+     * <p>
+     * 领域校验、流水创建和持久化在调用线程完成；渠道调用通过异步接口在批量子任务作用域内并发执行，
+     * 持久化与尚未返回的渠道调用重叠。不在事务中执行：每个支付单由仓储在独立事务中保存，
+     * 渠道IO期间不占用事务与连接。任一渠道调用失败则取消其余调用并抛出异常；
+     * 抛出前先保存已返回但尚未落库的渠道受理结果（按顺序交付时排在失败项之后的也一并保存），
+     * 渠道已受理的支付不会因兄弟项失败而丢失流水。
+     *
+     * @param payments              支付单列表
+     * @param allocatedAmounts      每个支付单的分配金额（key为支付单ID）
+     * @param paymentChannelService 支付渠道服务
+     * @param resellerId            经销商ID
+     * @param channelCallExecutor   渠道调用执行器
+     * @param timeout               整个批次的渠道调用超时
+     * @return 渠道支付记录ID列表（与payments顺序一致）
+     */
+    public List<String> executeSinglePayments(
+            List<PaymentAggregate> payments,
+            Map<String, BigDecimal> allocatedAmounts,
+            IPaymentChannelService paymentChannelService,
+            String resellerId,
+            Executor channelCallExecutor,
+            Duration timeout) {
+        List<StartPaymentCommand> commands = payments.stream()
+                .map(payment -> prepareSinglePayment(payment, paymentChannelService,
+                        allocatedAmounts.get(payment.getId()), null, resellerId)) // todo: 增加支付订单信息
+                .collect(Collectors.toList());
+
+        // 渠道调用全部发起后按顺序逐个落库：前面的响应持久化时，后面的渠道调用仍在进行
+        List<String> channelPaymentRecordIds = new ArrayList<>(payments.size());
+        List<CompletableFuture<StarPaymentResponse>> calls = new ArrayList<>(commands.size());
+        boolean[] applied = new boolean[commands.size()];
+        try (BatchTaskScope<StarPaymentResponse> scope = new BatchTaskScope<>(channelCallExecutor)) {
+            for (StartPaymentCommand command : commands) {
+                CompletableFuture<StarPaymentResponse> call = paymentChannelService.starPaymentRequestAsync(
+                        command, channelCallExecutor);
+                calls.add(call);
+                scope.fork(call);
+            }
+            scope.joinInOrder(timeout, (response, index) -> {
+                applied[index] = true;
+                channelPaymentRecordIds.add(applySinglePaymentResponse(
+                        payments.get(index), commands.get(index).getPaymentTransaction(), response));
+            });
+        } catch (RuntimeException e) {
+            saveAcceptedResponses(payments, commands, calls, applied, e);
+            throw e;
+        }
+        return channelPaymentRecordIds;
+    }
+
+    /**
+     * 批次失败时保存已返回、尚未落库的渠道响应，单项保存失败记入原异常的suppressed后继续
+     */
+    private void saveAcceptedResponses(List<PaymentAggregate> payments, List<StartPaymentCommand> commands,
+                                       List<CompletableFuture<StarPaymentResponse>> calls, boolean[] applied,
+                                       RuntimeException failure) {
+        for (int i = 0; i < calls.size(); i++) {
+            CompletableFuture<StarPaymentResponse> call = calls.get(i);
+            if (applied[i] || !call.isDone() || call.isCompletedExceptionally()) {
+                continue;
+            }
+            try {
+                applySinglePaymentResponse(payments.get(i), commands.get(i).getPaymentTransaction(), call.join());
+                log.info("批次失败前保存已受理的渠道支付，支付单号: {}", payments.get(i).getCode());
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    private StartPaymentCommand prepareSinglePayment(
+            PaymentAggregate payment,
+            IPaymentChannelService paymentChannelService,
+            BigDecimal amount,
+            String businessRemark,
+            String resellerId) {
         validateCanPay(payment, amount);
-        PaymentTransaction paymentTransaction = payment.executePayment(channelType, amount, businessRemark);
-        StartPaymentCommand command = StartPaymentCommand.builder()
+        PaymentTransaction paymentTransaction = payment.executePayment(paymentChannelService.getChannelType(), amount, businessRemark);
+        return StartPaymentCommand.builder()
                 .amount(amount)
                 .resellerId(resellerId)
                 .paymentTransaction(paymentTransaction)
                 .build();
-        StarPaymentResponse paymentResponse = paymentChannelService.starPaymentRequest(command);
-        if (paymentResponse.getTransactionStatus() != null) {
-            paymentTransaction.setTransactionStatus(paymentResponse.getTransactionStatus());
-            paymentTransaction.setChannelTransactionNumber(paymentResponse.getChannelTransactionNumber());
-            paymentTransaction.setChannelPaymentRecordId(paymentResponse.getChannelPaymentRecordId());
-            paymentRepository.save(payment);
-            return paymentResponse.getChannelPaymentRecordId();
-        } else {
+    }
+
+    private String applySinglePaymentResponse(
+            PaymentAggregate payment,
+            PaymentTransaction paymentTransaction,
+            StarPaymentResponse paymentResponse) {
+        if (paymentResponse == null || paymentResponse.getTransactionStatus() == null) {
             throw new PaymentException("支付渠道异常");
         }
+        paymentTransaction.setTransactionStatus(paymentResponse.getTransactionStatus());
+        paymentTransaction.setChannelTransactionNumber(paymentResponse.getChannelTransactionNumber());
+        paymentTransaction.setChannelPaymentRecordId(paymentResponse.getChannelPaymentRecordId());
+        settleIfCompleted(payment, paymentResponse);
+        paymentRepository.save(payment);
+        return paymentResponse.getChannelPaymentRecordId();
     }
 
+    /**
+     * 渠道在支付请求中直接完成扣款（如信用账户）时，不再等待回调，随本次保存一并结算
+     */
+    private void settleIfCompleted(PaymentAggregate payment, StarPaymentResponse paymentResponse) {
+        if (paymentResponse.getTransactionStatus() == TransactionStatus.SUCCESS) {
+            payment.handlePaymentCallback(payment.getRunningTransaction().getCode(), true, LocalDateTime.now());
+        }
+    }
 
     /**
      * 根据支付单集合与分配金额执行一次统一支付（UC-PM-003/008），适用于所有支付类型
@@ -96,12 +220,16 @@ public class PaymentDomainService {
      * - 信用还款支付单（作为普通支付处理）
      * <p>
      * 用例来源：UC-PM-003步骤5-12、UC-PM-008步骤4-11
+     * <p>
+     * 在事务中执行：钱包冻结、信用额度预占等内部账务渠道的支付随事务提交确认、随事务回滚释放，
+     * 批量写入失败时不会出现已扣款却没有支付记录的情况
      *
      * @param payments              支付单列表
      * @param allocatedAmounts      每个支付单的分配金额（与payments列表一一对应）
      * @param paymentChannelService 支付渠道服务
      * @return 渠道支付记录ID
      */
+    @Transactional
     public String executeUnifiedPayment(
             List<PaymentAggregate> payments,
             Map<String, BigDecimal> allocatedAmounts,
@@ -132,8 +260,10 @@ public class PaymentDomainService {
                 runningTransaction.setTransactionStatus(paymentResponse.getTransactionStatus());
                 runningTransaction.setChannelTransactionNumber(paymentResponse.getChannelTransactionNumber());
                 runningTransaction.setChannelPaymentRecordId(paymentResponse.getChannelPaymentRecordId());
-                paymentRepository.save(payment);
+                settleIfCompleted(payment, paymentResponse);
             });
+            // 同批支付单同属一个经销商，一次批量写入：渠道支付记录ID要么全部落库，要么全部不落库
+            paymentRepository.saveAll(payments);
             log.info("统一支付执行完成，渠道支付记录ID: {}", paymentResponse.getChannelPaymentRecordId());
             return paymentResponse.getChannelPaymentRecordId();
         } else {
@@ -304,66 +434,171 @@ public class PaymentDomainService {
     // ==================== 退款相关方法 ====================
 
     /**
-     * 按策略选择流水并下发渠道退款（UC-PM-006）
-     * <p>
-     * 处理流程：
-     * 1. 接收退款指令
-     * 2. 验证退款前置条件
-     * 3. 选择退款流水（最新流水/指定流水/多流水分摊）
-     * 4. 创建退款流水
-     * 5. 更新支付单状态
+     * 批量执行退款（UC-PM-006批量）
      * <p>
-     * 流水选择策略：
-     * - 指定流水退款：按指定的原支付流水ID退款
-     * - 最新流水退款：选择最新成功的支付流水退款
-     * - 多流水分摊退款：按比例分摊到多个支付流水（未实现）
+     * 1. 一次批量查询全部支付单
+     * 2. 一次遍历校验全部退款（任一不合法则整体拒绝，汇总全部错误）
+     * 3. 在内存中创建退款流水
+     * 4. 按原支付的渠道支付记录ID分组，每组向渠道发起一次退款请求（各组并发）
+     * 5. 一次批量写入全部支付单
+     * 6. 确认渠道在退款请求中即完成的退款（内部账务渠道此时退还额度/余额）
      * <p>
-     * 用例来源：UC-PM-006步骤1-8
+     * 统一支付的多个支付单共享同一渠道支付记录，退款时合并为一次渠道退款请求。
+     * 渠道响应状态为成功时（无回调）退款流水随本次保存一并结算，与支付的settleIfCompleted一致。
+     * 渠道退款请求全部成功后才持久化；渠道响应为空或缺少渠道退款记录ID时整批不持久化，
+     * 持久化失败时同样记录渠道退款记录ID以便对账。
      *
-     * @param paymentId             支付单ID
-     * @param refundAmount          退款金额
-     * @param originalTransactionId 原支付流水ID（指定流水退款时必填）
-     * @param businessOrderId       业务单号（退款单号）
-     * @param refundReason          退款原因
-     * @return 退款流水
-     * @throws PaymentException 如果退款失败
+     * @param commands            退款命令列表（同一支付单在一批内只能出现一次）
+     * @param channelCallExecutor 渠道调用执行器
+     * @param timeout             整个批次的渠道调用超时
+     * @return 退款执行结果（与命令顺序一致）
+     * @throws PaymentException 如果校验失败或渠道退款请求失败
      */
-    public PaymentTransaction executeRefund(
-            String paymentId,
-            BigDecimal refundAmount,
-            String originalTransactionId,
-            String businessOrderId,
-            String refundReason) {
-
-        log.info("开始执行退款，支付单ID: {}, 退款金额: {}, 原流水ID: {}",
-                paymentId, refundAmount, originalTransactionId);
-
-        // ========== 步骤1: 查询支付单 ==========
-        PaymentAggregate payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new PaymentException("支付单不存在: " + paymentId));
+    public List<RefundResult> executeRefunds(
+            List<RefundCommand> commands,
+            Executor channelCallExecutor,
+            Duration timeout) {
+        log.info("开始批量执行退款，数量: {}", commands.size());
+        if (commands.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        // ========== 步骤2: 验证退款前置条件 ==========
-        validateRefund(payment, refundAmount);
+        // ========== 步骤1: 批量查询支付单 ==========
+        List<String> paymentIds = commands.stream().map(RefundCommand::getPaymentId).collect(Collectors.toList());
+        Set<String> distinctIds = new LinkedHashSet<>(paymentIds);
+        if (distinctIds.size() != paymentIds.size()) {
+            throw new IllegalArgumentException("同一批次内支付单不能重复退款");
+        }
+        Map<String, PaymentAggregate> payments = paymentRepository.findByIds(new ArrayList<>(distinctIds)).stream()
+                .collect(Collectors.toMap(PaymentAggregate::getId, payment -> payment));
+
+        // ========== 步骤2: 一次遍历校验全部退款 ==========
+        List<String> errors = new ArrayList<>();
+        for (RefundCommand command : commands) {
+            PaymentAggregate payment = payments.get(command.getPaymentId());
+            if (payment == null) {
+                errors.add("支付单不存在: " + command.getPaymentId());
+                continue;
+            }
+            if (payment.getRunningTransaction() != null) {
+                errors.add(String.format("支付单 %s 存在处理中的流水", payment.getCode()));
+                continue;
+            }
+            try {
+                validateRefund(payment, command.getRefundAmount());
+            } catch (IllegalArgumentException | PaymentException e) {
+                errors.add(String.format("支付单 %s: %s", payment.getCode(), e.getMessage()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new PaymentException("批量退款校验失败: " + String.join("; ", errors));
+        }
 
-        // ========== 步骤3: 选择退款流水 ==========
-        String selectedTransactionId = selectRefundTransaction(
-                payment, originalTransactionId);
+        // ========== 步骤3: 创建退款流水并按原渠道支付记录分组 ==========
+        List<PaymentAggregate> ordered = new ArrayList<>(commands.size());
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        List<PaymentTransaction> originals = new ArrayList<>(commands.size());
+        List<PaymentTransaction> refundTransactions = new ArrayList<>(commands.size());
+        for (RefundCommand command : commands) {
+            PaymentAggregate payment = payments.get(command.getPaymentId());
+            String selectedTransactionId = selectRefundTransaction(payment, command.getOriginalTransactionId());
+            refundTransactions.add(payment.executeRefund(command.getRefundAmount(), selectedTransactionId,
+                    command.getBusinessOrderId(), command.getRefundReason()));
+            PaymentTransaction original = payment.findCompletedTransactionById(selectedTransactionId)
+                    .orElseThrow(() -> new PaymentException("未找到原支付流水: " + selectedTransactionId));
+            // 无渠道支付记录ID的历史流水单独成组
+            String groupKey = original.getChannelPaymentRecordId() != null
+                    ? original.getPaymentChannel() + "#" + original.getChannelPaymentRecordId()
+                    : "TXN#" + original.getId();
+            groups.computeIfAbsent(groupKey, key -> new ArrayList<>()).add(ordered.size());
+            ordered.add(payment);
+            originals.add(original);
+        }
 
-        log.info("选择退款流水: {}", selectedTransactionId);
+        // ========== 步骤4: 每组一次渠道退款请求 ==========
+        List<List<Integer>> groupMembers = new ArrayList<>(groups.values());
+        List<CreateRefundRequestCommand> requests = new ArrayList<>(groupMembers.size());
+        List<RefundRequestResponse> responses;
+        try (BatchTaskScope<RefundRequestResponse> scope = new BatchTaskScope<>(channelCallExecutor)) {
+            for (List<Integer> members : groupMembers) {
+                PaymentTransaction original = originals.get(members.get(0));
+                BigDecimal groupAmount = members.stream()
+                        .map(i -> commands.get(i).getRefundAmount())
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                CreateRefundRequestCommand request = CreateRefundRequestCommand.builder()
+                        .channelTransactionNumber(original.getChannelTransactionNumber())
+                        .originalChannelPaymentRecordId(original.getChannelPaymentRecordId())
+                        .refundAmount(groupAmount)
+                        .refundReason(commands.get(members.get(0)).getRefundReason())
+                        .resellerId(ordered.get(members.get(0)).getResellerId())
+                        .build();
+                requests.add(request);
+                scope.fork(findChannelService(original.getPaymentChannel())
+                        .createRefundRequestAsync(request, channelCallExecutor));
+            }
+            responses = scope.join(timeout);
+        }
+        List<String> invalidGroups = new ArrayList<>();
+        for (int g = 0; g < groupMembers.size(); g++) {
+            RefundRequestResponse response = responses.get(g);
+            if (response == null || response.getChannelPaymentRecordId() == null) {
+                invalidGroups.add(originals.get(groupMembers.get(g).get(0)).getChannelPaymentRecordId());
+            }
+        }
+        if (!invalidGroups.isEmpty()) {
+            // 渠道已受理但未返回退款记录，无法落库关联，其余组的退款同样不落库
+            log.error("渠道退款响应缺少渠道退款记录ID，需人工对账，原渠道支付记录ID: {}, 渠道退款记录ID: {}",
+                    invalidGroups, channelRefundRecordIds(responses));
+            throw new PaymentException("渠道退款响应异常，需人工对账");
+        }
+        LocalDateTime completeTime = LocalDateTime.now();
+        for (int g = 0; g < groupMembers.size(); g++) {
+            RefundRequestResponse response = responses.get(g);
+            for (Integer i : groupMembers.get(g)) {
+                PaymentTransaction refundTransaction = refundTransactions.get(i);
+                refundTransaction.setChannelPaymentRecordId(response.getChannelPaymentRecordId());
+                refundTransaction.setChannelTransactionNumber(response.getRefundTransactionNumber());
+                if (response.getTransactionStatus() == TransactionStatus.SUCCESS) {
+                    // 渠道在退款请求中直接完成退款，不再等待回调
+                    ordered.get(i).handleRefundCallback(refundTransaction.getCode(), true, completeTime);
+                }
+            }
+        }
 
-        // ========== 步骤4: 创建退款流水 ==========
-        PaymentTransaction refundTransaction = payment.executeRefund(
-                refundAmount,
-                selectedTransactionId,
-                businessOrderId,
-                refundReason
-        );
+        // ========== 步骤5: 批量持久化 ==========
+        try {
+            paymentRepository.saveAll(ordered);
+        } catch (RuntimeException e) {
+            log.error("渠道退款请求已提交但退款流水持久化失败，需人工对账，渠道退款记录ID: {}",
+                    channelRefundRecordIds(responses), e);
+            throw e;
+        }
 
-        // ========== 步骤5: 持久化 ==========
-        paymentRepository.save(payment);
+        // ========== 步骤6: 确认已完成的退款 ==========
+        for (int g = 0; g < groupMembers.size(); g++) {
+            RefundRequestResponse response = responses.get(g);
+            if (response.getTransactionStatus() != TransactionStatus.SUCCESS) {
+                continue;
+            }
+            try {
+                findChannelService(originals.get(groupMembers.get(g).get(0)).getPaymentChannel())
+                        .confirmRefund(requests.get(g), response);
+            } catch (RuntimeException e) {
+                // 退款流水已成功，确认以渠道退款记录ID幂等，可按该ID重新确认
+                log.error("退款流水已持久化但渠道确认退款失败，需人工对账，渠道退款记录ID: {}",
+                        response.getChannelPaymentRecordId(), e);
+            }
+        }
 
-        log.info("退款执行成功，退款流水号: {}", refundTransaction.getId());
-        return refundTransaction;
+        log.info("批量退款执行完成，退款数量: {}, 渠道退款请求数量: {}", commands.size(), groupMembers.size());
+        List<RefundResult> results = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            results.add(RefundResult.builder()
+                    .payment(ordered.get(i))
+                    .refundTransaction(refundTransactions.get(i))
+                    .build());
+        }
+        return results;
     }
 
     /**
@@ -409,45 +644,48 @@ public class PaymentDomainService {
      * <p>
      * 处理流程：
      * 1. 验证回调签名（TODO）
-     * 2. 查找支付流水
-     * 3. 更新流水状态
-     * 4. 调用支付单applyPayment
-     * 5. 发布领域事件
-     * 6. 通知相关系统
+     * 2. 按（渠道交易号，回调状态）判重，重复回调直接确认，不加载支付单
+     * 3. 查找支付流水
+     * 4. 更新流水状态
+     * 5. 调用支付单applyPayment
+     * 6. 持久化支付单并登记回调（同一事务），并发投递的同一回调只有一方提交
+     * 7. 发布领域事件
+     * 8. 通知相关系统
      * <p>
      * 用例来源：UC-PM-004步骤1-9
      *
-     * @param paymentId       支付单ID
-     * @param transactionCode 支付流水号
-     * @param success         是否成功
-     * @param completeTime    完成时间
-     * @param channelMessage  渠道返回消息
+     * @param command 回调命令
+     * @return true如果本次回调已处理，false如果是重复回调（已确认并忽略）
      */
-    public void processPaymentCallback(
-            String paymentId,
-            String transactionCode,
-            boolean success,
-            LocalDateTime completeTime,
-            String channelMessage) {
+    @Transactional
+    public boolean processPaymentCallback(PaymentCallbackCommand command) {
 
         log.info("处理支付回调，支付单ID: {}, 流水号: {}, 成功: {}",
-                paymentId, transactionCode, success);
+                command.getPaymentId(), command.getTransactionCode(), command.isSuccess());
 
         // ========== 步骤1: 验证回调签名 ==========
         // TODO: 实现回调签名验证
-        validateCallbackSignature(channelMessage);
+        validateCallbackSignature(command.getChannelMessage());
 
-        // ========== 步骤2: 查找支付流水 ==========
-        PaymentAggregate payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new PaymentException("支付单不存在: " + paymentId));
+        // ========== 步骤2: 回调判重 ==========
+        if (isDuplicateCallback(callbackRecord(command))) {
+            return false;
+        }
+
+        // ========== 步骤3: 查找支付流水 ==========
+        PaymentAggregate payment = paymentRepository.findById(command.getPaymentId())
+                .orElseThrow(() -> new PaymentException("支付单不存在: " + command.getPaymentId()));
 
-        // ========== 步骤3-4: 更新流水状态并调用支付单处理回调 ==========
-        payment.handlePaymentCallback(transactionCode, success, completeTime);
+        // ========== 步骤4-5: 更新流水状态并调用支付单处理回调 ==========
+        payment.handlePaymentCallback(command.getTransactionCode(), command.isSuccess(), command.getCompleteTime());
 
-        // ========== 步骤5: 持久化 ==========
-        payment = paymentRepository.save(payment);
+        // ========== 步骤6: 持久化并登记回调 ==========
+        if (!saveCallbackResult(payment, command)) {
+            return false;
+        }
 
         log.info("支付回调处理完成，支付单号: {}", payment.getCode());
+        return true;
     }
 
     /**
@@ -455,44 +693,289 @@ public class PaymentDomainService {
      * <p>
      * 处理流程：
      * 1. 验证回调签名
-     * 2. 查找退款流水
-     * 3. 更新流水状态
-     * 4. 调用支付单applyRefund
-     * 5. 发布领域事件
-     * 6. 通知相关系统
+     * 2. 按（渠道交易号，回调状态）判重，重复回调直接确认，不加载支付单
+     * 3. 查找退款流水
+     * 4. 更新流水状态
+     * 5. 调用支付单applyRefund
+     * 6. 持久化支付单并登记回调（同一事务），并发投递的同一回调只有一方提交
+     * 7. 发布领域事件
+     * 8. 通知相关系统
      * <p>
      * 需求来源：需求文档4.8节退款管理
      *
-     * @param paymentId       支付单ID
-     * @param transactionCode 退款流水号
-     * @param success         是否成功
-     * @param completeTime    完成时间
-     * @param channelMessage  渠道返回消息
+     * @param command 回调命令
+     * @return true如果本次回调已处理，false如果是重复回调（已确认并忽略）
      */
-    public void processRefundCallback(
-            String paymentId,
-            String transactionCode,
-            boolean success,
-            LocalDateTime completeTime,
-            String channelMessage) {
+    @Transactional
+    public boolean processRefundCallback(PaymentCallbackCommand command) {
 
         log.info("处理退款回调，支付单ID: {}, 流水号: {}, 成功: {}",
-                paymentId, transactionCode, success);
+                command.getPaymentId(), command.getTransactionCode(), command.isSuccess());
 
         // 验证回调签名
-        validateCallbackSignature(channelMessage);
+        validateCallbackSignature(command.getChannelMessage());
+
+        // 回调判重
+        if (isDuplicateCallback(callbackRecord(command))) {
+            return false;
+        }
 
         // 查找支付单
-        PaymentAggregate payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new PaymentException("支付单不存在: " + paymentId));
+        PaymentAggregate payment = paymentRepository.findById(command.getPaymentId())
+                .orElseThrow(() -> new PaymentException("支付单不存在: " + command.getPaymentId()));
 
         // 更新流水状态并调用支付单处理退款回调
-        payment.handleRefundCallback(transactionCode, success, completeTime);
+        payment.handleRefundCallback(command.getTransactionCode(), command.isSuccess(), command.getCompleteTime());
 
-        // 持久化
-        payment = paymentRepository.save(payment);
+        // 持久化并登记回调
+        if (!saveCallbackResult(payment, command)) {
+            return false;
+        }
 
         log.info("退款回调处理完成，支付单号: {}", payment.getCode());
+        return true;
+    }
+
+    /**
+     * 批量处理渠道回调（支付/退款混合），适用于渠道批量推送的结算通知
+     * <p>
+     * 处理流程：
+     * 1. 逐项验证签名并判重：批内重复与已处理的回调直接确认（只读，不登记）
+     * 2. 一次findByIds加载全部涉及的支付单
+     * 3. 在内存中依次应用回调，单项失败不影响其他项
+     * 4. saveAll批量持久化，已生效回调的处理记录在同一分片事务内批量登记：
+     *    持久化失败时登记随之回滚，渠道可重新投递；并发投递的同一回调由唯一键拒绝，只有一方提交
+     *
+     * @param commands 回调命令列表
+     * @return 与请求顺序一致的逐项处理结果
+     */
+    public List<CallbackResult> processCallbacks(List<PaymentCallbackCommand> commands) {
+        log.info("批量处理渠道回调，数量: {}", commands.size());
+
+        List<CallbackRecord> records = commands.stream()
+                .map(PaymentDomainService::callbackRecord)
+                .collect(Collectors.toList());
+        CallbackResult[] results = new CallbackResult[commands.size()];
+        List<Integer> accepted = new ArrayList<>(commands.size());
+        Set<String> batchKeys = new HashSet<>();
+
+        // ========== 步骤1: 验证签名与判重 ==========
+        for (int i = 0; i < commands.size(); i++) {
+            PaymentCallbackCommand command = commands.get(i);
+            validateCallbackSignature(command.getChannelMessage());
+            CallbackRecord record = records.get(i);
+            boolean duplicateInBatch = record != null && !batchKeys.add(record.getDedupKey());
+            if (duplicateInBatch || isDuplicateCallback(record)) {
+                results[i] = callbackResult(command, CallbackOutcome.DUPLICATE, null);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        // ========== 步骤2: 批量加载支付单 ==========
+        List<String> paymentIds = accepted.stream()
+                .map(i -> commands.get(i).getPaymentId())
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, PaymentAggregate> payments = paymentRepository.findByIds(paymentIds).stream()
+                .collect(Collectors.toMap(PaymentAggregate::getId, payment -> payment));
+
+        // ========== 步骤3: 内存中应用回调 ==========
+        Map<String, PaymentAggregate> changedPayments = new LinkedHashMap<>();
+        List<Integer> applied = new ArrayList<>(accepted.size());
+        for (Integer i : accepted) {
+            PaymentCallbackCommand command = commands.get(i);
+            PaymentAggregate payment = payments.get(command.getPaymentId());
+            if (payment == null) {
+                results[i] = callbackResult(command, CallbackOutcome.NOT_FOUND, "支付单不存在: " + command.getPaymentId());
+                continue;
+            }
+            try {
+                if (command.getTransactionType() == TransactionType.REFUND) {
+                    payment.handleRefundCallback(command.getTransactionCode(), command.isSuccess(), command.getCompleteTime());
+                } else {
+                    payment.handlePaymentCallback(command.getTransactionCode(), command.isSuccess(), command.getCompleteTime());
+                }
+                changedPayments.put(payment.getId(), payment);
+                applied.add(i);
+            } catch (IllegalArgumentException | IllegalStateException | PaymentException e) {
+                results[i] = callbackResult(command, CallbackOutcome.FAILED, e.getMessage());
+            }
+        }
+
+        // ========== 步骤4: 批量持久化并登记回调 ==========
+        int processed = saveCallbackResults(changedPayments.values(), commands, records, applied, results);
+
+        log.info("批量回调处理完成，数量: {}, 成功: {}", commands.size(), processed);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 按渠道支付记录ID处理回调（统一支付）
+     * <p>
+     * 统一支付时同批支付单的运行中流水共享一个渠道支付记录ID，渠道结算后只回调一次：
+     * 1. 验证回调签名
+     * 2. 按渠道支付记录ID一次查出同批全部支付单
+     * 3. 以渠道支付记录ID判重（只读预检，登记在待结算支付单中ID最小的一个上）
+     * 4. 对运行中流水属于该记录的支付单逐个应用回调（全部成功才继续）
+     * 5. 一次批量写入全部支付单，回调登记在同一事务内写入（同一分片）
+     * <p>
+     * 应用或持久化失败时抛出异常，登记随事务回滚，由渠道重新投递；
+     * 并发投递的同一回调由唯一键拒绝，只有一方提交，另一方各项返回DUPLICATE
+     *
+     * @param command 渠道支付记录回调命令
+     * @return 每个支付单的处理结果；已重复处理时各项为DUPLICATE
+     * @throws PaymentException 如果渠道支付记录不存在
+     */
+    public List<CallbackResult> processChannelRecordCallback(ChannelRecordCallbackCommand command) {
+        String channelPaymentRecordId = command.getChannelPaymentRecordId();
+        log.info("处理渠道支付记录回调，渠道支付记录ID: {}, 成功: {}", channelPaymentRecordId, command.isSuccess());
+
+        // ========== 步骤1: 验证回调签名 ==========
+        validateCallbackSignature(command.getChannelMessage());
+
+        // ========== 步骤2: 查找同批支付单 ==========
+        List<PaymentAggregate> payments = paymentRepository.findByChannelPaymentRecordId(channelPaymentRecordId);
+        if (payments.isEmpty()) {
+            throw new PaymentException("渠道支付记录不存在: " + channelPaymentRecordId);
+        }
+
+        // ========== 步骤3: 回调判重（渠道支付记录ID作为去重键） ==========
+        // 运行中流水已不属于该记录的支付单已单独结清；登记与支付单同分片存放，散发查询的返回顺序不固定，
+        // 取待结算支付单中ID最小的一个，使重复投递落在同一个分片上由唯一键拒绝
+        List<PaymentCallbackCommand> callbacks = payments.stream()
+                .map(payment -> toRecordCallback(command, payment))
+                .collect(Collectors.toList());
+        Set<Integer> pending = new LinkedHashSet<>();
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentTransaction running = payments.get(i).getRunningTransaction();
+            if (running != null && channelPaymentRecordId.equals(running.getChannelPaymentRecordId())) {
+                pending.add(i);
+            }
+        }
+        Optional<PaymentCallbackCommand> claim = pending.stream()
+                .map(callbacks::get)
+                .min(Comparator.comparing(PaymentCallbackCommand::getPaymentId));
+        if (!claim.isPresent() || isDuplicateCallback(callbackRecord(claim.get()))) {
+            return duplicateResults(callbacks);
+        }
+
+        // ========== 步骤4: 内存中应用回调 ==========
+        List<PaymentAggregate> changedPayments = new ArrayList<>(pending.size());
+        List<CallbackResult> results = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentCallbackCommand callback = callbacks.get(i);
+            if (!pending.contains(i)) {
+                results.add(callbackResult(callback, CallbackOutcome.DUPLICATE, null));
+                continue;
+            }
+            PaymentAggregate payment = payments.get(i);
+            if (callback.getTransactionType() == TransactionType.REFUND) {
+                payment.handleRefundCallback(callback.getTransactionCode(), command.isSuccess(), command.getCompleteTime());
+            } else {
+                payment.handlePaymentCallback(callback.getTransactionCode(), command.isSuccess(), command.getCompleteTime());
+            }
+            changedPayments.add(payment);
+            results.add(callbackResult(callback, CallbackOutcome.PROCESSED, null));
+        }
+
+        // ========== 步骤5: 批量持久化并登记回调 ==========
+        try {
+            paymentRepository.saveAll(changedPayments, Collections.singletonList(callbackRecord(claim.get())));
+        } catch (DuplicateKeyException e) {
+            log.info("并发重复回调已由其他投递处理，本次回滚，渠道支付记录ID: {}", channelPaymentRecordId);
+            return duplicateResults(callbacks);
+        }
+
+        log.info("渠道支付记录回调处理完成，渠道支付记录ID: {}, 支付单数量: {}, 结算数量: {}",
+                channelPaymentRecordId, payments.size(), changedPayments.size());
+        return results;
+    }
+
+    private static List<CallbackResult> duplicateResults(List<PaymentCallbackCommand> callbacks) {
+        return callbacks.stream()
+                .map(callback -> callbackResult(callback, CallbackOutcome.DUPLICATE, null))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 批量结算电汇到账（银行对账单导入）
+     * <p>
+     * 电汇没有渠道回调，到账以银行对账单为准：匹配到支付单的到账在这里一次性完成
+     * “发起电汇支付 + 成功回调”，与批量回调相同地判重、一次加载、一次批量写入：
+     * 1. 以（银行流水号，支付单ID）判重（只读预检），同一对账单重复导入不会重复入账
+     * 2. 按ID一次加载全部支付单
+     * 3. 内存中逐项发起电汇流水并按成功回调结算；支付单已不可支付或金额超过待支付金额的项失败
+     * 4. saveAll批量持久化，入账登记在同一分片事务内写入：持久化失败时登记随之回滚，可重新导入；
+     *    并发导入的同一到账由唯一键拒绝，只有一方提交
+     *
+     * @param commands 电汇入账结算命令列表
+     * @return 与请求顺序一致的逐项处理结果
+     */
+    public List<CallbackResult> settleWireTransfers(List<WireTransferSettlementCommand> commands) {
+        log.info("批量结算电汇到账，数量: {}", commands.size());
+
+        List<PaymentCallbackCommand> callbacks = commands.stream()
+                .map(PaymentDomainService::toWireTransferCallback)
+                .collect(Collectors.toList());
+        List<CallbackRecord> records = commands.stream()
+                .map(command -> CallbackRecord.wireTransfer(command.getBankReference(), command.getPaymentId()))
+                .collect(Collectors.toList());
+        CallbackResult[] results = new CallbackResult[commands.size()];
+        List<Integer> accepted = new ArrayList<>(commands.size());
+        Set<String> batchKeys = new HashSet<>();
+
+        // ========== 步骤1: 入账判重 ==========
+        for (int i = 0; i < callbacks.size(); i++) {
+            CallbackRecord record = records.get(i);
+            if (!batchKeys.add(record.getDedupKey()) || isDuplicateCallback(record)) {
+                results[i] = callbackResult(callbacks.get(i), CallbackOutcome.DUPLICATE, null);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        // ========== 步骤2: 批量加载支付单 ==========
+        List<String> paymentIds = accepted.stream()
+                .map(i -> commands.get(i).getPaymentId())
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, PaymentAggregate> payments = paymentRepository.findByIds(paymentIds).stream()
+                .collect(Collectors.toMap(PaymentAggregate::getId, payment -> payment));
+
+        // ========== 步骤3: 内存中发起并结算电汇流水 ==========
+        Map<String, PaymentAggregate> changedPayments = new LinkedHashMap<>();
+        List<Integer> applied = new ArrayList<>(accepted.size());
+        for (Integer i : accepted) {
+            WireTransferSettlementCommand command = commands.get(i);
+            PaymentCallbackCommand callback = callbacks.get(i);
+            PaymentAggregate payment = payments.get(command.getPaymentId());
+            if (payment == null) {
+                results[i] = callbackResult(callback, CallbackOutcome.NOT_FOUND, "支付单不存在: " + command.getPaymentId());
+                continue;
+            }
+            try {
+                if (command.getAmount() == null || command.getAmount().signum() <= 0
+                        || command.getAmount().compareTo(payment.getPendingAmount()) > 0) {
+                    throw new IllegalArgumentException("到账金额超过待支付金额: " + command.getAmount());
+                }
+                PaymentTransaction transaction = payment.executePayment(
+                        PaymentChannel.WIRE_TRANSFER, command.getAmount(), command.getRemark());
+                transaction.setChannelPaymentRecordId(command.getBankReference());
+                transaction.setChannelTransactionNumber(command.getBankReference());
+                payment.handlePaymentCallback(transaction.getCode(), true, command.getValueTime());
+                changedPayments.put(payment.getId(), payment);
+                applied.add(i);
+            } catch (IllegalArgumentException | IllegalStateException | PaymentException e) {
+                results[i] = callbackResult(callback, CallbackOutcome.FAILED, e.getMessage());
+            }
+        }
+
+        // ========== 步骤4: 批量持久化并登记入账 ==========
+        int processed = saveCallbackResults(changedPayments.values(), callbacks, records, applied, results);
+
+        log.info("电汇到账批量结算完成，数量: {}, 成功: {}", commands.size(), processed);
+        return Arrays.asList(results);
     }
 
     // ==================== 私有辅助方法 ====================
@@ -601,6 +1084,15 @@ public class PaymentDomainService {
                         "支付渠道不可用: " + channel.getDescription()));
     }
 
+    /**
+     * 渠道退款记录ID（对账日志用，缺失的响应记为null）
+     */
+    private static List<String> channelRefundRecordIds(List<RefundRequestResponse> responses) {
+        return responses.stream()
+                .map(response -> response == null ? null : response.getChannelPaymentRecordId())
+                .collect(Collectors.toList());
+    }
+
     /**
      * 选择退款流水
      */
@@ -616,7 +1108,7 @@ public class PaymentDomainService {
 
         // 策略2: 最新流水退款
         log.debug("使用最新流水退款策略");
-        Optional<PaymentTransaction> latestTransaction = findLatestSuccessfulPaymentTransaction(payment);
+        Optional<PaymentTransaction> latestTransaction = payment.findLatestSuccessfulPaymentTransaction();
 
         if (!latestTransaction.isPresent()) {
             throw new PaymentException("未找到可退款的支付流水");
@@ -626,15 +1118,128 @@ public class PaymentDomainService {
     }
 
     /**
-     * 查找最新成功的支付流水
+     * 回调判重（只读预检）
+     * <p>
+     * 布隆过滤器判定"一定未处理"时直接放行，"可能已处理"时查库确认；不做登记，
+     * 登记随支付单在同一事务内写入（见saveCallbackResult/saveCallbackResults），并发投递由唯一键兜底
+     *
+     * @param record 回调处理记录，null表示不参与判重
+     * @return true如果是重复回调
      */
-    private Optional<PaymentTransaction> findLatestSuccessfulPaymentTransaction(
-            PaymentAggregate payment) {
+    private boolean isDuplicateCallback(CallbackRecord record) {
+        if (record == null) {
+            return false;
+        }
+        if (callbackRecordRepository.isProcessed(record)) {
+            log.info("重复回调已确认，跳过处理，支付单ID: {}, 渠道交易号: {}, 状态: {}",
+                    record.getPaymentId(), record.getChannelTransactionNumber(), record.getCallbackStatus());
+            return true;
+        }
+        return false;
+    }
 
-        return payment.getTransactions().stream()
-                .filter(PaymentTransaction::isPaymentTransaction)
-                .filter(PaymentTransaction::isSuccess)
-                .findFirst();
+    /**
+     * 持久化单个回调的处理结果，回调登记与支付单在同一事务内提交
+     *
+     * @return true如果已提交，false如果并发投递的同一回调已先提交（本次整体回滚）
+     */
+    private boolean saveCallbackResult(PaymentAggregate payment, PaymentCallbackCommand command) {
+        CallbackRecord record = callbackRecord(command);
+        try {
+            paymentRepository.saveAll(Collections.singletonList(payment),
+                    record == null ? Collections.emptyList() : Collections.singletonList(record));
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.info("并发重复回调已由其他投递处理，本次回滚，支付单ID: {}, 渠道交易号: {}",
+                    command.getPaymentId(), command.getChannelTransactionNumber());
+            return false;
+        }
+    }
+
+    /**
+     * 批量持久化已应用的回调：支付单与回调登记在各自分片的同一事务内写入
+     * <p>
+     * 持久化失败时本批登记随事务回滚，应用的项标记失败，渠道可重新投递；
+     * 唯一键冲突（并发投递）时逐项复核：已登记的项（被并发投递抢先处理，或所在分片已先提交）确认为重复
+     *
+     * @param changedPayments 已应用回调的支付单
+     * @param callbacks       回调命令（与results下标一致）
+     * @param records         回调处理记录（与results下标一致，null表示不登记）
+     * @param applied         已应用的回调下标
+     * @param results         逐项处理结果，本方法填充applied对应的项
+     * @return 本次处理生效的回调数量
+     */
+    private int saveCallbackResults(Collection<PaymentAggregate> changedPayments, List<PaymentCallbackCommand> callbacks,
+                                    List<CallbackRecord> records, List<Integer> applied, CallbackResult[] results) {
+        List<CallbackRecord> appliedRecords = applied.stream()
+                .map(records::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        try {
+            paymentRepository.saveAll(new ArrayList<>(changedPayments), appliedRecords);
+        } catch (RuntimeException e) {
+            log.error("回调批量持久化失败，回调数量: {}", applied.size(), e);
+            boolean duplicate = e instanceof DuplicateKeyException;
+            for (Integer i : applied) {
+                PaymentCallbackCommand callback = callbacks.get(i);
+                results[i] = duplicate && isDuplicateCallback(records.get(i))
+                        ? callbackResult(callback, CallbackOutcome.DUPLICATE, null)
+                        : callbackResult(callback, CallbackOutcome.FAILED, "持久化失败: " + e.getMessage());
+            }
+            return 0;
+        }
+        for (Integer i : applied) {
+            results[i] = callbackResult(callbacks.get(i), CallbackOutcome.PROCESSED, null);
+        }
+        return applied.size();
+    }
+
+    /**
+     * 渠道回调的处理记录，键为（渠道交易号，回调状态）；无渠道交易号的回调不参与判重，返回null
+     */
+    private static CallbackRecord callbackRecord(PaymentCallbackCommand command) {
+        String channelTransactionNumber = command.getChannelTransactionNumber();
+        if (channelTransactionNumber == null || channelTransactionNumber.trim().isEmpty()) {
+            return null;
+        }
+        return CallbackRecord.channelCallback(channelTransactionNumber, callbackStatus(command), command.getPaymentId());
+    }
+
+    private static PaymentCallbackCommand toRecordCallback(ChannelRecordCallbackCommand command, PaymentAggregate payment) {
+        PaymentTransaction running = payment.getRunningTransaction();
+        return PaymentCallbackCommand.builder()
+                .paymentId(payment.getId())
+                .transactionCode(running == null ? null : running.getCode())
+                .transactionType(running == null ? null : running.getTransactionType())
+                .channelTransactionNumber(command.getChannelPaymentRecordId())
+                .success(command.isSuccess())
+                .completeTime(command.getCompleteTime())
+                .channelMessage(command.getChannelMessage())
+                .build();
+    }
+
+    private static PaymentCallbackCommand toWireTransferCallback(WireTransferSettlementCommand command) {
+        return PaymentCallbackCommand.builder()
+                .paymentId(command.getPaymentId())
+                .transactionType(TransactionType.PAYMENT)
+                .channelTransactionNumber(command.getBankReference())
+                .success(true)
+                .completeTime(command.getValueTime())
+                .build();
+    }
+
+    private static TransactionStatus callbackStatus(PaymentCallbackCommand command) {
+        return command.isSuccess() ? TransactionStatus.SUCCESS : TransactionStatus.FAILED;
+    }
+
+    private static CallbackResult callbackResult(PaymentCallbackCommand command, CallbackOutcome outcome, String message) {
+        return CallbackResult.builder()
+                .paymentId(command.getPaymentId())
+                .transactionCode(command.getTransactionCode())
+                .channelTransactionNumber(command.getChannelTransactionNumber())
+                .outcome(outcome)
+                .message(message)
+                .build();
     }
 
     /**
@@ -0,0 +1,42 @@
+package com.bytz.modules.cms.payment.domain.command;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentScope;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatusTransition;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量状态迁移命令
+ * Bulk Status Transition Command
+ * 
+ * 对某个订单/经销商/关联业务下满足迁移条件的全部支付单执行同一状态迁移，
+ * 不满足条件的支付单保持不变
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusTransitionCommand {
+    
+    /**
+     * 状态迁移
+     */
+    private PaymentStatusTransition transition;
+    
+    /**
+     * 范围维度
+     */
+    private PaymentScope scope;
+    
+    /**
+     * 范围ID（订单号/经销商ID/关联业务ID）
+     */
+    private String scopeId;
+    
+    /**
+     * 迁移原因（追加到支付单业务描述）
+     */
+    private String reason;
+}
@@ -0,0 +1,42 @@
+package com.bytz.modules.cms.payment.domain.command;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 渠道支付记录回调命令
+ * Channel Record Callback Command
+ * 
+ * 统一支付时一条渠道支付记录对应多个支付单，渠道按支付记录ID回调一次，结算同批全部流水
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelRecordCallbackCommand {
+    
+    /**
+     * 渠道支付记录ID
+     * （回调去重的业务键）
+     */
+    private String channelPaymentRecordId;
+    
+    /**
+     * 是否成功
+     */
+    private boolean success;
+    
+    /**
+     * 完成时间
+     */
+    private LocalDateTime completeTime;
+    
+    /**
+     * 渠道返回消息（用于签名验证）
+     */
+    private String channelMessage;
+}
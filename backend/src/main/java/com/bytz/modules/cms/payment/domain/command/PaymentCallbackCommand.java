@@ -0,0 +1,58 @@
+package com.bytz.modules.cms.payment.domain.command;
+
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 渠道回调命令
+ * Payment Callback Command
+ * 
+ * 封装支付渠道回调（支付结果/退款结果）通知的参数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCallbackCommand {
+    
+    /**
+     * 支付单ID（主键）
+     */
+    private String paymentId;
+    
+    /**
+     * 流水号
+     */
+    private String transactionCode;
+    
+    /**
+     * 流水类型（批量回调时区分支付/退款回调，为空按支付回调处理）
+     */
+    private TransactionType transactionType;
+    
+    /**
+     * 渠道交易号
+     * （回调去重的业务键，为空时不做去重）
+     */
+    private String channelTransactionNumber;
+    
+    /**
+     * 是否成功
+     */
+    private boolean success;
+    
+    /**
+     * 完成时间
+     */
+    private LocalDateTime completeTime;
+    
+    /**
+     * 渠道返回消息（用于签名验证）
+     */
+    private String channelMessage;
+}
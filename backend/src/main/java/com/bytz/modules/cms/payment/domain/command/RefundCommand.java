@@ -0,0 +1,46 @@
+package com.bytz.modules.cms.payment.domain.command;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 退款命令
+ * Refund Command
+ * 
+ * 批量退款中单个支付单的退款参数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundCommand {
+    
+    /**
+     * 支付单ID（主键）
+     */
+    private String paymentId;
+    
+    /**
+     * 退款金额
+     */
+    private BigDecimal refundAmount;
+    
+    /**
+     * 原支付流水ID（为空时选择最新成功的支付流水）
+     */
+    private String originalTransactionId;
+    
+    /**
+     * 业务单号（退款单号）
+     */
+    private String businessOrderId;
+    
+    /**
+     * 退款原因
+     */
+    private String refundReason;
+}
@@ -0,0 +1,48 @@
+package com.bytz.modules.cms.payment.domain.command;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 电汇入账结算命令
+ * Wire Transfer Settlement Command
+ * 
+ * 银行对账单中的一笔到账匹配到支付单后，以到账金额结算该支付单（一笔到账覆盖多个支付单时每个支付单一条）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WireTransferSettlementCommand {
+    
+    /**
+     * 支付单ID
+     */
+    private String paymentId;
+    
+    /**
+     * 结算金额（不超过支付单待支付金额）
+     */
+    private BigDecimal amount;
+    
+    /**
+     * 银行流水号
+     * （作为渠道支付记录ID与渠道交易号，也是入账去重的业务键）
+     */
+    private String bankReference;
+    
+    /**
+     * 到账时间
+     */
+    private LocalDateTime valueTime;
+    
+    /**
+     * 业务备注
+     */
+    private String remark;
+}
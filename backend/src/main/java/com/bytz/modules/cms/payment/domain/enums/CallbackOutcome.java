@@ -0,0 +1,52 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+/**
+ * 回调处理结果枚举
+ * Callback Outcome Enumeration
+ * 
+ * 批量回调中每一项的处理结果
+ */
+public enum CallbackOutcome {
+    
+    /**
+     * 已处理 - 流水与支付单已更新
+     */
+    PROCESSED("PROCESSED", "已处理", "Processed"),
+    
+    /**
+     * 重复回调 - 已确认并忽略
+     */
+    DUPLICATE("DUPLICATE", "重复回调", "Duplicate"),
+    
+    /**
+     * 支付单不存在
+     */
+    NOT_FOUND("NOT_FOUND", "支付单不存在", "Not Found"),
+    
+    /**
+     * 处理失败 - 状态不允许或持久化失败，渠道可重新投递
+     */
+    FAILED("FAILED", "处理失败", "Failed");
+    
+    private final String code;
+    private final String description;
+    private final String englishName;
+    
+    CallbackOutcome(String code, String description, String englishName) {
+        this.code = code;
+        this.description = description;
+        this.englishName = englishName;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getEnglishName() {
+        return englishName;
+    }
+}
@@ -0,0 +1,57 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+/**
+ * 信用账户分录类型枚举
+ * Credit Entry Type Enumeration
+ * 
+ * 信用账户流水日志中每条分录对额度的影响
+ */
+public enum CreditEntryType {
+    
+    /**
+     * 设定额度 - 信用额度改为分录金额
+     */
+    LIMIT("LIMIT", "设定额度", "Limit"),
+    
+    /**
+     * 预占 - 占用可用额度，等待确认或释放
+     */
+    RESERVE("RESERVE", "预占", "Reserve"),
+    
+    /**
+     * 确认 - 预占转为已用额度
+     */
+    COMMIT("COMMIT", "确认", "Commit"),
+    
+    /**
+     * 释放 - 预占退回可用额度
+     */
+    RELEASE("RELEASE", "释放", "Release"),
+    
+    /**
+     * 恢复 - 退款等归还已用额度
+     */
+    RESTORE("RESTORE", "恢复", "Restore");
+    
+    private final String code;
+    private final String description;
+    private final String englishName;
+    
+    CreditEntryType(String code, String description, String englishName) {
+        this.code = code;
+        this.description = description;
+        this.englishName = englishName;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getEnglishName() {
+        return englishName;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+/**
+ * 支付单范围枚举
+ * Payment Scope Enumeration
+ * 
+ * 批量操作按哪个业务维度圈定支付单
+ */
+public enum PaymentScope {
+    
+    /**
+     * 订单 - 订单作废时处理该订单下的支付单
+     */
+    ORDER("ORDER", "订单", "Order"),
+    
+    /**
+     * 经销商 - 经销商冻结时处理其全部支付单
+     */
+    RESELLER("RESELLER", "经销商", "Reseller"),
+    
+    /**
+     * 关联业务 - 如信用还款关联的信用记录
+     */
+    RELATED_BUSINESS("RELATED_BUSINESS", "关联业务", "Related Business");
+    
+    private final String code;
+    private final String description;
+    private final String englishName;
+    
+    PaymentScope(String code, String description, String englishName) {
+        this.code = code;
+        this.description = description;
+        this.englishName = englishName;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getEnglishName() {
+        return englishName;
+    }
+}
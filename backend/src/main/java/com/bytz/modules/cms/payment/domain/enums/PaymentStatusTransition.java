@@ -0,0 +1,88 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 支付单状态迁移枚举
+ * Payment Status Transition Enumeration
+ * 
+ * 定义取消、冻结、停止三种管理类状态迁移的允许源状态与前置条件，
+ * 聚合根的单条操作与仓储的批量条件更新共用同一套规则：
+ * - 源状态必须在允许集合内
+ * - 不能有运行中的流水
+ * - 取消额外要求从未发起过支付（无任何流水、已支付金额为0）
+ */
+public enum PaymentStatusTransition {
+    
+    /**
+     * 取消 - 订单作废时取消未发起支付的支付单
+     */
+    CANCEL("CANCEL", "取消", PaymentStatus.CANCELED, true,
+            EnumSet.of(PaymentStatus.UNPAID)),
+    
+    /**
+     * 冻结 - 经销商信用风险等原因暂停支付单操作
+     */
+    FREEZE("FREEZE", "冻结", PaymentStatus.FROZEN, false,
+            EnumSet.of(PaymentStatus.UNPAID, PaymentStatus.PARTIAL_PAID, PaymentStatus.FAILED)),
+    
+    /**
+     * 停止 - 因业务原因终止尚未结清的支付单
+     */
+    STOP("STOP", "停止", PaymentStatus.STOPPED, false,
+            EnumSet.of(PaymentStatus.UNPAID, PaymentStatus.PARTIAL_PAID, PaymentStatus.FAILED, PaymentStatus.FROZEN));
+    
+    private final String code;
+    private final String description;
+    private final PaymentStatus targetStatus;
+    private final boolean requiresNoTransactions;
+    private final Set<PaymentStatus> sourceStatuses;
+    
+    PaymentStatusTransition(String code, String description, PaymentStatus targetStatus,
+                            boolean requiresNoTransactions, Set<PaymentStatus> sourceStatuses) {
+        this.code = code;
+        this.description = description;
+        this.targetStatus = targetStatus;
+        this.requiresNoTransactions = requiresNoTransactions;
+        this.sourceStatuses = Collections.unmodifiableSet(sourceStatuses);
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public PaymentStatus getTargetStatus() {
+        return targetStatus;
+    }
+    
+    /**
+     * 是否要求支付单从未发起过支付（无任何流水、已支付金额为0）
+     */
+    public boolean isRequiresNoTransactions() {
+        return requiresNoTransactions;
+    }
+    
+    public Set<PaymentStatus> getSourceStatuses() {
+        return sourceStatuses;
+    }
+    
+    /**
+     * 判断源状态是否允许此迁移
+     */
+    public boolean allowsFrom(PaymentStatus status) {
+        return sourceStatuses.contains(status);
+    }
+    
+    /**
+     * 生成追加到业务描述中的原因文本，如"冻结原因: 风控审查"
+     */
+    public String reasonRemark(String reason) {
+        return description + "原因: " + reason;
+    }
+}
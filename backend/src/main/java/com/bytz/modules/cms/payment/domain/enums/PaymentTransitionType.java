@@ -0,0 +1,72 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+/**
+ * 支付单状态变更类型枚举
+ * Payment Transition Type Enumeration
+ * 
+ * 聚合根上每次状态变更的业务动作，写入事件日志用于审计与变更订阅
+ */
+public enum PaymentTransitionType {
+    
+    /**
+     * 创建支付单
+     */
+    CREATE("CREATE", "创建", "Create"),
+    
+    /**
+     * 发起支付 - 生成运行期支付流水
+     */
+    EXECUTE_PAYMENT("EXECUTE_PAYMENT", "发起支付", "Execute Payment"),
+    
+    /**
+     * 支付回调 - 支付流水完成（成功或失败）
+     */
+    PAYMENT_CALLBACK("PAYMENT_CALLBACK", "支付回调", "Payment Callback"),
+    
+    /**
+     * 发起退款 - 生成运行期退款流水
+     */
+    EXECUTE_REFUND("EXECUTE_REFUND", "发起退款", "Execute Refund"),
+    
+    /**
+     * 退款回调 - 退款流水完成（成功或失败）
+     */
+    REFUND_CALLBACK("REFUND_CALLBACK", "退款回调", "Refund Callback"),
+    
+    /**
+     * 取消支付单
+     */
+    CANCEL("CANCEL", "取消", "Cancel"),
+    
+    /**
+     * 停止支付单
+     */
+    STOP("STOP", "停止", "Stop"),
+    
+    /**
+     * 冻结支付单
+     */
+    FREEZE("FREEZE", "冻结", "Freeze");
+    
+    private final String code;
+    private final String description;
+    private final String englishName;
+    
+    PaymentTransitionType(String code, String description, String englishName) {
+        this.code = code;
+        this.description = description;
+        this.englishName = englishName;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getEnglishName() {
+        return englishName;
+    }
+}
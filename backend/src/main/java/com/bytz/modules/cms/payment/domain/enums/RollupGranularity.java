@@ -0,0 +1,40 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+/**
+ * 汇总粒度枚举
+ * Rollup Granularity Enumeration
+ */
+public enum RollupGranularity {
+    
+    /**
+     * 按小时 - cms_transaction_rollup_hourly
+     */
+    HOUR("HOUR", "小时", "Hour"),
+    
+    /**
+     * 按日 - cms_transaction_rollup_daily
+     */
+    DAY("DAY", "日", "Day");
+    
+    private final String code;
+    private final String description;
+    private final String englishName;
+    
+    RollupGranularity(String code, String description, String englishName) {
+        this.code = code;
+        this.description = description;
+        this.englishName = englishName;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getEnglishName() {
+        return englishName;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+/**
+ * 对账单匹配方式枚举
+ * Statement Match Type Enumeration
+ * 
+ * 银行对账单到账与支付单的匹配方式，按列出顺序依次尝试
+ */
+public enum StatementMatchType {
+    
+    /**
+     * 精确匹配 - 同经销商、同币种、到账金额等于待支付金额
+     */
+    EXACT("EXACT", "精确匹配", "Exact"),
+    
+    /**
+     * 容差匹配 - 到账金额与待支付金额之差在容差以内（银行手续费等）
+     */
+    TOLERANCE("TOLERANCE", "容差匹配", "Tolerance"),
+    
+    /**
+     * 合并匹配 - 一笔到账覆盖同经销商按到期顺序的多个支付单
+     */
+    MANY_TO_ONE("MANY_TO_ONE", "合并匹配", "Many To One");
+    
+    private final String code;
+    private final String description;
+    private final String englishName;
+    
+    StatementMatchType(String code, String description, String englishName) {
+        this.code = code;
+        this.description = description;
+        this.englishName = englishName;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getEnglishName() {
+        return englishName;
+    }
+}
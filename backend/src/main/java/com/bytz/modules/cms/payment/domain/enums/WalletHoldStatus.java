@@ -0,0 +1,47 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+/**
+ * 钱包冻结状态枚举
+ * Wallet Hold Status Enumeration
+ * 
+ * 钱包支付先冻结余额，支付成功后扣款，失败或取消后解冻
+ */
+public enum WalletHoldStatus {
+    
+    /**
+     * 已冻结 - 金额计入冻结余额，等待扣款或解冻
+     */
+    HELD("HELD", "已冻结", "Held"),
+    
+    /**
+     * 已扣款 - 从余额与冻结余额中扣除
+     */
+    CAPTURED("CAPTURED", "已扣款", "Captured"),
+    
+    /**
+     * 已解冻 - 冻结金额退回可用余额
+     */
+    RELEASED("RELEASED", "已解冻", "Released");
+    
+    private final String code;
+    private final String description;
+    private final String englishName;
+    
+    WalletHoldStatus(String code, String description, String englishName) {
+        this.code = code;
+        this.description = description;
+        this.englishName = englishName;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getEnglishName() {
+        return englishName;
+    }
+}
@@ -0,0 +1,67 @@
+package com.bytz.modules.cms.payment.domain.model;
+
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 回调处理记录
+ * Callback Record
+ * <p>
+ * 已生效的渠道回调或电汇入账的判重登记，由仓储与所属支付单在同一分片事务内写入：
+ * 处理结果与登记一起提交或一起回滚。
+ * <ul>
+ *   <li>渠道回调：键为（渠道交易号，回调状态），一次渠道回调只生效一次</li>
+ *   <li>电汇入账：键为（银行流水号，支付单ID），一笔到账可以结算多个支付单，各支付单分别登记</li>
+ * </ul>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CallbackRecord {
+
+    /**
+     * 渠道交易号；电汇入账为银行流水号
+     */
+    private final String channelTransactionNumber;
+
+    /**
+     * 回调状态；电汇入账为null
+     */
+    private final TransactionStatus callbackStatus;
+
+    /**
+     * 支付单ID（登记与支付单存放在同一分片）
+     */
+    private final String paymentId;
+
+    private final boolean wireTransfer;
+
+    /**
+     * 渠道回调登记
+     */
+    public static CallbackRecord channelCallback(String channelTransactionNumber, TransactionStatus callbackStatus,
+                                                 String paymentId) {
+        return new CallbackRecord(channelTransactionNumber, callbackStatus, paymentId, false);
+    }
+
+    /**
+     * 电汇入账登记
+     */
+    public static CallbackRecord wireTransfer(String bankReference, String paymentId) {
+        return new CallbackRecord(bankReference, null, paymentId, true);
+    }
+
+    /**
+     * 判重键：与数据库唯一键的列一致
+     */
+    public String getDedupKey() {
+        return wireTransfer
+                ? "WIRE#" + channelTransactionNumber + '#' + paymentId
+                : channelTransactionNumber + '#' + callbackStatus.name();
+    }
+}
@@ -155,20 +155,48 @@ public class PaymentAggregate {
     @Setter(AccessLevel.NONE)
     private List<PaymentTransaction> completedTransactions = new ArrayList<>();
 
+    /**
+     * 上次持久化后新完成的流水（回调处理后由运行期移入已完成列表，状态尚未写回数据库）
+     * Transactions completed in memory since the last save, pending write-back by the repository
+     */
+    @Builder.Default
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<PaymentTransaction> unpersistedCompletedTransactions = new ArrayList<>();
+
+    /**
+     * 上次持久化后发生的状态变更（由仓储在提交后写入事件日志）
+     * Transitions since the last save, appended to the event journal by the repository after commit
+     */
+    @Builder.Default
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<PaymentTransition> unjournaledTransitions = new ArrayList<>();
+
+    /**
+     * 流水索引（按创建时间排序、按ID查找、最新成功支付流水），随已完成列表增量维护，首次访问时建立
+     * Transaction index maintained incrementally from completedTransactions
+     */
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private TransactionIndex transactionIndex;
+
     /**
      * 获取所有流水（运行期 + 已完成）
      * 用于向后兼容，返回所有流水的统一视图
+     * <p>
+     * 视图由流水索引维护，不复制、不排序；随聚合根变化，运行期流水位于首位
      *
-     * @return 按创建时间倒序排列的所有流水列表
+     * @return 按创建时间倒序排列的所有流水的只读视图
      */
     public List<PaymentTransaction> getTransactions() {
-        List<PaymentTransaction> allTransactions = new ArrayList<>(completedTransactions.size() + 1);
-        if (runningTransaction != null) {
-            allTransactions.add(runningTransaction);
-        }
-        allTransactions.addAll(completedTransactions);
-        allTransactions.sort(Comparator.reverseOrder());
-        return Collections.unmodifiableList(allTransactions);
+        return transactionIndex().descending();
     }
 
     /**
@@ -206,7 +234,7 @@ public class PaymentAggregate {
         // 4. 设置初始状态为未支付
         // 5. 如果是信用还款类型，验证订单号与信用记录的绑定关系
 
-        return PaymentAggregate.builder()
+        PaymentAggregate payment = PaymentAggregate.builder()
                 .orderId(orderId)
                 .resellerId(resellerId)
                 .paymentAmount(paymentAmount)
@@ -225,6 +253,8 @@ public class PaymentAggregate {
                 .runningTransaction(null)
                 .completedTransactions(new ArrayList<>())
                 .build();
+        payment.recordTransition(PaymentTransitionType.CREATE, null);
+        return payment;
     }
 
     /**
@@ -254,6 +284,7 @@ public class PaymentAggregate {
 
         this.runningTransaction = transaction;
         this.paymentStatus = PaymentStatus.PAYING;
+        recordTransition(PaymentTransitionType.EXECUTE_PAYMENT, transaction);
 
         return transaction;
     }
@@ -295,6 +326,7 @@ public class PaymentAggregate {
             transaction.markAsFailed("支付失败");
             this.paymentStatus = PaymentStatus.FAILED;
         }
+        recordTransition(PaymentTransitionType.PAYMENT_CALLBACK, transaction);
 
         // 将完成的流水移到已完成列表（转换为不可变值对象）
         moveTransactionToCompleted();
@@ -314,6 +346,7 @@ public class PaymentAggregate {
         }
         // 转换为不可变值对象并添加到已完成列表
         this.completedTransactions.add(runningTransaction);
+        this.unpersistedCompletedTransactions.add(runningTransaction);
         // 清空运行期流水
         this.runningTransaction = null;
 
@@ -374,6 +407,7 @@ public class PaymentAggregate {
         // 6. 更新退款状态
         this.runningTransaction = refundTransaction;
         this.refundStatus = RefundStatus.REFUNDING;
+        recordTransition(PaymentTransitionType.EXECUTE_REFUND, refundTransaction);
         return refundTransaction;
     }
 
@@ -414,6 +448,7 @@ public class PaymentAggregate {
             transaction.markAsFailed("退款失败");
             this.refundStatus = RefundStatus.REFUND_FAILED;
         }
+        recordTransition(PaymentTransitionType.REFUND_CALLBACK, transaction);
 
         // 将完成的流水移到已完成列表
         moveTransactionToCompleted();
@@ -488,45 +523,78 @@ public class PaymentAggregate {
      * 根据主键ID查找已完成的支付流水
      *
      * @param transactionId 流水ID
-     * @return 已完成的支付流水值对象，如果未找到返回null
+     * @return 已完成的支付流水值对象，如果未找到返回Optional.empty()
      */
     public Optional<PaymentTransaction> findCompletedTransactionById(String transactionId) {
-        return this.completedTransactions.stream()
-                .filter(t -> t.getId() != null && t.getId().equals(transactionId))
-                .findFirst();
+        return Optional.ofNullable(transactionIndex().findById(transactionId));
+    }
+
+    /**
+     * 查找最新一条成功的支付流水（退款未指定原流水时按此选择）
+     *
+     * @return 创建时间最晚的成功支付流水，没有时返回Optional.empty()
+     */
+    public Optional<PaymentTransaction> findLatestSuccessfulPaymentTransaction() {
+        return Optional.ofNullable(transactionIndex().latestSuccessfulPayment());
+    }
+
+    private TransactionIndex transactionIndex() {
+        if (transactionIndex == null || !transactionIndex.isFor(this, completedTransactions)) {
+            transactionIndex = new TransactionIndex(this, completedTransactions);
+        }
+        return transactionIndex.sync();
     }
 
 
     /**
      * 停止支付单
+     * 业务规则见 {@link PaymentStatusTransition#STOP}：未支付/部分支付/支付失败/已冻结，且无运行中的流水
      *
      * @param reason 停止原因
-     *                                                                                                                 TODO: 实现停止支付单的逻辑
+     * @throws IllegalStateException 如果支付单状态不允许停止
      */
     public void stop(String reason) {
-        // TODO: 实现停止逻辑
-        // 1. 验证当前状态是否允许停止
-        // 2. 更新状态为已停止
-        // 3. 记录停止原因
-        this.paymentStatus = PaymentStatus.STOPPED;
-        this.businessDesc = (this.businessDesc != null ? this.businessDesc + "; " : "") + "停止原因: " + reason;
-        this.updateTime = LocalDateTime.now();
+        applyTransition(PaymentStatusTransition.STOP, reason);
     }
 
     /**
      * 冻结支付单
+     * 业务规则见 {@link PaymentStatusTransition#FREEZE}：未支付/部分支付/支付失败，且无运行中的流水
      *
      * @param reason 冻结原因
-     *                                                                                                                 TODO: 实现冻结支付单的逻辑
+     * @throws IllegalStateException 如果支付单状态不允许冻结
      */
     public void freeze(String reason) {
-        // TODO: 实现冻结逻辑
-        // 1. 验证当前状态是否允许冻结
-        // 2. 更新状态为已冻结
-        // 3. 记录冻结原因
-        this.paymentStatus = PaymentStatus.FROZEN;
-        this.businessDesc = (this.businessDesc != null ? this.businessDesc + "; " : "") + "冻结原因: " + reason;
+        applyTransition(PaymentStatusTransition.FREEZE, reason);
+    }
+
+    /**
+     * 判断是否允许执行状态迁移
+     * 与仓储批量条件更新的WHERE条件一致
+     *
+     * @param transition 状态迁移
+     * @return true如果允许，否则false
+     */
+    public boolean canTransition(PaymentStatusTransition transition) {
+        if (!transition.allowsFrom(this.paymentStatus) || this.runningTransaction != null) {
+            return false;
+        }
+        return !transition.isRequiresNoTransactions()
+               || (this.completedTransactions.isEmpty() && this.paidAmount.compareTo(BigDecimal.ZERO) == 0);
+    }
+
+    private void applyTransition(PaymentStatusTransition transition, String reason) {
+        if (!canTransition(transition)) {
+            throw new IllegalStateException(
+                    String.format("当前支付单状态为 %s%s，不能%s",
+                            this.paymentStatus.getDescription(),
+                            this.runningTransaction != null ? "且存在运行中的流水" : "",
+                            transition.getDescription()));
+        }
+        this.paymentStatus = transition.getTargetStatus();
+        this.businessDesc = (this.businessDesc != null ? this.businessDesc + "; " : "") + transition.reasonRemark(reason);
         this.updateTime = LocalDateTime.now();
+        recordTransition(PaymentTransitionType.valueOf(transition.name()), null);
     }
 
     /**
@@ -565,6 +633,7 @@ public class PaymentAggregate {
         this.paymentStatus = PaymentStatus.CANCELED;
         this.businessDesc = (this.businessDesc != null ? this.businessDesc + "; " : "") + "取消原因: " + reason;
         this.updateTime = LocalDateTime.now();
+        recordTransition(PaymentTransitionType.CANCEL, null);
     }
 
     /**
@@ -587,6 +656,24 @@ public class PaymentAggregate {
         }
     }
 
+    /**
+     * 获取上次持久化后新完成、状态尚未写回的流水
+     *
+     * @return 待写回的已完成流水（只读）
+     */
+    public List<PaymentTransaction> getUnpersistedCompletedTransactions() {
+        return Collections.unmodifiableList(unpersistedCompletedTransactions);
+    }
+
+    /**
+     * 获取上次持久化后发生、尚未写入事件日志的状态变更
+     *
+     * @return 按发生顺序排列的状态变更（只读）
+     */
+    public List<PaymentTransition> getUnjournaledTransitions() {
+        return Collections.unmodifiableList(unjournaledTransitions);
+    }
+
     /**
      * 在完成数据持久化后，将运行期流水移动到完成流水中
      */
@@ -595,5 +682,12 @@ public class PaymentAggregate {
             && this.runningTransaction.getTransactionStatus() != TransactionStatus.PROCESSING) {
             moveTransactionToCompleted();
         }
+        this.unpersistedCompletedTransactions.clear();
+        this.unjournaledTransitions.clear();
+    }
+
+    private void recordTransition(PaymentTransitionType transitionType, PaymentTransaction transaction) {
+        this.unjournaledTransitions.add(new PaymentTransition(transitionType, this.paymentStatus, this.refundStatus,
+                this.paidAmount, this.refundedAmount, transaction, LocalDateTime.now()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.bytz.modules.cms.payment.domain.model;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentTransitionType;
+import com.bytz.modules.cms.payment.domain.enums.RefundStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 支付单状态变更
+ * Payment Transition
+ * <p>
+ * 聚合根每次状态变更时记录变更后的状态与金额，由仓储在数据持久化提交后写入事件日志。
+ * 流水在变更时可能尚未分配ID与流水号，保留引用，写入日志时再读取。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PaymentTransition {
+
+    private final PaymentTransitionType transitionType;
+
+    private final PaymentStatus paymentStatus;
+
+    private final RefundStatus refundStatus;
+
+    private final BigDecimal paidAmount;
+
+    private final BigDecimal refundedAmount;
+
+    /**
+     * 相关流水（发起/回调时），其他变更为null
+     */
+    @ToString.Exclude
+    private final PaymentTransaction transaction;
+
+    private final LocalDateTime occurredAt;
+}
@@ -0,0 +1,149 @@
+package com.bytz.modules.cms.payment.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * 支付单流水索引
+ * Transaction Index
+ * <p>
+ * 随聚合根已完成流水列表增量维护（列表只追加，索引记录已处理的条数，访问时补入新增部分）：
+ * <p>
+ * - 按创建时间升序保存已完成流水，新流水二分查找插入位置，通常位于末尾
+ * - 流水ID索引；加入时尚无ID的流水（新建后由仓储回填ID）在首次按ID查找未命中时补登
+ * - 最新一条成功的支付流水
+ * <p>
+ * 创建时间为空（尚未持久化）的流水视为最新。对外提供按创建时间倒序的只读视图，
+ * 运行期流水总是最新的一条，位于视图首位；视图随聚合根变化，不复制。
+ */
+final class TransactionIndex {
+
+    private final PaymentAggregate owner;
+    private final List<PaymentTransaction> source;
+    private final List<PaymentTransaction> ascending;
+    private final Map<String, PaymentTransaction> byId;
+    private final List<PaymentTransaction> unidentified = new ArrayList<>();
+    private final List<PaymentTransaction> descendingView = new DescendingView();
+    private PaymentTransaction latestSuccessfulPayment;
+    private int indexed;
+
+    TransactionIndex(PaymentAggregate owner, List<PaymentTransaction> source) {
+        this.owner = owner;
+        this.source = source;
+        this.ascending = new ArrayList<>(source.size() + 4);
+        this.byId = new HashMap<>(Math.max(16, source.size() * 2));
+    }
+
+    /**
+     * 是否为该聚合根当前的已完成列表建立（toBuilder复制出的聚合根需要重建）
+     */
+    boolean isFor(PaymentAggregate aggregate, List<PaymentTransaction> completedTransactions) {
+        return owner == aggregate && source == completedTransactions;
+    }
+
+    /**
+     * 补入已完成列表中新增的流水
+     */
+    TransactionIndex sync() {
+        while (indexed < source.size()) {
+            add(source.get(indexed++));
+        }
+        return this;
+    }
+
+    List<PaymentTransaction> descending() {
+        return descendingView;
+    }
+
+    PaymentTransaction findById(String transactionId) {
+        if (transactionId == null) {
+            return null;
+        }
+        PaymentTransaction transaction = byId.get(transactionId);
+        if (transaction == null && !unidentified.isEmpty()) {
+            unidentified.removeIf(pending -> {
+                if (pending.getId() == null) {
+                    return false;
+                }
+                byId.putIfAbsent(pending.getId(), pending);
+                return true;
+            });
+            transaction = byId.get(transactionId);
+        }
+        return transaction;
+    }
+
+    PaymentTransaction latestSuccessfulPayment() {
+        return latestSuccessfulPayment;
+    }
+
+    private void add(PaymentTransaction transaction) {
+        ascending.add(insertionPoint(transaction.getCreateTime()), transaction);
+        if (transaction.getId() != null) {
+            byId.putIfAbsent(transaction.getId(), transaction);
+        } else {
+            unidentified.add(transaction);
+        }
+        if (transaction.isPaymentTransaction() && transaction.isSuccess()
+            && (latestSuccessfulPayment == null
+                || compare(transaction.getCreateTime(), latestSuccessfulPayment.getCreateTime()) >= 0)) {
+            latestSuccessfulPayment = transaction;
+        }
+    }
+
+    /**
+     * 创建时间相同的插在已有流水之后（后完成的视为更新）
+     */
+    private int insertionPoint(LocalDateTime createTime) {
+        int last = ascending.size() - 1;
+        if (last < 0 || compare(createTime, ascending.get(last).getCreateTime()) >= 0) {
+            return last + 1;
+        }
+        int low = 0;
+        int high = last;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(createTime, ascending.get(mid).getCreateTime()) >= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(LocalDateTime a, LocalDateTime b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : (a == null ? 1 : -1);
+        }
+        return a.compareTo(b);
+    }
+
+    private final class DescendingView extends AbstractList<PaymentTransaction> implements RandomAccess {
+
+        @Override
+        public PaymentTransaction get(int index) {
+            sync();
+            PaymentTransaction running = owner.getRunningTransaction();
+            int size = ascending.size() + (running != null ? 1 : 0);
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            if (running != null) {
+                return index == 0 ? running : ascending.get(size - 1 - index);
+            }
+            return ascending.get(size - 1 - index);
+        }
+
+        @Override
+        public int size() {
+            sync();
+            return ascending.size() + (owner.getRunningTransaction() != null ? 1 : 0);
+        }
+    }
+}
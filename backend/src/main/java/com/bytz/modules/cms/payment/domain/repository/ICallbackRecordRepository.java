@@ -0,0 +1,33 @@
+package com.bytz.modules.cms.payment.domain.repository;
+
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
+
+import java.util.List;
+
+/**
+ * 渠道回调处理记录仓储接口
+ * Callback Record Repository Interface
+ *
+ * 记录已处理的渠道回调（以渠道交易号、回调状态为键）与已入账的电汇（以银行流水号、支付单ID为键），
+ * 用于识别渠道重复投递的回调与重复导入的银行对账单
+ * 接口定义在领域层，实现在基础设施层
+ */
+public interface ICallbackRecordRepository {
+
+    /**
+     * 判断回调是否已处理（只读）
+     *
+     * @param record 回调处理记录
+     * @return true如果该回调已处理过，否则false
+     */
+    boolean isProcessed(CallbackRecord record);
+
+    /**
+     * 在当前事务内批量登记回调为已处理
+     * 须由支付单仓储在所属支付单的分片事务内调用（见IPaymentRepository#saveAll(List, List)），
+     * 登记随支付单更新一起提交或回滚；唯一键冲突时抛出DuplicateKeyException，由调用方事务整体回滚
+     *
+     * @param records 回调处理记录
+     */
+    void markProcessed(List<CallbackRecord> records);
+}
@@ -5,6 +5,8 @@ import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
 import com.bytz.modules.cms.payment.domain.response.StarPaymentResponse;
 import com.bytz.modules.cms.payment.domain.response.RefundRequestResponse;
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * 支付渠道接口
@@ -30,6 +32,19 @@ public interface IPaymentChannelService {
      */
     StarPaymentResponse starPaymentRequest(StartPaymentCommand command);
 
+    /**
+     * 异步创建支付请求
+     * <p>
+     * 默认实现在给定执行器上调用同步方法；渠道SDK支持异步调用时应覆盖为原生异步实现，不占用执行器线程
+     *
+     * @param command  创建支付请求命令
+     * @param executor 同步适配时使用的执行器
+     * @return 支付请求响应
+     */
+    default CompletableFuture<StarPaymentResponse> starPaymentRequestAsync(StartPaymentCommand command, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> starPaymentRequest(command), executor);
+    }
+
 
     /**
      * 创建批量支付请求
@@ -48,6 +63,17 @@ public interface IPaymentChannelService {
      * TODO: 实现支付状态查询逻辑
      */
     String queryPaymentStatus(QueryPaymentStatusCommand command);
+
+    /**
+     * 异步查询支付状态，用于同时查询多笔流水
+     *
+     * @param command  查询支付状态命令
+     * @param executor 同步适配时使用的执行器
+     * @return 支付状态（SUCCESS/FAILED/PROCESSING）
+     */
+    default CompletableFuture<String> queryPaymentStatusAsync(QueryPaymentStatusCommand command, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> queryPaymentStatus(command), executor);
+    }
     
     /**
      * 创建退款请求
@@ -57,6 +83,30 @@ public interface IPaymentChannelService {
      * TODO: 实现退款请求创建逻辑
      */
     RefundRequestResponse createRefundRequest(CreateRefundRequestCommand command);
+
+    /**
+     * 异步创建退款请求
+     *
+     * @param command  创建退款请求命令
+     * @param executor 同步适配时使用的执行器
+     * @return 退款请求响应
+     */
+    default CompletableFuture<RefundRequestResponse> createRefundRequestAsync(CreateRefundRequestCommand command, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> createRefundRequest(command), executor);
+    }
+    
+    /**
+     * 确认已在退款请求中完成的退款（响应状态为SUCCESS）
+     * <p>
+     * 退款流水持久化成功后调用；内部账务渠道在此时退还额度或余额，退款流水未能持久化时不调用，
+     * 因此不会出现已退还却没有退款记录的情况。实现须以渠道退款记录ID幂等，重复调用不重复退还。
+     * 需要等待回调的渠道无需实现
+     *
+     * @param command  创建退款请求命令
+     * @param response 退款请求响应
+     */
+    default void confirmRefund(CreateRefundRequestCommand command, RefundRequestResponse response) {
+    }
     
     /**
      * 查询退款状态
@@ -1,5 +1,7 @@
 package com.bytz.modules.cms.payment.domain.repository;
 
+import com.bytz.modules.cms.payment.domain.command.BulkStatusTransitionCommand;
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
 import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
 
 import java.util.List;
@@ -23,6 +25,26 @@ public interface IPaymentRepository {
      */
     PaymentAggregate save(PaymentAggregate payment);
     
+    /**
+     * 批量保存支付单聚合根
+     * 使用JDBC批处理写入支付单与流水，在一个事务中提交（分片部署时每个分片各一个事务），失败时抛出异常
+     * 
+     * @param payments 支付单聚合根列表
+     * @return 保存后的支付单聚合根列表
+     */
+    List<PaymentAggregate> saveAll(List<PaymentAggregate> payments);
+    
+    /**
+     * 批量保存支付单聚合根，并登记本次生效的渠道回调
+     * 回调登记与所属支付单在同一个分片事务内批量写入，一起提交或一起回滚；
+     * 登记命中唯一键（并发投递的同一回调已先提交）时该分片事务整体回滚，抛出DuplicateKeyException
+     * 
+     * @param payments        支付单聚合根列表
+     * @param callbackRecords 回调处理记录，所属支付单须在payments中
+     * @return 保存后的支付单聚合根列表
+     */
+    List<PaymentAggregate> saveAll(List<PaymentAggregate> payments, List<CallbackRecord> callbackRecords);
+    
     /**
      * 根据主键ID查找支付单
      * 
@@ -77,6 +99,25 @@ public interface IPaymentRepository {
      */
     List<PaymentAggregate> findByIds(List<String> ids);
     
+    /**
+     * 根据渠道支付记录ID查找支付单
+     * 统一支付时一次渠道支付对应多个支付单，返回流水关联该记录的全部支付单（含已结清的）
+     * 
+     * @param channelPaymentRecordId 渠道支付记录ID
+     * @return 支付单聚合根列表
+     */
+    List<PaymentAggregate> findByChannelPaymentRecordId(String channelPaymentRecordId);
+    
+    /**
+     * 按范围批量执行状态迁移
+     * 以带迁移条件的集合更新分批执行（每批一个事务），不加载聚合根；不满足条件的支付单保持不变。
+     * 各批独立提交，中途失败时已提交的批次不回滚，重试是幂等的（已迁移的支付单不再满足条件）
+     * 
+     * @param command 批量状态迁移命令
+     * @return 实际迁移的支付单ID列表
+     */
+    List<String> transitionStatus(BulkStatusTransitionCommand command);
+    
     /**
      * 删除支付单（逻辑删除）- 通过主键ID
      * 
@@ -0,0 +1,45 @@
+package com.bytz.modules.cms.payment.domain.response;
+
+import com.bytz.modules.cms.payment.domain.enums.CallbackOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 回调处理结果
+ * Callback Result
+ * 
+ * 批量回调中单项的处理结果，与请求项一一对应
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CallbackResult {
+    
+    /**
+     * 支付单ID
+     */
+    private String paymentId;
+    
+    /**
+     * 流水号
+     */
+    private String transactionCode;
+    
+    /**
+     * 渠道交易号
+     */
+    private String channelTransactionNumber;
+    
+    /**
+     * 处理结果
+     */
+    private CallbackOutcome outcome;
+    
+    /**
+     * 失败原因（处理成功时为空）
+     */
+    private String message;
+}
@@ -1,5 +1,6 @@
 package com.bytz.modules.cms.payment.domain.response;
 
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -28,4 +29,11 @@ public class RefundRequestResponse {
      * （有些渠道在创建退款时即返回，有些渠道在退款结果回调时才返回）
      */
     private String refundTransactionNumber;
+    
+    /**
+     * 退款状态
+     * （SUCCESS表示渠道在退款请求中即完成退款，如信用账户、钱包等内部账务渠道，不再有回调；
+     * 为空或PROCESSING表示等待渠道退款回调）
+     */
+    private TransactionStatus transactionStatus;
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.bytz.modules.cms.payment.domain.response;
+
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 退款执行结果
+ * Refund Result
+ * 
+ * 批量退款中单项的结果，与退款命令一一对应。
+ * 渠道在退款请求中即完成的退款已随本次保存结算，退款流水不再是支付单的运行中流水，因此单独返回
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundResult {
+    
+    /**
+     * 支付单
+     */
+    private PaymentAggregate payment;
+    
+    /**
+     * 本次退款流水
+     */
+    private PaymentTransaction refundTransaction;
+}
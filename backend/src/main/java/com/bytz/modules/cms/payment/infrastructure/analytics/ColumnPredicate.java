@@ -0,0 +1,107 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 列谓词
+ * Column Predicate
+ * 
+ * 同时用于两级过滤：
+ * 1. 行组级（谓词下推）：mightMatch根据列块统计判断行组是否可能包含匹配行，不可能则整组跳过不解压
+ * 2. 行级：test对解码后的值逐行判断
+ */
+public abstract class ColumnPredicate {
+    
+    private final String column;
+    
+    protected ColumnPredicate(String column) {
+        this.column = column;
+    }
+    
+    public String getColumn() {
+        return column;
+    }
+    
+    /**
+     * 行组是否可能包含匹配行
+     */
+    public abstract boolean mightMatch(ColumnStats stats);
+    
+    /**
+     * 单个值是否匹配
+     */
+    public abstract boolean test(Object value);
+    
+    /**
+     * 等值谓词
+     */
+    public static ColumnPredicate eq(String column, Object value) {
+        return in(column, Collections.singleton(value));
+    }
+    
+    /**
+     * 集合谓词
+     */
+    public static ColumnPredicate in(String column, Collection<?> values) {
+        Set<Object> accepted = new HashSet<>(values);
+        return new ColumnPredicate(column) {
+            @Override
+            public boolean mightMatch(ColumnStats stats) {
+                if (stats.getValues() != null) {
+                    for (Object value : accepted) {
+                        if (stats.getValues().contains(value)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                if (stats.getMin() == null) {
+                    return false;
+                }
+                for (Object value : accepted) {
+                    if (stats.getMin().compareTo(value) <= 0 && stats.getMax().compareTo(value) >= 0) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            
+            @Override
+            public boolean test(Object value) {
+                return value != null && accepted.contains(value);
+            }
+        };
+    }
+    
+    /**
+     * 区间谓词 [fromInclusive, toExclusive)，任一端为null表示不限
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<? super T>> ColumnPredicate between(String column, T fromInclusive, T toExclusive) {
+        return new ColumnPredicate(column) {
+            @Override
+            public boolean mightMatch(ColumnStats stats) {
+                if (stats.getMin() == null) {
+                    return false;
+                }
+                if (toExclusive != null && stats.getMin().compareTo(toExclusive) >= 0) {
+                    return false;
+                }
+                return fromInclusive == null || stats.getMax().compareTo(fromInclusive) >= 0;
+            }
+            
+            @Override
+            public boolean test(Object value) {
+                if (value == null) {
+                    return false;
+                }
+                T v = (T) value;
+                return (fromInclusive == null || v.compareTo(fromInclusive) >= 0)
+                        && (toExclusive == null || v.compareTo(toExclusive) < 0);
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import java.util.Set;
+
+/**
+ * 列块统计信息
+ * Column Chunk Statistics
+ * 
+ * 随每个行组的列块写入文件，读取时无需解压数据即可判断行组能否跳过：
+ * - TIMESTAMP/DECIMAL/STRING：最小值、最大值
+ * - DICTIONARY：列块内出现过的全部取值
+ */
+public final class ColumnStats {
+    
+    private final Comparable<Object> min;
+    private final Comparable<Object> max;
+    private final Set<String> values;
+    private final int nullCount;
+    
+    ColumnStats(Comparable<Object> min, Comparable<Object> max, Set<String> values, int nullCount) {
+        this.min = min;
+        this.max = max;
+        this.values = values;
+        this.nullCount = nullCount;
+    }
+    
+    /**
+     * 最小值，全部为空或字典列时为null
+     */
+    public Comparable<Object> getMin() {
+        return min;
+    }
+    
+    /**
+     * 最大值，全部为空或字典列时为null
+     */
+    public Comparable<Object> getMax() {
+        return max;
+    }
+    
+    /**
+     * 字典列的全部取值，非字典列为null
+     */
+    public Set<String> getValues() {
+        return values;
+    }
+    
+    public int getNullCount() {
+        return nullCount;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+/**
+ * 列式文件的列类型
+ * Columnar Column Type
+ * 
+ * 每种类型对应一种编码方式：
+ * - TIMESTAMP：LocalDateTime，按毫秒做差分编码后zigzag变长整数
+ * - DECIMAL：BigDecimal，固定6位小数的未缩放值，zigzag变长整数
+ * - DICTIONARY：低基数字符串（枚举），列块内字典 + 变长整数编码
+ * - STRING：普通字符串，长度前缀UTF-8
+ */
+public enum ColumnType {
+    
+    TIMESTAMP(1),
+    
+    DECIMAL(2),
+    
+    DICTIONARY(3),
+    
+    STRING(4);
+    
+    private final int code;
+    
+    ColumnType(int code) {
+        this.code = code;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    public static ColumnType fromCode(int code) {
+        for (ColumnType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的列类型编码: " + code);
+    }
+}
@@ -0,0 +1,286 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.bytz.modules.cms.payment.infrastructure.analytics.ColumnarFormat.*;
+
+/**
+ * 列式文件读取器
+ * Columnar File Reader
+ * <p>
+ * 扫描过程：
+ * 1. 读行组头中各列的统计信息，任一谓词判定不可能匹配则跳过整个行组（谓词下推，不解压）
+ * 2. 只解压投影列和谓词列，其余列按压缩长度略过
+ * 3. 逐行判断谓词，输出投影列
+ */
+public final class ColumnarFileReader {
+
+    private ColumnarFileReader() {
+    }
+
+    /**
+     * 读取文件的表结构
+     *
+     * @param file 列式文件
+     * @return 表结构
+     */
+    public static ColumnarSchema readSchema(Path file) throws IOException {
+        try (DataInputStream in = open(file)) {
+            return readHeader(in);
+        }
+    }
+
+    /**
+     * 扫描文件
+     *
+     * @param file       列式文件
+     * @param projection 输出列名（输出数组按此顺序）
+     * @param predicates 过滤谓词（全部满足才输出）
+     * @param consumer   行消费者，数组在回调后可被复用，需要保留时请复制
+     * @return 扫描统计
+     */
+    public static ScanMetrics scan(Path file, List<String> projection, List<ColumnPredicate> predicates,
+                                   Consumer<Object[]> consumer) throws IOException {
+        ScanMetrics metrics = new ScanMetrics();
+        try (DataInputStream in = open(file)) {
+            ColumnarSchema schema = readHeader(in);
+            int columns = schema.size();
+
+            int[] projected = new int[projection.size()];
+            for (int i = 0; i < projected.length; i++) {
+                projected[i] = schema.indexOf(projection.get(i));
+            }
+            int[] predicateColumns = new int[predicates.size()];
+            for (int i = 0; i < predicateColumns.length; i++) {
+                predicateColumns[i] = schema.indexOf(predicates.get(i).getColumn());
+            }
+            boolean[] needed = new boolean[columns];
+            for (int column : projected) {
+                needed[column] = true;
+            }
+            for (int column : predicateColumns) {
+                needed[column] = true;
+            }
+
+            Object[] output = new Object[projected.length];
+            while (true) {
+                int marker = in.read();
+                if (marker == END_MARKER) {
+                    break;
+                }
+                if (marker != ROW_GROUP_MARKER) {
+                    throw new IOException("文件损坏：非法的行组标记 " + marker);
+                }
+                int rows = readVarInt(in);
+                ColumnStats[] stats = new ColumnStats[columns];
+                byte[][] statsBytes = new byte[columns][];
+                int[] rawLengths = new int[columns];
+                int[] compressedLengths = new int[columns];
+                for (int column = 0; column < columns; column++) {
+                    statsBytes[column] = new byte[readVarInt(in)];
+                    in.readFully(statsBytes[column]);
+                    rawLengths[column] = readVarInt(in);
+                    compressedLengths[column] = readVarInt(in);
+                }
+                metrics.rowGroups++;
+
+                boolean skip = false;
+                for (int i = 0; i < predicates.size() && !skip; i++) {
+                    int column = predicateColumns[i];
+                    if (stats[column] == null) {
+                        stats[column] = decodeStats(schema.type(column), statsBytes[column]);
+                    }
+                    skip = !predicates.get(i).mightMatch(stats[column]);
+                }
+                if (skip) {
+                    long total = 0;
+                    for (int length : compressedLengths) {
+                        total += length;
+                    }
+                    skipFully(in, total);
+                    metrics.skippedRowGroups++;
+                    continue;
+                }
+
+                Object[][] values = new Object[columns][];
+                for (int column = 0; column < columns; column++) {
+                    if (!needed[column]) {
+                        skipFully(in, compressedLengths[column]);
+                        continue;
+                    }
+                    byte[] compressed = new byte[compressedLengths[column]];
+                    in.readFully(compressed);
+                    values[column] = decodeColumn(schema.type(column), statsBytes[column],
+                            inflate(compressed, rawLengths[column]), rows);
+                }
+
+                for (int row = 0; row < rows; row++) {
+                    metrics.scannedRows++;
+                    boolean match = true;
+                    for (int i = 0; i < predicates.size() && match; i++) {
+                        match = predicates.get(i).test(values[predicateColumns[i]][row]);
+                    }
+                    if (!match) {
+                        continue;
+                    }
+                    for (int i = 0; i < projected.length; i++) {
+                        output[i] = values[projected[i]][row];
+                    }
+                    metrics.matchedRows++;
+                    consumer.accept(output);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private static DataInputStream open(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+    }
+
+    private static ColumnarSchema readHeader(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("不是列式导出文件");
+        }
+        int columns = readVarInt(in);
+        ColumnarSchema.Builder builder = ColumnarSchema.builder();
+        for (int i = 0; i < columns; i++) {
+            String name = readString(in);
+            builder.column(name, ColumnType.fromCode(in.readUnsignedByte()));
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ColumnStats decodeStats(ColumnType type, byte[] bytes) throws IOException {
+        InputStream in = new ByteArrayInputStream(bytes);
+        int nullCount = readVarInt(in);
+        switch (type) {
+            case TIMESTAMP:
+            case DECIMAL: {
+                if (in.read() == 0) {
+                    return new ColumnStats(null, null, null, nullCount);
+                }
+                long min = unzigzag(readVarLong(in));
+                long max = unzigzag(readVarLong(in));
+                return type == ColumnType.TIMESTAMP
+                        ? new ColumnStats((Comparable) fromMillis(min), (Comparable) fromMillis(max), null, nullCount)
+                        : new ColumnStats((Comparable) fromUnscaled(min), (Comparable) fromUnscaled(max), null, nullCount);
+            }
+            case DICTIONARY:
+                return new ColumnStats(null, null, new LinkedHashSet<>(Arrays.asList(readDictionary(in))), nullCount);
+            case STRING: {
+                if (in.read() == 0) {
+                    return new ColumnStats(null, null, null, nullCount);
+                }
+                return new ColumnStats((Comparable) readString(in), (Comparable) readString(in), null, nullCount);
+            }
+            default:
+                throw new IOException("不支持的列类型: " + type);
+        }
+    }
+
+    private static String[] readDictionary(InputStream in) throws IOException {
+        String[] dictionary = new String[readVarInt(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(in);
+        }
+        return dictionary;
+    }
+
+    private static Object[] decodeColumn(ColumnType type, byte[] statsBytes, byte[] raw, int rows) throws IOException {
+        InputStream stats = new ByteArrayInputStream(statsBytes);
+        int nullCount = readVarInt(stats);
+        InputStream in = new ByteArrayInputStream(raw);
+        byte[] nullBitmap = null;
+        if (nullCount > 0) {
+            nullBitmap = new byte[(rows + 7) / 8];
+            readFully(in, nullBitmap);
+        }
+        String[] dictionary = type == ColumnType.DICTIONARY ? readDictionary(stats) : null;
+
+        Object[] values = new Object[rows];
+        long previous = 0;
+        boolean first = true;
+        for (int row = 0; row < rows; row++) {
+            if (nullBitmap != null && (nullBitmap[row >>> 3] & (1 << (row & 7))) != 0) {
+                continue;
+            }
+            switch (type) {
+                case TIMESTAMP: {
+                    long decoded = unzigzag(readVarLong(in));
+                    previous = first ? decoded : previous + decoded;
+                    first = false;
+                    values[row] = fromMillis(previous);
+                    break;
+                }
+                case DECIMAL:
+                    values[row] = fromUnscaled(unzigzag(readVarLong(in)));
+                    break;
+                case DICTIONARY:
+                    values[row] = dictionary[readVarInt(in)];
+                    break;
+                case STRING:
+                    values[row] = readString(in);
+                    break;
+                default:
+                    throw new IOException("不支持的列类型: " + type);
+            }
+        }
+        return values;
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("文件不完整");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * 扫描统计
+     */
+    public static final class ScanMetrics {
+
+        private int rowGroups;
+        private int skippedRowGroups;
+        private long scannedRows;
+        private long matchedRows;
+
+        public int getRowGroups() {
+            return rowGroups;
+        }
+
+        public int getSkippedRowGroups() {
+            return skippedRowGroups;
+        }
+
+        public long getScannedRows() {
+            return scannedRows;
+        }
+
+        public long getMatchedRows() {
+            return matchedRows;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.bytz.modules.cms.payment.infrastructure.analytics.ColumnarFormat.*;
+
+/**
+ * 列式文件写入器
+ * Columnar File Writer
+ * <p>
+ * 按行追加，缓冲满一个行组后按列编码、压缩并写出，同时写出每列的统计信息供读取时谓词下推。
+ * 非线程安全，一个写入器对应一个文件。
+ */
+public class ColumnarFileWriter implements Closeable {
+
+    /**
+     * 默认行组行数
+     */
+    public static final int DEFAULT_ROW_GROUP_SIZE = 8192;
+
+    private final ColumnarSchema schema;
+    private final int rowGroupSize;
+    private final DataOutputStream out;
+    private final List<Object[]> buffer;
+    private long rowCount;
+    private boolean closed;
+
+    public ColumnarFileWriter(Path file, ColumnarSchema schema) throws IOException {
+        this(file, schema, DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    public ColumnarFileWriter(Path file, ColumnarSchema schema, int rowGroupSize) throws IOException {
+        if (rowGroupSize <= 0) {
+            throw new IllegalArgumentException("行组行数必须大于0");
+        }
+        this.schema = schema;
+        this.rowGroupSize = rowGroupSize;
+        this.buffer = new ArrayList<>(rowGroupSize);
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+        writeHeader();
+    }
+
+    /**
+     * 追加一行
+     *
+     * @param row 与表结构列顺序一致的值数组，元素可为null
+     */
+    public void write(Object... row) throws IOException {
+        if (row.length != schema.size()) {
+            throw new IllegalArgumentException("列数不符，期望 " + schema.size() + "，实际 " + row.length);
+        }
+        buffer.add(row);
+        rowCount++;
+        if (buffer.size() >= rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    /**
+     * 已写入行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushRowGroup();
+            out.write(END_MARKER);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        out.write(MAGIC);
+        writeVarLong(out, schema.size());
+        for (int i = 0; i < schema.size(); i++) {
+            writeString(out, schema.name(i));
+            out.write(schema.type(i).getCode());
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        int columns = schema.size();
+        byte[][] stats = new byte[columns][];
+        byte[][] raw = new byte[columns][];
+        byte[][] compressed = new byte[columns][];
+        for (int column = 0; column < columns; column++) {
+            ByteArrayOutputStream statsOut = new ByteArrayOutputStream(64);
+            ByteArrayOutputStream dataOut = new ByteArrayOutputStream(buffer.size() * 4);
+            encodeColumn(column, statsOut, dataOut);
+            stats[column] = statsOut.toByteArray();
+            raw[column] = dataOut.toByteArray();
+            compressed[column] = deflate(raw[column]);
+        }
+
+        out.write(ROW_GROUP_MARKER);
+        writeVarLong(out, buffer.size());
+        for (int column = 0; column < columns; column++) {
+            writeVarLong(out, stats[column].length);
+            out.write(stats[column]);
+            writeVarLong(out, raw[column].length);
+            writeVarLong(out, compressed[column].length);
+        }
+        for (int column = 0; column < columns; column++) {
+            out.write(compressed[column]);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 编码单列：统计信息写入statsOut，空值位图和值写入dataOut
+     */
+    private void encodeColumn(int column, OutputStream statsOut, OutputStream dataOut) throws IOException {
+        int rows = buffer.size();
+        byte[] nullBitmap = new byte[(rows + 7) / 8];
+        int nullCount = 0;
+        for (int row = 0; row < rows; row++) {
+            if (buffer.get(row)[column] == null) {
+                nullBitmap[row >>> 3] |= (byte) (1 << (row & 7));
+                nullCount++;
+            }
+        }
+        writeVarLong(statsOut, nullCount);
+        if (nullCount > 0) {
+            dataOut.write(nullBitmap);
+        }
+
+        switch (schema.type(column)) {
+            case TIMESTAMP:
+            case DECIMAL:
+                encodeLongColumn(column, statsOut, dataOut);
+                break;
+            case DICTIONARY:
+                encodeDictionaryColumn(column, statsOut, dataOut);
+                break;
+            case STRING:
+                encodeStringColumn(column, statsOut, dataOut);
+                break;
+            default:
+                throw new IllegalStateException("不支持的列类型: " + schema.type(column));
+        }
+    }
+
+    /**
+     * 时间列做差分编码；金额列直接编码未缩放值
+     */
+    private void encodeLongColumn(int column, OutputStream statsOut, OutputStream dataOut) throws IOException {
+        boolean delta = schema.type(column) == ColumnType.TIMESTAMP;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long previous = 0;
+        boolean first = true;
+        for (Object[] row : buffer) {
+            Object value = row[column];
+            if (value == null) {
+                continue;
+            }
+            long encoded = delta ? toMillis((LocalDateTime) value) : toUnscaled((BigDecimal) value);
+            min = Math.min(min, encoded);
+            max = Math.max(max, encoded);
+            writeVarLong(dataOut, zigzag(delta && !first ? encoded - previous : encoded));
+            previous = encoded;
+            first = false;
+        }
+        statsOut.write(first ? 0 : 1);
+        if (!first) {
+            writeVarLong(statsOut, zigzag(min));
+            writeVarLong(statsOut, zigzag(max));
+        }
+    }
+
+    /**
+     * 字典编码：字典（即该列块出现过的全部取值）存入统计信息，数据只存编码
+     */
+    private void encodeDictionaryColumn(int column, OutputStream statsOut, OutputStream dataOut) throws IOException {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Object[] row : buffer) {
+            Object value = row[column];
+            if (value == null) {
+                continue;
+            }
+            Integer code = dictionary.get(value.toString());
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.put(value.toString(), code);
+            }
+            writeVarLong(dataOut, code);
+        }
+        writeVarLong(statsOut, dictionary.size());
+        for (String value : dictionary.keySet()) {
+            writeString(statsOut, value);
+        }
+    }
+
+    private void encodeStringColumn(int column, OutputStream statsOut, OutputStream dataOut) throws IOException {
+        String min = null;
+        String max = null;
+        for (Object[] row : buffer) {
+            Object value = row[column];
+            if (value == null) {
+                continue;
+            }
+            String text = value.toString();
+            if (min == null || text.compareTo(min) < 0) {
+                min = text;
+            }
+            if (max == null || text.compareTo(max) > 0) {
+                max = text;
+            }
+            writeString(dataOut, text);
+        }
+        statsOut.write(min == null ? 0 : 1);
+        if (min != null) {
+            writeString(statsOut, min);
+            writeString(statsOut, max);
+        }
+    }
+}
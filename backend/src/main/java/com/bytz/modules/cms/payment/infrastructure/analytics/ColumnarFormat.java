@@ -0,0 +1,184 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 列式文件格式常量与编解码工具
+ * Columnar File Format
+ * <p>
+ * 文件布局：
+ * <pre>
+ * MAGIC(8) | 列数 | 每列：列名、类型编码
+ * 行组 × N：
+ *   标记(1) | 行数 | 每列：统计信息长度、统计信息、原始长度、压缩长度 | 每列：Deflate压缩数据
+ * 结束标记(0)
+ * </pre>
+ * 行组头集中存放全部列的统计信息和长度，读取时可先判断整个行组能否跳过，
+ * 跳过时按压缩长度直接略过数据，不做解压。
+ * 整数一律为无符号LEB128变长编码，有符号值先做zigzag变换。
+ */
+final class ColumnarFormat {
+
+    static final byte[] MAGIC = "PAYCOL01".getBytes(StandardCharsets.US_ASCII);
+
+    static final int ROW_GROUP_MARKER = 1;
+
+    static final int END_MARKER = 0;
+
+    /**
+     * 金额列固定小数位（与数据库 DECIMAL(20, 6) 一致）
+     */
+    static final int DECIMAL_SCALE = 6;
+
+    private ColumnarFormat() {
+    }
+
+    // ==================== 变长整数 ====================
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("变长整数不完整");
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("变长整数过长");
+    }
+
+    static int readVarInt(InputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("长度超出范围: " + value);
+        }
+        return (int) value;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // ==================== 字符串 ====================
+
+    static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(InputStream in) throws IOException {
+        int length = readVarInt(in);
+        byte[] bytes = new byte[length];
+        readFully(in, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void readFully(InputStream in, byte[] buffer) throws IOException {
+        if (in instanceof DataInput) {
+            ((DataInput) in).readFully(buffer);
+            return;
+        }
+        int offset = 0;
+        while (offset < buffer.length) {
+            int read = in.read(buffer, offset, buffer.length - offset);
+            if (read < 0) {
+                throw new EOFException("数据不完整");
+            }
+            offset += read;
+        }
+    }
+
+    // ==================== 值转换 ====================
+
+    /**
+     * 时间转毫秒（按墙上时间，不做时区换算）
+     */
+    static long toMillis(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000L + time.getNano() / 1_000_000;
+    }
+
+    static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    static long toUnscaled(BigDecimal value) {
+        return value.setScale(DECIMAL_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromUnscaled(long unscaled) {
+        return BigDecimal.valueOf(unscaled, DECIMAL_SCALE);
+    }
+
+    // ==================== 压缩 ====================
+
+    static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int offset = 0;
+            while (offset < rawLength) {
+                int length = inflater.inflate(raw, offset, rawLength - offset);
+                if (length == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                offset += length;
+            }
+            if (offset != rawLength) {
+                throw new IOException("列数据长度不符，期望 " + rawLength + "，实际 " + offset);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("列数据解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
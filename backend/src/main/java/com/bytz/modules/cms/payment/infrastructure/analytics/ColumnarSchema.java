@@ -0,0 +1,92 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列式文件的表结构
+ * Columnar Schema
+ * 
+ * 列名与列类型的有序列表，写入文件头，读取时据此解码
+ */
+public final class ColumnarSchema {
+    
+    private final List<String> names;
+    private final List<ColumnType> types;
+    
+    private ColumnarSchema(List<String> names, List<ColumnType> types) {
+        this.names = Collections.unmodifiableList(names);
+        this.types = Collections.unmodifiableList(types);
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public int size() {
+        return names.size();
+    }
+    
+    public String name(int index) {
+        return names.get(index);
+    }
+    
+    public ColumnType type(int index) {
+        return types.get(index);
+    }
+    
+    /**
+     * 列序号
+     *
+     * @param name 列名
+     * @return 列序号
+     * @throws IllegalArgumentException 如果列不存在
+     */
+    public int indexOf(String name) {
+        int index = names.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("列不存在: " + name);
+        }
+        return index;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ColumnarSchema)) {
+            return false;
+        }
+        ColumnarSchema other = (ColumnarSchema) o;
+        return names.equals(other.names) && types.equals(other.types);
+    }
+    
+    @Override
+    public int hashCode() {
+        return names.hashCode() * 31 + types.hashCode();
+    }
+    
+    /**
+     * 表结构构建器
+     */
+    public static final class Builder {
+        
+        private final List<String> names = new ArrayList<>();
+        private final List<ColumnType> types = new ArrayList<>();
+        
+        public Builder column(String name, ColumnType type) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("列名重复: " + name);
+            }
+            names.add(name);
+            types.add(type);
+            return this;
+        }
+        
+        public ColumnarSchema build() {
+            return new ColumnarSchema(new ArrayList<>(names), new ArrayList<>(types));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import com.bytz.modules.cms.payment.infrastructure.config.AnalyticsProperties;
+import com.bytz.modules.cms.payment.infrastructure.mapper.AnalyticsExportMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 已结清流水列式导出任务
+ * Settled Payment Exporter
+ * <p>
+ * 按分片增量导出已结清（成功/失败）流水到列式压缩文件，供分析查询离线扫描，
+ * 分析负载不再落到业务库：
+ * 1. 每个分片维护 (update_time, id) 水位，从水位之后按页读取，走 idx_update_time 范围扫描
+ * 2. 每次运行每个分片最多产出一个文件，先写临时文件，完整关闭后原子改名为正式文件
+ * 3. 文件改名成功后再推进水位；两步之间进程退出会导致下次重复导出同一批行（至少一次）
+ * <p>
+ * 只导出 update_time 早于（当前时间 - 结清余量）的行，避免更新时间较早、提交较晚的事务被水位越过。
+ * 历史数据 update_time 为空的行不会被导出，需要先回填。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.analytics.export", name = "enabled", havingValue = "true")
+public class SettledPaymentExporter {
+
+    static final String FILE_PREFIX = "settled_transaction-";
+    static final String FILE_SUFFIX = ".pcol";
+    private static final String WATERMARK_FILE = "watermark.properties";
+    private static final LocalDateTime INITIAL_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    private final AnalyticsExportMapper exportMapper;
+    private final PaymentShardRouter shardRouter;
+    private final AnalyticsProperties properties;
+
+    public SettledPaymentExporter(AnalyticsExportMapper exportMapper,
+                                  PaymentShardRouter shardRouter,
+                                  AnalyticsProperties properties) {
+        this.exportMapper = exportMapper;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+    }
+
+    /**
+     * 定时执行增量导出
+     */
+    @Scheduled(cron = "${payment.analytics.export.cron:0 0 * * * ?}")
+    public synchronized void run() {
+        Path directory = Paths.get(properties.getDirectory());
+        LocalDateTime upperBound = LocalDateTime.now().minus(properties.getExport().getSettleLag());
+        try {
+            Files.createDirectories(directory);
+            Properties watermarks = loadWatermarks(directory);
+            for (String shard : shardRouter.getShards()) {
+                try {
+                    long exported = shardRouter.onShard(shard, () -> exportShard(directory, shard, watermarks, upperBound));
+                    if (exported > 0) {
+                        storeWatermarks(directory, watermarks);
+                    }
+                    log.info("分片 {} 分析导出完成，导出流水: {}", shard, exported);
+                } catch (RuntimeException e) {
+                    // 单个分片失败不影响其他分片，水位未推进，下次运行重试
+                    log.error("分片 {} 分析导出失败", shard, e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("分析导出目录不可用: {}", directory, e);
+        }
+    }
+
+    /**
+     * 导出当前分片水位之后的已结清流水
+     *
+     * @return 导出行数
+     */
+    long exportShard(Path directory, String shard, Properties watermarks, LocalDateTime upperBound) {
+        LocalDateTime afterTime = parseTime(watermarks.getProperty(shard + ".time"));
+        long afterId = Long.parseLong(watermarks.getProperty(shard + ".id", "0"));
+        int pageSize = properties.getExport().getPageSize();
+
+        Path target = directory.resolve(FILE_PREFIX + shard + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + FILE_SUFFIX);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        long rows = 0;
+        try {
+            try (ColumnarFileWriter writer = new ColumnarFileWriter(temp, SettledTransactionColumns.SCHEMA,
+                    properties.getExport().getRowGroupSize())) {
+                List<SettledTransactionRow> page;
+                do {
+                    page = exportMapper.selectSettledTransactionsAfter(afterTime, afterId, upperBound, pageSize);
+                    for (SettledTransactionRow row : page) {
+                        writer.write(SettledTransactionColumns.toValues(row));
+                    }
+                    if (!page.isEmpty()) {
+                        SettledTransactionRow last = page.get(page.size() - 1);
+                        afterTime = last.getUpdateTime();
+                        afterId = last.getTransactionId();
+                        rows += page.size();
+                    }
+                } while (page.size() == pageSize);
+            }
+            if (rows == 0) {
+                Files.deleteIfExists(temp);
+                return 0;
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("写入分析文件失败: " + target, e);
+        }
+        watermarks.setProperty(shard + ".time", afterTime.toString());
+        watermarks.setProperty(shard + ".id", String.valueOf(afterId));
+        return rows;
+    }
+
+    private static Properties loadWatermarks(Path directory) throws IOException {
+        Properties watermarks = new Properties();
+        Path file = directory.resolve(WATERMARK_FILE);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                watermarks.load(in);
+            }
+        }
+        return watermarks;
+    }
+
+    private static void storeWatermarks(Path directory, Properties watermarks) {
+        Path file = directory.resolve(WATERMARK_FILE);
+        Path temp = directory.resolve(WATERMARK_FILE + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                watermarks.store(out, "settled transaction export watermarks");
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入导出水位失败: " + file, e);
+        }
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        return value == null ? INITIAL_WATERMARK : LocalDateTime.parse(value);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除临时文件失败: {}", file, e);
+        }
+    }
+}
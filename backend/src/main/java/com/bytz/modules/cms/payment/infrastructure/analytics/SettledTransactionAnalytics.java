@@ -0,0 +1,130 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.infrastructure.config.AnalyticsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 已结清流水分析查询
+ * Settled Transaction Analytics
+ * <p>
+ * 扫描导出目录下的列式文件做分组汇总，不访问业务库。
+ * 时间区间、经销商、流水状态作为谓词下推，行组统计不相交时整组跳过且不解压；
+ * 只解码分组列、流水类型和金额三列。
+ */
+@Slf4j
+@Component
+public class SettledTransactionAnalytics {
+
+    /**
+     * 分组维度
+     */
+    public enum Dimension {
+        CHANNEL(SettledTransactionColumns.PAYMENT_CHANNEL, Object::toString),
+        RESELLER(SettledTransactionColumns.RESELLER_ID, Object::toString),
+        PAYMENT_TYPE(SettledTransactionColumns.PAYMENT_TYPE, Object::toString),
+        MONTH(SettledTransactionColumns.COMPLETE_TIME, value -> value.toString().substring(0, 7));
+
+        private final String column;
+        private final Function<Object, String> keyExtractor;
+
+        Dimension(String column, Function<Object, String> keyExtractor) {
+            this.column = column;
+            this.keyExtractor = keyExtractor;
+        }
+    }
+
+    private final AnalyticsProperties properties;
+
+    public SettledTransactionAnalytics(AnalyticsProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 按维度汇总成功支付/退款的交易量
+     *
+     * @param dimension  分组维度
+     * @param from       完成时间起（含），为null不限
+     * @param to         完成时间止（不含），为null不限
+     * @param resellerId 经销商ID，为null不限
+     * @return 按分组键排序的汇总结果
+     */
+    public List<VolumeBucket> volumeBy(Dimension dimension, LocalDateTime from, LocalDateTime to, String resellerId) {
+        List<ColumnPredicate> predicates = new ArrayList<>();
+        predicates.add(ColumnPredicate.eq(SettledTransactionColumns.TRANSACTION_STATUS, TransactionStatus.SUCCESS.getCode()));
+        if (from != null || to != null) {
+            predicates.add(ColumnPredicate.between(SettledTransactionColumns.COMPLETE_TIME, from, to));
+        }
+        if (resellerId != null) {
+            predicates.add(ColumnPredicate.eq(SettledTransactionColumns.RESELLER_ID, resellerId));
+        }
+        List<String> projection = Arrays.asList(dimension.column,
+                SettledTransactionColumns.TRANSACTION_TYPE, SettledTransactionColumns.AMOUNT);
+
+        Map<String, VolumeBucket> buckets = new TreeMap<>();
+        long skipped = 0;
+        long rowGroups = 0;
+        for (Path file : listFiles()) {
+            try {
+                ColumnarFileReader.ScanMetrics metrics = ColumnarFileReader.scan(file, projection, predicates,
+                        row -> accumulate(buckets, dimension, row));
+                rowGroups += metrics.getRowGroups();
+                skipped += metrics.getSkippedRowGroups();
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取分析文件失败: " + file, e);
+            }
+        }
+        log.debug("交易量分析完成，维度: {}，行组: {}，跳过: {}", dimension, rowGroups, skipped);
+        return new ArrayList<>(buckets.values());
+    }
+
+    private static void accumulate(Map<String, VolumeBucket> buckets, Dimension dimension, Object[] row) {
+        String key = row[0] == null ? "UNKNOWN" : dimension.keyExtractor.apply(row[0]);
+        BigDecimal amount = row[2] == null ? BigDecimal.ZERO : (BigDecimal) row[2];
+        VolumeBucket bucket = buckets.computeIfAbsent(key, k -> {
+            VolumeBucket created = new VolumeBucket();
+            created.setKey(k);
+            return created;
+        });
+        if (TransactionType.REFUND.getCode().equals(row[1])) {
+            bucket.setRefundCount(bucket.getRefundCount() + 1);
+            bucket.setRefundAmount(bucket.getRefundAmount().add(amount));
+        } else if (TransactionType.PAYMENT.getCode().equals(row[1])) {
+            bucket.setPaymentCount(bucket.getPaymentCount() + 1);
+            bucket.setPaymentAmount(bucket.getPaymentAmount().add(amount));
+        }
+    }
+
+    private List<Path> listFiles() {
+        Path directory = Paths.get(properties.getDirectory());
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SettledPaymentExporter.FILE_PREFIX + "*" + SettledPaymentExporter.FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取分析目录失败: " + directory, e);
+        }
+        files.sort(null);
+        return files;
+    }
+}
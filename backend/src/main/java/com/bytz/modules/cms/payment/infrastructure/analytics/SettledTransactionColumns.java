@@ -0,0 +1,70 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+/**
+ * 已结清流水列式表结构
+ * Settled Transaction Columnar Schema
+ * 
+ * 导出任务与分析查询共用的列名定义；低基数的枚举列使用字典编码，时间列使用差分编码
+ */
+public final class SettledTransactionColumns {
+    
+    public static final String TRANSACTION_ID = "transaction_id";
+    public static final String TRANSACTION_CODE = "transaction_code";
+    public static final String PAYMENT_ID = "payment_id";
+    public static final String PAYMENT_CODE = "payment_code";
+    public static final String RESELLER_ID = "reseller_id";
+    public static final String ORDER_ID = "order_id";
+    public static final String PAYMENT_TYPE = "payment_type";
+    public static final String PAYMENT_CHANNEL = "payment_channel";
+    public static final String TRANSACTION_TYPE = "transaction_type";
+    public static final String TRANSACTION_STATUS = "transaction_status";
+    public static final String CURRENCY = "currency";
+    public static final String AMOUNT = "amount";
+    public static final String COMPLETE_TIME = "complete_time";
+    public static final String PAYMENT_CREATE_TIME = "payment_create_time";
+    public static final String UPDATE_TIME = "update_time";
+    
+    public static final ColumnarSchema SCHEMA = ColumnarSchema.builder()
+            .column(TRANSACTION_ID, ColumnType.STRING)
+            .column(TRANSACTION_CODE, ColumnType.STRING)
+            .column(PAYMENT_ID, ColumnType.STRING)
+            .column(PAYMENT_CODE, ColumnType.STRING)
+            .column(RESELLER_ID, ColumnType.DICTIONARY)
+            .column(ORDER_ID, ColumnType.STRING)
+            .column(PAYMENT_TYPE, ColumnType.DICTIONARY)
+            .column(PAYMENT_CHANNEL, ColumnType.DICTIONARY)
+            .column(TRANSACTION_TYPE, ColumnType.DICTIONARY)
+            .column(TRANSACTION_STATUS, ColumnType.DICTIONARY)
+            .column(CURRENCY, ColumnType.DICTIONARY)
+            .column(AMOUNT, ColumnType.DECIMAL)
+            .column(COMPLETE_TIME, ColumnType.TIMESTAMP)
+            .column(PAYMENT_CREATE_TIME, ColumnType.TIMESTAMP)
+            .column(UPDATE_TIME, ColumnType.TIMESTAMP)
+            .build();
+    
+    private SettledTransactionColumns() {
+    }
+    
+    /**
+     * 按表结构列顺序展开一行
+     */
+    static Object[] toValues(SettledTransactionRow row) {
+        return new Object[]{
+                row.getTransactionId() == null ? null : String.valueOf(row.getTransactionId()),
+                row.getTransactionCode(),
+                row.getPaymentId(),
+                row.getPaymentCode(),
+                row.getResellerId(),
+                row.getOrderId(),
+                row.getPaymentType(),
+                row.getPaymentChannel(),
+                row.getTransactionType(),
+                row.getTransactionStatus(),
+                row.getCurrency(),
+                row.getAmount(),
+                row.getCompleteTime(),
+                row.getPaymentCreateTime(),
+                row.getUpdateTime()
+        };
+    }
+}
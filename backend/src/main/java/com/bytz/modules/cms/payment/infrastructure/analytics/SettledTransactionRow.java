@@ -0,0 +1,46 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 已结清流水导出行
+ * Settled Transaction Export Row
+ * 
+ * 流水与所属支付单关联后的宽表行，枚举列以编码字符串读出，直接写入字典列
+ */
+@Data
+public class SettledTransactionRow {
+    
+    private Long transactionId;
+    
+    private String transactionCode;
+    
+    private String paymentId;
+    
+    private String paymentCode;
+    
+    private String resellerId;
+    
+    private String orderId;
+    
+    private String paymentType;
+    
+    private String paymentChannel;
+    
+    private String transactionType;
+    
+    private String transactionStatus;
+    
+    private String currency;
+    
+    private BigDecimal amount;
+    
+    private LocalDateTime completeTime;
+    
+    private LocalDateTime paymentCreateTime;
+    
+    private LocalDateTime updateTime;
+}
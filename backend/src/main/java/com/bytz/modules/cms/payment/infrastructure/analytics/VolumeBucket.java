@@ -0,0 +1,38 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 交易量分组结果
+ * Volume Bucket
+ */
+@Data
+public class VolumeBucket {
+    
+    /**
+     * 分组键（渠道/经销商/月份/支付类型）
+     */
+    private String key;
+    
+    /**
+     * 成功支付笔数
+     */
+    private long paymentCount;
+    
+    /**
+     * 成功支付金额
+     */
+    private BigDecimal paymentAmount = BigDecimal.ZERO;
+    
+    /**
+     * 成功退款笔数
+     */
+    private long refundCount;
+    
+    /**
+     * 成功退款金额
+     */
+    private BigDecimal refundAmount = BigDecimal.ZERO;
+}
@@ -0,0 +1,170 @@
+package com.bytz.modules.cms.payment.infrastructure.archive;
+
+import com.bytz.modules.cms.payment.infrastructure.config.ArchiveProperties;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentArchiveMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 支付单冷热归档任务
+ * Payment Archive Job
+ * <p>
+ * 每次运行在每个分片上依次执行两步：
+ * 1. 归档：已结清（已支付/已取消、无退款中、无处理中流水）且超过保留期的支付单及其流水
+ *    搬迁到归档表，并从热表物理删除
+ * 2. 清理：物理删除逻辑删除（del_flag = 1）的支付单及其流水、逻辑删除的孤立流水
+ * <p>
+ * 按主键游标分批，每批一个短事务，事务内先 FOR UPDATE 锁定并复核条件再搬迁，
+ * 锁范围限于本批行；批次之间停顿，避免长时间占用锁和IO。多实例同时运行时，
+ * 复核会剔除已被其他实例处理的行，结果幂等。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.archive", name = "enabled", havingValue = "true")
+public class PaymentArchiveJob {
+
+    private final PaymentArchiveMapper archiveMapper;
+    private final PaymentShardRouter shardRouter;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public PaymentArchiveJob(PaymentArchiveMapper archiveMapper,
+                             PaymentShardRouter shardRouter,
+                             ArchiveProperties properties,
+                             PlatformTransactionManager transactionManager) {
+        this.archiveMapper = archiveMapper;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 定时执行归档与清理
+     */
+    @Scheduled(cron = "${payment.archive.cron:0 30 2 * * ?}")
+    public void run() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        log.info("开始归档任务，保留期截止时间: {}", cutoff);
+        for (String shard : shardRouter.getShards()) {
+            try {
+                int archived = shardRouter.onShard(shard, () -> archiveShard(cutoff));
+                int purged = shardRouter.onShard(shard, this::purgeShard);
+                log.info("分片 {} 归档完成，归档支付单: {}，清理支付单及流水: {}", shard, archived, purged);
+            } catch (InterruptedRuntimeException e) {
+                log.warn("归档任务被中断，分片: {}", shard);
+                return;
+            } catch (RuntimeException e) {
+                // 单个分片失败不影响其他分片，下次运行从头继续
+                log.error("分片 {} 归档失败", shard, e);
+            }
+        }
+    }
+
+    /**
+     * 归档当前分片
+     *
+     * @param cutoff 保留期截止时间
+     * @return 归档的支付单数
+     */
+    int archiveShard(LocalDateTime cutoff) {
+        int total = 0;
+        long afterId = 0L;
+        for (int chunk = 0; chunk < properties.getMaxChunksPerRun(); chunk++) {
+            List<Long> candidates = archiveMapper.selectArchivableIds(cutoff, afterId, properties.getChunkSize());
+            if (candidates.isEmpty()) {
+                break;
+            }
+            afterId = candidates.get(candidates.size() - 1);
+            Integer archived = transactionTemplate.execute(status -> {
+                List<Long> locked = archiveMapper.lockArchivableIds(cutoff, candidates);
+                if (locked.isEmpty()) {
+                    return 0;
+                }
+                archiveMapper.copyTransactionsToArchive(locked);
+                archiveMapper.copyPaymentsToArchive(locked);
+                archiveMapper.deleteTransactionsByPaymentIds(locked);
+                archiveMapper.deleteRollupStatesByPaymentIds(locked);
+                return archiveMapper.deletePaymentsByIds(locked);
+            });
+            total += archived == null ? 0 : archived;
+            if (candidates.size() < properties.getChunkSize()) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    /**
+     * 物理清理当前分片的逻辑删除数据
+     *
+     * @return 清理的支付单与流水行数
+     */
+    int purgeShard() {
+        int total = 0;
+        int chunks = 0;
+
+        // 逻辑删除的支付单连同其全部流水
+        long afterId = 0L;
+        while (chunks++ < properties.getMaxChunksPerRun()) {
+            List<Long> paymentIds = archiveMapper.selectLogicallyDeletedPaymentIds(afterId, properties.getChunkSize());
+            if (paymentIds.isEmpty()) {
+                break;
+            }
+            afterId = paymentIds.get(paymentIds.size() - 1);
+            Integer purged = transactionTemplate.execute(status ->
+                    archiveMapper.deleteTransactionsByPaymentIds(paymentIds) + archiveMapper.deletePaymentsByIds(paymentIds));
+            total += purged == null ? 0 : purged;
+            if (paymentIds.size() < properties.getChunkSize()) {
+                break;
+            }
+            pause();
+        }
+
+        // 逻辑删除的单条流水（所属支付单仍有效）
+        afterId = 0L;
+        while (chunks++ < properties.getMaxChunksPerRun() * 2) {
+            List<Long> transactionIds = archiveMapper.selectLogicallyDeletedTransactionIds(afterId, properties.getChunkSize());
+            if (transactionIds.isEmpty()) {
+                break;
+            }
+            afterId = transactionIds.get(transactionIds.size() - 1);
+            total += archiveMapper.deleteLogicallyDeletedTransactionsByIds(transactionIds);
+            if (transactionIds.size() < properties.getChunkSize()) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    private void pause() {
+        long millis = properties.getPause().toMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedRuntimeException();
+        }
+    }
+
+    /**
+     * 批次停顿期间线程被中断（应用关闭）
+     */
+    private static final class InterruptedRuntimeException extends RuntimeException {
+        private InterruptedRuntimeException() {
+            super(null, null, false, false);
+        }
+    }
+}
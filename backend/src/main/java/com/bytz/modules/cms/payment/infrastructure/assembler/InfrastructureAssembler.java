@@ -32,20 +32,45 @@ public interface InfrastructureAssembler {
     PaymentEntity toPaymentEntity(PaymentAggregate aggregate);
     
     /**
-     * PaymentEntity（数据库实体）转换为PaymentAggregate
-     * 注意：此方法需要配合流水列表一起使用
+     * PaymentEntity（数据库实体）与流水转换为PaymentAggregate
+     * 手写映射：聚合根只构建一次，直接使用传入的已完成流水列表（不复制），不经过toBuilder二次复制
      * 
-     * @param entity 支付单数据库实体
-     * @return 支付单聚合根（不包含流水）
+     * @param entity                支付单数据库实体
+     * @param runningTransaction    运行期流水，可为null
+     * @param completedTransactions 已完成流水列表（聚合根持有并在其上追加，须为可变列表）
+     * @return 支付单聚合根
      */
-    @Mapping(target = "paymentAmount", source = "paymentAmount", qualifiedByName = "toBigDecimalOrZero")
-    @Mapping(target = "paidAmount", source = "paidAmount", qualifiedByName = "toBigDecimalOrZero")
-    @Mapping(target = "refundedAmount", source = "refundedAmount", qualifiedByName = "toBigDecimalOrZero")
-    @Mapping(target = "actualAmount", source = "actualAmount", qualifiedByName = "toBigDecimalOrZero")
-    @Mapping(target = "currency", source = "currency", defaultValue = "CNY")
-    @Mapping(target = "runningTransaction", ignore = true)
-    @Mapping(target = "completedTransactions", ignore = true)
-    PaymentAggregate toPaymentAggregate(PaymentEntity entity);
+    default PaymentAggregate toPaymentAggregate(PaymentEntity entity,
+                                                PaymentTransaction runningTransaction,
+                                                List<PaymentTransaction> completedTransactions) {
+        return PaymentAggregate.builder()
+                .id(entity.getId())
+                .code(entity.getCode())
+                .orderId(entity.getOrderId())
+                .resellerId(entity.getResellerId())
+                .paymentAmount(toBigDecimalOrZero(entity.getPaymentAmount()))
+                .paidAmount(toBigDecimalOrZero(entity.getPaidAmount()))
+                .refundedAmount(toBigDecimalOrZero(entity.getRefundedAmount()))
+                .actualAmount(toBigDecimalOrZero(entity.getActualAmount()))
+                .currency(entity.getCurrency() != null ? entity.getCurrency() : "CNY")
+                .paymentType(entity.getPaymentType())
+                .paymentStatus(entity.getPaymentStatus())
+                .refundStatus(entity.getRefundStatus())
+                .businessDesc(entity.getBusinessDesc())
+                .paymentDeadline(entity.getPaymentDeadline())
+                .relatedBusinessId(entity.getRelatedBusinessId())
+                .relatedBusinessType(entity.getRelatedBusinessType())
+                .businessExpireDate(entity.getBusinessExpireDate())
+                .createTime(entity.getCreateTime())
+                .updateTime(entity.getUpdateTime())
+                .createBy(entity.getCreateBy())
+                .createByName(entity.getCreateByName())
+                .updateBy(entity.getUpdateBy())
+                .updateByName(entity.getUpdateByName())
+                .runningTransaction(runningTransaction)
+                .completedTransactions(completedTransactions)
+                .build();
+    }
     
     /**
      * PaymentTransaction（领域对象）转换为PaymentTransactionEntity（数据库实体）
@@ -1,24 +1,47 @@
 package com.bytz.modules.cms.payment.infrastructure.channel.impl;
 
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.bytz.modules.cms.payment.domain.command.*;
 import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
 import com.bytz.modules.cms.payment.domain.repository.IPaymentChannelService;
 import com.bytz.modules.cms.payment.domain.response.StarPaymentResponse;
 import com.bytz.modules.cms.payment.domain.response.RefundRequestResponse;
+import com.bytz.modules.cms.payment.infrastructure.credit.CreditBalance;
+import com.bytz.modules.cms.payment.infrastructure.credit.CreditLedger;
+import com.bytz.modules.cms.payment.infrastructure.credit.CreditReservation;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * 信用账户渠道服务
  * Credit Account Channel Service
  * 
  * 处理基于信用额度的延期付款
- * TODO: 实现具体的信用账户渠道对接逻辑
+ * <p>
+ * 额度由 CreditLedger 在本地账本中扣减，支付请求即完成支付（响应状态为成功，无回调）：
+ * 支付请求先预占额度；在事务中调用时，事务提交后确认预占、回滚后释放预占，
+ * 不在事务中调用时立即确认。渠道支付记录ID即预占ID
+ * <p>
+ * 退款请求同样即完成（响应状态为成功）：请求时只校验已用额度，退款流水持久化后由confirmRefund退还额度；
+ * 在事务中调用时于事务提交后退还，退还以渠道退款记录ID幂等，重复确认不会重复退还
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class CreditAccountChannelService implements IPaymentChannelService {
     
+    private final CreditLedger creditLedger;
+    
     @Override
     public PaymentChannel getChannelType() {
         return PaymentChannel.CREDIT_ACCOUNT;
@@ -28,43 +51,125 @@ public class CreditAccountChannelService implements IPaymentChannelService {
     public StarPaymentResponse starPaymentRequest(StartPaymentCommand command) {
         log.info("创建信用账户支付请求，金额: {}, 经销商ID: {}", 
                 command.getAmount(), command.getResellerId());
-        // TODO: 实现信用账户支付逻辑，生成赊账记录
-        String channelPaymentRecordId = "CREDIT_RECORD_" + System.currentTimeMillis();
-        String channelTransactionNumber = "CREDIT_TXN_" + System.currentTimeMillis();
-        
+        PaymentTransaction transaction = command.getPaymentTransaction();
+        return pay(command.getResellerId(), command.getAmount(), transaction != null ? transaction.getCode() : null);
+    }
+
+    @Override
+    public StarPaymentResponse starMultiPaymentRequest(StartMultiPaymentCommand command) {
+        log.info("创建信用账户合并支付请求，金额: {}, 经销商ID: {}", 
+                command.getAmount(), command.getResellerId());
+        return pay(command.getResellerId(), command.getAmount(), null);
+    }
+    
+    private StarPaymentResponse pay(String resellerId, BigDecimal amount, String reference) {
+        CreditReservation reservation = creditLedger.reserve(resellerId, amount, reference);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    settle(reservation, status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            creditLedger.commit(resellerId, reservation.getReservationId());
+        }
         return StarPaymentResponse.builder()
-                .channelPaymentRecordId(channelPaymentRecordId)
-                .channelTransactionNumber(channelTransactionNumber)
+                .transactionStatus(TransactionStatus.SUCCESS)
+                .channelPaymentRecordId(reservation.getReservationId())
+                .channelTransactionNumber(reservation.getReservationId())
                 .build();
     }
+    
+    /**
+     * 事务结束后确认或释放预占；失败时预占保持未结，由快照任务告警后人工核对
+     */
+    private void settle(CreditReservation reservation, boolean committed) {
+        try {
+            if (committed) {
+                creditLedger.commit(reservation.getResellerId(), reservation.getReservationId());
+            } else {
+                creditLedger.release(reservation.getResellerId(), reservation.getReservationId());
+            }
+        } catch (RuntimeException e) {
+            log.error("信用额度预占{}失败，预占: {}", committed ? "确认" : "释放", reservation, e);
+        }
+    }
 
+    /**
+     * 信用账户为内部账务操作，没有远程IO，直接在调用线程完成，不占用执行器线程
+     */
     @Override
-    public StarPaymentResponse starMultiPaymentRequest(StartMultiPaymentCommand command) {
-        return null;
+    public CompletableFuture<StarPaymentResponse> starPaymentRequestAsync(StartPaymentCommand command, Executor executor) {
+        return CompletableFuture.completedFuture(starPaymentRequest(command));
     }
 
     @Override
     public String queryPaymentStatus(QueryPaymentStatusCommand command) {
         log.info("查询信用账户支付状态，渠道交易号: {}, 渠道支付记录ID: {}", 
                 command.getChannelTransactionNumber(), command.getChannelPaymentRecordId());
-        // TODO: 实现状态查询逻辑
+        // 信用账户支付在请求时即完成
         return "SUCCESS";
     }
+
+    @Override
+    public CompletableFuture<String> queryPaymentStatusAsync(QueryPaymentStatusCommand command, Executor executor) {
+        return CompletableFuture.completedFuture(queryPaymentStatus(command));
+    }
     
     @Override
     public RefundRequestResponse createRefundRequest(CreateRefundRequestCommand command) {
         log.info("创建信用账户退款请求，渠道交易号: {}, 退款金额: {}, 原支付记录ID: {}", 
                 command.getChannelTransactionNumber(), command.getRefundAmount(), 
                 command.getOriginalChannelPaymentRecordId());
-        // TODO: 实现退款逻辑
-        String channelPaymentRecordId = "CREDIT_REFUND_RECORD_" + System.currentTimeMillis();
-        String refundTransactionNumber = "CREDIT_REFUND_TXN_" + System.currentTimeMillis();
+        CreditBalance balance = creditLedger.balance(command.getResellerId());
+        if (balance.getUsedAmount().compareTo(command.getRefundAmount()) < 0) {
+            throw new PaymentException(String.format("退款金额超过信用账户已用额度，经销商: %s, 已用: %s, 退款: %s",
+                    command.getResellerId(), balance.getUsedAmount(), command.getRefundAmount()));
+        }
+        String refundId = IdWorker.getIdStr();
         
         return RefundRequestResponse.builder()
-                .channelPaymentRecordId(channelPaymentRecordId)
-                .refundTransactionNumber(refundTransactionNumber)
+                .transactionStatus(TransactionStatus.SUCCESS)
+                .channelPaymentRecordId("CREDIT_REFUND_RECORD_" + refundId)
+                .refundTransactionNumber("CREDIT_REFUND_TXN_" + refundId)
                 .build();
     }
+
+    /**
+     * 退款流水持久化后退还额度；在事务中调用时于事务提交后退还。
+     * 退还失败只记录日志（退款流水已成功），可按渠道退款记录ID重新确认
+     */
+    @Override
+    public void confirmRefund(CreateRefundRequestCommand command, RefundRequestResponse response) {
+        String reference = response.getChannelPaymentRecordId();
+        runAfterCommit(() -> {
+            try {
+                creditLedger.restore(command.getResellerId(), command.getRefundAmount(), reference);
+            } catch (RuntimeException e) {
+                log.error("信用额度退还失败，需人工对账，经销商ID: {}, 渠道退款记录ID: {}",
+                        command.getResellerId(), reference, e);
+            }
+        });
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @Override
+    public CompletableFuture<RefundRequestResponse> createRefundRequestAsync(CreateRefundRequestCommand command, Executor executor) {
+        return CompletableFuture.completedFuture(createRefundRequest(command));
+    }
     
     @Override
     public String queryRefundStatus(QueryRefundStatusCommand command) {
@@ -77,8 +182,8 @@ public class CreditAccountChannelService implements IPaymentChannelService {
     @Override
     public boolean isAvailable(String resellerId) {
         log.info("检查信用账户渠道对经销商的可用性，经销商ID: {}", resellerId);
-        // TODO: 实现可用性检查逻辑，根据经销商判断渠道是否可用
-        return true;
+        // 设置了信用额度的经销商可用
+        return creditLedger.balance(resellerId).getCreditLimit().signum() > 0;
     }
     
     @Override
@@ -91,11 +196,8 @@ public class CreditAccountChannelService implements IPaymentChannelService {
     @Override
     public boolean supportsAmountForReseller(String resellerId, java.math.BigDecimal amount) {
         log.info("检查信用账户渠道是否支持经销商的支付金额，经销商ID: {}, 金额: {}", resellerId, amount);
-        // TODO: 实现金额支持检查逻辑
-        // 1. 查询经销商的信用额度
-        // 2. 查询已使用的信用额度
-        // 3. 计算可用信用额度 = 总额度 - 已使用额度
-        // 4. 验证可用信用额度是否足够支付当前金额
-        return true;
+        // 可用信用额度 = 信用额度 - 已用额度 - 预占额度，实际扣减以支付请求时的预占为准
+        CreditBalance balance = creditLedger.balance(resellerId);
+        return balance.getAvailableAmount().compareTo(amount) >= 0;
     }
 }
\ No newline at end of file
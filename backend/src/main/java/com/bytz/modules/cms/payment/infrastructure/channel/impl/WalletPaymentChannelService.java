@@ -1,24 +1,59 @@
 package com.bytz.modules.cms.payment.infrastructure.channel.impl;
 
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.bytz.modules.cms.payment.domain.command.*;
 import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
 import com.bytz.modules.cms.payment.domain.repository.IPaymentChannelService;
 import com.bytz.modules.cms.payment.domain.response.StarPaymentResponse;
 import com.bytz.modules.cms.payment.domain.response.RefundRequestResponse;
+import com.bytz.modules.cms.payment.infrastructure.wallet.WalletHold;
+import com.bytz.modules.cms.payment.infrastructure.wallet.WalletService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * 钱包支付渠道服务
  * Wallet Payment Channel Service
  * 
  * 处理企业寄存资金账户的支付
- * TODO: 实现具体的钱包支付渠道对接逻辑
+ * <p>
+ * 支付请求冻结钱包余额，响应状态为成功（无回调）。在事务中调用时，同一事务内的全部冻结
+ * 在事务提交后一次扣款、回滚后一次解冻；不在事务中调用时冻结后立即扣款。
+ * 渠道支付记录ID为 WALLET_RECORD_ + 冻结ID
+ * <p>
+ * 退款请求即完成（响应状态为成功）：退款流水持久化后由confirmRefund退回余额；在事务中调用时于事务提交后退回，
+ * 退回以渠道退款记录ID为入账ID幂等，重复确认不会重复入账
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class WalletPaymentChannelService implements IPaymentChannelService {
     
+    private static final String RECORD_PREFIX = "WALLET_RECORD_";
+    private static final String TXN_PREFIX = "WALLET_TXN_";
+    private static final String REFUND_RECORD_PREFIX = "WALLET_REFUND_RECORD_";
+    private static final String REFUND_TXN_PREFIX = "WALLET_REFUND_TXN_";
+    
+    /**
+     * 当前事务内待扣款/解冻的冻结（事务资源键）
+     */
+    private static final Object PENDING_HOLDS_KEY = new Object();
+    
+    private final WalletService walletService;
+    
     @Override
     public PaymentChannel getChannelType() {
         return PaymentChannel.WALLET_PAYMENT;
@@ -28,43 +63,170 @@ public class WalletPaymentChannelService implements IPaymentChannelService {
     public StarPaymentResponse starPaymentRequest(StartPaymentCommand command) {
         log.info("创建钱包支付请求，金额: {}, 经销商ID: {}", 
                 command.getAmount(), command.getResellerId());
-        // TODO: 实现钱包支付逻辑
-        String channelPaymentRecordId = "WALLET_RECORD_" + System.currentTimeMillis();
-        String channelTransactionNumber = "WALLET_TXN_" + System.currentTimeMillis();
-        
-        return StarPaymentResponse.builder()
-                .channelPaymentRecordId(channelPaymentRecordId)
-                .channelTransactionNumber(channelTransactionNumber)
-                .build();
+        return join(pay(command.getResellerId(), command.getAmount(), reference(command), Runnable::run));
     }
 
     @Override
     public StarPaymentResponse starMultiPaymentRequest(StartMultiPaymentCommand command) {
-        return null;
+        log.info("创建钱包合并支付请求，金额: {}, 经销商ID: {}", 
+                command.getAmount(), command.getResellerId());
+        return join(pay(command.getResellerId(), command.getAmount(), null, Runnable::run));
+    }
+
+    /**
+     * 冻结请求提交到组提交器后立即返回，不占用执行器线程；
+     * 逐单支付扇出的多笔冻结在合并窗口内汇集，同一经销商合并为一次余额更新
+     */
+    @Override
+    public CompletableFuture<StarPaymentResponse> starPaymentRequestAsync(StartPaymentCommand command, Executor executor) {
+        return pay(command.getResellerId(), command.getAmount(), reference(command), executor);
+    }
+    
+    private CompletableFuture<StarPaymentResponse> pay(String resellerId, BigDecimal amount, String reference,
+                                                       Executor executor) {
+        CompletableFuture<WalletHold> hold = walletService.hold(resellerId, amount, reference);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingHolds().add(hold);
+            return hold.thenApply(this::toResponse);
+        }
+        // 扣款不在组提交线程上执行
+        return hold.thenApplyAsync(h -> {
+            walletService.capture(Collections.singletonList(h));
+            return toResponse(h);
+        }, executor);
+    }
+    
+    private StarPaymentResponse toResponse(WalletHold hold) {
+        return StarPaymentResponse.builder()
+                .transactionStatus(TransactionStatus.SUCCESS)
+                .channelPaymentRecordId(RECORD_PREFIX + hold.getHoldId())
+                .channelTransactionNumber(TXN_PREFIX + hold.getHoldId())
+                .build();
+    }
+    
+    /**
+     * 当前事务的待结冻结列表；首次冻结时登记事务同步，事务结束后一次扣款或解冻
+     */
+    @SuppressWarnings("unchecked")
+    private List<CompletableFuture<WalletHold>> pendingHolds() {
+        List<CompletableFuture<WalletHold>> holds =
+                (List<CompletableFuture<WalletHold>>) TransactionSynchronizationManager.getResource(PENDING_HOLDS_KEY);
+        if (holds == null) {
+            List<CompletableFuture<WalletHold>> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(PENDING_HOLDS_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_HOLDS_KEY);
+                    settle(created, status == STATUS_COMMITTED);
+                }
+            });
+            holds = created;
+        }
+        return holds;
+    }
+    
+    /**
+     * 事务结束后扣款或解冻；失败时冻结保持 HELD，需按冻结记录人工核对
+     */
+    private void settle(List<CompletableFuture<WalletHold>> futures, boolean committed) {
+        List<WalletHold> holds = new ArrayList<>(futures.size());
+        for (CompletableFuture<WalletHold> future : futures) {
+            if (!future.isDone()) {
+                // 渠道调用超时后事务已回滚，冻结完成时再解冻
+                future.thenAcceptAsync(hold -> walletService.release(Collections.singletonList(hold)));
+            } else if (!future.isCompletedExceptionally()) {
+                holds.add(future.join());
+            }
+        }
+        if (holds.isEmpty()) {
+            return;
+        }
+        try {
+            if (committed) {
+                walletService.capture(holds);
+            } else {
+                walletService.release(holds);
+            }
+        } catch (RuntimeException e) {
+            log.error("钱包{}失败，冻结: {}", committed ? "扣款" : "解冻", holds, e);
+        }
+    }
+    
+    private static String reference(StartPaymentCommand command) {
+        PaymentTransaction transaction = command.getPaymentTransaction();
+        return transaction != null ? transaction.getCode() : null;
+    }
+    
+    private static StarPaymentResponse join(CompletableFuture<StarPaymentResponse> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 
     @Override
     public String queryPaymentStatus(QueryPaymentStatusCommand command) {
         log.info("查询钱包支付状态，渠道交易号: {}, 渠道支付记录ID: {}", 
                 command.getChannelTransactionNumber(), command.getChannelPaymentRecordId());
-        // TODO: 实现状态查询逻辑
+        // 钱包支付在请求时即完成
         return "SUCCESS";
     }
+
+    @Override
+    public CompletableFuture<String> queryPaymentStatusAsync(QueryPaymentStatusCommand command, Executor executor) {
+        return CompletableFuture.completedFuture(queryPaymentStatus(command));
+    }
     
     @Override
     public RefundRequestResponse createRefundRequest(CreateRefundRequestCommand command) {
         log.info("创建钱包支付退款请求，渠道交易号: {}, 退款金额: {}, 原支付记录ID: {}", 
                 command.getChannelTransactionNumber(), command.getRefundAmount(), 
                 command.getOriginalChannelPaymentRecordId());
-        // TODO: 实现退款逻辑
-        String channelPaymentRecordId = "WALLET_REFUND_RECORD_" + System.currentTimeMillis();
-        String refundTransactionNumber = "WALLET_REFUND_TXN_" + System.currentTimeMillis();
+        String refundId = IdWorker.getIdStr();
         
         return RefundRequestResponse.builder()
-                .channelPaymentRecordId(channelPaymentRecordId)
-                .refundTransactionNumber(refundTransactionNumber)
+                .transactionStatus(TransactionStatus.SUCCESS)
+                .channelPaymentRecordId(REFUND_RECORD_PREFIX + refundId)
+                .refundTransactionNumber(REFUND_TXN_PREFIX + refundId)
                 .build();
     }
+
+    /**
+     * 退款流水持久化后退回余额；在事务中调用时于事务提交后退回。
+     * 退回失败只记录日志（退款流水已成功），可按渠道退款记录ID重新确认
+     */
+    @Override
+    public void confirmRefund(CreateRefundRequestCommand command, RefundRequestResponse response) {
+        String depositId = response.getChannelPaymentRecordId();
+        Runnable deposit = () -> {
+            try {
+                walletService.deposit(command.getResellerId(), command.getRefundAmount(), depositId);
+            } catch (RuntimeException e) {
+                log.error("钱包退款退回失败，需人工对账，经销商ID: {}, 渠道退款记录ID: {}",
+                        command.getResellerId(), depositId, e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deposit.run();
+                }
+            });
+        } else {
+            deposit.run();
+        }
+    }
+
+    @Override
+    public CompletableFuture<RefundRequestResponse> createRefundRequestAsync(CreateRefundRequestCommand command, Executor executor) {
+        return CompletableFuture.completedFuture(createRefundRequest(command));
+    }
     
     @Override
     public String queryRefundStatus(QueryRefundStatusCommand command) {
@@ -91,10 +253,7 @@ public class WalletPaymentChannelService implements IPaymentChannelService {
     @Override
     public boolean supportsAmountForReseller(String resellerId, java.math.BigDecimal amount) {
         log.info("检查钱包支付渠道是否支持经销商的支付金额，经销商ID: {}, 金额: {}", resellerId, amount);
-        // TODO: 实现金额支持检查逻辑
-        // 1. 查询经销商钱包余额
-        // 2. 验证余额是否足够支付当前金额
-        // 3. 考虑钱包支付单笔限额
-        return true;
+        // 实际扣减以支付请求时的冻结为准
+        return walletService.balance(resellerId).getAvailableAmount().compareTo(amount) >= 0;
     }
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
  * Wire Transfer Payment Channel Service
  * 
  * 处理银行转账方式的支付
+ * 电汇没有渠道回调，到账结算由银行对账单导入完成（见 StatementImportService）
  * TODO: 实现具体的电汇支付渠道对接逻辑
  */
 @Slf4j
@@ -0,0 +1,59 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 分析导出配置
+ * Analytics Export Properties
+ * 
+ * 配置前缀：payment.analytics
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.analytics")
+public class AnalyticsProperties {
+    
+    /**
+     * 列式文件目录（导出写入、查询扫描）
+     */
+    private String directory = "./data/analytics";
+    
+    /**
+     * 导出任务配置
+     */
+    private Export export = new Export();
+    
+    @Data
+    public static class Export {
+        
+        /**
+         * 是否开启定时导出
+         */
+        private boolean enabled;
+        
+        /**
+         * 执行时间（cron表达式），默认每小时整点
+         */
+        private String cron = "0 0 * * * ?";
+        
+        /**
+         * 每页读取行数
+         */
+        private int pageSize = 5000;
+        
+        /**
+         * 行组行数，越大压缩率越高、谓词下推粒度越粗
+         */
+        private int rowGroupSize = 8192;
+        
+        /**
+         * 结清余量：只导出更新时间早于（当前时间 - 余量）的流水，
+         * 避免更新时间较早但尚未提交的事务在水位推进后被漏掉
+         */
+        private Duration settleLag = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 归档配置
+ * Archive Properties
+ * 
+ * 配置前缀：payment.archive
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.archive")
+public class ArchiveProperties {
+    
+    /**
+     * 是否开启归档任务
+     */
+    private boolean enabled;
+    
+    /**
+     * 执行时间（cron表达式），默认每天凌晨2:30
+     */
+    private String cron = "0 30 2 * * ?";
+    
+    /**
+     * 保留期：最后更新时间早于该时长的已结清支付单才会归档
+     */
+    private Duration retention = Duration.ofDays(180);
+    
+    /**
+     * 每批处理的支付单数，每批一个短事务
+     */
+    private int chunkSize = 200;
+    
+    /**
+     * 批次间停顿，给在线业务让出IO和锁
+     */
+    private Duration pause = Duration.ofMillis(200);
+    
+    /**
+     * 每个分片单次运行的最大批次数（归档、清理分别计数），超出部分留到下次运行
+     */
+    private int maxChunksPerRun = 500;
+}
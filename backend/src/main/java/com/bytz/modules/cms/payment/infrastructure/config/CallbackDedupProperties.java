@@ -0,0 +1,27 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 回调幂等配置
+ * Callback Deduplication Properties
+ * 
+ * 配置前缀：payment.callback.dedup
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.callback.dedup")
+public class CallbackDedupProperties {
+    
+    /**
+     * 布隆过滤器首级预期元素数，写满后自动扩容
+     */
+    private long expectedInsertions = 1_000_000L;
+    
+    /**
+     * 布隆过滤器首级误判率，误判时退化为一次数据库唯一索引查询
+     */
+    private double falsePositiveRate = 0.001;
+}
@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 信用账户配置
+ * Credit Ledger Properties
+ * 
+ * 配置前缀：payment.credit
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.credit")
+public class CreditLedgerProperties {
+    
+    /**
+     * 锁分段数（2的幂），经销商按哈希落到分段，同一分段内的额度操作串行
+     */
+    private int lockStripes = 256;
+    
+    /**
+     * 追加分录遇到序号冲突（其他实例已追加）时，追平后重试的最大次数
+     */
+    private int maxAppendRetries = 5;
+    
+    /**
+     * 是否开启定时快照
+     */
+    private boolean snapshotEnabled;
+    
+    /**
+     * 快照执行时间（cron表达式），默认每5分钟
+     */
+    private String snapshotCron = "0 */5 * * * ?";
+    
+    /**
+     * 预占超过该时长仍未确认或释放时，快照任务记录告警（预占不会自动释放，需人工核对支付单）
+     */
+    private Duration reservationWarnAge = Duration.ofMinutes(30);
+}
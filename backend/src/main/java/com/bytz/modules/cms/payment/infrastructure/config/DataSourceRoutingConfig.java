@@ -0,0 +1,113 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import com.bytz.modules.cms.payment.infrastructure.datasource.DataSourceRole;
+import com.bytz.modules.cms.payment.infrastructure.datasource.ReadWriteRoutingDataSource;
+import com.bytz.modules.cms.payment.infrastructure.datasource.ReadYourWritesFilter;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 读写分离数据源配置
+ * Read/Write DataSource Routing Configuration
+ * 
+ * 开启条件：payment.datasource.routing.enabled=true
+ * 开启后由本配置提供主数据源，Spring Boot的默认数据源自动配置随之退出；
+ * 未开启时继续使用 spring.datasource 单数据源；开启分片时改为在每个分片上配置从库（见ShardingConfig）
+ * 
+ * 配置示例：
+ * payment.datasource.primary.url / username / password
+ * payment.datasource.replica.url / username / password
+ * payment.datasource.routing.sticky-window=5s
+ */
+@Configuration
+@ConditionalOnExpression("${payment.datasource.routing.enabled:false} and !${payment.sharding.enabled:false}")
+public class DataSourceRoutingConfig {
+    
+    @Bean
+    @ConfigurationProperties(prefix = "payment.datasource.primary")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+    
+    @Bean
+    @ConfigurationProperties(prefix = "payment.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+    
+    @Bean
+    @ConfigurationProperties(prefix = "payment.datasource.routing")
+    public RoutingProperties routingProperties() {
+        return new RoutingProperties();
+    }
+    
+    /**
+     * 路由数据源，外层包LazyConnectionDataSourceProxy以便在事务只读标记设置后再决定路由
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties primaryProperties,
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties replicaProperties) {
+        DataSource primary = primaryProperties.initializeDataSourceBuilder().build();
+        DataSource replica = replicaProperties.initializeDataSourceBuilder().build();
+        return createRoutingDataSource(primary, replica);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(RoutingProperties routingProperties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(routingProperties.getStickyWindow()));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+    
+    /**
+     * 组装读写分离数据源
+     * 
+     * @param primary 主库
+     * @param replica 从库
+     * @return 延迟取连接的路由数据源
+     */
+    public static DataSource createRoutingDataSource(DataSource primary, DataSource replica) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceRole.PRIMARY, primary);
+        targets.put(DataSourceRole.REPLICA, replica);
+        
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    /**
+     * 路由配置
+     */
+    @Data
+    public static class RoutingProperties {
+        
+        /**
+         * 是否开启读写分离
+         */
+        private boolean enabled;
+        
+        /**
+         * 读己之写粘滞窗口：会话写入后该时长内的读走主库，应大于从库复制延迟
+         */
+        private Duration stickyWindow = Duration.ofSeconds(5);
+    }
+}
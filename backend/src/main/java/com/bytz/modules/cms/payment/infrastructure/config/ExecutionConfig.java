@@ -0,0 +1,78 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import com.bytz.modules.cms.payment.shared.util.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 执行模式配置
+ * Execution Configuration
+ * <p>
+ * 渠道适配器与MyBatis仓储都是阻塞IO。默认模式下渠道调用使用有界平台线程池；
+ * 开启 payment.execution.virtual-threads 且运行在JDK 21上时：
+ * - Tomcat请求处理线程替换为每请求一个虚拟线程
+ * - 渠道调用执行器替换为每任务一个虚拟线程
+ * 并发上限由数据库连接池等下游资源约束，而不是线程数。
+ * <p>
+ * 注意：MySQL驱动8.0.x在IO路径上使用synchronized，会把虚拟线程钉住在载体线程上，
+ * 虚拟线程模式下建议使用 mysql-connector-j 9.x。
+ */
+@Slf4j
+@Configuration
+public class ExecutionConfig {
+
+    /**
+     * 渠道调用执行器（批量支付扇出使用）
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService channelCallExecutor(ExecutionProperties properties) {
+        if (useVirtualThreads(properties)) {
+            log.info("渠道调用使用虚拟线程执行");
+            return VirtualThreads.newThreadPerTaskExecutor("payment-channel-");
+        }
+        return Executors.newFixedThreadPool(properties.getChannelPoolSize(), platformThreadFactory("payment-channel-"));
+    }
+
+    /**
+     * Tomcat请求处理改用虚拟线程
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "payment.execution", name = "virtual-threads", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(ExecutionProperties properties) {
+        return protocolHandler -> {
+            if (useVirtualThreads(properties)) {
+                log.info("Tomcat请求处理使用虚拟线程执行");
+                protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-handler-"));
+            }
+        };
+    }
+
+    private static boolean useVirtualThreads(ExecutionProperties properties) {
+        if (!properties.isVirtualThreads()) {
+            return false;
+        }
+        if (!VirtualThreads.isSupported()) {
+            log.warn("已开启虚拟线程但当前运行时不支持（{}），回退到平台线程", System.getProperty("java.version"));
+            return false;
+        }
+        return true;
+    }
+
+    private static ThreadFactory platformThreadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 执行模式配置
+ * Execution Properties
+ * 
+ * 配置前缀：payment.execution
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.execution")
+public class ExecutionProperties {
+    
+    /**
+     * 是否启用虚拟线程（需要JDK 21运行时，以 -Pjdk21 构建）：
+     * Tomcat请求处理、渠道调用、批量支付扇出均运行在虚拟线程上
+     */
+    private boolean virtualThreads;
+    
+    /**
+     * 平台线程模式下渠道调用线程池大小
+     */
+    private int channelPoolSize = 64;
+    
+    /**
+     * 批量支付扇出时整个批次的渠道调用超时
+     */
+    private Duration channelCallTimeout = Duration.ofSeconds(30);
+}
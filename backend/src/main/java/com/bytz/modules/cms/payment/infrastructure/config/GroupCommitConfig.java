@@ -0,0 +1,34 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.shared.util.GroupCommitter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 创建支付单组提交配置
+ * Group Commit Configuration
+ * <p>
+ * 开启 payment.group-commit.enabled 后，并发的createPayment调用在合并窗口内汇集，
+ * 经 {@link IPaymentRepository#saveAll} 一次批量写入（每个分片一个事务），
+ * 各调用方取回自己的支付单。窗口越大合并越多、单次创建延迟越高，取值参考 GroupCommitterTest 的负载对比。
+ */
+@Slf4j
+@Configuration
+public class GroupCommitConfig {
+
+    /**
+     * 创建支付单组提交器
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "payment.group-commit", name = "enabled", havingValue = "true")
+    public GroupCommitter<PaymentAggregate, PaymentAggregate> paymentCreateCommitter(
+            IPaymentRepository paymentRepository, GroupCommitProperties properties) {
+        log.info("创建支付单启用组提交，合并窗口: {}, 批量上限: {}", properties.getWindow(), properties.getMaxBatchSize());
+        return new GroupCommitter<>("payment-group-commit", paymentRepository::saveAll,
+                properties.getWindow(), properties.getMaxBatchSize());
+    }
+}
@@ -0,0 +1,34 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 创建支付单组提交配置
+ * Group Commit Properties
+ * 
+ * 配置前缀：payment.group-commit
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.group-commit")
+public class GroupCommitProperties {
+    
+    /**
+     * 是否启用组提交：并发的createPayment调用合并为一次批量写入
+     */
+    private boolean enabled;
+    
+    /**
+     * 合并窗口：自收到一批的首个请求起最多等待的时长，即单次创建增加的最大延迟
+     */
+    private Duration window = Duration.ofMillis(5);
+    
+    /**
+     * 单批最大支付单数，达到即立即写入
+     */
+    private int maxBatchSize = 200;
+}
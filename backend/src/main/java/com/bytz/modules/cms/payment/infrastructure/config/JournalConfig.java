@@ -0,0 +1,69 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import com.bytz.modules.cms.payment.infrastructure.journal.PaymentEventJournal;
+import com.bytz.modules.cms.payment.infrastructure.journal.PaymentJournalConsumer;
+import com.bytz.modules.cms.payment.infrastructure.journal.PaymentJournalTailer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 支付单事件日志配置
+ * Payment Journal Configuration
+ * <p>
+ * 开启 payment.journal.enabled 后，仓储在支付单写入提交后把状态变更追加到本地事件日志，
+ * 并为每个 {@link PaymentJournalConsumer} 启动一个订阅线程。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "payment.journal", name = "enabled", havingValue = "true")
+public class JournalConfig {
+
+    /**
+     * 支付单事件日志
+     */
+    @Bean(destroyMethod = "close")
+    public PaymentEventJournal paymentEventJournal(JournalProperties properties) throws IOException {
+        return new PaymentEventJournal(Paths.get(properties.getDirectory()), properties.getSegmentSize(),
+                properties.isForceOnAppend());
+    }
+
+    /**
+     * 事件日志订阅线程（先于日志关闭）
+     */
+    @Bean
+    public JournalSubscriptions paymentJournalSubscriptions(PaymentEventJournal journal,
+                                                            ObjectProvider<PaymentJournalConsumer> consumers,
+                                                            JournalProperties properties) {
+        List<PaymentJournalTailer> tailers = new ArrayList<>();
+        consumers.orderedStream().forEach(consumer -> {
+            String name = "payment-journal-" + consumer.getClass().getSimpleName();
+            log.info("订阅支付单事件日志: {}, 起始位置: {}", name, journal.endPosition());
+            tailers.add(new PaymentJournalTailer(journal, name, journal.endPosition(),
+                    properties.getTailPollInterval(), consumer::onRecord));
+        });
+        return new JournalSubscriptions(tailers);
+    }
+
+    public static class JournalSubscriptions implements DisposableBean {
+
+        private final List<PaymentJournalTailer> tailers;
+
+        JournalSubscriptions(List<PaymentJournalTailer> tailers) {
+            this.tailers = tailers;
+        }
+
+        @Override
+        public void destroy() {
+            tailers.forEach(PaymentJournalTailer::close);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 支付单事件日志配置
+ * Payment Journal Properties
+ * 
+ * 配置前缀：payment.journal
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.journal")
+public class JournalProperties {
+    
+    /**
+     * 是否开启事件日志
+     */
+    private boolean enabled;
+    
+    /**
+     * 段文件目录（每个实例独占，不能与其他实例共享）
+     */
+    private String directory = "./data/journal";
+    
+    /**
+     * 段文件大小（字节），越大切换越少、单个文件越大
+     */
+    private int segmentSize = 64 * 1024 * 1024;
+    
+    /**
+     * 每次追加后是否刷盘：关闭时由操作系统回写，进程崩溃不丢失，掉电可能丢失最近的记录
+     */
+    private boolean forceOnAppend;
+    
+    /**
+     * 订阅线程等待新记录的最长时间，也是消费失败后的重试间隔
+     */
+    private Duration tailPollInterval = Duration.ofSeconds(1);
+}
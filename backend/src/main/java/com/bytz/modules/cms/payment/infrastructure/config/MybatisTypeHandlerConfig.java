@@ -0,0 +1,22 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import com.baomidou.mybatisplus.autoconfigure.ConfigurationCustomizer;
+import com.bytz.modules.cms.payment.infrastructure.typehandler.PaymentEnumTypeHandlers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBatis类型处理器配置
+ * MyBatis Type Handler Configuration
+ * <p>
+ * 支付模块枚举按编码读写，使用预建查找表的处理器（见PaymentEnumTypeHandlers），
+ * 存储格式与 @EnumValue 一致，替换前后库中数据不变
+ */
+@Configuration
+public class MybatisTypeHandlerConfig {
+
+    @Bean
+    public ConfigurationCustomizer paymentEnumTypeHandlerCustomizer() {
+        return configuration -> PaymentEnumTypeHandlers.registerAll(configuration.getTypeHandlerRegistry());
+    }
+}
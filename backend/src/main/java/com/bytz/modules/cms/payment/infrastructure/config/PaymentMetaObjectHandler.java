@@ -0,0 +1,33 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
+import org.apache.ibatis.reflection.MetaObject;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 审计字段自动填充
+ * Audit Field Meta Object Handler
+ * 
+ * 填充实体上 fill = INSERT / INSERT_UPDATE 的时间字段：
+ * - 插入：createTime、updateTime 为空时填充当前时间
+ * - 更新：updateTime 始终刷新为当前时间（归档、汇总等任务以 update_time 作为时间水位）
+ */
+@Component
+public class PaymentMetaObjectHandler implements MetaObjectHandler {
+    
+    @Override
+    public void insertFill(MetaObject metaObject) {
+        LocalDateTime now = LocalDateTime.now();
+        strictInsertFill(metaObject, "createTime", LocalDateTime.class, now);
+        strictInsertFill(metaObject, "updateTime", LocalDateTime.class, now);
+    }
+    
+    @Override
+    public void updateFill(MetaObject metaObject) {
+        if (metaObject.hasSetter("updateTime")) {
+            setFieldValByName("updateTime", LocalDateTime.now(), metaObject);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 经销商汇总对账配置
+ * Reseller Summary Properties
+ * 
+ * 配置前缀：payment.reseller-summary
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.reseller-summary")
+public class ResellerSummaryProperties {
+    
+    /**
+     * 是否开启汇总对账任务（汇总的增量维护始终开启）
+     */
+    private boolean reconcileEnabled;
+    
+    /**
+     * 对账执行时间（cron表达式），默认每天凌晨4:00（在归档任务之后）
+     */
+    private String reconcileCron = "0 0 4 * * ?";
+    
+    /**
+     * 每批对账的经销商数，每批一个短事务
+     */
+    private int chunkSize = 100;
+    
+    /**
+     * 批次间停顿，给在线业务让出IO和锁
+     */
+    private Duration pause = Duration.ofMillis(100);
+}
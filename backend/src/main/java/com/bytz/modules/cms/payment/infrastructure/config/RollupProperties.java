@@ -0,0 +1,45 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 流水汇总配置
+ * Transaction Rollup Properties
+ * 
+ * 配置前缀：payment.rollup
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.rollup")
+public class RollupProperties {
+    
+    /**
+     * 是否开启汇总任务
+     */
+    private boolean enabled;
+    
+    /**
+     * 执行时间（cron表达式），默认每分钟
+     */
+    private String cron = "0 * * * * ?";
+    
+    /**
+     * 每页读取流水数，每页一个短事务
+     */
+    private int pageSize = 1000;
+    
+    /**
+     * 结清余量：只汇总更新时间早于（当前时间 - 余量）的流水，
+     * 避免更新时间较早但尚未提交的事务在水位推进后被漏掉
+     */
+    private Duration settleLag = Duration.ofMinutes(1);
+    
+    /**
+     * 首次运行回填历史流水时，每个分片按主键范围切分的并行扫描数
+     */
+    private int backfillParallelism = 4;
+}
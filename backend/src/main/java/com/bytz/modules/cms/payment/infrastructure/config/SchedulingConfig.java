@@ -0,0 +1,15 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置
+ * Scheduling Configuration
+ * 
+ * 开启@Scheduled支持；各定时任务自身通过配置开关控制是否注册
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
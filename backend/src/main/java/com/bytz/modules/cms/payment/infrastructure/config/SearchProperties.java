@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 支付单组合查询配置
+ * Payment Search Properties
+ * 
+ * 配置前缀：payment.search
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.search")
+public class SearchProperties {
+    
+    /**
+     * 默认每页条数
+     */
+    private int defaultPageSize = 20;
+    
+    /**
+     * 最大每页条数
+     */
+    private int maxPageSize = 200;
+    
+    /**
+     * 只按时间范围查询（未指定经销商等选择性条件）时允许的最大跨度
+     */
+    private Duration maxTimeSpan = Duration.ofDays(31);
+    
+    /**
+     * 总数缓存有效期：同一查询条件在有效期内复用总数，翻页不重复计数
+     */
+    private Duration countCacheTtl = Duration.ofSeconds(30);
+    
+    /**
+     * 总数缓存最大条目数
+     */
+    private int countCacheMaxEntries = 10_000;
+}
@@ -0,0 +1,168 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import com.bytz.modules.cms.payment.infrastructure.datasource.ReadYourWritesFilter;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentRouteIndex;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.infrastructure.sharding.ShardRoutingDataSource;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分片配置
+ * Sharding Configuration
+ * <p>
+ * 开启条件：payment.sharding.enabled=true
+ * 开启后 cms_payment、cms_payment_transaction 按经销商ID一致性哈希分布到多个物理库，
+ * 由本配置提供主数据源；每个分片可选配置从库，复用读写分离路由。
+ * 未开启时提供单分片路由器，数据访问行为与不分片时完全一致。
+ * <p>
+ * 配置示例：
+ * payment.sharding.shards[0].name=ds0
+ * payment.sharding.shards[0].primary.url=...
+ * payment.sharding.shards[0].replica.url=...（可选）
+ * payment.sharding.route-shard=ds0（路由索引所在分片，默认第一个分片）
+ */
+@Configuration
+public class ShardingConfig {
+
+    /**
+     * 开启分片
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "payment.sharding", name = "enabled", havingValue = "true")
+    public static class ShardedConfiguration {
+
+        @Bean
+        @ConfigurationProperties(prefix = "payment.sharding")
+        public ShardingProperties shardingProperties() {
+            return new ShardingProperties();
+        }
+
+        @Bean
+        public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties) {
+            if (properties.getShards().isEmpty()) {
+                throw new IllegalStateException("开启分片时至少需要配置一个分片");
+            }
+            Map<String, DataSource> shardDataSources = new LinkedHashMap<>();
+            for (ShardingProperties.Shard shard : properties.getShards()) {
+                DataSource primary = shard.getPrimary().initializeDataSourceBuilder().build();
+                DataSource target = shard.getReplica() == null
+                        ? primary
+                        : DataSourceRoutingConfig.createRoutingDataSource(
+                                primary, shard.getReplica().initializeDataSourceBuilder().build());
+                shardDataSources.put(shard.getName(), target);
+            }
+            return new ShardRoutingDataSource(shardDataSources, properties.getShards().get(0).getName());
+        }
+
+        /**
+         * 主数据源：延迟取连接的分片路由数据源
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        }
+
+        @Bean
+        public PaymentShardRouter paymentShardRouter(ShardingProperties properties,
+                                                     ShardRoutingDataSource shardRoutingDataSource) {
+            List<String> shardNames = new ArrayList<>();
+            for (ShardingProperties.Shard shard : properties.getShards()) {
+                shardNames.add(shard.getName());
+            }
+            String routeShard = properties.getRouteShard() != null ? properties.getRouteShard() : shardNames.get(0);
+            PaymentRouteIndex routeIndex = new PaymentRouteIndex(shardRoutingDataSource.getShardDataSource(routeShard));
+            return new PaymentShardRouter(shardNames, properties.getVirtualNodes(), routeIndex);
+        }
+
+        /**
+         * 分片配置从库时的读己之写过滤器
+         */
+        @Bean
+        public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+                @Value("${payment.datasource.routing.sticky-window:5s}") Duration stickyWindow) {
+            FilterRegistrationBean<ReadYourWritesFilter> registration =
+                    new FilterRegistrationBean<>(new ReadYourWritesFilter(stickyWindow));
+            registration.addUrlPatterns("/*");
+            return registration;
+        }
+    }
+
+    /**
+     * 未开启分片
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "payment.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public static class SingleShardConfiguration {
+
+        @Bean
+        public PaymentShardRouter paymentShardRouter() {
+            return PaymentShardRouter.singleShard();
+        }
+    }
+
+    /**
+     * 分片配置属性
+     */
+    @Data
+    public static class ShardingProperties {
+
+        /**
+         * 是否开启分片
+         */
+        private boolean enabled;
+
+        /**
+         * 每个分片在哈希环上的虚拟节点数
+         */
+        private int virtualNodes = 160;
+
+        /**
+         * 路由索引表 cms_payment_route 所在分片，默认第一个分片
+         */
+        private String routeShard;
+
+        /**
+         * 分片列表（顺序即默认分片优先级）
+         */
+        private List<Shard> shards = new ArrayList<>();
+
+        /**
+         * 单个分片
+         */
+        @Data
+        public static class Shard {
+
+            /**
+             * 分片名称，写入路由索引，上线后不可修改
+             */
+            private String name;
+
+            /**
+             * 分片主库
+             */
+            private DataSourceProperties primary = new DataSourceProperties();
+
+            /**
+             * 分片从库（可选，配置后该分片启用读写分离）
+             */
+            private DataSourceProperties replica;
+        }
+    }
+}
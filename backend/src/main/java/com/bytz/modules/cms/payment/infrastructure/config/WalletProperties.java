@@ -0,0 +1,34 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 钱包配置
+ * Wallet Properties
+ * 
+ * 配置前缀：payment.wallet
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.wallet")
+public class WalletProperties {
+    
+    /**
+     * 冻结合并窗口：并发的冻结请求在窗口内汇集，同一经销商合并为一次余额更新
+     */
+    private Duration holdWindow = Duration.ofMillis(2);
+    
+    /**
+     * 单批最大冻结请求数
+     */
+    private int holdMaxBatchSize = 500;
+    
+    /**
+     * 比较并交换失败（余额被其他请求更新）后重新读取重试的最大次数
+     */
+    private int maxCasRetries = 10;
+}
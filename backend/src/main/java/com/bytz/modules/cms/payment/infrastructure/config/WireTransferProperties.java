@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * 电汇对账单导入配置
+ * Wire Transfer Statement Properties
+ * 
+ * 配置前缀：payment.wire-transfer
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.wire-transfer")
+public class WireTransferProperties {
+    
+    /**
+     * 对账单文件目录（只导入该目录下的文件）
+     */
+    private String statementDirectory = "./data/statements";
+    
+    /**
+     * 容差匹配与合并匹配允许的金额差（银行手续费、汇率尾差等）
+     */
+    private BigDecimal amountTolerance = new BigDecimal("1.00");
+    
+    /**
+     * 加载待匹配支付单时单次查询的经销商数
+     */
+    private int loadBatchSize = 500;
+    
+    /**
+     * 单次批量结算的支付单数（一次加载、一次批量写入）
+     */
+    private int settleBatchSize = 500;
+    
+    /**
+     * 导入结果中最多列出的未匹配银行流水号
+     */
+    private int maxReportedUnmatched = 1000;
+}
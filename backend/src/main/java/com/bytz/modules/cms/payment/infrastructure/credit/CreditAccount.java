@@ -0,0 +1,162 @@
+package com.bytz.modules.cms.payment.infrastructure.credit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 单个经销商的信用账户内存状态
+ * Credit Account
+ * <p>
+ * 状态只由分录按序号依次应用得到（实时追加与恢复重放走同一个 apply），
+ * 由 CreditLedger 在经销商所在的锁分段内读写，本身不做同步
+ */
+final class CreditAccount {
+
+    private static final String RESERVATION_SEPARATOR = ";";
+    private static final String FIELD_SEPARATOR = "|";
+
+    private final String resellerId;
+    private final Map<String, OpenReservation> openReservations = new LinkedHashMap<>();
+    private long seq;
+    private long snapshotSeq;
+    private BigDecimal creditLimit = BigDecimal.ZERO;
+    private BigDecimal usedAmount = BigDecimal.ZERO;
+    private BigDecimal reservedAmount = BigDecimal.ZERO;
+
+    CreditAccount(String resellerId) {
+        this.resellerId = resellerId;
+    }
+
+    /**
+     * 从快照恢复
+     */
+    static CreditAccount fromSnapshot(CreditSnapshot snapshot) {
+        CreditAccount account = new CreditAccount(snapshot.getResellerId());
+        account.seq = snapshot.getSeq();
+        account.snapshotSeq = snapshot.getSeq();
+        account.creditLimit = snapshot.getCreditLimit();
+        account.usedAmount = snapshot.getUsedAmount();
+        account.reservedAmount = snapshot.getReservedAmount();
+        String encoded = snapshot.getOpenReservations();
+        if (encoded != null && !encoded.isEmpty()) {
+            for (String item : encoded.split(RESERVATION_SEPARATOR)) {
+                String[] fields = item.split("\\" + FIELD_SEPARATOR);
+                account.openReservations.put(fields[0],
+                        new OpenReservation(new BigDecimal(fields[1]), LocalDateTime.parse(fields[2])));
+            }
+        }
+        return account;
+    }
+
+    /**
+     * 按序应用一条分录
+     *
+     * @throws IllegalStateException 如果分录序号不连续
+     */
+    void apply(CreditJournalEntry entry) {
+        if (entry.getSeq() != seq + 1) {
+            throw new IllegalStateException(String.format("信用账户分录序号不连续，经销商: %s, 当前: %d, 分录: %d",
+                    resellerId, seq, entry.getSeq()));
+        }
+        BigDecimal amount = entry.getAmount();
+        switch (entry.getEntryType()) {
+            case LIMIT:
+                creditLimit = amount;
+                break;
+            case RESERVE:
+                reservedAmount = reservedAmount.add(amount);
+                openReservations.put(entry.getReservationId(), new OpenReservation(amount, entry.getCreateTime()));
+                break;
+            case COMMIT:
+                reservedAmount = reservedAmount.subtract(amount);
+                usedAmount = usedAmount.add(amount);
+                openReservations.remove(entry.getReservationId());
+                break;
+            case RELEASE:
+                reservedAmount = reservedAmount.subtract(amount);
+                openReservations.remove(entry.getReservationId());
+                break;
+            case RESTORE:
+                usedAmount = usedAmount.subtract(amount);
+                break;
+            default:
+                throw new IllegalStateException("未知的信用账户分录类型: " + entry.getEntryType());
+        }
+        seq = entry.getSeq();
+    }
+
+    String getResellerId() {
+        return resellerId;
+    }
+
+    long getSeq() {
+        return seq;
+    }
+
+    BigDecimal getUsedAmount() {
+        return usedAmount;
+    }
+
+    BigDecimal availableAmount() {
+        return creditLimit.subtract(usedAmount).subtract(reservedAmount);
+    }
+
+    /**
+     * 未结预占，不存在时为空
+     */
+    OpenReservation openReservation(String reservationId) {
+        return openReservations.get(reservationId);
+    }
+
+    Map<String, OpenReservation> openReservations() {
+        return openReservations;
+    }
+
+    boolean needsSnapshot() {
+        return seq > snapshotSeq;
+    }
+
+    void markSnapshot(long snapshotSeq) {
+        this.snapshotSeq = Math.max(this.snapshotSeq, snapshotSeq);
+    }
+
+    CreditBalance toBalance() {
+        return new CreditBalance(resellerId, creditLimit, usedAmount, reservedAmount, availableAmount(), seq);
+    }
+
+    CreditSnapshot toSnapshot(LocalDateTime now) {
+        StringBuilder encoded = new StringBuilder();
+        openReservations.forEach((id, reservation) -> {
+            if (encoded.length() > 0) {
+                encoded.append(RESERVATION_SEPARATOR);
+            }
+            encoded.append(id).append(FIELD_SEPARATOR).append(reservation.amount.toPlainString())
+                    .append(FIELD_SEPARATOR).append(reservation.reservedAt);
+        });
+        return CreditSnapshot.builder()
+                .resellerId(resellerId)
+                .seq(seq)
+                .creditLimit(creditLimit)
+                .usedAmount(usedAmount)
+                .reservedAmount(reservedAmount)
+                .openReservations(encoded.toString())
+                .updateTime(now)
+                .build();
+    }
+
+    /**
+     * 未结预占
+     */
+    static final class OpenReservation {
+
+        final BigDecimal amount;
+        final LocalDateTime reservedAt;
+
+        OpenReservation(BigDecimal amount, LocalDateTime reservedAt) {
+            this.amount = amount;
+            this.reservedAt = reservedAt;
+        }
+    }
+}
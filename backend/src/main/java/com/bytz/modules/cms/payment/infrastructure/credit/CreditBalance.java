@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.infrastructure.credit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * 信用账户额度状态
+ * Credit Balance
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CreditBalance {
+    
+    private final String resellerId;
+    
+    /**
+     * 信用额度
+     */
+    private final BigDecimal creditLimit;
+    
+    /**
+     * 已用额度
+     */
+    private final BigDecimal usedAmount;
+    
+    /**
+     * 预占额度
+     */
+    private final BigDecimal reservedAmount;
+    
+    /**
+     * 可用额度 = 信用额度 - 已用额度 - 预占额度
+     */
+    private final BigDecimal availableAmount;
+    
+    /**
+     * 最后分录序号
+     */
+    private final long seq;
+}
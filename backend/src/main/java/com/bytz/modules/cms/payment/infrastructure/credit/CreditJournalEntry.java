@@ -0,0 +1,37 @@
+package com.bytz.modules.cms.payment.infrastructure.credit;
+
+import com.bytz.modules.cms.payment.domain.enums.CreditEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 信用账户分录
+ * Credit Journal Entry
+ * 
+ * 对应 cms_credit_journal 的一行
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditJournalEntry {
+    
+    private String resellerId;
+    
+    private Long seq;
+    
+    private CreditEntryType entryType;
+    
+    private BigDecimal amount;
+    
+    private String reservationId;
+    
+    private String reference;
+    
+    private LocalDateTime createTime;
+}
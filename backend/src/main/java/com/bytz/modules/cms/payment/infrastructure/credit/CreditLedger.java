@@ -0,0 +1,296 @@
+package com.bytz.modules.cms.payment.infrastructure.credit;
+
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.bytz.modules.cms.payment.domain.enums.CreditEntryType;
+import com.bytz.modules.cms.payment.infrastructure.config.CreditLedgerProperties;
+import com.bytz.modules.cms.payment.infrastructure.mapper.CreditLedgerMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 信用账户账本
+ * Credit Ledger
+ * <p>
+ * 每个经销商的额度状态保存在内存中，变更以分录追加到流水日志，不维护可被并发更新的余额行：
+ * <p>
+ * - 经销商按哈希落到固定数量的锁分段，同一分段内的额度操作串行，不同分段并行，锁只在本实例内生效
+ * - 分录序号按经销商连续递增，(经销商ID, 序号) 唯一。多实例同时追加同一序号时只有一个成功，
+ *   其余实例收到唯一键冲突后读取缺失的分录追平，按最新状态重新判断后重试，因此额度判断总是基于最新状态
+ * - 分录在独立事务（REQUIRES_NEW）中写入，不随调用方事务回滚；预占由调用方按业务结果确认或释放
+ * - 首次访问经销商时从快照加载并重放快照之后的分录；快照由定时任务写入，只用于缩短重放
+ */
+@Slf4j
+@Component
+public class CreditLedger {
+
+    private final CreditLedgerMapper creditLedgerMapper;
+    private final PaymentShardRouter shardRouter;
+    private final CreditLedgerProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+    private final Map<String, CreditAccount> accounts = new ConcurrentHashMap<>();
+
+    public CreditLedger(CreditLedgerMapper creditLedgerMapper,
+                        PaymentShardRouter shardRouter,
+                        CreditLedgerProperties properties,
+                        PlatformTransactionManager transactionManager) {
+        int lockStripes = properties.getLockStripes();
+        if (lockStripes <= 0 || Integer.bitCount(lockStripes) != 1) {
+            throw new IllegalArgumentException("锁分段数必须为2的幂");
+        }
+        this.creditLedgerMapper = creditLedgerMapper;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 追加与追平读取都不加入调用方事务：写入不随其回滚，读取不受其一致性读快照限制
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripes = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 预占额度
+     *
+     * @param resellerId 经销商ID
+     * @param amount     预占金额
+     * @param reference  业务参考号（如支付流水号），可为空
+     * @return 预占
+     * @throws PaymentException 如果可用额度不足
+     */
+    public CreditReservation reserve(String resellerId, BigDecimal amount, String reference) {
+        requirePositive(amount);
+        String reservationId = IdWorker.getIdStr();
+        withAccount(resellerId, account -> append(account, current -> {
+            if (current.availableAmount().compareTo(amount) < 0) {
+                throw new PaymentException(String.format("信用额度不足，经销商: %s, 可用: %s, 需要: %s",
+                        resellerId, current.availableAmount(), amount));
+            }
+            return entry(resellerId, CreditEntryType.RESERVE, amount, reservationId, reference);
+        }));
+        return new CreditReservation(reservationId, resellerId, amount);
+    }
+
+    /**
+     * 确认预占，预占金额转为已用额度；预占已确认或已释放时忽略
+     */
+    public void commit(String resellerId, String reservationId) {
+        settle(resellerId, reservationId, CreditEntryType.COMMIT);
+    }
+
+    /**
+     * 释放预占，预占金额退回可用额度；预占已确认或已释放时忽略
+     */
+    public void release(String resellerId, String reservationId) {
+        settle(resellerId, reservationId, CreditEntryType.RELEASE);
+    }
+
+    /**
+     * 退还已用额度（退款）
+     * <p>
+     * 以业务参考号（渠道退款记录ID）幂等：同一参考号已有退还分录时忽略，重复确认不会重复退还
+     *
+     * @param reference 业务参考号，为空时不做幂等判断
+     * @return true如果本次追加了退还分录，false如果该参考号已退还
+     * @throws PaymentException 如果退还金额超过已用额度
+     */
+    public boolean restore(String resellerId, BigDecimal amount, String reference) {
+        requirePositive(amount);
+        return withAccount(resellerId, account -> append(account, current -> {
+            // 每次判断都重新查询：序号冲突重试时，其他实例可能刚追加了同一参考号的退还
+            if (reference != null && execute(resellerId,
+                    () -> creditLedgerMapper.countEntries(resellerId, CreditEntryType.RESTORE, reference)) > 0) {
+                log.info("信用额度已按该参考号退还，忽略，经销商ID: {}, 参考号: {}", resellerId, reference);
+                return null;
+            }
+            if (current.getUsedAmount().compareTo(amount) < 0) {
+                throw new PaymentException(String.format("退还额度超过已用额度，经销商: %s, 已用: %s, 退还: %s",
+                        resellerId, current.getUsedAmount(), amount));
+            }
+            return entry(resellerId, CreditEntryType.RESTORE, amount, null, reference);
+        }) != null);
+    }
+
+    /**
+     * 设置信用额度，已用与预占不受影响（可用额度可能因此为负，后续预占将被拒绝）
+     */
+    public CreditBalance setLimit(String resellerId, BigDecimal creditLimit) {
+        if (creditLimit == null || creditLimit.signum() < 0) {
+            throw new IllegalArgumentException("信用额度不能为负");
+        }
+        return withAccount(resellerId, account -> {
+            append(account, current -> entry(resellerId, CreditEntryType.LIMIT, creditLimit, null, null));
+            return account.toBalance();
+        });
+    }
+
+    /**
+     * 查询额度状态（先追平其他实例追加的分录）
+     */
+    public CreditBalance balance(String resellerId) {
+        return withAccount(resellerId, account -> {
+            catchUp(account);
+            return account.toBalance();
+        });
+    }
+
+    /**
+     * 为有新分录的经销商写入快照，并对长时间未确认的预占记录告警
+     *
+     * @return 写入快照的经销商数
+     */
+    public int snapshot() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime warnBefore = now.minus(properties.getReservationWarnAge());
+        int written = 0;
+        for (String resellerId : new ArrayList<>(accounts.keySet())) {
+            CreditSnapshot snapshot = withAccount(resellerId, account -> {
+                account.openReservations().forEach((reservationId, reservation) -> {
+                    if (reservation.reservedAt.isBefore(warnBefore)) {
+                        log.warn("信用额度预占长时间未确认，经销商ID: {}, 预占ID: {}, 金额: {}, 预占时间: {}",
+                                resellerId, reservationId, reservation.amount, reservation.reservedAt);
+                    }
+                });
+                return account.needsSnapshot() ? account.toSnapshot(now) : null;
+            });
+            if (snapshot == null) {
+                continue;
+            }
+            // 快照写入在锁外进行，写入期间的新分录留待下次快照
+            execute(resellerId, () -> creditLedgerMapper.upsertSnapshot(snapshot));
+            withAccount(resellerId, account -> {
+                account.markSnapshot(snapshot.getSeq());
+                return null;
+            });
+            written++;
+        }
+        return written;
+    }
+
+    private void settle(String resellerId, String reservationId, CreditEntryType entryType) {
+        withAccount(resellerId, account -> {
+            if (account.openReservation(reservationId) == null) {
+                // 预占可能由其他实例追加
+                catchUp(account);
+            }
+            return append(account, current -> {
+                CreditAccount.OpenReservation reservation = current.openReservation(reservationId);
+                if (reservation == null) {
+                    log.info("信用额度预占已结束，忽略{}，经销商ID: {}, 预占ID: {}",
+                            entryType.getDescription(), resellerId, reservationId);
+                    return null;
+                }
+                return entry(resellerId, entryType, reservation.amount, reservationId, null);
+            });
+        });
+    }
+
+    /**
+     * 在经销商所在锁分段内访问其账户，账户不在内存中时先从快照与流水恢复
+     */
+    private <T> T withAccount(String resellerId, Function<CreditAccount, T> action) {
+        if (resellerId == null) {
+            throw new IllegalArgumentException("经销商ID不能为空");
+        }
+        ReentrantLock lock = stripeOf(resellerId);
+        lock.lock();
+        try {
+            CreditAccount account = accounts.get(resellerId);
+            if (account == null) {
+                account = load(resellerId);
+                accounts.put(resellerId, account);
+            }
+            return action.apply(account);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按账户当前状态生成分录并追加；序号冲突时追平后重新生成
+     *
+     * @param decide 根据当前状态生成分录，返回null表示无需追加
+     * @return 追加的分录，未追加时为null
+     */
+    private CreditJournalEntry append(CreditAccount account, Function<CreditAccount, CreditJournalEntry> decide) {
+        for (int attempt = 0; ; attempt++) {
+            CreditJournalEntry entry = decide.apply(account);
+            if (entry == null) {
+                return null;
+            }
+            entry.setSeq(account.getSeq() + 1);
+            try {
+                execute(account.getResellerId(), () -> creditLedgerMapper.insertEntry(entry));
+            } catch (DuplicateKeyException e) {
+                if (attempt >= properties.getMaxAppendRetries()) {
+                    throw new PaymentException("信用账户并发更新冲突，请稍后重试，经销商ID: " + account.getResellerId());
+                }
+                log.debug("信用账户分录序号冲突，追平后重试，经销商ID: {}, 序号: {}", account.getResellerId(), entry.getSeq());
+                catchUp(account);
+                continue;
+            }
+            account.apply(entry);
+            return entry;
+        }
+    }
+
+    private CreditAccount load(String resellerId) {
+        CreditSnapshot snapshot = execute(resellerId, () -> creditLedgerMapper.selectSnapshot(resellerId));
+        CreditAccount account = snapshot != null ? CreditAccount.fromSnapshot(snapshot) : new CreditAccount(resellerId);
+        catchUp(account);
+        log.info("加载信用账户，经销商ID: {}, 快照序号: {}, 当前序号: {}",
+                resellerId, snapshot != null ? snapshot.getSeq() : 0L, account.getSeq());
+        return account;
+    }
+
+    private void catchUp(CreditAccount account) {
+        List<CreditJournalEntry> entries = execute(account.getResellerId(),
+                () -> creditLedgerMapper.selectEntriesAfter(account.getResellerId(), account.getSeq()));
+        entries.forEach(account::apply);
+    }
+
+    private <T> T execute(String resellerId, Supplier<T> action) {
+        return shardRouter.onShard(shardRouter.shardOfReseller(resellerId),
+                () -> transactionTemplate.execute(status -> action.get()));
+    }
+
+    private ReentrantLock stripeOf(String resellerId) {
+        int hash = resellerId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static CreditJournalEntry entry(String resellerId, CreditEntryType entryType, BigDecimal amount,
+                                            String reservationId, String reference) {
+        return CreditJournalEntry.builder()
+                .resellerId(resellerId)
+                .entryType(entryType)
+                .amount(amount)
+                .reservationId(reservationId)
+                .reference(reference)
+                .createTime(LocalDateTime.now())
+                .build();
+    }
+
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("金额必须大于0");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bytz.modules.cms.payment.infrastructure.credit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * 信用额度预占
+ * Credit Reservation
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CreditReservation {
+    
+    /**
+     * 预占ID（同时作为信用账户渠道的渠道支付记录ID）
+     */
+    private final String reservationId;
+    
+    private final String resellerId;
+    
+    private final BigDecimal amount;
+}
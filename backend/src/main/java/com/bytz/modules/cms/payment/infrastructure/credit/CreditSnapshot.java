@@ -0,0 +1,39 @@
+package com.bytz.modules.cms.payment.infrastructure.credit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 信用账户快照
+ * Credit Snapshot
+ * 
+ * 对应 cms_credit_snapshot 的一行
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditSnapshot {
+    
+    private String resellerId;
+    
+    private Long seq;
+    
+    private BigDecimal creditLimit;
+    
+    private BigDecimal usedAmount;
+    
+    private BigDecimal reservedAmount;
+    
+    /**
+     * 未结预占，格式：预占ID|金额|预占时间，分号分隔
+     */
+    private String openReservations;
+    
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,39 @@
+package com.bytz.modules.cms.payment.infrastructure.credit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 信用账户快照任务
+ * Credit Snapshot Job
+ * <p>
+ * 定时为本实例内存中有新分录的经销商写入快照，缩短重启后的分录重放；
+ * 快照按序号只进不退，多实例同时写入时保留序号最大的一份
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.credit", name = "snapshot-enabled", havingValue = "true")
+public class CreditSnapshotJob {
+
+    private final CreditLedger creditLedger;
+
+    public CreditSnapshotJob(CreditLedger creditLedger) {
+        this.creditLedger = creditLedger;
+    }
+
+    /**
+     * 定时写入快照
+     */
+    @Scheduled(cron = "${payment.credit.snapshot-cron:0 */5 * * * ?}")
+    public void run() {
+        try {
+            int written = creditLedger.snapshot();
+            log.info("信用账户快照完成，写入经销商: {}", written);
+        } catch (RuntimeException e) {
+            // 快照失败不影响账本，下次运行重新写入
+            log.error("信用账户快照失败", e);
+        }
+    }
+}
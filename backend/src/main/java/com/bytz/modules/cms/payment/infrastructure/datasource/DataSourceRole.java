@@ -0,0 +1,20 @@
+package com.bytz.modules.cms.payment.infrastructure.datasource;
+
+/**
+ * 数据源角色
+ * DataSource Role
+ * 
+ * 读写分离路由的查找键
+ */
+public enum DataSourceRole {
+    
+    /**
+     * 主库 - 承担全部写操作及需要读己之写的读操作
+     */
+    PRIMARY,
+    
+    /**
+     * 从库 - 承担只读事务中的查询
+     */
+    REPLICA
+}
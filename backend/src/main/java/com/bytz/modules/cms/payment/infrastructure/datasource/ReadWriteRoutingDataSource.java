@@ -0,0 +1,31 @@
+package com.bytz.modules.cms.payment.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 读写分离路由数据源
+ * Read/Write Routing DataSource
+ * 
+ * 路由规则：
+ * - 只读事务（@Transactional(readOnly = true)）且当前请求未被钉在主库 → 从库
+ * - 无事务、带有从库读标记（只读查询的散发工作线程，见ReplicaReadContext） → 从库
+ * - 其他情况（写事务、无事务、读己之写窗口内） → 主库
+ * 
+ * 注意：事务管理器在设置只读标记之前就会获取连接，
+ * 因此本数据源必须包在LazyConnectionDataSourceProxy之内，把真正取连接推迟到第一条语句执行时
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if ((readOnly && !ReadYourWritesContext.isPinnedToPrimary()) || ReplicaReadContext.isReplicaRead()) {
+            return DataSourceRole.REPLICA;
+        }
+        if (!readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+            ReadYourWritesContext.markWritten();
+        }
+        return DataSourceRole.PRIMARY;
+    }
+}
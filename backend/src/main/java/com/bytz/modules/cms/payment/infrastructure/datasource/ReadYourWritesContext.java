@@ -0,0 +1,62 @@
+package com.bytz.modules.cms.payment.infrastructure.datasource;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 读己之写上下文
+ * Read-Your-Writes Context
+ * 
+ * 以线程为范围记录当前请求是否被钉在主库（会话刚写过，从库可能尚未追上复制）。
+ * 发生写事务时在HTTP会话上记录写入时间，供同一会话后续请求判断是否仍在粘滞窗口内。
+ * 
+ * 由ReadYourWritesFilter在请求开始时设置、结束时清理
+ */
+public final class ReadYourWritesContext {
+    
+    /**
+     * 会话属性：最近一次写事务的时间戳（毫秒）
+     */
+    static final String LAST_WRITE_AT_ATTRIBUTE = "payment.datasource.lastWriteAt";
+    
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+    
+    private ReadYourWritesContext() {
+    }
+    
+    /**
+     * 将当前线程的读操作钉在主库
+     */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+    
+    /**
+     * 当前线程的读操作是否被钉在主库
+     */
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+    
+    /**
+     * 记录发生过写事务：本请求后续的读走主库，并在会话上记录写入时间
+     * （此时响应尚未提交，可以安全地创建会话）
+     * 非HTTP请求线程（如定时任务）没有过滤器负责清理，不做钉选
+     */
+    public static void markWritten() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        attributes.setAttribute(LAST_WRITE_AT_ATTRIBUTE, System.currentTimeMillis(),
+                RequestAttributes.SCOPE_SESSION);
+    }
+    
+    /**
+     * 清理当前线程上下文
+     */
+    public static void clear() {
+        PINNED_TO_PRIMARY.remove();
+    }
+}
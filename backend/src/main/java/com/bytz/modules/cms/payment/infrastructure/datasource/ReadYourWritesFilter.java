@@ -0,0 +1,45 @@
+package com.bytz.modules.cms.payment.infrastructure.datasource;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 读己之写过滤器
+ * Read-Your-Writes Filter
+ * 
+ * 会话在粘滞窗口内发生过写事务时，本次请求的读操作全部走主库，
+ * 避免刚支付/取消完立即查询时从库复制延迟导致读到旧状态
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    private final long stickyWindowMillis;
+    
+    public ReadYourWritesFilter(Duration stickyWindow) {
+        this.stickyWindowMillis = stickyWindow.toMillis();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            Object lastWriteAt = session.getAttribute(ReadYourWritesContext.LAST_WRITE_AT_ATTRIBUTE);
+            if (lastWriteAt instanceof Long
+                    && System.currentTimeMillis() - (Long) lastWriteAt < stickyWindowMillis) {
+                ReadYourWritesContext.pinToPrimary();
+            }
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWritesContext.clear();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bytz.modules.cms.payment.infrastructure.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 从库读上下文
+ * Replica Read Context
+ *
+ * 只读事务的路由依据是事务同步状态，只在开启事务的线程上可见。
+ * 散发查询的工作线程不参与调用方事务，需要由调用线程捕获读路由、在工作线程上以显式标记传入，
+ * 使只读查询的各分片子查询同样走从库。
+ *
+ * 标记只对无事务的读生效：工作线程自行开启的事务仍按事务的只读属性路由
+ */
+public final class ReplicaReadContext {
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private ReplicaReadContext() {
+    }
+
+    /**
+     * 捕获当前线程的读路由
+     *
+     * @return true如果当前线程的读应走从库（只读事务内且未被钉在主库，或已带有从库读标记）
+     */
+    public static boolean capture() {
+        if (Boolean.TRUE.equals(REPLICA_READ.get())) {
+            return true;
+        }
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWritesContext.isPinnedToPrimary();
+    }
+
+    /**
+     * 按捕获的读路由执行操作，结束后恢复当前线程原有标记
+     *
+     * @param replicaRead capture()的结果
+     * @param action      数据访问操作
+     * @return 操作结果
+     */
+    public static <T> T callWith(boolean replicaRead, Supplier<T> action) {
+        Boolean previous = REPLICA_READ.get();
+        if (replicaRead) {
+            REPLICA_READ.set(Boolean.TRUE);
+        } else {
+            REPLICA_READ.remove();
+        }
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                REPLICA_READ.remove();
+            } else {
+                REPLICA_READ.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 当前线程无事务的读是否带有从库读标记
+     */
+    static boolean isReplicaRead() {
+        return Boolean.TRUE.equals(REPLICA_READ.get())
+                && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+}
@@ -0,0 +1,59 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 渠道回调处理记录数据库实体
+ * Payment Callback Record Database Entity
+ * 
+ * 对应数据库表 cms_payment_callback_record
+ * (channel_transaction_number, callback_status) 上有唯一索引，作为回调幂等的权威判定
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_payment_callback_record")
+public class PaymentCallbackRecordEntity {
+    
+    /**
+     * 主键ID，使用雪花算法生成
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private String id;
+    
+    /**
+     * 渠道交易号
+     */
+    @TableField("channel_transaction_number")
+    private String channelTransactionNumber;
+    
+    /**
+     * 回调结果状态（SUCCESS/FAILED）
+     */
+    @TableField("callback_status")
+    private TransactionStatus callbackStatus;
+    
+    /**
+     * 支付单ID
+     */
+    @TableField("payment_id")
+    private String paymentId;
+    
+    /**
+     * 创建时间
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
@@ -1,6 +1,7 @@
 package com.bytz.modules.cms.payment.infrastructure.entity;
 
 import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -80,6 +81,12 @@ public class PaymentEntity {
     @TableField("actual_amount")
     private BigDecimal actualAmount;
     
+    /**
+     * 待支付金额（数据库生成列 payment_amount - paid_amount，只读）
+     */
+    @TableField(value = "pending_amount", insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private BigDecimal pendingAmount;
+    
     /**
      * 币种
      */
@@ -0,0 +1,75 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 经销商支付汇总数据库实体
+ * Reseller Payment Summary Database Entity
+ * 
+ * 对应数据库表 cms_reseller_payment_summary，主键 (reseller_id, currency, payment_status)；
+ * 写入时作为增量使用（计数与金额可为负，按主键累加）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_reseller_payment_summary")
+public class ResellerPaymentSummaryEntity {
+    
+    /**
+     * 经销商ID
+     */
+    @TableField("reseller_id")
+    private String resellerId;
+    
+    /**
+     * 币种
+     */
+    @TableField("currency")
+    private String currency;
+    
+    /**
+     * 支付状态
+     */
+    @TableField("payment_status")
+    private PaymentStatus paymentStatus;
+    
+    /**
+     * 支付单数
+     */
+    @TableField("payment_count")
+    private Long paymentCount;
+    
+    /**
+     * 支付金额合计
+     */
+    @TableField("payment_amount")
+    private BigDecimal paymentAmount;
+    
+    /**
+     * 已支付金额合计
+     */
+    @TableField("paid_amount")
+    private BigDecimal paidAmount;
+    
+    /**
+     * 已退款金额合计
+     */
+    @TableField("refunded_amount")
+    private BigDecimal refundedAmount;
+    
+    /**
+     * 更新时间
+     */
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
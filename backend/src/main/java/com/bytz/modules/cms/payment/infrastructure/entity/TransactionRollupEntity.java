@@ -0,0 +1,73 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 流水汇总数据库实体
+ * Transaction Rollup Database Entity
+ * 
+ * 对应数据库表 cms_transaction_rollup_hourly / cms_transaction_rollup_daily（两表结构一致），
+ * 主键为 (bucket_start, payment_channel, payment_type, transaction_type, transaction_status, currency)；
+ * 写入时作为增量使用（笔数与金额可为负，按主键累加）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRollupEntity {
+    
+    /**
+     * 桶起点（小时表为整点，日表为当日0点）
+     */
+    private LocalDateTime bucketStart;
+    
+    /**
+     * 支付渠道
+     */
+    private PaymentChannel paymentChannel;
+    
+    /**
+     * 支付类型
+     */
+    private PaymentType paymentType;
+    
+    /**
+     * 流水类型
+     */
+    private TransactionType transactionType;
+    
+    /**
+     * 流水状态
+     */
+    private TransactionStatus transactionStatus;
+    
+    /**
+     * 币种
+     */
+    private String currency;
+    
+    /**
+     * 流水笔数
+     */
+    private Long transactionCount;
+    
+    /**
+     * 流水金额合计
+     */
+    private BigDecimal totalAmount;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
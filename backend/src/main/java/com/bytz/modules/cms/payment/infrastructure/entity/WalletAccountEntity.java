@@ -0,0 +1,61 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 钱包账户数据库实体
+ * Wallet Account Database Entity
+ * 
+ * 对应数据库表 cms_wallet_account，主键 reseller_id；更新以 version 比较并交换
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_wallet_account")
+public class WalletAccountEntity {
+    
+    /**
+     * 经销商ID
+     */
+    @TableField("reseller_id")
+    private String resellerId;
+    
+    /**
+     * 余额（含冻结）
+     */
+    @TableField("balance")
+    private BigDecimal balance;
+    
+    /**
+     * 冻结金额
+     */
+    @TableField("held_amount")
+    private BigDecimal heldAmount;
+    
+    /**
+     * 版本号
+     */
+    @TableField("version")
+    private Long version;
+    
+    /**
+     * 创建时间
+     */
+    @TableField("create_time")
+    private LocalDateTime createTime;
+    
+    /**
+     * 更新时间
+     */
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
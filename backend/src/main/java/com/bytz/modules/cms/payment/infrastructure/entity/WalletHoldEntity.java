@@ -0,0 +1,68 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.bytz.modules.cms.payment.domain.enums.WalletHoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 钱包冻结数据库实体
+ * Wallet Hold Database Entity
+ * 
+ * 对应数据库表 cms_wallet_hold，主键 hold_id
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_wallet_hold")
+public class WalletHoldEntity {
+    
+    /**
+     * 冻结ID
+     */
+    @TableField("hold_id")
+    private String holdId;
+    
+    /**
+     * 经销商ID
+     */
+    @TableField("reseller_id")
+    private String resellerId;
+    
+    /**
+     * 冻结金额
+     */
+    @TableField("amount")
+    private BigDecimal amount;
+    
+    /**
+     * 状态
+     */
+    @TableField("status")
+    private WalletHoldStatus status;
+    
+    /**
+     * 业务参考号
+     */
+    @TableField("reference")
+    private String reference;
+    
+    /**
+     * 创建时间
+     */
+    @TableField("create_time")
+    private LocalDateTime createTime;
+    
+    /**
+     * 更新时间
+     */
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
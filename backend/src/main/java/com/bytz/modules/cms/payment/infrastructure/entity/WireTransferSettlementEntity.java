@@ -0,0 +1,52 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 电汇入账记录数据库实体
+ * Wire Transfer Settlement Database Entity
+ * 
+ * 对应数据库表 cms_wire_transfer_settlement
+ * (bank_reference, payment_id) 上有唯一索引：一笔到账可结算多个支付单，同一支付单只入账一次
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_wire_transfer_settlement")
+public class WireTransferSettlementEntity {
+    
+    /**
+     * 主键ID，使用雪花算法生成
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private String id;
+    
+    /**
+     * 银行流水号
+     */
+    @TableField("bank_reference")
+    private String bankReference;
+    
+    /**
+     * 支付单ID
+     */
+    @TableField("payment_id")
+    private String paymentId;
+    
+    /**
+     * 创建时间
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,157 @@
+package com.bytz.modules.cms.payment.infrastructure.journal;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentTransitionType;
+import com.bytz.modules.cms.payment.domain.enums.RefundStatus;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * 事件日志文件格式
+ * Journal Format
+ * <p>
+ * 段文件：
+ * <pre>
+ * MAGIC(4) VERSION(4) 记录帧...
+ * 记录帧：LENGTH(4) CRC32(4) PAYLOAD(LENGTH)
+ * </pre>
+ * LENGTH为0表示此后未写入；为-1表示本段已结束，后续记录在下一段。
+ * 载荷依次为：同一支付单上一条记录位置、支付单ID、单号、经销商ID、变更类型、支付状态、退款状态、
+ * 已支付金额、已退款金额、流水ID、流水号、流水金额、发生时间。
+ * 字符串为 长度(2) + UTF-8字节（null长度为-1），枚举按名称存储，
+ * 金额为 精度(1) + 非标度值(8)（null精度为-128），时间为UTC解释下的毫秒数（null为Long.MIN_VALUE）。
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x504A4E4C;
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int FRAME_HEADER_SIZE = 8;
+    static final int END_OF_SEGMENT = -1;
+
+    private static final byte NULL_SCALE = Byte.MIN_VALUE;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private JournalFormat() {
+    }
+
+    /**
+     * 把记录编码为载荷，写入缓冲区当前位置
+     *
+     * @throws java.nio.BufferOverflowException 如果缓冲区空间不足
+     */
+    static void encode(PaymentJournalRecord record, long previousPosition, ByteBuffer out) {
+        out.putLong(previousPosition);
+        putString(out, record.getPaymentId());
+        putString(out, record.getPaymentCode());
+        putString(out, record.getResellerId());
+        putString(out, record.getTransitionType() != null ? record.getTransitionType().name() : null);
+        putString(out, record.getPaymentStatus() != null ? record.getPaymentStatus().name() : null);
+        putString(out, record.getRefundStatus() != null ? record.getRefundStatus().name() : null);
+        putDecimal(out, record.getPaidAmount());
+        putDecimal(out, record.getRefundedAmount());
+        putString(out, record.getTransactionId());
+        putString(out, record.getTransactionCode());
+        putDecimal(out, record.getTransactionAmount());
+        LocalDateTime occurredAt = record.getOccurredAt();
+        out.putLong(occurredAt != null ? occurredAt.toInstant(ZoneOffset.UTC).toEpochMilli() : NULL_TIME);
+    }
+
+    /**
+     * 从缓冲区当前位置解码载荷
+     */
+    static PaymentJournalRecord decode(ByteBuffer in, long position, long nextPosition) {
+        PaymentJournalRecord.PaymentJournalRecordBuilder builder = PaymentJournalRecord.builder()
+                .position(position)
+                .nextPosition(nextPosition)
+                .previousPosition(in.getLong())
+                .paymentId(getString(in))
+                .paymentCode(getString(in))
+                .resellerId(getString(in));
+        String transitionType = getString(in);
+        String paymentStatus = getString(in);
+        String refundStatus = getString(in);
+        builder.transitionType(transitionType != null ? PaymentTransitionType.valueOf(transitionType) : null)
+                .paymentStatus(paymentStatus != null ? PaymentStatus.valueOf(paymentStatus) : null)
+                .refundStatus(refundStatus != null ? RefundStatus.valueOf(refundStatus) : null)
+                .paidAmount(getDecimal(in))
+                .refundedAmount(getDecimal(in))
+                .transactionId(getString(in))
+                .transactionCode(getString(in))
+                .transactionAmount(getDecimal(in));
+        long occurredAt = in.getLong();
+        if (occurredAt != NULL_TIME) {
+            builder.occurredAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(occurredAt), ZoneOffset.UTC));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 只解码载荷中的支付单ID（打开日志重建索引时使用）
+     */
+    static String decodePaymentId(ByteBuffer in) {
+        in.getLong();
+        return getString(in);
+    }
+
+    /**
+     * 计算缓冲区 [offset, offset + length) 的CRC32，不改变缓冲区位置
+     */
+    static int checksum(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + length).position(offset);
+        CRC32 crc = new CRC32();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("字段长度超过上限: " + bytes.length);
+        }
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putDecimal(ByteBuffer out, BigDecimal value) {
+        if (value == null) {
+            out.put(NULL_SCALE);
+            out.putLong(0);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() > 63 || value.scale() <= NULL_SCALE || value.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("金额超出日志可表示范围: " + value);
+        }
+        out.put((byte) value.scale());
+        out.putLong(unscaled.longValue());
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer in) {
+        byte scale = in.get();
+        long unscaled = in.getLong();
+        return scale == NULL_SCALE ? null : BigDecimal.valueOf(unscaled, scale);
+    }
+}
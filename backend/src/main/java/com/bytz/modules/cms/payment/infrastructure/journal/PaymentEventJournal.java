@@ -0,0 +1,425 @@
+package com.bytz.modules.cms.payment.infrastructure.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static com.bytz.modules.cms.payment.infrastructure.journal.JournalFormat.*;
+
+/**
+ * 支付单事件日志
+ * Payment Event Journal
+ * <p>
+ * 支付单每次状态变更追加一条记录，只追加、不修改，不经过数据库：
+ * <p>
+ * - 日志由固定大小的段文件组成，段文件整体内存映射，追加直接写入映射区（不经过堆内缓冲与write系统调用），
+ *   放不下时写入段结束标记并切换到新段；记录位置为全局偏移量（段起始偏移量 + 段内偏移量），只增不减
+ * - 每条记录带CRC32，并保存同一支付单上一条记录的位置；内存中只为每个支付单保留最后一条记录的位置，
+ *   回放单个支付单时沿位置链反向读取，不扫描其他支付单的记录
+ * - 订阅方从任意位置顺序读取，读到末尾后等待新的追加（见PaymentJournalTailer）
+ * - 打开时顺序扫描全部段重建支付单索引，末段中校验失败的残缺记录（进程崩溃时写入一半）被清零丢弃
+ * - 写入映射区后由操作系统回写磁盘，进程崩溃不丢失；需要防止掉电丢失时开启每次追加后刷盘
+ * <p>
+ * 追加串行执行（单写者），读取与回放不加锁、可并发。
+ */
+@Slf4j
+public class PaymentEventJournal implements Closeable {
+
+    /**
+     * 段文件最小大小
+     */
+    public static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int MAX_RECORD_SIZE = 16 * 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceOnAppend;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> lastPositions = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition appended = writeLock.newCondition();
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(MAX_RECORD_SIZE);
+    private Segment active;
+    private volatile long writePosition;
+    private volatile boolean closed;
+
+    /**
+     * 打开（或新建）事件日志
+     *
+     * @param directory     段文件目录
+     * @param segmentSize   新建段文件的大小（已有段文件按其实际大小读取）
+     * @param forceOnAppend 每次追加后是否刷盘
+     */
+    public PaymentEventJournal(Path directory, int segmentSize, boolean forceOnAppend) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("段文件大小不能小于 " + MIN_SEGMENT_SIZE);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forceOnAppend = forceOnAppend;
+        Files.createDirectories(directory);
+        List<Long> bases = listSegmentBases(directory);
+        if (bases.isEmpty()) {
+            active = createSegment(0);
+            writePosition = SEGMENT_HEADER_SIZE;
+        } else {
+            for (int i = 0; i < bases.size(); i++) {
+                Segment segment = openSegment(bases.get(i));
+                segments.put(segment.base, segment);
+                int end = recover(segment, i == bases.size() - 1);
+                active = segment;
+                writePosition = segment.base + end;
+            }
+        }
+        log.info("打开支付单事件日志，目录: {}, 段数: {}, 支付单数: {}, 写入位置: {}",
+                directory, segments.size(), lastPositions.size(), writePosition);
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param record 记录（位置字段忽略）
+     * @return 记录位置
+     */
+    public long append(PaymentJournalRecord record) {
+        writeLock.lock();
+        try {
+            long position = appendLocked(record);
+            afterAppend();
+            return position;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 按顺序追加多条记录，只加锁、刷盘一次
+     *
+     * @param records 记录（位置字段忽略）
+     */
+    public void appendAll(List<PaymentJournalRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            for (PaymentJournalRecord record : records) {
+                appendLocked(record);
+            }
+            afterAppend();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 回放单个支付单的全部记录
+     *
+     * @param paymentId 支付单ID
+     * @return 按追加顺序排列的记录，没有记录时为空列表
+     */
+    public List<PaymentJournalRecord> replay(String paymentId) {
+        Long last = lastPositions.get(paymentId);
+        if (last == null) {
+            return Collections.emptyList();
+        }
+        List<PaymentJournalRecord> records = new ArrayList<>();
+        for (long position = last; position >= 0; ) {
+            PaymentJournalRecord record = readAt(position);
+            records.add(record);
+            position = record.getPreviousPosition();
+        }
+        Collections.reverse(records);
+        return records;
+    }
+
+    /**
+     * 从指定位置顺序读取
+     *
+     * @param fromPosition 起始位置（可为0表示从头读取，或上次读取返回的位置）
+     * @param maxRecords   本次最多读取的记录数
+     * @param consumer     记录消费者，抛出异常时读取中止，已消费记录的 nextPosition 可作为重试起点
+     * @return 下次读取的起始位置
+     */
+    public long read(long fromPosition, int maxRecords, Consumer<PaymentJournalRecord> consumer) {
+        long position = Math.max(fromPosition, firstPosition());
+        int count = 0;
+        while (count < maxRecords && position < writePosition) {
+            Segment segment = segments.floorEntry(position).getValue();
+            int offset = (int) (position - segment.base);
+            int length = offset + FRAME_HEADER_SIZE <= segment.size ? segment.buffer.getInt(offset) : END_OF_SEGMENT;
+            if (length <= 0) {
+                Long next = segments.higherKey(segment.base);
+                if (next == null) {
+                    break;
+                }
+                position = next + SEGMENT_HEADER_SIZE;
+                continue;
+            }
+            PaymentJournalRecord record = decodeAt(segment, offset, length);
+            consumer.accept(record);
+            position = record.getNextPosition();
+            count++;
+        }
+        return position;
+    }
+
+    /**
+     * 等待指定位置之后有新的追加
+     *
+     * @return 有新的追加时为true，超时或日志已关闭时为false
+     */
+    public boolean awaitAppend(long position, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        writeLock.lock();
+        try {
+            while (writePosition <= position && !closed) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = appended.awaitNanos(nanos);
+            }
+            return writePosition > position;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 第一条记录的位置
+     */
+    public long firstPosition() {
+        return segments.firstKey() + SEGMENT_HEADER_SIZE;
+    }
+
+    /**
+     * 当前写入位置（下一条追加记录的位置），订阅方从此处开始只接收新记录
+     */
+    public long endPosition() {
+        return writePosition;
+    }
+
+    /**
+     * 有记录的支付单数
+     */
+    public int paymentCount() {
+        return lastPositions.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            active.buffer.force();
+            appended.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("关闭支付单事件日志，目录: {}, 写入位置: {}", directory, writePosition);
+    }
+
+    private long appendLocked(PaymentJournalRecord record) {
+        if (closed) {
+            throw new IllegalStateException("支付单事件日志已关闭");
+        }
+        if (record.getPaymentId() == null) {
+            throw new IllegalArgumentException("支付单ID不能为空");
+        }
+        Long previous = lastPositions.get(record.getPaymentId());
+        encodeBuffer.clear();
+        try {
+            JournalFormat.encode(record, previous != null ? previous : -1L, encodeBuffer);
+        } catch (BufferOverflowException e) {
+            throw new IllegalArgumentException("事件日志记录超过最大长度 " + MAX_RECORD_SIZE + "，支付单ID: "
+                    + record.getPaymentId());
+        }
+        encodeBuffer.flip();
+        int length = encodeBuffer.remaining();
+        int frameSize = FRAME_HEADER_SIZE + length;
+
+        int offset = (int) (writePosition - active.base);
+        if (offset + frameSize > active.size) {
+            roll(offset);
+            offset = SEGMENT_HEADER_SIZE;
+        }
+        ByteBuffer view = active.writeView;
+        view.position(offset + FRAME_HEADER_SIZE);
+        view.put(encodeBuffer);
+        view.putInt(offset + 4, JournalFormat.checksum(view, offset + FRAME_HEADER_SIZE, length));
+        // 长度最后写入：读取方以 writePosition 为界，长度非0即表示整条记录已写完
+        view.putInt(offset, length);
+
+        long position = active.base + offset;
+        lastPositions.put(record.getPaymentId(), position);
+        writePosition = position + frameSize;
+        return position;
+    }
+
+    private void afterAppend() {
+        if (forceOnAppend) {
+            active.buffer.force();
+        }
+        appended.signalAll();
+    }
+
+    /**
+     * 写入段结束标记，刷盘后切换到新段
+     */
+    private void roll(int offset) {
+        if (offset + 4 <= active.size) {
+            active.writeView.putInt(offset, END_OF_SEGMENT);
+        }
+        active.buffer.force();
+        long base = active.base + active.size;
+        try {
+            active = createSegment(base);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建事件日志段文件失败，起始位置: " + base, e);
+        }
+        writePosition = base + SEGMENT_HEADER_SIZE;
+        log.info("支付单事件日志切换段文件，起始位置: {}", base);
+    }
+
+    private PaymentJournalRecord readAt(long position) {
+        Segment segment = segments.floorEntry(position).getValue();
+        int offset = (int) (position - segment.base);
+        return decodeAt(segment, offset, segment.buffer.getInt(offset));
+    }
+
+    private static PaymentJournalRecord decodeAt(Segment segment, int offset, int length) {
+        ByteBuffer view = segment.buffer.duplicate();
+        view.position(offset + FRAME_HEADER_SIZE);
+        long position = segment.base + offset;
+        return JournalFormat.decode(view, position, position + FRAME_HEADER_SIZE + length);
+    }
+
+    /**
+     * 扫描段文件重建支付单索引
+     *
+     * @param last 是否为末段（末段的残缺记录清零，之后从此处继续追加）
+     * @return 有效记录之后的段内偏移量
+     */
+    private int recover(Segment segment, boolean last) {
+        int offset = SEGMENT_HEADER_SIZE;
+        while (offset + FRAME_HEADER_SIZE <= segment.size) {
+            int length = segment.buffer.getInt(offset);
+            if (length == 0 || length == END_OF_SEGMENT) {
+                return offset;
+            }
+            boolean valid = length > 0 && offset + FRAME_HEADER_SIZE + length <= segment.size
+                    && segment.buffer.getInt(offset + 4)
+                    == JournalFormat.checksum(segment.buffer, offset + FRAME_HEADER_SIZE, length);
+            if (!valid) {
+                log.warn("支付单事件日志记录校验失败，丢弃段内此后的记录，段起始位置: {}, 段内偏移量: {}",
+                        segment.base, offset);
+                if (last) {
+                    ByteBuffer view = segment.writeView;
+                    for (int i = offset; i < segment.size; i++) {
+                        view.put(i, (byte) 0);
+                    }
+                    segment.buffer.force();
+                }
+                return offset;
+            }
+            ByteBuffer view = segment.buffer.duplicate();
+            view.position(offset + FRAME_HEADER_SIZE);
+            lastPositions.put(JournalFormat.decodePaymentId(view), segment.base + offset);
+            offset += FRAME_HEADER_SIZE + length;
+        }
+        return offset;
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Path file = directory.resolve(segmentFileName(base));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        Segment segment = new Segment(base, buffer);
+        segments.put(base, segment);
+        return segment;
+    }
+
+    private Segment openSegment(long base) throws IOException {
+        Path file = directory.resolve(segmentFileName(base));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < MIN_SEGMENT_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("事件日志段文件大小异常: " + file + ", " + size);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("不是支付单事件日志段文件或版本不支持: " + file);
+        }
+        return new Segment(base, buffer);
+    }
+
+    private static List<Long> listSegmentBases(Path directory) throws IOException {
+        List<Long> bases = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                bases.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(bases);
+        return bases;
+    }
+
+    private static String segmentFileName(long base) {
+        return String.format("%020d%s", base, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * 段文件：整体映射；buffer只做绝对位置读取，可被读取方共享，writeView为写入方专用视图
+     */
+    private static final class Segment {
+
+        private final long base;
+        private final int size;
+        private final MappedByteBuffer buffer;
+        private final ByteBuffer writeView;
+
+        private Segment(long base, MappedByteBuffer buffer) {
+            this.base = base;
+            this.size = buffer.capacity();
+            this.buffer = buffer;
+            this.writeView = buffer.duplicate();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.bytz.modules.cms.payment.infrastructure.journal;
+
+/**
+ * 支付单事件日志订阅方
+ * Payment Journal Consumer
+ * <p>
+ * 注册为Spring Bean后，启动时从日志末尾开始订阅，每个订阅方一个订阅线程，按追加顺序接收新记录。
+ * 消费失败会重试同一条记录，实现需保证幂等。
+ */
+public interface PaymentJournalConsumer {
+
+    /**
+     * 处理一条记录
+     */
+    void onRecord(PaymentJournalRecord record);
+}
@@ -0,0 +1,63 @@
+package com.bytz.modules.cms.payment.infrastructure.journal;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentTransitionType;
+import com.bytz.modules.cms.payment.domain.enums.RefundStatus;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 支付单事件日志记录
+ * Payment Journal Record
+ * <p>
+ * 一次状态变更后的支付单状态与金额。追加时位置字段由日志填写；
+ * 批量状态迁移不加载聚合根，其记录只有支付单ID、变更类型与目标状态，其余字段为null。
+ */
+@Getter
+@ToString
+@Builder(toBuilder = true)
+public class PaymentJournalRecord {
+
+    /**
+     * 记录在日志中的位置（全局偏移量）
+     */
+    private final long position;
+
+    /**
+     * 下一条记录的位置，订阅方可作为消费进度保存
+     */
+    private final long nextPosition;
+
+    /**
+     * 同一支付单上一条记录的位置，没有时为-1
+     */
+    private final long previousPosition;
+
+    private final String paymentId;
+
+    private final String paymentCode;
+
+    private final String resellerId;
+
+    private final PaymentTransitionType transitionType;
+
+    private final PaymentStatus paymentStatus;
+
+    private final RefundStatus refundStatus;
+
+    private final BigDecimal paidAmount;
+
+    private final BigDecimal refundedAmount;
+
+    private final String transactionId;
+
+    private final String transactionCode;
+
+    private final BigDecimal transactionAmount;
+
+    private final LocalDateTime occurredAt;
+}
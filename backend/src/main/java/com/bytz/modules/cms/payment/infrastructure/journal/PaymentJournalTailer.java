@@ -0,0 +1,86 @@
+package com.bytz.modules.cms.payment.infrastructure.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 事件日志订阅线程
+ * Payment Journal Tailer
+ * <p>
+ * 从指定位置起顺序读取事件日志并交给消费者，读到末尾后等待新的追加。
+ * 消费者抛出异常时记录日志，等待一个轮询间隔后从失败的记录重试（至少一次投递）。
+ */
+@Slf4j
+public class PaymentJournalTailer implements Closeable {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final PaymentEventJournal journal;
+    private final Consumer<PaymentJournalRecord> consumer;
+    private final long pollNanos;
+    private final Thread thread;
+    private volatile long position;
+    private volatile boolean closed;
+
+    /**
+     * @param name         订阅线程名称
+     * @param fromPosition 起始位置（{@link PaymentEventJournal#endPosition()} 表示只接收新记录）
+     * @param pollInterval 等待新追加的最长时间，也是消费失败后的重试间隔
+     */
+    public PaymentJournalTailer(PaymentEventJournal journal, String name, long fromPosition,
+                                Duration pollInterval, Consumer<PaymentJournalRecord> consumer) {
+        this.journal = journal;
+        this.consumer = consumer;
+        this.pollNanos = pollInterval.toNanos();
+        this.position = fromPosition;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 下一条待消费记录的位置
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.NANOSECONDS.toMillis(pollNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                long next = journal.read(position, BATCH_SIZE, record -> {
+                    consumer.accept(record);
+                    position = record.getNextPosition();
+                });
+                position = next;
+                if (!journal.awaitAppend(next, pollNanos, TimeUnit.NANOSECONDS) && journal.isClosed()) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("支付单事件日志消费失败，稍后从位置 {} 重试", position, e);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(pollNanos);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.bytz.modules.cms.payment.infrastructure.analytics.SettledTransactionRow;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分析导出Mapper接口
+ * Analytics Export Mapper Interface
+ * 
+ * 按 (update_time, id) 游标增量读取已结清（成功/失败）流水及其支付单属性，
+ * 走索引 idx_update_time，每页一次范围扫描
+ */
+@Mapper
+public interface AnalyticsExportMapper {
+    
+    /**
+     * 查询水位之后的一页已结清流水
+     * 
+     * @param afterTime  水位时间（不含）
+     * @param afterId    水位时间相同时的流水ID游标（不含）
+     * @param upperBound 更新时间上界（不含），留出未提交事务的时间余量
+     * @param limit      每页行数
+     * @return 已结清流水行，按 (update_time, id) 升序
+     */
+    @Select("SELECT t.id AS transaction_id, t.code AS transaction_code, t.payment_id, p.code AS payment_code, "
+            + "p.reseller_id, p.order_id, p.payment_type, t.payment_channel, t.transaction_type, "
+            + "t.transaction_status, p.currency, t.transaction_amount AS amount, "
+            + "t.complete_date_time AS complete_time, p.create_time AS payment_create_time, t.update_time "
+            + "FROM cms_payment_transaction t JOIN cms_payment p ON p.id = t.payment_id "
+            + "WHERE t.transaction_status IN ('SUCCESS', 'FAILED') AND t.del_flag = 0 "
+            + "AND t.update_time < #{upperBound} "
+            + "AND (t.update_time > #{afterTime} OR (t.update_time = #{afterTime} AND t.id > #{afterId})) "
+            + "ORDER BY t.update_time, t.id LIMIT #{limit}")
+    List<SettledTransactionRow> selectSettledTransactionsAfter(@Param("afterTime") LocalDateTime afterTime,
+                                                              @Param("afterId") long afterId,
+                                                              @Param("upperBound") LocalDateTime upperBound,
+                                                              @Param("limit") int limit);
+}
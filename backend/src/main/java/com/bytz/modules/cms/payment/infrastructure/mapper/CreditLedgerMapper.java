@@ -0,0 +1,66 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.bytz.modules.cms.payment.domain.enums.CreditEntryType;
+import com.bytz.modules.cms.payment.infrastructure.credit.CreditJournalEntry;
+import com.bytz.modules.cms.payment.infrastructure.credit.CreditSnapshot;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 信用账户Mapper接口
+ * Credit Ledger Mapper Interface
+ * 
+ * 流水日志只追加；快照按经销商覆盖写入，序号只进不退
+ */
+@Mapper
+public interface CreditLedgerMapper {
+    
+    /**
+     * 追加一条分录，(reseller_id, seq) 已存在时抛出 DuplicateKeyException（其他实例已追加该序号）
+     */
+    @Insert("INSERT INTO cms_credit_journal (reseller_id, seq, entry_type, amount, reservation_id, reference, create_time) "
+            + "VALUES (#{resellerId}, #{seq}, #{entryType}, #{amount}, #{reservationId}, #{reference}, #{createTime})")
+    int insertEntry(CreditJournalEntry entry);
+    
+    /**
+     * 按序号读取经销商指定序号之后的全部分录
+     */
+    @Select("SELECT reseller_id, seq, entry_type, amount, reservation_id, reference, create_time "
+            + "FROM cms_credit_journal WHERE reseller_id = #{resellerId} AND seq > #{afterSeq} ORDER BY seq")
+    List<CreditJournalEntry> selectEntriesAfter(@Param("resellerId") String resellerId, @Param("afterSeq") long afterSeq);
+    
+    /**
+     * 统计经销商指定类型、指定业务参考号的分录数（走 idx_reseller_reference 索引）
+     */
+    @Select("SELECT COUNT(1) FROM cms_credit_journal "
+            + "WHERE reseller_id = #{resellerId} AND reference = #{reference} AND entry_type = #{entryType}")
+    long countEntries(@Param("resellerId") String resellerId,
+                      @Param("entryType") CreditEntryType entryType,
+                      @Param("reference") String reference);
+    
+    /**
+     * 查询经销商的快照，不存在时返回null
+     */
+    @Select("SELECT reseller_id, seq, credit_limit, used_amount, reserved_amount, open_reservations, update_time "
+            + "FROM cms_credit_snapshot WHERE reseller_id = #{resellerId}")
+    CreditSnapshot selectSnapshot(@Param("resellerId") String resellerId);
+    
+    /**
+     * 写入快照；已有更新的快照时保留原值（seq 最后赋值，前面各列按旧 seq 比较）
+     */
+    @Insert("INSERT INTO cms_credit_snapshot "
+            + "(reseller_id, seq, credit_limit, used_amount, reserved_amount, open_reservations, update_time) "
+            + "VALUES (#{resellerId}, #{seq}, #{creditLimit}, #{usedAmount}, #{reservedAmount}, #{openReservations}, #{updateTime}) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "credit_limit = IF(VALUES(seq) > seq, VALUES(credit_limit), credit_limit), "
+            + "used_amount = IF(VALUES(seq) > seq, VALUES(used_amount), used_amount), "
+            + "reserved_amount = IF(VALUES(seq) > seq, VALUES(reserved_amount), reserved_amount), "
+            + "open_reservations = IF(VALUES(seq) > seq, VALUES(open_reservations), open_reservations), "
+            + "update_time = IF(VALUES(seq) > seq, VALUES(update_time), update_time), "
+            + "seq = GREATEST(seq, VALUES(seq))")
+    int upsertSnapshot(CreditSnapshot snapshot);
+}
@@ -0,0 +1,129 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionEntity;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 支付单归档Mapper接口
+ * Payment Archive Mapper Interface
+ * 
+ * 负责热表与归档表（cms_payment_archive、cms_payment_transaction_archive）之间的搬迁、
+ * 逻辑删除数据的物理清理，以及归档数据的回查。
+ * 搬迁使用显式列清单，热表新增列时需同步修改归档表和本接口的列清单。
+ */
+@Mapper
+public interface PaymentArchiveMapper {
+    
+    /**
+     * 支付单列清单（热表与归档表一致）
+     */
+    String PAYMENT_COLUMNS = "id, code, order_id, reseller_id, payment_amount, paid_amount, refunded_amount, "
+            + "actual_amount, pending_amount, currency, payment_type, payment_status, refund_status, business_desc, "
+            + "payment_deadline, priority_level, related_business_id, related_business_type, business_expire_date, "
+            + "del_flag, create_by, create_by_name, create_time, update_by, update_by_name, update_time";
+    
+    /**
+     * 支付流水列清单（热表与归档表一致）
+     */
+    String TRANSACTION_COLUMNS = "id, code, payment_id, transaction_type, transaction_status, transaction_amount, "
+            + "payment_channel, channel_transaction_number, channel_payment_record_id, payment_way, "
+            + "original_transaction_id, business_order_id, create_time, complete_date_time, expiration_time, business_remark, "
+            + "del_flag, create_by, create_by_name, update_by, update_by_name, update_time";
+    
+    /**
+     * 可归档条件：已支付/已取消、无退款中、无处理中流水、超过保留期、未逻辑删除
+     * 同时用于普通SQL与&lt;script&gt;动态SQL，不能出现XML特殊字符 &lt;（比较写作 != 与 &gt;）
+     */
+    String ARCHIVABLE_CONDITION = "p.del_flag = 0 "
+            + "AND p.payment_status IN ('PAID', 'CANCELED') "
+            + "AND p.refund_status != 'REFUNDING' "
+            + "AND #{cutoff} > COALESCE(p.update_time, p.create_time) "
+            + "AND NOT EXISTS (SELECT 1 FROM cms_payment_transaction t "
+            + "WHERE t.payment_id = p.id AND t.transaction_status = 'PROCESSING') ";
+    
+    String ID_LIST = "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>";
+    
+    // ==================== 归档 ====================
+    
+    /**
+     * 按主键游标查询一批可归档支付单ID（不加锁）
+     */
+    @Select("SELECT p.id FROM cms_payment p WHERE p.id > #{afterId} AND " + ARCHIVABLE_CONDITION
+            + "ORDER BY p.id LIMIT #{limit}")
+    List<Long> selectArchivableIds(@Param("cutoff") LocalDateTime cutoff,
+                                   @Param("afterId") long afterId,
+                                   @Param("limit") int limit);
+    
+    /**
+     * 在事务内锁定并复核一批支付单，返回仍满足归档条件的ID
+     */
+    @Select("<script>SELECT p.id FROM cms_payment p WHERE p.id IN " + ID_LIST + " AND " + ARCHIVABLE_CONDITION
+            + "FOR UPDATE</script>")
+    List<Long> lockArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("ids") Collection<Long> ids);
+    
+    @Insert("<script>INSERT INTO cms_payment_transaction_archive (" + TRANSACTION_COLUMNS + ", archive_time) "
+            + "SELECT " + TRANSACTION_COLUMNS + ", CURRENT_TIMESTAMP FROM cms_payment_transaction "
+            + "WHERE payment_id IN " + ID_LIST + "</script>")
+    int copyTransactionsToArchive(@Param("ids") Collection<Long> paymentIds);
+    
+    @Insert("<script>INSERT INTO cms_payment_archive (" + PAYMENT_COLUMNS + ", archive_time) "
+            + "SELECT " + PAYMENT_COLUMNS + ", CURRENT_TIMESTAMP FROM cms_payment "
+            + "WHERE id IN " + ID_LIST + "</script>")
+    int copyPaymentsToArchive(@Param("ids") Collection<Long> paymentIds);
+    
+    // ==================== 物理删除 ====================
+    
+    @Delete("<script>DELETE FROM cms_payment_transaction WHERE payment_id IN " + ID_LIST + "</script>")
+    int deleteTransactionsByPaymentIds(@Param("ids") Collection<Long> paymentIds);
+    
+    @Delete("<script>DELETE FROM cms_payment WHERE id IN " + ID_LIST + "</script>")
+    int deletePaymentsByIds(@Param("ids") Collection<Long> paymentIds);
+    
+    /**
+     * 删除归档支付单下流水的汇总状态：归档的流水不再变化，汇总表中已计入的值保留
+     */
+    @Delete("<script>DELETE FROM cms_transaction_rollup_state WHERE payment_id IN " + ID_LIST + "</script>")
+    int deleteRollupStatesByPaymentIds(@Param("ids") Collection<Long> paymentIds);
+    
+    @Delete("<script>DELETE FROM cms_payment_transaction WHERE id IN " + ID_LIST + " AND del_flag = 1</script>")
+    int deleteLogicallyDeletedTransactionsByIds(@Param("ids") Collection<Long> transactionIds);
+    
+    /**
+     * 按主键游标查询一批已逻辑删除的支付单ID
+     */
+    @Select("SELECT id FROM cms_payment WHERE id > #{afterId} AND del_flag = 1 ORDER BY id LIMIT #{limit}")
+    List<Long> selectLogicallyDeletedPaymentIds(@Param("afterId") long afterId, @Param("limit") int limit);
+    
+    /**
+     * 按主键游标查询一批已逻辑删除的支付流水ID
+     */
+    @Select("SELECT id FROM cms_payment_transaction WHERE id > #{afterId} AND del_flag = 1 ORDER BY id LIMIT #{limit}")
+    List<Long> selectLogicallyDeletedTransactionIds(@Param("afterId") long afterId, @Param("limit") int limit);
+    
+    // ==================== 归档回查 ====================
+    
+    @Select("SELECT " + PAYMENT_COLUMNS + " FROM cms_payment_archive WHERE id = #{id}")
+    PaymentEntity selectArchivedPaymentById(@Param("id") String id);
+    
+    @Select("SELECT " + PAYMENT_COLUMNS + " FROM cms_payment_archive WHERE code = #{code}")
+    PaymentEntity selectArchivedPaymentByCode(@Param("code") String code);
+    
+    @Select("<script>SELECT " + PAYMENT_COLUMNS + " FROM cms_payment_archive WHERE id IN " + ID_LIST + "</script>")
+    List<PaymentEntity> selectArchivedPaymentsByIds(@Param("ids") Collection<String> ids);
+    
+    @Select("<script>SELECT " + TRANSACTION_COLUMNS + " FROM cms_payment_transaction_archive "
+            + "WHERE payment_id IN " + ID_LIST + "</script>")
+    List<PaymentTransactionEntity> selectArchivedTransactionsByPaymentIds(@Param("ids") Collection<String> paymentIds);
+    
+    @Select("SELECT COUNT(1) FROM cms_payment_archive WHERE id = #{id}")
+    long countArchivedPaymentById(@Param("id") String id);
+}
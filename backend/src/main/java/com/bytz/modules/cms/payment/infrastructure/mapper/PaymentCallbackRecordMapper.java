@@ -0,0 +1,30 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentCallbackRecordEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * 渠道回调处理记录Mapper接口
+ * Payment Callback Record Mapper Interface
+ * 
+ * 继承MyBatis-Plus的BaseMapper，提供基本的CRUD操作
+ */
+@Mapper
+public interface PaymentCallbackRecordMapper extends BaseMapper<PaymentCallbackRecordEntity> {
+    
+    /**
+     * 统计回调处理记录（固定SQL，走 uk_channel_txn_status 唯一索引）
+     *
+     * @param channelTransactionNumber 渠道交易号
+     * @param callbackStatus           回调状态
+     * @return 记录数（0或1）
+     */
+    @Select("SELECT COUNT(1) FROM cms_payment_callback_record "
+            + "WHERE channel_transaction_number = #{channelTransactionNumber} AND callback_status = #{callbackStatus}")
+    long countByChannelTransactionNumber(@Param("channelTransactionNumber") String channelTransactionNumber,
+                                         @Param("callbackStatus") TransactionStatus callbackStatus);
+}
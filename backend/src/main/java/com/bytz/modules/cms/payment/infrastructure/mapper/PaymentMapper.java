@@ -1,8 +1,17 @@
 package com.bytz.modules.cms.payment.infrastructure.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.search.PaymentSearchCriteria;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 支付单Mapper接口
@@ -13,6 +22,43 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface PaymentMapper extends BaseMapper<PaymentEntity> {
     
+    /**
+     * 状态迁移条件（与 PaymentAggregate#canTransition 一致）：
+     * 源状态在允许集合内、无运行中的流水；要求从未支付时无任何流水且已支付金额为0
+     */
+    String TRANSITION_GUARD = "p.del_flag = 0 "
+            + "AND p.payment_status IN "
+            + "<foreach collection='sourceStatuses' item='status' open='(' separator=',' close=')'>#{status}</foreach> "
+            + "AND NOT EXISTS (SELECT 1 FROM cms_payment_transaction t WHERE t.payment_id = p.id AND t.del_flag = 0"
+            + "<if test='!requiresNoTransactions'> AND t.transaction_status = 'PROCESSING'</if>) "
+            + "<if test='requiresNoTransactions'>AND p.paid_amount = 0 </if>";
+    
+    /**
+     * 范围条件：按订单号/经销商ID/关联业务ID圈定支付单
+     */
+    String SCOPE_CONDITION = "<choose>"
+            + "<when test=\"scope == 'ORDER'\">p.order_id = #{scopeId} </when>"
+            + "<when test=\"scope == 'RESELLER'\">p.reseller_id = #{scopeId} </when>"
+            + "<otherwise>p.related_business_id = #{scopeId} </otherwise>"
+            + "</choose>";
+    
+    /**
+     * 组合查询条件（参数名 c，索引由 PaymentSearchPlanner 选定，SQL 中以 FORCE INDEX 固定执行计划）
+     */
+    String SEARCH_CONDITION = "WHERE del_flag = 0 "
+            + "<if test='c.resellerId != null'>AND reseller_id = #{c.resellerId} </if>"
+            + "<if test='c.statuses != null and !c.statuses.isEmpty()'>AND payment_status IN "
+            + "<foreach collection='c.statuses' item='status' open='(' separator=',' close=')'>#{status}</foreach> </if>"
+            + "<if test='c.paymentType != null'>AND payment_type = #{c.paymentType} </if>"
+            + "<if test='c.relatedBusinessType != null'>AND related_business_type = #{c.relatedBusinessType} </if>"
+            + "<if test='c.minAmount != null'>AND payment_amount &gt;= #{c.minAmount} </if>"
+            + "<if test='c.maxAmount != null'>AND payment_amount &lt;= #{c.maxAmount} </if>"
+            + "<if test='c.createFrom != null'>AND create_time &gt;= #{c.createFrom} </if>"
+            + "<if test='c.createTo != null'>AND create_time &lt; #{c.createTo} </if>"
+            + "<if test='c.deadlineFrom != null'>AND payment_deadline &gt;= #{c.deadlineFrom} </if>"
+            + "<if test='c.deadlineTo != null'>AND payment_deadline &lt; #{c.deadlineTo} </if>"
+            + "<if test=\"c.index.name() == 'STATUS_DEADLINE'\">AND payment_deadline IS NOT NULL </if>";
+    
     // BaseMapper提供的基本方法：
     // - insert(T entity): 插入一条记录
     // - deleteById(Serializable id): 根据ID删除
@@ -22,4 +68,202 @@ public interface PaymentMapper extends BaseMapper<PaymentEntity> {
     // - selectPage(Page<T> page, Wrapper<T> queryWrapper): 分页查询
     
     // TODO: 如果需要自定义复杂SQL查询，可以在此添加方法并在XML文件中实现
+    
+    /**
+     * 根据渠道支付记录ID查询关联的支付单
+     * 统一支付时同批支付单的流水共享同一渠道支付记录ID，经 idx_channel_payment_record_id 一次定位
+     * （自定义SQL不经过逻辑删除拦截，显式过滤del_flag；del_flag为NULL的存量行按未删除处理，与PaymentRowReader一致）
+     *
+     * @param channelPaymentRecordId 渠道支付记录ID
+     * @return 支付单实体列表
+     */
+    @Select("SELECT p.* FROM cms_payment p WHERE IFNULL(p.del_flag, 0) = 0 AND p.id IN ("
+            + "SELECT t.payment_id FROM cms_payment_transaction t "
+            + "WHERE t.channel_payment_record_id = #{channelPaymentRecordId} AND IFNULL(t.del_flag, 0) = 0)")
+    List<PaymentEntity> selectByChannelPaymentRecordId(@Param("channelPaymentRecordId") String channelPaymentRecordId);
+    
+    // ==================== 按键查询（固定SQL） ====================
+    // 热点查询使用固定SQL，不在每次调用时构造LambdaQueryWrapper（SerializedLambda解析与SQL片段拼接），
+    // SQL文本不变，驱动端预编译语句缓存可命中；LambdaQueryWrapper仅用于条件不固定的查询
+    // 聚合根加载路径以 IFNULL(del_flag, 0) = 0 过滤：del_flag为NULL的存量行按未删除处理
+    
+    /**
+     * 根据支付单号查询支付单（走 uk_code 唯一索引）
+     *
+     * @param code 支付单号
+     * @return 支付单实体，不存在时返回null
+     */
+    @Select("SELECT " + PaymentArchiveMapper.PAYMENT_COLUMNS + " FROM cms_payment "
+            + "WHERE code = #{code} AND IFNULL(del_flag, 0) = 0")
+    PaymentEntity selectByCode(@Param("code") String code);
+    
+    /**
+     * 根据订单号查询支付单
+     *
+     * @param orderId 订单号
+     * @return 支付单实体列表
+     */
+    @Select("SELECT " + PaymentArchiveMapper.PAYMENT_COLUMNS + " FROM cms_payment "
+            + "WHERE order_id = #{orderId} AND IFNULL(del_flag, 0) = 0")
+    List<PaymentEntity> selectByOrderId(@Param("orderId") String orderId);
+    
+    /**
+     * 根据经销商ID查询支付单
+     *
+     * @param resellerId 经销商ID
+     * @return 支付单实体列表
+     */
+    @Select("SELECT " + PaymentArchiveMapper.PAYMENT_COLUMNS + " FROM cms_payment "
+            + "WHERE reseller_id = #{resellerId} AND IFNULL(del_flag, 0) = 0")
+    List<PaymentEntity> selectByResellerId(@Param("resellerId") String resellerId);
+    
+    /**
+     * 根据关联业务ID查询支付单
+     *
+     * @param relatedBusinessId 关联业务ID
+     * @return 支付单实体列表
+     */
+    @Select("SELECT " + PaymentArchiveMapper.PAYMENT_COLUMNS + " FROM cms_payment "
+            + "WHERE related_business_id = #{relatedBusinessId} AND IFNULL(del_flag, 0) = 0")
+    List<PaymentEntity> selectByRelatedBusinessId(@Param("relatedBusinessId") String relatedBusinessId);
+    
+    /**
+     * 在事务内锁定范围内一批满足迁移条件的支付单，返回其ID
+     * （锁定后并发的支付/回调写入会等待本事务提交，随后的条件更新命中行数与锁定行数一致）
+     *
+     * @param scope                  范围维度（PaymentScope名称）
+     * @param scopeId                范围ID
+     * @param sourceStatuses         允许的源状态
+     * @param requiresNoTransactions 是否要求从未发起过支付
+     * @param limit                  本批最大条数
+     * @return 已锁定的支付单ID
+     */
+    @Select("<script>SELECT p.id FROM cms_payment p WHERE " + SCOPE_CONDITION + "AND " + TRANSITION_GUARD
+            + "ORDER BY p.id LIMIT #{limit} FOR UPDATE</script>")
+    List<String> lockTransitionCandidates(@Param("scope") String scope,
+                                          @Param("scopeId") String scopeId,
+                                          @Param("sourceStatuses") Collection<String> sourceStatuses,
+                                          @Param("requiresNoTransactions") boolean requiresNoTransactions,
+                                          @Param("limit") int limit);
+    
+    /**
+     * 按ID条件更新支付单状态，并在业务描述后追加迁移原因
+     * WHERE中复核迁移条件，不满足的行不会被修改
+     *
+     * @param ids                    支付单ID
+     * @param targetStatus           目标状态编码
+     * @param remark                 追加到业务描述的原因文本
+     * @param updateTime             更新时间
+     * @param sourceStatuses         允许的源状态
+     * @param requiresNoTransactions 是否要求从未发起过支付
+     * @return 更新行数
+     */
+    @Update("<script>UPDATE cms_payment p SET p.payment_status = #{targetStatus}, "
+            + "p.business_desc = CONCAT(IFNULL(CONCAT(p.business_desc, '; '), ''), #{remark}), "
+            + "p.update_time = #{updateTime} "
+            + "WHERE p.id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND " + TRANSITION_GUARD + "</script>")
+    int updateStatusByIds(@Param("ids") Collection<String> ids,
+                          @Param("targetStatus") String targetStatus,
+                          @Param("remark") String remark,
+                          @Param("updateTime") LocalDateTime updateTime,
+                          @Param("sourceStatuses") Collection<String> sourceStatuses,
+                          @Param("requiresNoTransactions") boolean requiresNoTransactions);
+    
+    /**
+     * 在事务内锁定支付单并返回其汇总口径的当前值（经销商、币种、状态、金额），供计算汇总增量
+     *
+     * @param ids 支付单ID
+     * @return 支付单实体（仅含汇总相关列）
+     */
+    @Select("<script>SELECT id, reseller_id, currency, payment_status, payment_amount, paid_amount, refunded_amount "
+            + "FROM cms_payment WHERE IFNULL(del_flag, 0) = 0 AND id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> FOR UPDATE</script>")
+    List<PaymentEntity> lockSummaryStatesByIds(@Param("ids") Collection<String> ids);
+    
+    /**
+     * 把del_flag为NULL的支付单补为0（未删除）
+     * 聚合根加载路径把NULL视为未删除，但updateById附加的逻辑删除条件（del_flag = 0）不匹配NULL，
+     * 仓储在这类行更新未命中时补值后重试
+     *
+     * @param ids 支付单ID
+     * @return 补值行数
+     */
+    @Update("<script>UPDATE cms_payment SET del_flag = 0 WHERE del_flag IS NULL AND id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int clearNullDelFlags(@Param("ids") Collection<String> ids);
+    
+    /**
+     * 组合查询一页支付单：在规划的索引内按 (排序列, id) 游标连续读取
+     *
+     * @param c 已规划的查询条件
+     * @return 支付单实体，最多 c.limit 行
+     */
+    @Select("<script>SELECT " + PaymentArchiveMapper.PAYMENT_COLUMNS + " FROM cms_payment "
+            + "FORCE INDEX (${c.index.indexName}) " + SEARCH_CONDITION
+            + "<if test='c.cursorTime != null'><choose>"
+            + "<when test='c.index.descending'>AND (${c.index.sortColumn} &lt; #{c.cursorTime} "
+            + "OR (${c.index.sortColumn} = #{c.cursorTime} AND id &lt; #{c.cursorId})) </when>"
+            + "<otherwise>AND (${c.index.sortColumn} &gt; #{c.cursorTime} "
+            + "OR (${c.index.sortColumn} = #{c.cursorTime} AND id &gt; #{c.cursorId})) </otherwise>"
+            + "</choose></if>"
+            + "<choose><when test='c.index.descending'>ORDER BY ${c.index.sortColumn} DESC, id DESC </when>"
+            + "<otherwise>ORDER BY ${c.index.sortColumn}, id </otherwise></choose>"
+            + "LIMIT #{c.limit}</script>")
+    List<PaymentEntity> searchPayments(@Param("c") PaymentSearchCriteria c);
+    
+    /**
+     * 组合查询总数（不含游标条件）
+     *
+     * @param c 已规划的查询条件
+     * @return 总数
+     */
+    @Select("<script>SELECT COUNT(1) FROM cms_payment FORCE INDEX (${c.index.indexName}) " + SEARCH_CONDITION + "</script>")
+    long countPayments(@Param("c") PaymentSearchCriteria c);
+    
+    /**
+     * 读取经销商某一可支付状态下待支付金额大于0的一页支付单，走 idx_reseller_status_deadline，索引内有序
+     * 有截止时间的按 (截止时间, id) 读取；无截止时间的按 id 读取（排在有截止时间的之后）
+     *
+     * @param resellerId    经销商ID
+     * @param status        支付状态
+     * @param withDeadline  读取有截止时间（true）或无截止时间（false）的支付单
+     * @param afterDeadline 游标截止时间（不含，仅 withDeadline 时使用），首页为空
+     * @param afterId       游标支付单ID（不含），首页为空
+     * @param limit         读取行数
+     * @return 支付单实体
+     */
+    @Select("<script>SELECT " + PaymentArchiveMapper.PAYMENT_COLUMNS + " FROM cms_payment "
+            + "FORCE INDEX (idx_reseller_status_deadline) "
+            + "WHERE reseller_id = #{resellerId} AND payment_status = #{status} AND del_flag = 0 AND pending_amount &gt; 0 "
+            + "<choose><when test='withDeadline'>AND payment_deadline IS NOT NULL "
+            + "<if test='afterDeadline != null'>AND (payment_deadline &gt; #{afterDeadline} "
+            + "OR (payment_deadline = #{afterDeadline} AND id &gt; #{afterId})) </if>"
+            + "ORDER BY payment_deadline, id </when>"
+            + "<otherwise>AND payment_deadline IS NULL <if test='afterId != null'>AND id &gt; #{afterId} </if>"
+            + "ORDER BY id </otherwise></choose>"
+            + "LIMIT #{limit}</script>")
+    List<PaymentEntity> selectPayable(@Param("resellerId") String resellerId,
+                                      @Param("status") PaymentStatus status,
+                                      @Param("withDeadline") boolean withDeadline,
+                                      @Param("afterDeadline") LocalDateTime afterDeadline,
+                                      @Param("afterId") Long afterId,
+                                      @Param("limit") int limit);
+    
+    /**
+     * 读取一批经销商全部可支付（未支付/部分支付、待支付金额大于0）的支付单，供电汇到账匹配建立内存索引
+     * 走 idx_reseller_status_deadline，只取匹配所需的列
+     *
+     * @param resellerIds 经销商ID
+     * @param statuses    可支付状态
+     * @return 支付单实体（仅含ID、经销商、币种、待支付金额、截止时间）
+     */
+    @Select("<script>SELECT id, reseller_id, currency, pending_amount, payment_deadline FROM cms_payment "
+            + "WHERE del_flag = 0 AND pending_amount &gt; 0 AND payment_status IN "
+            + "<foreach collection='statuses' item='status' open='(' separator=',' close=')'>#{status}</foreach> "
+            + "AND reseller_id IN "
+            + "<foreach collection='resellerIds' item='resellerId' open='(' separator=',' close=')'>#{resellerId}</foreach>"
+            + "</script>")
+    List<PaymentEntity> selectOpenByResellerIds(@Param("resellerIds") Collection<String> resellerIds,
+                                                @Param("statuses") Collection<PaymentStatus> statuses);
 }
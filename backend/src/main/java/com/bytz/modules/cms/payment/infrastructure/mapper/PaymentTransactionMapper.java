@@ -3,6 +3,10 @@ package com.bytz.modules.cms.payment.infrastructure.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionEntity;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
 
 /**
  * 支付流水Mapper接口
@@ -22,4 +26,14 @@ public interface PaymentTransactionMapper extends BaseMapper<PaymentTransactionE
     // - selectPage(Page<T> page, Wrapper<T> queryWrapper): 分页查询
     
     // TODO: 如果需要自定义复杂SQL查询，可以在此添加方法并在XML文件中实现
+    
+    /**
+     * 把del_flag为NULL的流水补为0（未删除），见PaymentMapper#clearNullDelFlags
+     *
+     * @param ids 流水ID
+     * @return 补值行数
+     */
+    @Update("<script>UPDATE cms_payment_transaction SET del_flag = 0 WHERE del_flag IS NULL AND id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int clearNullDelFlags(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,123 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.ResellerPaymentSummaryEntity;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 经销商支付汇总Mapper接口
+ * Reseller Payment Summary Mapper Interface
+ * 
+ * 汇总行只以增量累加（INSERT ... ON DUPLICATE KEY UPDATE），不做读-改-写；
+ * 与支付单写入在同一事务内、放在事务最后执行，缩短热点汇总行的锁持有时间
+ */
+@Mapper
+public interface ResellerPaymentSummaryMapper {
+    
+    String SUMMARY_COLUMNS = "reseller_id, currency, payment_status, payment_count, payment_amount, "
+            + "paid_amount, refunded_amount, update_time";
+    
+    String ACCUMULATE = "ON DUPLICATE KEY UPDATE "
+            + "payment_count = payment_count + VALUES(payment_count), "
+            + "payment_amount = payment_amount + VALUES(payment_amount), "
+            + "paid_amount = paid_amount + VALUES(paid_amount), "
+            + "refunded_amount = refunded_amount + VALUES(refunded_amount), "
+            + "update_time = VALUES(update_time)";
+    
+    String RESELLER_ID_LIST = "<foreach collection='resellerIds' item='resellerId' open='(' separator=',' close=')'>#{resellerId}</foreach>";
+    
+    /**
+     * 累加一条增量
+     *
+     * @param delta 增量（计数与金额可为负）
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO cms_reseller_payment_summary (" + SUMMARY_COLUMNS + ") VALUES "
+            + "(#{resellerId}, #{currency}, #{paymentStatus}, #{paymentCount}, #{paymentAmount}, "
+            + "#{paidAmount}, #{refundedAmount}, #{updateTime}) " + ACCUMULATE)
+    int upsertDelta(ResellerPaymentSummaryEntity delta);
+    
+    /**
+     * 将一批支付单按当前状态计入（sign = 1）或移出（sign = -1）汇总
+     * 用于不加载聚合根的集合更新：更新前移出、更新后计入
+     *
+     * @param paymentIds 支付单ID（调用方需已在本事务内锁定）
+     * @param sign       1 或 -1
+     * @param updateTime 更新时间
+     * @return 影响行数
+     */
+    @Insert("<script>INSERT INTO cms_reseller_payment_summary (" + SUMMARY_COLUMNS + ") "
+            + "SELECT p.reseller_id, p.currency, p.payment_status, #{sign} * COUNT(*), "
+            + "#{sign} * SUM(p.payment_amount), #{sign} * SUM(p.paid_amount), #{sign} * SUM(p.refunded_amount), #{updateTime} "
+            + "FROM cms_payment p WHERE p.del_flag = 0 AND p.id IN "
+            + "<foreach collection='paymentIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "GROUP BY p.reseller_id, p.currency, p.payment_status " + ACCUMULATE + "</script>")
+    int applyPayments(@Param("paymentIds") Collection<String> paymentIds,
+                      @Param("sign") int sign,
+                      @Param("updateTime") LocalDateTime updateTime);
+    
+    /**
+     * 查询经销商的汇总行
+     *
+     * @param resellerId 经销商ID
+     * @return 汇总行（按币种、状态）
+     */
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM cms_reseller_payment_summary "
+            + "WHERE reseller_id = #{resellerId} ORDER BY currency, payment_status")
+    List<ResellerPaymentSummaryEntity> selectByResellerId(@Param("resellerId") String resellerId);
+    
+    // ==================== 对账 ====================
+    
+    /**
+     * 按经销商ID游标查询一批经销商（支付单表、归档表、汇总表的并集）
+     */
+    @Select("SELECT r.reseller_id FROM ("
+            + "SELECT reseller_id FROM cms_payment WHERE reseller_id > #{afterResellerId} "
+            + "UNION SELECT reseller_id FROM cms_payment_archive WHERE reseller_id > #{afterResellerId} "
+            + "UNION SELECT reseller_id FROM cms_reseller_payment_summary WHERE reseller_id > #{afterResellerId}"
+            + ") r ORDER BY r.reseller_id LIMIT #{limit}")
+    List<String> selectResellerIds(@Param("afterResellerId") String afterResellerId, @Param("limit") int limit);
+    
+    /**
+     * 在事务内锁定一批经销商的汇总行（含间隙，阻止并发写入新增汇总行），返回当前值
+     * 并发的支付单保存会在累加汇总时等待本事务提交，随后的一致性读与锁定时刻的汇总一致
+     */
+    @Select("<script>SELECT " + SUMMARY_COLUMNS + " FROM cms_reseller_payment_summary "
+            + "WHERE reseller_id IN " + RESELLER_ID_LIST + " FOR UPDATE</script>")
+    List<ResellerPaymentSummaryEntity> lockByResellerIds(@Param("resellerIds") Collection<String> resellerIds);
+    
+    /**
+     * 从支付单表与归档表重算一批经销商的汇总（未逻辑删除的支付单）
+     */
+    @Select("<script>SELECT s.reseller_id, s.currency, s.payment_status, COUNT(*) AS payment_count, "
+            + "SUM(s.payment_amount) AS payment_amount, SUM(s.paid_amount) AS paid_amount, "
+            + "SUM(s.refunded_amount) AS refunded_amount FROM ("
+            + "SELECT reseller_id, currency, payment_status, payment_amount, paid_amount, refunded_amount "
+            + "FROM cms_payment WHERE del_flag = 0 AND reseller_id IN " + RESELLER_ID_LIST + " "
+            + "UNION ALL "
+            + "SELECT reseller_id, currency, payment_status, payment_amount, paid_amount, refunded_amount "
+            + "FROM cms_payment_archive WHERE del_flag = 0 AND reseller_id IN " + RESELLER_ID_LIST
+            + ") s GROUP BY s.reseller_id, s.currency, s.payment_status</script>")
+    List<ResellerPaymentSummaryEntity> deriveByResellerIds(@Param("resellerIds") Collection<String> resellerIds);
+    
+    /**
+     * 删除一批经销商的汇总行（对账重写前）
+     */
+    @Delete("<script>DELETE FROM cms_reseller_payment_summary WHERE reseller_id IN " + RESELLER_ID_LIST + "</script>")
+    int deleteByResellerIds(@Param("resellerIds") Collection<String> resellerIds);
+    
+    /**
+     * 写入一条汇总行
+     */
+    @Insert("INSERT INTO cms_reseller_payment_summary (" + SUMMARY_COLUMNS + ") VALUES "
+            + "(#{resellerId}, #{currency}, #{paymentStatus}, #{paymentCount}, #{paymentAmount}, "
+            + "#{paidAmount}, #{refundedAmount}, #{updateTime})")
+    int insert(ResellerPaymentSummaryEntity summary);
+}
@@ -0,0 +1,195 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.infrastructure.entity.TransactionRollupEntity;
+import com.bytz.modules.cms.payment.infrastructure.rollup.RollupWatermark;
+import com.bytz.modules.cms.payment.infrastructure.rollup.TransactionRollupRow;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 流水汇总Mapper接口
+ * Transaction Rollup Mapper Interface
+ * 
+ * 按 (update_time, id) 水位增量读取流水，维护每条流水的汇总状态，
+ * 并以增量累加（INSERT ... ON DUPLICATE KEY UPDATE）维护小时/日汇总表
+ */
+@Mapper
+public interface TransactionRollupMapper {
+    
+    String ROW_COLUMNS = "t.id AS transaction_id, t.payment_id, t.payment_channel, p.payment_type, "
+            + "t.transaction_type, t.transaction_status, p.currency, t.transaction_amount AS amount, "
+            + "t.create_time, t.update_time, COALESCE(t.del_flag, 0) = 1 AS deleted ";
+    
+    String STATE_COLUMNS = "transaction_id, payment_id, bucket_start, payment_channel, payment_type, "
+            + "transaction_type, transaction_status, currency, amount, update_time";
+    
+    String ROLLUP_COLUMNS = "bucket_start, payment_channel, payment_type, transaction_type, transaction_status, "
+            + "currency, transaction_count, total_amount, update_time";
+    
+    String ROLLUP_VALUES = "<foreach collection='deltas' item='d' separator=','>"
+            + "(#{d.bucketStart}, #{d.paymentChannel}, #{d.paymentType}, #{d.transactionType}, #{d.transactionStatus}, "
+            + "#{d.currency}, #{d.transactionCount}, #{d.totalAmount}, #{d.updateTime})</foreach> "
+            + "ON DUPLICATE KEY UPDATE "
+            + "transaction_count = transaction_count + VALUES(transaction_count), "
+            + "total_amount = total_amount + VALUES(total_amount), "
+            + "update_time = VALUES(update_time)";
+    
+    String ROLLUP_FILTER = "WHERE bucket_start &gt;= #{from} AND bucket_start &lt; #{to} "
+            + "<if test='paymentChannel != null'>AND payment_channel = #{paymentChannel} </if>"
+            + "<if test='paymentType != null'>AND payment_type = #{paymentType} </if>"
+            + "<if test='transactionType != null'>AND transaction_type = #{transactionType} </if>"
+            + "<if test='transactionStatus != null'>AND transaction_status = #{transactionStatus} </if>"
+            + "AND (transaction_count &lt;&gt; 0 OR total_amount &lt;&gt; 0) "
+            + "ORDER BY bucket_start, payment_channel, payment_type, transaction_type, transaction_status, currency";
+    
+    String ID_LIST = "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>";
+    
+    // ==================== 水位 ====================
+    
+    /**
+     * 查询水位（不加锁），不存在时返回null
+     */
+    @Select("SELECT watermark_time, watermark_id FROM cms_rollup_watermark WHERE name = #{name}")
+    RollupWatermark selectWatermark(@Param("name") String name);
+    
+    /**
+     * 在事务内锁定水位，同一分片的汇总事务串行推进
+     */
+    @Select("SELECT watermark_time, watermark_id FROM cms_rollup_watermark WHERE name = #{name} FOR UPDATE")
+    RollupWatermark lockWatermark(@Param("name") String name);
+    
+    /**
+     * 初始化水位，已存在时忽略
+     */
+    @Insert("INSERT IGNORE INTO cms_rollup_watermark (name, watermark_time, watermark_id, update_time) "
+            + "VALUES (#{name}, #{watermarkTime}, #{watermarkId}, #{updateTime})")
+    int insertWatermarkIfAbsent(@Param("name") String name,
+                                @Param("watermarkTime") LocalDateTime watermarkTime,
+                                @Param("watermarkId") long watermarkId,
+                                @Param("updateTime") LocalDateTime updateTime);
+    
+    @Update("UPDATE cms_rollup_watermark SET watermark_time = #{watermarkTime}, watermark_id = #{watermarkId}, "
+            + "update_time = #{updateTime} WHERE name = #{name}")
+    int updateWatermark(@Param("name") String name,
+                        @Param("watermarkTime") LocalDateTime watermarkTime,
+                        @Param("watermarkId") long watermarkId,
+                        @Param("updateTime") LocalDateTime updateTime);
+    
+    // ==================== 流水读取 ====================
+    
+    /**
+     * 查询水位之后的一页流水（含已逻辑删除的流水），走索引 idx_update_time
+     * 
+     * @param afterTime  水位时间（不含）
+     * @param afterId    水位时间相同时的流水ID游标（不含）
+     * @param upperBound 更新时间上界（不含），留出未提交事务的时间余量
+     * @param limit      每页行数
+     * @return 流水行，按 (update_time, id) 升序
+     */
+    @Select("SELECT " + ROW_COLUMNS
+            + "FROM cms_payment_transaction t JOIN cms_payment p ON p.id = t.payment_id "
+            + "WHERE t.update_time < #{upperBound} "
+            + "AND (t.update_time > #{afterTime} OR (t.update_time = #{afterTime} AND t.id > #{afterId})) "
+            + "ORDER BY t.update_time, t.id LIMIT #{limit}")
+    List<TransactionRollupRow> selectChangedAfter(@Param("afterTime") LocalDateTime afterTime,
+                                                  @Param("afterId") long afterId,
+                                                  @Param("upperBound") LocalDateTime upperBound,
+                                                  @Param("limit") int limit);
+    
+    /**
+     * 流水表当前最大ID，无数据时返回null
+     */
+    @Select("SELECT MAX(id) FROM cms_payment_transaction")
+    Long selectMaxTransactionId();
+    
+    /**
+     * 按主键范围查询一页未删除的流水（回填），走主键范围扫描
+     * 
+     * @param afterId 起始ID（不含）
+     * @param toId    结束ID（含）
+     * @param limit   每页行数
+     * @return 流水行，按ID升序
+     */
+    @Select("SELECT " + ROW_COLUMNS
+            + "FROM cms_payment_transaction t JOIN cms_payment p ON p.id = t.payment_id "
+            + "WHERE t.id > #{afterId} AND t.id <= #{toId} AND t.del_flag = 0 "
+            + "ORDER BY t.id LIMIT #{limit}")
+    List<TransactionRollupRow> selectInIdRange(@Param("afterId") long afterId,
+                                               @Param("toId") long toId,
+                                               @Param("limit") int limit);
+    
+    // ==================== 汇总状态 ====================
+    
+    /**
+     * 在事务内锁定一批流水的汇总状态（流水上次计入时的维度与金额）
+     */
+    @Select("<script>SELECT " + STATE_COLUMNS + " FROM cms_transaction_rollup_state "
+            + "WHERE transaction_id IN " + ID_LIST + " ORDER BY transaction_id FOR UPDATE</script>")
+    List<TransactionRollupRow> lockStatesByIds(@Param("ids") Collection<Long> transactionIds);
+    
+    /**
+     * 写入或覆盖一批流水的汇总状态
+     */
+    @Insert("<script>INSERT INTO cms_transaction_rollup_state (" + STATE_COLUMNS + ") VALUES "
+            + "<foreach collection='states' item='s' separator=','>"
+            + "(#{s.transactionId}, #{s.paymentId}, #{s.bucketStart}, #{s.paymentChannel}, #{s.paymentType}, "
+            + "#{s.transactionType}, #{s.transactionStatus}, #{s.currency}, #{s.amount}, #{s.updateTime})</foreach> "
+            + "ON DUPLICATE KEY UPDATE bucket_start = VALUES(bucket_start), payment_channel = VALUES(payment_channel), "
+            + "payment_type = VALUES(payment_type), transaction_type = VALUES(transaction_type), "
+            + "transaction_status = VALUES(transaction_status), currency = VALUES(currency), "
+            + "amount = VALUES(amount), update_time = VALUES(update_time)</script>")
+    int upsertStates(@Param("states") Collection<TransactionRollupRow> states);
+    
+    @Delete("<script>DELETE FROM cms_transaction_rollup_state WHERE transaction_id IN " + ID_LIST + "</script>")
+    int deleteStatesByIds(@Param("ids") Collection<Long> transactionIds);
+    
+    // ==================== 汇总 ====================
+    
+    /**
+     * 累加一批小时汇总增量（调用方按主键有序传入，减少并发死锁）
+     */
+    @Insert("<script>INSERT INTO cms_transaction_rollup_hourly (" + ROLLUP_COLUMNS + ") VALUES "
+            + ROLLUP_VALUES + "</script>")
+    int upsertHourly(@Param("deltas") Collection<TransactionRollupEntity> deltas);
+    
+    /**
+     * 累加一批日汇总增量（调用方按主键有序传入，减少并发死锁）
+     */
+    @Insert("<script>INSERT INTO cms_transaction_rollup_daily (" + ROLLUP_COLUMNS + ") VALUES "
+            + ROLLUP_VALUES + "</script>")
+    int upsertDaily(@Param("deltas") Collection<TransactionRollupEntity> deltas);
+    
+    /**
+     * 查询时间范围内的小时汇总，维度参数为空时不过滤
+     */
+    @Select("<script>SELECT " + ROLLUP_COLUMNS + " FROM cms_transaction_rollup_hourly " + ROLLUP_FILTER + "</script>")
+    List<TransactionRollupEntity> selectHourly(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("paymentChannel") PaymentChannel paymentChannel,
+                                               @Param("paymentType") PaymentType paymentType,
+                                               @Param("transactionType") TransactionType transactionType,
+                                               @Param("transactionStatus") TransactionStatus transactionStatus);
+    
+    /**
+     * 查询时间范围内的日汇总，维度参数为空时不过滤
+     */
+    @Select("<script>SELECT " + ROLLUP_COLUMNS + " FROM cms_transaction_rollup_daily " + ROLLUP_FILTER + "</script>")
+    List<TransactionRollupEntity> selectDaily(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("paymentChannel") PaymentChannel paymentChannel,
+                                              @Param("paymentType") PaymentType paymentType,
+                                              @Param("transactionType") TransactionType transactionType,
+                                              @Param("transactionStatus") TransactionStatus transactionStatus);
+}
@@ -0,0 +1,91 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.bytz.modules.cms.payment.domain.enums.WalletHoldStatus;
+import com.bytz.modules.cms.payment.infrastructure.entity.WalletAccountEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.WalletHoldEntity;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 钱包Mapper接口
+ * Wallet Mapper Interface
+ * 
+ * 账户行只通过版本号比较并交换更新；冻结行状态只从 HELD 迁出
+ */
+@Mapper
+public interface WalletMapper {
+    
+    /**
+     * 查询钱包账户，不存在时返回null（一致性读，不加锁）
+     */
+    @Select("SELECT reseller_id, balance, held_amount, version, create_time, update_time "
+            + "FROM cms_wallet_account WHERE reseller_id = #{resellerId}")
+    WalletAccountEntity selectAccount(@Param("resellerId") String resellerId);
+    
+    /**
+     * 新建钱包账户，已存在时抛出 DuplicateKeyException
+     */
+    @Insert("INSERT INTO cms_wallet_account (reseller_id, balance, held_amount, version, create_time, update_time) "
+            + "VALUES (#{resellerId}, #{balance}, #{heldAmount}, #{version}, #{createTime}, #{updateTime})")
+    int insertAccount(WalletAccountEntity account);
+    
+    /**
+     * 比较并交换余额：版本号仍为读取时的值才写入，版本号加1
+     *
+     * @return 1 表示写入成功，0 表示读取后已被其他请求更新
+     */
+    @Update("UPDATE cms_wallet_account SET balance = #{balance}, held_amount = #{heldAmount}, "
+            + "version = version + 1, update_time = #{updateTime} "
+            + "WHERE reseller_id = #{resellerId} AND version = #{expectedVersion}")
+    int compareAndSet(@Param("resellerId") String resellerId,
+                      @Param("expectedVersion") long expectedVersion,
+                      @Param("balance") BigDecimal balance,
+                      @Param("heldAmount") BigDecimal heldAmount,
+                      @Param("updateTime") LocalDateTime updateTime);
+    
+    /**
+     * 插入入账记录，入账ID已存在时抛出 DuplicateKeyException
+     */
+    @Insert("INSERT INTO cms_wallet_deposit (deposit_id, reseller_id, amount, create_time) "
+            + "VALUES (#{depositId}, #{resellerId}, #{amount}, #{createTime})")
+    int insertDeposit(@Param("depositId") String depositId,
+                      @Param("resellerId") String resellerId,
+                      @Param("amount") BigDecimal amount,
+                      @Param("createTime") LocalDateTime createTime);
+    
+    /**
+     * 批量插入冻结记录
+     */
+    @Insert("<script>INSERT INTO cms_wallet_hold (hold_id, reseller_id, amount, status, reference, create_time, update_time) VALUES "
+            + "<foreach collection='holds' item='h' separator=','>"
+            + "(#{h.holdId}, #{h.resellerId}, #{h.amount}, #{h.status}, #{h.reference}, #{h.createTime}, #{h.updateTime})"
+            + "</foreach></script>")
+    int insertHolds(@Param("holds") List<WalletHoldEntity> holds);
+    
+    /**
+     * 锁定仍处于冻结状态的冻结记录（已扣款或已解冻的不返回）
+     */
+    @Select("<script>SELECT hold_id, reseller_id, amount, status, reference, create_time, update_time "
+            + "FROM cms_wallet_hold WHERE status = 'HELD' AND hold_id IN "
+            + "<foreach collection='holdIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "FOR UPDATE</script>")
+    List<WalletHoldEntity> lockHeld(@Param("holdIds") Collection<String> holdIds);
+    
+    /**
+     * 冻结记录状态迁出 HELD
+     */
+    @Update("<script>UPDATE cms_wallet_hold SET status = #{status}, update_time = #{updateTime} "
+            + "WHERE status = 'HELD' AND hold_id IN "
+            + "<foreach collection='holdIds' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int updateHeldStatus(@Param("holdIds") Collection<String> holdIds,
+                         @Param("status") WalletHoldStatus status,
+                         @Param("updateTime") LocalDateTime updateTime);
+}
@@ -0,0 +1,28 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.bytz.modules.cms.payment.infrastructure.entity.WireTransferSettlementEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * 电汇入账记录Mapper接口
+ * Wire Transfer Settlement Mapper Interface
+ * 
+ * 继承MyBatis-Plus的BaseMapper，提供基本的CRUD操作
+ */
+@Mapper
+public interface WireTransferSettlementMapper extends BaseMapper<WireTransferSettlementEntity> {
+    
+    /**
+     * 统计电汇入账记录（固定SQL，走 uk_bank_reference_payment 唯一索引）
+     *
+     * @param bankReference 银行流水号
+     * @param paymentId     支付单ID
+     * @return 记录数（0或1）
+     */
+    @Select("SELECT COUNT(1) FROM cms_wire_transfer_settlement "
+            + "WHERE bank_reference = #{bankReference} AND payment_id = #{paymentId}")
+    long countByBankReference(@Param("bankReference") String bankReference, @Param("paymentId") String paymentId);
+}
@@ -0,0 +1,115 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
+import com.bytz.modules.cms.payment.domain.repository.ICallbackRecordRepository;
+import com.bytz.modules.cms.payment.infrastructure.config.CallbackDedupProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentCallbackRecordEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.WireTransferSettlementEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentCallbackRecordMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.WireTransferSettlementMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.shared.util.ScalableBloomFilter;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 回调处理记录仓储实现
+ * Callback Record Repository Implementation
+ *
+ * 两级判重：
+ * 1. 进程内可扩容布隆过滤器：判定"一定未处理"时直接返回，绝大多数首次回调不访问数据库
+ * 2. 数据库唯一索引：布隆过滤器判定"可能已处理"时的权威确认，
+ *    同时兜底多实例部署和进程重启后布隆过滤器为空的情况
+ *
+ * 渠道回调登记在 cms_payment_callback_record（唯一键 uk_channel_txn_status：渠道交易号 + 回调状态）；
+ * 电汇入账登记在 cms_wire_transfer_settlement（唯一键 uk_bank_reference_payment：银行流水号 + 支付单ID），
+ * 一笔到账结算多个支付单时各支付单分别登记，不影响渠道回调的判重键
+ * <p>
+ * 批量登记参与支付单仓储的分片事务，以MyBatis BATCH执行器一次提交，唯一索引在同一事务内拒绝重复登记
+ */
+@Repository
+public class CallbackRecordRepositoryImpl implements ICallbackRecordRepository {
+
+    private final PaymentCallbackRecordMapper callbackRecordMapper;
+    private final WireTransferSettlementMapper wireTransferSettlementMapper;
+    private final PaymentShardRouter shardRouter;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final ScalableBloomFilter bloomFilter;
+
+    private static final Log BATCH_LOG = LogFactory.getLog(CallbackRecordRepositoryImpl.class);
+
+    public CallbackRecordRepositoryImpl(PaymentCallbackRecordMapper callbackRecordMapper,
+                                        WireTransferSettlementMapper wireTransferSettlementMapper,
+                                        PaymentShardRouter shardRouter,
+                                        SqlSessionFactory sqlSessionFactory,
+                                        CallbackDedupProperties properties) {
+        this.callbackRecordMapper = callbackRecordMapper;
+        this.wireTransferSettlementMapper = wireTransferSettlementMapper;
+        this.shardRouter = shardRouter;
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.bloomFilter = new ScalableBloomFilter(properties.getExpectedInsertions(),
+                properties.getFalsePositiveRate());
+    }
+
+    @Override
+    public boolean isProcessed(CallbackRecord record) {
+        // 布隆过滤器判定"一定未见过"时直接放行，不访问数据库；
+        // 其他实例处理过或本实例重启后过滤器为空的情况，由markProcessed的唯一索引兜底
+        if (!bloomFilter.mightContain(record.getDedupKey())) {
+            return false;
+        }
+        long count = shardRouter.onShard(shardOfPayment(record.getPaymentId()), () -> record.isWireTransfer()
+                ? wireTransferSettlementMapper.countByBankReference(record.getChannelTransactionNumber(),
+                        record.getPaymentId())
+                : callbackRecordMapper.countByChannelTransactionNumber(record.getChannelTransactionNumber(),
+                        record.getCallbackStatus()));
+        return count > 0;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY, rollbackFor = Exception.class)
+    public void markProcessed(List<CallbackRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        // 先写入布隆过滤器：无论本事务提交还是因唯一键冲突回滚，同键回调再次投递时都经数据库确认
+        records.forEach(record -> bloomFilter.put(record.getDedupKey()));
+        LocalDateTime now = LocalDateTime.now();
+        SqlHelper.executeBatch(sqlSessionFactory, BATCH_LOG, sqlSession -> {
+            String insertRecord = SqlHelper.getSqlStatement(PaymentCallbackRecordMapper.class, SqlMethod.INSERT_ONE);
+            String insertSettlement = SqlHelper.getSqlStatement(WireTransferSettlementMapper.class, SqlMethod.INSERT_ONE);
+            for (CallbackRecord record : records) {
+                if (record.isWireTransfer()) {
+                    sqlSession.insert(insertSettlement, WireTransferSettlementEntity.builder()
+                            .bankReference(record.getChannelTransactionNumber())
+                            .paymentId(record.getPaymentId())
+                            .createTime(now)
+                            .build());
+                } else {
+                    sqlSession.insert(insertRecord, PaymentCallbackRecordEntity.builder()
+                            .channelTransactionNumber(record.getChannelTransactionNumber())
+                            .callbackStatus(record.getCallbackStatus())
+                            .paymentId(record.getPaymentId())
+                            .createTime(now)
+                            .build());
+                }
+            }
+        });
+    }
+
+    /**
+     * 回调记录与支付单同分片存放，使判重登记与支付单更新处于同一分片事务中
+     */
+    private String shardOfPayment(String paymentId) {
+        return shardRouter.shardOfPaymentId(paymentId).orElse(shardRouter.getDefaultShard());
+    }
+}
@@ -0,0 +1,196 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.infrastructure.assembler.InfrastructureAssembler;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 支付单聚合根装配
+ * Payment Aggregate Hydrator
+ * <p>
+ * 由支付单行与流水行直接装配聚合根：流水只遍历、只转换一次，按状态直接放入运行期或已完成位置，
+ * 已完成列表按实际条数分配容量并交给聚合根持有；不按支付单ID分组成"ID → 流水列表"的中间Map，不经过toBuilder复制。
+ * 一个支付单有多条处理中流水时（数据异常）只取第一条作为运行期流水，其余忽略，与原有行为一致。
+ * <p>
+ * 流水行可以是数据库实体（MyBatis读取，如归档表），也可以是行映射器直接产出的领域流水（见PaymentRowReader）。
+ */
+final class PaymentAggregateHydrator {
+
+    private PaymentAggregateHydrator() {
+    }
+
+    /**
+     * 装配单个支付单
+     *
+     * @param entity       支付单行
+     * @param transactions 该支付单的流水行
+     */
+    static PaymentAggregate hydrate(PaymentEntity entity, List<PaymentTransactionEntity> transactions,
+                                    InfrastructureAssembler assembler) {
+        return hydrate(entity, transactions, new EntityRows(assembler), assembler);
+    }
+
+    /**
+     * 批量装配支付单
+     *
+     * @param entities     支付单行
+     * @param transactions 这些支付单的全部流水行（任意顺序）
+     * @return 与支付单行顺序一致的聚合根
+     */
+    static List<PaymentAggregate> hydrate(List<PaymentEntity> entities, List<PaymentTransactionEntity> transactions,
+                                          InfrastructureAssembler assembler) {
+        return hydrate(entities, transactions, new EntityRows(assembler), assembler);
+    }
+
+    /**
+     * 装配单个支付单（流水已映射为领域对象）
+     *
+     * @param entity       支付单行
+     * @param transactions 该支付单的领域流水
+     */
+    static PaymentAggregate hydrateMapped(PaymentEntity entity, List<PaymentTransaction> transactions,
+                                          InfrastructureAssembler assembler) {
+        return hydrate(entity, transactions, MappedRows.INSTANCE, assembler);
+    }
+
+    /**
+     * 批量装配支付单（流水已映射为领域对象）
+     *
+     * @param entities     支付单行
+     * @param transactions 这些支付单的全部领域流水（任意顺序）
+     * @return 与支付单行顺序一致的聚合根
+     */
+    static List<PaymentAggregate> hydrateMapped(List<PaymentEntity> entities, List<PaymentTransaction> transactions,
+                                                InfrastructureAssembler assembler) {
+        return hydrate(entities, transactions, MappedRows.INSTANCE, assembler);
+    }
+
+    private static <T> PaymentAggregate hydrate(PaymentEntity entity, List<T> transactions,
+                                                TransactionRows<T> rows, InfrastructureAssembler assembler) {
+        PaymentTransaction running = null;
+        List<PaymentTransaction> completed = new ArrayList<>(transactions.size());
+        for (int i = 0, size = transactions.size(); i < size; i++) {
+            T transaction = transactions.get(i);
+            if (rows.statusOf(transaction) != TransactionStatus.PROCESSING) {
+                completed.add(rows.toDomain(transaction));
+            } else if (running == null) {
+                running = rows.toDomain(transaction);
+            }
+        }
+        return assembler.toPaymentAggregate(entity, running, completed);
+    }
+
+    private static <T> List<PaymentAggregate> hydrate(List<PaymentEntity> entities, List<T> transactions,
+                                                      TransactionRows<T> rows, InfrastructureAssembler assembler) {
+        int count = entities.size();
+        Map<String, Integer> slots = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            slots.put(entities.get(i).getId(), i);
+        }
+
+        // 先按支付单计数已完成流水，列表一次分配到位
+        int[] slotOfTransaction = new int[transactions.size()];
+        int[] completedCounts = new int[count];
+        for (int t = 0; t < slotOfTransaction.length; t++) {
+            T transaction = transactions.get(t);
+            Integer slot = slots.get(rows.paymentIdOf(transaction));
+            slotOfTransaction[t] = slot != null ? slot : -1;
+            if (slot != null && rows.statusOf(transaction) != TransactionStatus.PROCESSING) {
+                completedCounts[slot]++;
+            }
+        }
+
+        PaymentTransaction[] running = new PaymentTransaction[count];
+        List<List<PaymentTransaction>> completed = new ArrayList<>(Collections.nCopies(count, null));
+        for (int t = 0; t < slotOfTransaction.length; t++) {
+            int slot = slotOfTransaction[t];
+            if (slot < 0) {
+                continue;
+            }
+            T transaction = transactions.get(t);
+            if (rows.statusOf(transaction) != TransactionStatus.PROCESSING) {
+                List<PaymentTransaction> slotCompleted = completed.get(slot);
+                if (slotCompleted == null) {
+                    slotCompleted = new ArrayList<>(completedCounts[slot]);
+                    completed.set(slot, slotCompleted);
+                }
+                slotCompleted.add(rows.toDomain(transaction));
+            } else if (running[slot] == null) {
+                running[slot] = rows.toDomain(transaction);
+            }
+        }
+
+        List<PaymentAggregate> aggregates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<PaymentTransaction> slotCompleted = completed.get(i);
+            aggregates.add(assembler.toPaymentAggregate(entities.get(i), running[i],
+                    slotCompleted != null ? slotCompleted : new ArrayList<>()));
+        }
+        return aggregates;
+    }
+
+    /**
+     * 流水行的读取方式
+     */
+    private interface TransactionRows<T> {
+
+        String paymentIdOf(T transaction);
+
+        TransactionStatus statusOf(T transaction);
+
+        PaymentTransaction toDomain(T transaction);
+    }
+
+    private static final class EntityRows implements TransactionRows<PaymentTransactionEntity> {
+
+        private final InfrastructureAssembler assembler;
+
+        EntityRows(InfrastructureAssembler assembler) {
+            this.assembler = assembler;
+        }
+
+        @Override
+        public String paymentIdOf(PaymentTransactionEntity transaction) {
+            return transaction.getPaymentId();
+        }
+
+        @Override
+        public TransactionStatus statusOf(PaymentTransactionEntity transaction) {
+            return transaction.getTransactionStatus();
+        }
+
+        @Override
+        public PaymentTransaction toDomain(PaymentTransactionEntity transaction) {
+            return assembler.toDomainTransaction(transaction);
+        }
+    }
+
+    private static final class MappedRows implements TransactionRows<PaymentTransaction> {
+
+        static final MappedRows INSTANCE = new MappedRows();
+
+        @Override
+        public String paymentIdOf(PaymentTransaction transaction) {
+            return transaction.getPaymentId();
+        }
+
+        @Override
+        public TransactionStatus statusOf(PaymentTransaction transaction) {
+            return transaction.getTransactionStatus();
+        }
+
+        @Override
+        public PaymentTransaction toDomain(PaymentTransaction transaction) {
+            return transaction;
+        }
+    }
+}
@@ -1,20 +1,50 @@
 package com.bytz.modules.cms.payment.infrastructure.repository;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import com.bytz.modules.cms.payment.domain.command.BulkStatusTransitionCommand;
+import com.bytz.modules.cms.payment.domain.enums.PaymentScope;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatusTransition;
+import com.bytz.modules.cms.payment.domain.enums.PaymentTransitionType;
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
 import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
 import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransition;
+import com.bytz.modules.cms.payment.domain.repository.ICallbackRecordRepository;
 import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
 import com.bytz.modules.cms.payment.infrastructure.assembler.InfrastructureAssembler;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.ResellerPaymentSummaryEntity;
+import com.bytz.modules.cms.payment.infrastructure.journal.PaymentEventJournal;
+import com.bytz.modules.cms.payment.infrastructure.journal.PaymentJournalRecord;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentArchiveMapper;
 import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
 import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentTransactionMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.ResellerPaymentSummaryMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentRouteIndex;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -27,6 +57,27 @@ import java.util.stream.Collectors;
  * <p>
  * 实现IPaymentRepository接口，处理支付单聚合根的持久化
  * 负责领域对象和数据库实体之间的转换（使用MapStruct）
+ * <p>
+ * 读取：按ID加载支付单、按支付单加载流水走固定SQL + 手写行映射器（见PaymentRowReader），
+ * 流水行直接映射为领域对象；枚举字段由预建编码查找表的类型处理器读写（见PaymentEnumTypeHandlers）
+ * <p>
+ * 分片：支付单按经销商ID路由到物理分片，流水与支付单同分片；
+ * 按ID/单号访问先查路由索引，按订单号/关联业务查询向全部分片并行散发（见PaymentShardRouter）
+ * <p>
+ * 归档：已结清的历史支付单由PaymentArchiveJob搬迁到归档表，按ID/单号查询时热表未命中会回查归档表；
+ * 归档支付单只读，保存时抛出PaymentException
+ * <p>
+ * 批量保存：按分片分组，每个分片一个事务，支付单与流水的INSERT/UPDATE通过MyBatis BATCH执行器
+ * 以JDBC批处理提交（MySQL建议开启rewriteBatchedStatements）；随批量保存登记的回调处理记录
+ * 在同一分片事务内最先写入，唯一键冲突时整个分片事务回滚
+ * <p>
+ * 批量状态迁移：按范围分批"锁定候选 + 条件更新"，每批一个事务，不加载聚合根
+ * <p>
+ * 经销商汇总：每次写入在同一事务内先锁定支付单原值，再把"移出原状态、计入新状态"的增量
+ * 累加到 cms_reseller_payment_summary（见ResellerSummaryDeltas），放在事务最后执行
+ * <p>
+ * 事件日志：开启时聚合根记录的状态变更在事务提交后追加到本地事件日志（见PaymentEventJournal），
+ * 批量状态迁移每批提交后按支付单ID追加；追加失败只记录日志，不影响已提交的写入
  */
 @Slf4j
 @Repository
@@ -35,7 +86,22 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
 
     private final PaymentMapper paymentMapper;
     private final PaymentTransactionMapper transactionMapper;
+    private final PaymentArchiveMapper archiveMapper;
+    private final ResellerPaymentSummaryMapper summaryMapper;
     private final InfrastructureAssembler infrastructureAssembler;
+    private final PaymentShardRouter shardRouter;
+    private final PaymentRowReader rowReader;
+    private final PlatformTransactionManager transactionManager;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final ICallbackRecordRepository callbackRecordRepository;
+    private final ObjectProvider<PaymentEventJournal> eventJournal;
+
+    private static final Log BATCH_LOG = LogFactory.getLog(PaymentRepositoryImpl.class);
+
+    /**
+     * 批量状态迁移每批（每个事务）的支付单数量
+     */
+    private static final int TRANSITION_CHUNK_SIZE = 500;
 
     /**
      * 保存支付单聚合根
@@ -48,13 +114,31 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     public PaymentAggregate save(PaymentAggregate payment) {
         log.info("保存支付单聚合根，支付单号: {}", payment.getCode());
 
+        String shard = shardRouter.shardOfReseller(payment.getResellerId());
+        return shardRouter.onShard(shard, () -> doSave(payment, shard));
+    }
+
+    private PaymentAggregate doSave(PaymentAggregate payment, String shard) {
         // 使用MapStruct转换为数据库实体
         PaymentEntity entity = infrastructureAssembler.toPaymentEntity(payment);
+        ResellerSummaryDeltas summaryDeltas = new ResellerSummaryDeltas();
 
         if (payment.getId() != null) {
-            paymentMapper.updateById(entity);
+            // 锁定原值并移出汇总；原行不存在（已归档）时不计入新值
+            List<PaymentEntity> previous = paymentMapper.lockSummaryStatesByIds(Collections.singletonList(payment.getId()));
+            previous.forEach(summaryDeltas::subtract);
+            if (updatePayment(entity) == 0 && archiveMapper.countArchivedPaymentById(payment.getId()) > 0) {
+                throw new PaymentException("支付单已归档，不能修改: " + payment.getCode());
+            }
+            if (!previous.isEmpty()) {
+                summaryDeltas.add(entity);
+            }
         } else {
+            // 预先分配ID，先登记路由再写入分片，保证能按ID找到的支付单一定有路由
+            entity.setId(IdWorker.getIdStr());
+            shardRouter.registerRoute(entity.getId(), entity.getCode(), entity.getResellerId(), shard);
             paymentMapper.insert(entity);
+            summaryDeltas.add(entity);
             // 回填生成的ID
             payment.setId(entity.getId());
         }
@@ -63,16 +147,287 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
 
             PaymentTransactionEntity transactionEntity = infrastructureAssembler.toTransactionEntity(runningTransaction);
             if (transactionEntity.getId() != null) {
-                transactionMapper.updateById(transactionEntity);
+                updateTransaction(transactionEntity);
             } else {
                 transactionMapper.insert(transactionEntity);
                 runningTransaction.setId(transactionEntity.getId());
             }
         }
+        // 回调处理后已移入完成列表的流水，需要写回最终状态
+        for (PaymentTransaction completedTransaction : payment.getUnpersistedCompletedTransactions()) {
+            PaymentTransactionEntity transactionEntity = infrastructureAssembler.toTransactionEntity(completedTransaction);
+            if (transactionEntity.getId() != null) {
+                updateTransaction(transactionEntity);
+            } else {
+                transactionMapper.insert(transactionEntity);
+                completedTransaction.setId(transactionEntity.getId());
+            }
+        }
+        summaryDeltas.nonZero(LocalDateTime.now()).forEach(summaryMapper::upsertDelta);
+        journalAfterCommit(Collections.singletonList(payment));
         payment.updateAggregateAfterPersistence();
         return payment;
     }
 
+    /**
+     * 批量保存支付单聚合根
+     *
+     * @param payments 支付单聚合根列表
+     * @return 保存后的支付单聚合根列表
+     */
+    @Override
+    public List<PaymentAggregate> saveAll(List<PaymentAggregate> payments) {
+        return saveAll(payments, Collections.emptyList());
+    }
+
+    /**
+     * 批量保存支付单聚合根，并在各分片事务内登记回调处理记录
+     *
+     * @param payments        支付单聚合根列表
+     * @param callbackRecords 回调处理记录，所属支付单须在payments中
+     * @return 保存后的支付单聚合根列表
+     */
+    @Override
+    public List<PaymentAggregate> saveAll(List<PaymentAggregate> payments, List<CallbackRecord> callbackRecords) {
+        log.info("批量保存支付单聚合根，数量: {}, 回调登记数量: {}", payments.size(), callbackRecords.size());
+        if (payments.isEmpty()) {
+            return payments;
+        }
+
+        Map<String, List<PaymentAggregate>> paymentsByShard = payments.stream()
+                .collect(Collectors.groupingBy(payment -> shardRouter.shardOfReseller(payment.getResellerId()),
+                        LinkedHashMap::new, Collectors.toList()));
+        Map<String, List<CallbackRecord>> recordsByShard = groupRecordsByShard(paymentsByShard, callbackRecords);
+        TransactionTemplate transactionTemplate = requiresNewTransaction();
+        paymentsByShard.forEach((shard, shardPayments) -> shardRouter.onShard(shard,
+                () -> transactionTemplate.execute(status -> doSaveAll(shardPayments,
+                        recordsByShard.getOrDefault(shard, Collections.emptyList()), shard))));
+        return payments;
+    }
+
+    /**
+     * 回调处理记录跟随所属支付单的分片；所属支付单不在本次保存范围内的登记无法与之同事务提交，直接拒绝
+     */
+    private static Map<String, List<CallbackRecord>> groupRecordsByShard(
+            Map<String, List<PaymentAggregate>> paymentsByShard, List<CallbackRecord> callbackRecords) {
+        if (callbackRecords.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> shardByPaymentId = new HashMap<>();
+        paymentsByShard.forEach((shard, shardPayments) -> shardPayments.stream()
+                .filter(payment -> payment.getId() != null)
+                .forEach(payment -> shardByPaymentId.put(payment.getId(), shard)));
+        Map<String, List<CallbackRecord>> recordsByShard = new HashMap<>();
+        for (CallbackRecord record : callbackRecords) {
+            String shard = shardByPaymentId.get(record.getPaymentId());
+            if (shard == null) {
+                throw new IllegalArgumentException("回调登记的支付单不在本次保存范围内: " + record.getPaymentId());
+            }
+            recordsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(record);
+        }
+        return recordsByShard;
+    }
+
+    private List<PaymentAggregate> doSaveAll(List<PaymentAggregate> payments, List<CallbackRecord> callbackRecords,
+                                             String shard) {
+        // 回调登记最先写入：并发投递的同一回调在唯一键上排队，后到者在写支付单之前即失败回滚
+        callbackRecordRepository.markProcessed(callbackRecords);
+
+        List<PaymentEntity> paymentInserts = new ArrayList<>();
+        List<PaymentEntity> paymentUpdates = new ArrayList<>();
+        List<PaymentTransactionEntity> transactionUpdates = new ArrayList<>();
+        Map<PaymentTransactionEntity, PaymentTransaction> transactionInserts = new IdentityHashMap<>();
+        List<PaymentRouteIndex.Route> routes = new ArrayList<>();
+
+        for (PaymentAggregate payment : payments) {
+            PaymentEntity entity = infrastructureAssembler.toPaymentEntity(payment);
+            if (payment.getId() != null) {
+                paymentUpdates.add(entity);
+            } else {
+                // 与单条保存一致：预先分配ID并登记路由（路由一次批量登记）
+                entity.setId(IdWorker.getIdStr());
+                routes.add(new PaymentRouteIndex.Route(entity.getId(), entity.getCode(), entity.getResellerId()));
+                paymentInserts.add(entity);
+                payment.setId(entity.getId());
+            }
+            List<PaymentTransaction> changed = new ArrayList<>(payment.getUnpersistedCompletedTransactions());
+            if (payment.getRunningTransaction() != null) {
+                changed.add(payment.getRunningTransaction());
+            }
+            for (PaymentTransaction transaction : changed) {
+                PaymentTransactionEntity transactionEntity = infrastructureAssembler.toTransactionEntity(transaction);
+                if (transactionEntity.getId() != null) {
+                    transactionUpdates.add(transactionEntity);
+                } else {
+                    transactionInserts.put(transactionEntity, transaction);
+                }
+            }
+        }
+
+        // 锁定待更新支付单的原值，计算汇总增量（原行不存在的不计入新值）
+        ResellerSummaryDeltas summaryDeltas = new ResellerSummaryDeltas();
+        if (!paymentUpdates.isEmpty()) {
+            Set<String> existing = new HashSet<>();
+            List<String> updateIds = paymentUpdates.stream().map(PaymentEntity::getId).collect(Collectors.toList());
+            for (PaymentEntity previous : paymentMapper.lockSummaryStatesByIds(updateIds)) {
+                summaryDeltas.subtract(previous);
+                existing.add(previous.getId());
+            }
+            paymentUpdates.stream().filter(entity -> existing.contains(entity.getId())).forEach(summaryDeltas::add);
+        }
+        paymentInserts.forEach(summaryDeltas::add);
+        List<ResellerPaymentSummaryEntity> summaryUpdates = summaryDeltas.nonZero(LocalDateTime.now());
+
+        shardRouter.registerRoutes(routes, shard);
+
+        List<PaymentEntity> unmatched = new ArrayList<>();
+        List<PaymentTransactionEntity> unmatchedTransactions = new ArrayList<>();
+        SqlHelper.executeBatch(sqlSessionFactory, BATCH_LOG, sqlSession -> {
+            String updatePayment = SqlHelper.getSqlStatement(PaymentMapper.class, SqlMethod.UPDATE_BY_ID);
+            paymentUpdates.forEach(entity -> sqlSession.update(updatePayment, entityParam(entity)));
+            unmatched.addAll(unmatchedUpdates(sqlSession.flushStatements(), PaymentEntity.class));
+
+            String insertPayment = SqlHelper.getSqlStatement(PaymentMapper.class, SqlMethod.INSERT_ONE);
+            paymentInserts.forEach(entity -> sqlSession.insert(insertPayment, entity));
+            String insertTransaction = SqlHelper.getSqlStatement(PaymentTransactionMapper.class, SqlMethod.INSERT_ONE);
+            transactionInserts.keySet().forEach(entity -> sqlSession.insert(insertTransaction, entity));
+            String updateTransaction = SqlHelper.getSqlStatement(PaymentTransactionMapper.class, SqlMethod.UPDATE_BY_ID);
+            transactionUpdates.forEach(entity -> sqlSession.update(updateTransaction, entityParam(entity)));
+            unmatchedTransactions.addAll(unmatchedUpdates(sqlSession.flushStatements(), PaymentTransactionEntity.class));
+            String upsertSummary = ResellerPaymentSummaryMapper.class.getName() + ".upsertDelta";
+            summaryUpdates.forEach(delta -> sqlSession.insert(upsertSummary, delta));
+        });
+
+        // del_flag为NULL的存量行按未删除加载，但updateById的逻辑删除条件不匹配NULL：补值后逐条重试
+        if (!unmatched.isEmpty() && paymentMapper.clearNullDelFlags(
+                unmatched.stream().map(PaymentEntity::getId).collect(Collectors.toList())) > 0) {
+            unmatched.removeIf(entity -> paymentMapper.updateById(entity) > 0);
+        }
+        if (!unmatchedTransactions.isEmpty() && transactionMapper.clearNullDelFlags(
+                unmatchedTransactions.stream().map(PaymentTransactionEntity::getId).collect(Collectors.toList())) > 0) {
+            unmatchedTransactions.forEach(transactionMapper::updateById);
+        }
+
+        // 未更新到行的支付单若已归档，回滚本分片事务
+        for (String paymentId : unmatched.stream().map(PaymentEntity::getId).collect(Collectors.toList())) {
+            if (archiveMapper.countArchivedPaymentById(paymentId) > 0) {
+                throw new PaymentException("支付单已归档，不能修改: " + paymentId);
+            }
+        }
+
+        // 回填流水ID（INSERT时由MyBatis-Plus生成）
+        transactionInserts.forEach((entity, transaction) -> transaction.setId(entity.getId()));
+        journalAfterCommit(payments);
+        payments.forEach(PaymentAggregate::updateAggregateAfterPersistence);
+        return payments;
+    }
+
+    /**
+     * 把聚合根记录的状态变更转为事件日志记录，在当前事务提交后追加（须在ID回填之后、清空变更之前调用）
+     */
+    private void journalAfterCommit(List<PaymentAggregate> payments) {
+        PaymentEventJournal journal = eventJournal.getIfAvailable();
+        if (journal == null) {
+            return;
+        }
+        List<PaymentJournalRecord> records = new ArrayList<>();
+        for (PaymentAggregate payment : payments) {
+            for (PaymentTransition transition : payment.getUnjournaledTransitions()) {
+                PaymentTransaction transaction = transition.getTransaction();
+                records.add(PaymentJournalRecord.builder()
+                        .paymentId(payment.getId())
+                        .paymentCode(payment.getCode())
+                        .resellerId(payment.getResellerId())
+                        .transitionType(transition.getTransitionType())
+                        .paymentStatus(transition.getPaymentStatus())
+                        .refundStatus(transition.getRefundStatus())
+                        .paidAmount(transition.getPaidAmount())
+                        .refundedAmount(transition.getRefundedAmount())
+                        .transactionId(transaction != null ? transaction.getId() : null)
+                        .transactionCode(transaction != null ? transaction.getCode() : null)
+                        .transactionAmount(transaction != null ? transaction.getTransactionAmount() : null)
+                        .occurredAt(transition.getOccurredAt())
+                        .build());
+            }
+        }
+        appendAfterCommit(journal, records);
+    }
+
+    private void appendAfterCommit(PaymentEventJournal journal, List<PaymentJournalRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendJournal(journal, records);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                appendJournal(journal, records);
+            }
+        });
+    }
+
+    private static void appendJournal(PaymentEventJournal journal, List<PaymentJournalRecord> records) {
+        try {
+            journal.appendAll(records);
+        } catch (RuntimeException e) {
+            log.error("追加支付单事件日志失败，记录数: {}, 首条支付单ID: {}", records.size(), records.get(0).getPaymentId(), e);
+        }
+    }
+
+    private static <T> MapperMethod.ParamMap<T> entityParam(T entity) {
+        MapperMethod.ParamMap<T> param = new MapperMethod.ParamMap<>();
+        param.put(Constants.ENTITY, entity);
+        return param;
+    }
+
+    /**
+     * 按ID更新支付单；未命中且原行del_flag为NULL（按未删除加载的存量行）时补值后重试
+     *
+     * @return 更新行数
+     */
+    private int updatePayment(PaymentEntity entity) {
+        int updated = paymentMapper.updateById(entity);
+        if (updated == 0 && paymentMapper.clearNullDelFlags(Collections.singletonList(entity.getId())) > 0) {
+            updated = paymentMapper.updateById(entity);
+        }
+        return updated;
+    }
+
+    /**
+     * 按ID更新流水，del_flag为NULL的处理同updatePayment
+     */
+    private void updateTransaction(PaymentTransactionEntity entity) {
+        if (transactionMapper.updateById(entity) == 0
+                && transactionMapper.clearNullDelFlags(Collections.singletonList(entity.getId())) > 0) {
+            transactionMapper.updateById(entity);
+        }
+    }
+
+    /**
+     * 从批处理结果中找出更新行数为0的实体
+     * （驱动改写批处理时返回SUCCESS_NO_INFO，无法识别，此时不做归档校验）
+     */
+    private static <T> List<T> unmatchedUpdates(List<BatchResult> results, Class<T> entityType) {
+        List<T> unmatched = new ArrayList<>();
+        for (BatchResult result : results) {
+            int[] counts = result.getUpdateCounts();
+            List<Object> parameters = result.getParameterObjects();
+            for (int i = 0; i < counts.length && i < parameters.size(); i++) {
+                if (counts[i] == 0 && parameters.get(i) instanceof MapperMethod.ParamMap) {
+                    Object entity = ((MapperMethod.ParamMap<?>) parameters.get(i)).get(Constants.ENTITY);
+                    if (entityType.isInstance(entity)) {
+                        unmatched.add(entityType.cast(entity));
+                    }
+                }
+            }
+        }
+        return unmatched;
+    }
+
+
     /**
      * 根据主键ID查找支付单
      *
@@ -83,18 +438,11 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     public Optional<PaymentAggregate> findById(String id) {
         log.info("根据ID查找支付单，ID: {}", id);
 
-        PaymentEntity entity = paymentMapper.selectById(id);
-        if (entity == null) {
-            return Optional.empty();
-        }
-
-        // 查询支付流水 - 使用payment_id关联
-        LambdaQueryWrapper<PaymentTransactionEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentTransactionEntity::getPaymentId, id);
-        List<PaymentTransactionEntity> transactionEntities = transactionMapper.selectList(wrapper);
-
-        // 使用MapStruct转换为领域对象
-        return Optional.of(toPaymentAggregate(entity, transactionEntities));
+        return shardRouter.shardOfPaymentId(id)
+                .flatMap(shard -> shardRouter.onShard(shard, () -> {
+                    Optional<PaymentAggregate> hot = loadAggregate(rowReader.selectPaymentById(id));
+                    return hot.isPresent() ? hot : loadArchivedAggregate(archiveMapper.selectArchivedPaymentById(id));
+                }));
     }
 
     /**
@@ -107,18 +455,11 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     public Optional<PaymentAggregate> findByCode(String code) {
         log.info("根据业务编码查找支付单，支付单号: {}", code);
 
-        PaymentEntity entity = findEntityByCode(code);
-        if (entity == null) {
-            return Optional.empty();
-        }
-
-        // 查询支付流水 - 使用payment_id关联
-        LambdaQueryWrapper<PaymentTransactionEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentTransactionEntity::getPaymentId, entity.getId());
-        List<PaymentTransactionEntity> transactionEntities = transactionMapper.selectList(wrapper);
-
-        // 使用MapStruct转换为领域对象
-        return Optional.of(toPaymentAggregate(entity, transactionEntities));
+        return shardRouter.shardOfPaymentCode(code)
+                .flatMap(shard -> shardRouter.onShard(shard, () -> {
+                    Optional<PaymentAggregate> hot = loadAggregate(findEntityByCode(code));
+                    return hot.isPresent() ? hot : loadArchivedAggregate(archiveMapper.selectArchivedPaymentByCode(code));
+                }));
     }
 
     /**
@@ -131,25 +472,8 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     public List<PaymentAggregate> findByOrderId(String orderId) {
         log.info("根据订单号查找支付单列表，订单号: {}", orderId);
 
-        LambdaQueryWrapper<PaymentEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentEntity::getOrderId, orderId);
-
-        List<PaymentEntity> entities = paymentMapper.selectList(wrapper);
-
-        // 批量查询所有支付流水，避免在循环中调用数据库 - 使用ID关联
-        List<String> paymentIds = entities.stream()
-                .map(PaymentEntity::getId)
-                .collect(Collectors.toList());
-        Map<String, List<PaymentTransactionEntity>> transactionsMap =
-                findTransactionsByPaymentIds(paymentIds);
-
-        return entities.stream()
-                .map(entity -> {
-                    List<PaymentTransactionEntity> transactions =
-                            transactionsMap.getOrDefault(entity.getId(), new ArrayList<>());
-                    return toPaymentAggregate(entity, transactions);
-                })
-                .collect(Collectors.toList());
+        // 订单号无法定位分片，向全部分片并行查询
+        return shardRouter.scatterGather(shard -> loadAggregates(paymentMapper.selectByOrderId(orderId)));
     }
 
     /**
@@ -162,25 +486,8 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     public List<PaymentAggregate> findByResellerId(String resellerId) {
         log.info("根据经销商ID查找支付单列表，经销商ID: {}", resellerId);
 
-        LambdaQueryWrapper<PaymentEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentEntity::getResellerId, resellerId);
-
-        List<PaymentEntity> entities = paymentMapper.selectList(wrapper);
-
-        // 批量查询所有支付流水，避免在循环中调用数据库 - 使用ID关联
-        List<String> paymentIds = entities.stream()
-                .map(PaymentEntity::getId)
-                .collect(Collectors.toList());
-        Map<String, List<PaymentTransactionEntity>> transactionsMap =
-                findTransactionsByPaymentIds(paymentIds);
-
-        return entities.stream()
-                .map(entity -> {
-                    List<PaymentTransactionEntity> transactions =
-                            transactionsMap.getOrDefault(entity.getId(), new ArrayList<>());
-                    return toPaymentAggregate(entity, transactions);
-                })
-                .collect(Collectors.toList());
+        return shardRouter.onShard(shardRouter.shardOfReseller(resellerId),
+                () -> loadAggregates(paymentMapper.selectByResellerId(resellerId)));
     }
 
     /**
@@ -193,25 +500,9 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     public List<PaymentAggregate> findByRelatedBusinessId(String relatedBusinessId) {
         log.info("根据关联业务ID查找支付单列表，关联业务ID: {}", relatedBusinessId);
 
-        LambdaQueryWrapper<PaymentEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentEntity::getRelatedBusinessId, relatedBusinessId);
-
-        List<PaymentEntity> entities = paymentMapper.selectList(wrapper);
-
-        // 批量查询所有支付流水，避免在循环中调用数据库 - 使用ID关联
-        List<String> paymentIds = entities.stream()
-                .map(PaymentEntity::getId)
-                .collect(Collectors.toList());
-        Map<String, List<PaymentTransactionEntity>> transactionsMap =
-                findTransactionsByPaymentIds(paymentIds);
-
-        return entities.stream()
-                .map(entity -> {
-                    List<PaymentTransactionEntity> transactions =
-                            transactionsMap.getOrDefault(entity.getId(), new ArrayList<>());
-                    return toPaymentAggregate(entity, transactions);
-                })
-                .collect(Collectors.toList());
+        // 关联业务ID无法定位分片，向全部分片并行查询
+        return shardRouter.scatterGather(shard ->
+                loadAggregates(paymentMapper.selectByRelatedBusinessId(relatedBusinessId)));
     }
 
     /**
@@ -229,27 +520,111 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
             return new ArrayList<>();
         }
 
-        // 批量查询支付单
-        List<PaymentEntity> entities = paymentMapper.selectBatchIds(ids);
+        // 按分片分组后各分片批量查询支付单，热表未命中的回查归档表
+        Map<String, List<String>> idsByShard = shardRouter.groupPaymentIdsByShard(ids);
+        return shardRouter.scatterGather(idsByShard.keySet(), shard -> {
+            List<String> shardIds = idsByShard.get(shard);
+            List<PaymentAggregate> aggregates = loadAggregates(rowReader.selectPaymentsByIds(shardIds));
+            if (aggregates.size() < shardIds.size()) {
+                Set<String> found = aggregates.stream().map(PaymentAggregate::getId).collect(Collectors.toSet());
+                List<String> missing = shardIds.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+                aggregates.addAll(loadArchivedAggregates(archiveMapper.selectArchivedPaymentsByIds(missing)));
+            }
+            return aggregates;
+        });
+    }
 
-        if (entities.isEmpty()) {
-            return new ArrayList<>();
+    /**
+     * 根据渠道支付记录ID查找支付单
+     * 每个分片一次索引查询定位支付单、一次批量查询流水；统一支付的支付单同属一个经销商，只会命中一个分片
+     *
+     * @param channelPaymentRecordId 渠道支付记录ID
+     * @return 支付单聚合根列表
+     */
+    @Override
+    public List<PaymentAggregate> findByChannelPaymentRecordId(String channelPaymentRecordId) {
+        log.info("根据渠道支付记录ID查找支付单，渠道支付记录ID: {}", channelPaymentRecordId);
+
+        // 渠道支付记录ID无法定位分片，向全部分片并行查询
+        return shardRouter.scatterGather(shard ->
+                loadAggregates(paymentMapper.selectByChannelPaymentRecordId(channelPaymentRecordId)));
+    }
+
+    /**
+     * 按范围批量执行状态迁移
+     *
+     * @param command 批量状态迁移命令
+     * @return 实际迁移的支付单ID列表
+     */
+    @Override
+    public List<String> transitionStatus(BulkStatusTransitionCommand command) {
+        log.info("批量{}支付单，范围: {} {}", command.getTransition().getDescription(),
+                command.getScope().getDescription(), command.getScopeId());
+
+        if (command.getScope() == PaymentScope.RESELLER) {
+            String shard = shardRouter.shardOfReseller(command.getScopeId());
+            return shardRouter.onShard(shard, () -> transitionShard(command));
         }
+        // 订单号/关联业务ID无法定位分片，各分片并行分批处理
+        return shardRouter.scatterGather(shard -> transitionShard(command));
+    }
 
-        // 批量查询所有支付流水，避免在循环中调用数据库 - 使用ID关联
-        List<String> paymentIds = entities.stream()
-                .map(PaymentEntity::getId)
-                .collect(Collectors.toList());
-        Map<String, List<PaymentTransactionEntity>> transactionsMap =
-                findTransactionsByPaymentIds(paymentIds);
-
-        return entities.stream()
-                .map(entity -> {
-                    List<PaymentTransactionEntity> transactions =
-                            transactionsMap.getOrDefault(entity.getId(), new ArrayList<>());
-                    return toPaymentAggregate(entity, transactions);
-                })
+    /**
+     * 在当前分片上分批迁移：每批一个事务，先锁定候选行再带条件更新，直至没有满足条件的支付单
+     */
+    private List<String> transitionShard(BulkStatusTransitionCommand command) {
+        PaymentStatusTransition transition = command.getTransition();
+        List<String> sourceStatuses = transition.getSourceStatuses().stream()
+                .map(PaymentStatus::getCode)
                 .collect(Collectors.toList());
+        String remark = transition.reasonRemark(command.getReason());
+        TransactionTemplate transactionTemplate = requiresNewTransaction();
+
+        List<String> transitioned = new ArrayList<>();
+        List<String> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<String> locked = paymentMapper.lockTransitionCandidates(command.getScope().name(),
+                        command.getScopeId(), sourceStatuses, transition.isRequiresNoTransactions(), TRANSITION_CHUNK_SIZE);
+                if (locked.isEmpty()) {
+                    return locked;
+                }
+                LocalDateTime now = LocalDateTime.now();
+                // 汇总：更新前按原状态移出，更新后按新状态计入
+                summaryMapper.applyPayments(locked, -1, now);
+                int updated = paymentMapper.updateStatusByIds(locked, transition.getTargetStatus().getCode(), remark,
+                        now, sourceStatuses, transition.isRequiresNoTransactions());
+                if (updated != locked.size()) {
+                    throw new IllegalStateException(String.format("批量状态迁移更新行数 %d 与锁定行数 %d 不一致",
+                            updated, locked.size()));
+                }
+                summaryMapper.applyPayments(locked, 1, now);
+                return locked;
+            });
+            transitioned.addAll(chunk);
+            journalTransitions(chunk, transition);
+        } while (chunk.size() == TRANSITION_CHUNK_SIZE);
+        return transitioned;
+    }
+
+    /**
+     * 批量状态迁移不加载聚合根，事件日志只记录支付单ID、变更类型与目标状态
+     */
+    private void journalTransitions(List<String> paymentIds, PaymentStatusTransition transition) {
+        PaymentEventJournal journal = eventJournal.getIfAvailable();
+        if (journal == null || paymentIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        PaymentTransitionType transitionType = PaymentTransitionType.valueOf(transition.name());
+        appendJournal(journal, paymentIds.stream()
+                .map(paymentId -> PaymentJournalRecord.builder()
+                        .paymentId(paymentId)
+                        .transitionType(transitionType)
+                        .paymentStatus(transition.getTargetStatus())
+                        .occurredAt(now)
+                        .build())
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -261,7 +636,9 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     @Override
     public boolean deleteById(String id) {
         log.info("删除支付单，ID: {}", id);
-        return paymentMapper.deleteById(id) > 0;
+        return shardRouter.shardOfPaymentId(id)
+                .map(shard -> shardRouter.onShard(shard, () -> deleteWithSummary(id)))
+                .orElse(false);
     }
 
     /**
@@ -273,79 +650,114 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     @Override
     public boolean deleteByCode(String code) {
         log.info("删除支付单，支付单号: {}", code);
-        PaymentEntity entity = findEntityByCode(code);
-        if (entity != null) {
-            return paymentMapper.deleteById(entity.getId()) > 0;
-        }
-        return false;
+        return shardRouter.shardOfPaymentCode(code)
+                .map(shard -> shardRouter.onShard(shard, () -> {
+                    PaymentEntity entity = findEntityByCode(code);
+                    return entity != null && deleteWithSummary(entity.getId());
+                }))
+                .orElse(false);
+    }
+
+    /**
+     * 逻辑删除支付单，并在同一事务内把它移出经销商汇总
+     */
+    private boolean deleteWithSummary(String id) {
+        return Boolean.TRUE.equals(requiresNewTransaction().execute(status -> {
+            List<PaymentEntity> previous = paymentMapper.lockSummaryStatesByIds(Collections.singletonList(id));
+            if (previous.isEmpty() || paymentMapper.deleteById(id) == 0) {
+                return false;
+            }
+            ResellerSummaryDeltas summaryDeltas = new ResellerSummaryDeltas();
+            previous.forEach(summaryDeltas::subtract);
+            summaryDeltas.nonZero(LocalDateTime.now()).forEach(summaryMapper::upsertDelta);
+            return true;
+        }));
     }
 
+    private TransactionTemplate requiresNewTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
 
     /**
      * 根据业务编码查找支付单实体
      */
     private PaymentEntity findEntityByCode(String code) {
-        LambdaQueryWrapper<PaymentEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentEntity::getCode, code);
-        return paymentMapper.selectOne(wrapper);
+        return paymentMapper.selectByCode(code);
     }
 
     /**
-     * 根据业务编码查找支付流水实体
+     * 加载单个支付单聚合根（含支付流水）
      */
-    private PaymentTransactionEntity findTransactionEntityByCode(String code) {
-        LambdaQueryWrapper<PaymentTransactionEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentTransactionEntity::getCode, code);
-        return transactionMapper.selectOne(wrapper);
+    private Optional<PaymentAggregate> loadAggregate(PaymentEntity entity) {
+        if (entity == null) {
+            return Optional.empty();
+        }
+
+        // 查询支付流水 - 使用payment_id关联
+        List<PaymentTransaction> transactions = rowReader.selectTransactionsByPaymentId(entity.getId());
+
+        return Optional.of(PaymentAggregateHydrator.hydrateMapped(entity, transactions, infrastructureAssembler));
     }
 
     /**
-     * 批量查询支付流水
-     * 根据多个支付单ID批量查询对应的支付流水，避免在循环中调用数据库
-     *
-     * @param paymentIds 支付单ID列表
-     * @return 支付单ID到支付流水列表的映射
+     * 批量加载支付单聚合根（含支付流水）
+     * 必须在支付单所在分片上调用，流水与支付单同分片
      */
-    private Map<String, List<PaymentTransactionEntity>> findTransactionsByPaymentIds(List<String> paymentIds) {
-        if (paymentIds == null || paymentIds.isEmpty()) {
-            return new HashMap<>();
+    private List<PaymentAggregate> loadAggregates(List<PaymentEntity> entities) {
+        if (entities.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        LambdaQueryWrapper<PaymentTransactionEntity> wrapper = new LambdaQueryWrapper<>();
-        wrapper.in(PaymentTransactionEntity::getPaymentId, paymentIds);
-        List<PaymentTransactionEntity> allTransactions = transactionMapper.selectList(wrapper);
-
-        // 按支付单ID分组
-        return allTransactions.stream()
-                .collect(Collectors.groupingBy(PaymentTransactionEntity::getPaymentId));
+        // 批量查询所有支付流水，避免在循环中调用数据库 - 使用ID关联
+        return PaymentAggregateHydrator.hydrateMapped(entities, findTransactionsByPaymentIds(paymentIds(entities)),
+                infrastructureAssembler);
     }
 
     /**
-     * 将数据库实体转换为领域对象（使用MapStruct）
+     * 加载归档支付单聚合根（含归档流水）
      */
-    private PaymentAggregate toPaymentAggregate(
-            PaymentEntity entity,
-            List<PaymentTransactionEntity> transactionEntities) {
-
+    private Optional<PaymentAggregate> loadArchivedAggregate(PaymentEntity entity) {
+        if (entity == null) {
+            return Optional.empty();
+        }
+        List<PaymentTransactionEntity> transactionEntities =
+                archiveMapper.selectArchivedTransactionsByPaymentIds(Collections.singletonList(entity.getId()));
+        return Optional.of(PaymentAggregateHydrator.hydrate(entity, transactionEntities, infrastructureAssembler));
+    }
 
-        Map<Boolean, List<PaymentTransactionEntity>> map = transactionEntities.stream().collect(Collectors.partitioningBy(
-                tra -> tra.getTransactionStatus() == TransactionStatus.PROCESSING
-        ));
-        List<PaymentTransactionEntity> processing = map.getOrDefault(true, Collections.emptyList());
-        PaymentTransaction runningTransaction = null;
-        if (!processing.isEmpty()) {
-            PaymentTransactionEntity paymentTransactionEntity = processing.get(0);
-            runningTransaction = infrastructureAssembler.toDomainTransaction(paymentTransactionEntity);
+    /**
+     * 批量加载归档支付单聚合根（含归档流水）
+     */
+    private List<PaymentAggregate> loadArchivedAggregates(List<PaymentEntity> entities) {
+        if (entities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return PaymentAggregateHydrator.hydrate(entities,
+                archiveMapper.selectArchivedTransactionsByPaymentIds(paymentIds(entities)), infrastructureAssembler);
+    }
 
+    /**
+     * 批量查询支付流水
+     * 根据多个支付单ID批量查询对应的支付流水，避免在循环中调用数据库
+     *
+     * @param paymentIds 支付单ID列表
+     * @return 这些支付单的全部支付流水（不分组，由PaymentAggregateHydrator按支付单装配）
+     */
+    private List<PaymentTransaction> findTransactionsByPaymentIds(List<String> paymentIds) {
+        if (paymentIds == null || paymentIds.isEmpty()) {
+            return new ArrayList<>();
         }
-        List<PaymentTransactionEntity> end = map.getOrDefault(false, Collections.emptyList());
-        List<PaymentTransaction> endTransactions = infrastructureAssembler.toDomainTransactions(end);
 
-        // 使用MapStruct转换支付单
-        PaymentAggregate aggregate = infrastructureAssembler.toPaymentAggregate(entity);
-        return aggregate.toBuilder().runningTransaction(runningTransaction)
-                .completedTransactions(endTransactions).build();
+        return rowReader.selectTransactionsByPaymentIds(paymentIds);
     }
 
-
-}
\ No newline at end of file
+    private static List<String> paymentIds(List<PaymentEntity> entities) {
+        List<String> paymentIds = new ArrayList<>(entities.size());
+        for (PaymentEntity entity : entities) {
+            paymentIds.add(entity.getId());
+        }
+        return paymentIds;
+    }
+}
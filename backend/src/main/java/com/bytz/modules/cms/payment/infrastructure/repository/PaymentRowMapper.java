@@ -0,0 +1,65 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.typehandler.PaymentEnumTypeHandlers;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * 支付单行映射器
+ * Payment Row Mapper
+ * <p>
+ * 按 {@link #COLUMNS} 的列序号直接读取 cms_payment 行，不经过反射与列名解析；
+ * 枚举使用预建的编码查找表。聚合根需要与流水一起构建，因此映射为PaymentEntity，
+ * 由PaymentAggregateHydrator装配。新增列须同时修改列清单与读取顺序。
+ */
+final class PaymentRowMapper implements RowMapper<PaymentEntity> {
+
+    static final PaymentRowMapper INSTANCE = new PaymentRowMapper();
+
+    /**
+     * 查询列清单（顺序即读取序号）
+     */
+    static final String COLUMNS = "id, code, order_id, reseller_id, payment_amount, paid_amount, refunded_amount, "
+            + "actual_amount, pending_amount, currency, payment_type, payment_status, refund_status, business_desc, "
+            + "payment_deadline, related_business_id, related_business_type, business_expire_date, del_flag, "
+            + "create_by, create_by_name, create_time, update_by, update_by_name, update_time";
+
+    private PaymentRowMapper() {
+    }
+
+    @Override
+    public PaymentEntity mapRow(ResultSet rs, int rowNum) throws SQLException {
+        PaymentEntity entity = new PaymentEntity();
+        entity.setId(rs.getString(1));
+        entity.setCode(rs.getString(2));
+        entity.setOrderId(rs.getString(3));
+        entity.setResellerId(rs.getString(4));
+        entity.setPaymentAmount(rs.getBigDecimal(5));
+        entity.setPaidAmount(rs.getBigDecimal(6));
+        entity.setRefundedAmount(rs.getBigDecimal(7));
+        entity.setActualAmount(rs.getBigDecimal(8));
+        entity.setPendingAmount(rs.getBigDecimal(9));
+        entity.setCurrency(rs.getString(10));
+        entity.setPaymentType(PaymentEnumTypeHandlers.PAYMENT_TYPE.fromCode(rs.getString(11)));
+        entity.setPaymentStatus(PaymentEnumTypeHandlers.PAYMENT_STATUS.fromCode(rs.getString(12)));
+        entity.setRefundStatus(PaymentEnumTypeHandlers.REFUND_STATUS.fromCode(rs.getString(13)));
+        entity.setBusinessDesc(rs.getString(14));
+        entity.setPaymentDeadline(rs.getObject(15, LocalDateTime.class));
+        entity.setRelatedBusinessId(rs.getString(16));
+        entity.setRelatedBusinessType(PaymentEnumTypeHandlers.RELATED_BUSINESS_TYPE.fromCode(rs.getString(17)));
+        entity.setBusinessExpireDate(rs.getObject(18, LocalDateTime.class));
+        int delFlag = rs.getInt(19);
+        entity.setDelFlag(rs.wasNull() ? null : delFlag);
+        entity.setCreateBy(rs.getString(20));
+        entity.setCreateByName(rs.getString(21));
+        entity.setCreateTime(rs.getObject(22, LocalDateTime.class));
+        entity.setUpdateBy(rs.getString(23));
+        entity.setUpdateByName(rs.getString(24));
+        entity.setUpdateTime(rs.getObject(25, LocalDateTime.class));
+        return entity;
+    }
+}
@@ -0,0 +1,97 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 支付单行读取器
+ * Payment Row Reader
+ * <p>
+ * 仓储按ID加载聚合根的读路径：固定SQL经JDBC读取，行由手写映射器（PaymentRowMapper、
+ * PaymentTransactionRowMapper）按列序号转换，不经过MyBatis的反射结果映射与MapStruct二次转换。
+ * <p>
+ * 使用主数据源（与MyBatis相同）：事务内复用已绑定的连接，分片、读写分离路由与MyBatis读写一致，
+ * 调用方须已处于目标分片上（见PaymentShardRouter#onShard）。自定义SQL不经过逻辑删除拦截，显式过滤del_flag（NULL按未删除处理，与列默认值0一致）。
+ */
+@Component
+class PaymentRowReader {
+
+    /**
+     * IN查询单批最大ID数
+     */
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private static final String SELECT_PAYMENT_BY_ID = "SELECT " + PaymentRowMapper.COLUMNS
+            + " FROM cms_payment WHERE id = ? AND IFNULL(del_flag, 0) = 0";
+
+    private static final String SELECT_PAYMENTS_BY_IDS = "SELECT " + PaymentRowMapper.COLUMNS
+            + " FROM cms_payment WHERE id IN (:ids) AND IFNULL(del_flag, 0) = 0";
+
+    private static final String SELECT_TRANSACTIONS_BY_PAYMENT_ID = "SELECT " + PaymentTransactionRowMapper.COLUMNS
+            + " FROM cms_payment_transaction WHERE payment_id = ? AND IFNULL(del_flag, 0) = 0";
+
+    private static final String SELECT_TRANSACTIONS_BY_PAYMENT_IDS = "SELECT " + PaymentTransactionRowMapper.COLUMNS
+            + " FROM cms_payment_transaction WHERE payment_id IN (:ids) AND IFNULL(del_flag, 0) = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    PaymentRowReader(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * 根据ID查询支付单行
+     *
+     * @return 支付单行，不存在时返回null
+     */
+    PaymentEntity selectPaymentById(String id) {
+        List<PaymentEntity> rows = jdbcTemplate.query(SELECT_PAYMENT_BY_ID, PaymentRowMapper.INSTANCE, id);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * 根据ID批量查询支付单行（结果顺序不保证与ID顺序一致）
+     */
+    List<PaymentEntity> selectPaymentsByIds(Collection<String> ids) {
+        return selectIn(SELECT_PAYMENTS_BY_IDS, ids, PaymentRowMapper.INSTANCE);
+    }
+
+    /**
+     * 查询支付单的全部流水
+     */
+    List<PaymentTransaction> selectTransactionsByPaymentId(String paymentId) {
+        return jdbcTemplate.query(SELECT_TRANSACTIONS_BY_PAYMENT_ID, PaymentTransactionRowMapper.INSTANCE, paymentId);
+    }
+
+    /**
+     * 批量查询多个支付单的全部流水（不分组，由PaymentAggregateHydrator按支付单装配）
+     */
+    List<PaymentTransaction> selectTransactionsByPaymentIds(Collection<String> paymentIds) {
+        return selectIn(SELECT_TRANSACTIONS_BY_PAYMENT_IDS, paymentIds, PaymentTransactionRowMapper.INSTANCE);
+    }
+
+    private <T> List<T> selectIn(String sql, Collection<String> ids, RowMapper<T> rowMapper) {
+        if (ids.size() <= IN_CHUNK_SIZE) {
+            return namedJdbcTemplate.query(sql, new MapSqlParameterSource("ids", ids), rowMapper);
+        }
+        List<String> idList = new ArrayList<>(ids);
+        List<T> rows = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += IN_CHUNK_SIZE) {
+            List<String> chunk = idList.subList(from, Math.min(from + IN_CHUNK_SIZE, idList.size()));
+            rows.addAll(namedJdbcTemplate.query(sql, new MapSqlParameterSource("ids", chunk), rowMapper));
+        }
+        return rows;
+    }
+}
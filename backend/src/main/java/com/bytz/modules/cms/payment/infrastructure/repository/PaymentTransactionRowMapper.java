@@ -0,0 +1,62 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.infrastructure.typehandler.PaymentEnumTypeHandlers;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * 支付流水行映射器
+ * Payment Transaction Row Mapper
+ * <p>
+ * 按 {@link #COLUMNS} 的列序号把 cms_payment_transaction 行直接映射为领域流水，
+ * 不经过数据库实体与MapStruct二次转换；交易金额为空时取0（与InfrastructureAssembler一致）。
+ * 新增列须同时修改列清单与读取顺序。
+ */
+final class PaymentTransactionRowMapper implements RowMapper<PaymentTransaction> {
+
+    static final PaymentTransactionRowMapper INSTANCE = new PaymentTransactionRowMapper();
+
+    /**
+     * 查询列清单（顺序即读取序号）
+     */
+    static final String COLUMNS = "id, code, payment_id, transaction_type, transaction_status, transaction_amount, "
+            + "payment_channel, channel_transaction_number, channel_payment_record_id, payment_way, "
+            + "original_transaction_id, business_order_id, create_time, complete_date_time, expiration_time, "
+            + "business_remark, create_by, create_by_name, update_by, update_by_name, update_time";
+
+    private PaymentTransactionRowMapper() {
+    }
+
+    @Override
+    public PaymentTransaction mapRow(ResultSet rs, int rowNum) throws SQLException {
+        PaymentTransaction transaction = new PaymentTransaction();
+        transaction.setId(rs.getString(1));
+        transaction.setCode(rs.getString(2));
+        transaction.setPaymentId(rs.getString(3));
+        transaction.setTransactionType(PaymentEnumTypeHandlers.TRANSACTION_TYPE.fromCode(rs.getString(4)));
+        transaction.setTransactionStatus(PaymentEnumTypeHandlers.TRANSACTION_STATUS.fromCode(rs.getString(5)));
+        BigDecimal amount = rs.getBigDecimal(6);
+        transaction.setTransactionAmount(amount != null ? amount : BigDecimal.ZERO);
+        transaction.setPaymentChannel(PaymentEnumTypeHandlers.PAYMENT_CHANNEL.fromCode(rs.getString(7)));
+        transaction.setChannelTransactionNumber(rs.getString(8));
+        transaction.setChannelPaymentRecordId(rs.getString(9));
+        transaction.setPaymentWay(rs.getString(10));
+        transaction.setOriginalTransactionId(rs.getString(11));
+        transaction.setBusinessOrderId(rs.getString(12));
+        transaction.setCreateTime(rs.getObject(13, LocalDateTime.class));
+        transaction.setCompleteDateTime(rs.getObject(14, LocalDateTime.class));
+        transaction.setExpirationTime(rs.getObject(15, LocalDateTime.class));
+        transaction.setBusinessRemark(rs.getString(16));
+        transaction.setCreateBy(rs.getString(17));
+        transaction.setCreateByName(rs.getString(18));
+        transaction.setUpdateBy(rs.getString(19));
+        transaction.setUpdateByName(rs.getString(20));
+        transaction.setUpdateTime(rs.getObject(21, LocalDateTime.class));
+        return transaction;
+    }
+}
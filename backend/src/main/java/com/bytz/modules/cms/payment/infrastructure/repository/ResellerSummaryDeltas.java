@@ -0,0 +1,79 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.ResellerPaymentSummaryEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 经销商支付汇总增量累加器
+ * Reseller Summary Deltas
+ * <p>
+ * 一次保存内把各支付单"移出旧状态、计入新状态"的变化按 (经销商, 币种, 支付状态) 合并，
+ * 抵消为零的键不写库；按键有序输出，多个事务以相同顺序锁定汇总行，避免死锁
+ */
+final class ResellerSummaryDeltas {
+
+    private final Map<String, ResellerPaymentSummaryEntity> deltas = new TreeMap<>();
+
+    /**
+     * 计入支付单的当前状态
+     */
+    void add(PaymentEntity payment) {
+        accumulate(payment, 1);
+    }
+
+    /**
+     * 移出支付单的原状态
+     */
+    void subtract(PaymentEntity payment) {
+        accumulate(payment, -1);
+    }
+
+    /**
+     * 非零增量（按键有序）
+     *
+     * @param updateTime 更新时间
+     * @return 待累加的增量
+     */
+    List<ResellerPaymentSummaryEntity> nonZero(LocalDateTime updateTime) {
+        List<ResellerPaymentSummaryEntity> result = new ArrayList<>();
+        for (ResellerPaymentSummaryEntity delta : deltas.values()) {
+            if (delta.getPaymentCount() != 0
+                    || delta.getPaymentAmount().signum() != 0
+                    || delta.getPaidAmount().signum() != 0
+                    || delta.getRefundedAmount().signum() != 0) {
+                delta.setUpdateTime(updateTime);
+                result.add(delta);
+            }
+        }
+        return result;
+    }
+
+    private void accumulate(PaymentEntity payment, int sign) {
+        String key = payment.getResellerId() + '\u0000' + payment.getCurrency() + '\u0000' + payment.getPaymentStatus();
+        ResellerPaymentSummaryEntity delta = deltas.computeIfAbsent(key, k -> ResellerPaymentSummaryEntity.builder()
+                .resellerId(payment.getResellerId())
+                .currency(payment.getCurrency())
+                .paymentStatus(payment.getPaymentStatus())
+                .paymentCount(0L)
+                .paymentAmount(BigDecimal.ZERO)
+                .paidAmount(BigDecimal.ZERO)
+                .refundedAmount(BigDecimal.ZERO)
+                .build());
+        BigDecimal factor = BigDecimal.valueOf(sign);
+        delta.setPaymentCount(delta.getPaymentCount() + sign);
+        delta.setPaymentAmount(delta.getPaymentAmount().add(amount(payment.getPaymentAmount()).multiply(factor)));
+        delta.setPaidAmount(delta.getPaidAmount().add(amount(payment.getPaidAmount()).multiply(factor)));
+        delta.setRefundedAmount(delta.getRefundedAmount().add(amount(payment.getRefundedAmount()).multiply(factor)));
+    }
+
+    private static BigDecimal amount(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,19 @@
+package com.bytz.modules.cms.payment.infrastructure.rollup;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 汇总水位
+ * Rollup Watermark
+ * 
+ * 已汇总到的 (update_time, id) 位置，不含该位置本身
+ */
+@Data
+public class RollupWatermark {
+    
+    private LocalDateTime watermarkTime;
+    
+    private Long watermarkId;
+}
@@ -0,0 +1,282 @@
+package com.bytz.modules.cms.payment.infrastructure.rollup;
+
+import com.bytz.modules.cms.payment.infrastructure.config.RollupProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.TransactionRollupEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.TransactionRollupMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 流水汇总任务
+ * Transaction Rollup Aggregator
+ * <p>
+ * 按 (支付渠道, 支付类型, 流水类型, 流水状态, 币种) 维护小时/日汇总表，报表查询只读汇总表：
+ * 1. 每个分片在 cms_rollup_watermark 维护 (update_time, id) 水位，从水位之后按页读取变化的流水
+ * 2. 每页一个短事务：锁定水位，锁定这页流水的汇总状态，移出上次计入的值、计入当前值，
+ *    累加小时/日汇总，写回汇总状态，推进水位
+ * 3. 汇总状态表记录每条流水上次计入的维度与金额，同一流水被重复读到（水位回退、回填与增量重叠）时
+ *    增量为零，不会重复计数；读到比已计入版本更旧的流水时跳过
+ * <p>
+ * 分片首次运行（无水位）时，先按主键范围切分、并行扫描回填全部未删除的流水，
+ * 回填完成后才写入水位，回填中途失败下次运行整体重做（按汇总状态幂等）。
+ * 只汇总 update_time 早于（当前时间 - 结清余量）的流水，避免更新时间较早、提交较晚的事务被水位越过。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.rollup", name = "enabled", havingValue = "true")
+public class TransactionRollupAggregator implements DisposableBean {
+
+    static final String WATERMARK_NAME = "transaction-rollup";
+
+    /**
+     * 单页遇到锁等待超时/死锁时的最大尝试次数
+     */
+    private static final int LOCK_ATTEMPTS = 3;
+
+    private final TransactionRollupMapper rollupMapper;
+    private final PaymentShardRouter shardRouter;
+    private final RollupProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService backfillExecutor;
+
+    public TransactionRollupAggregator(TransactionRollupMapper rollupMapper,
+                                       PaymentShardRouter shardRouter,
+                                       RollupProperties properties,
+                                       PlatformTransactionManager transactionManager) {
+        if (properties.getBackfillParallelism() <= 0) {
+            throw new IllegalArgumentException("回填并行度必须大于0");
+        }
+        this.rollupMapper = rollupMapper;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillExecutor = Executors.newFixedThreadPool(properties.getBackfillParallelism(), backfillThreadFactory());
+    }
+
+    /**
+     * 定时执行增量汇总
+     */
+    @Scheduled(cron = "${payment.rollup.cron:0 * * * * ?}")
+    public synchronized void run() {
+        LocalDateTime upperBound = LocalDateTime.now().minus(properties.getSettleLag());
+        for (String shard : shardRouter.getShards()) {
+            try {
+                long applied = shardRouter.onShard(shard, () -> rollupShard(shard, upperBound));
+                if (applied > 0) {
+                    log.info("分片 {} 流水汇总完成，处理流水: {}", shard, applied);
+                }
+            } catch (RuntimeException e) {
+                // 单个分片失败不影响其他分片，水位未推进的页下次运行重试
+                log.error("分片 {} 流水汇总失败", shard, e);
+            }
+        }
+    }
+
+    /**
+     * 汇总当前分片水位之后的流水，分片无水位时先回填
+     *
+     * @return 处理的流水数
+     */
+    long rollupShard(String shard, LocalDateTime upperBound) {
+        long total = 0;
+        if (rollupMapper.selectWatermark(WATERMARK_NAME) == null) {
+            total += backfillShard(shard, upperBound);
+        }
+        int pageSize = properties.getPageSize();
+        while (true) {
+            Integer applied = withLockRetry(() -> transactionTemplate.execute(status -> rollupPage(upperBound)));
+            int count = applied == null ? 0 : applied;
+            total += count;
+            if (count < pageSize) {
+                return total;
+            }
+        }
+    }
+
+    private int rollupPage(LocalDateTime upperBound) {
+        RollupWatermark watermark = rollupMapper.lockWatermark(WATERMARK_NAME);
+        List<TransactionRollupRow> page = rollupMapper.selectChangedAfter(watermark.getWatermarkTime(),
+                watermark.getWatermarkId(), upperBound, properties.getPageSize());
+        if (page.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        apply(page, now);
+        TransactionRollupRow last = page.get(page.size() - 1);
+        rollupMapper.updateWatermark(WATERMARK_NAME, last.getUpdateTime(), last.getTransactionId(), now);
+        return page.size();
+    }
+
+    /**
+     * 回填当前分片的全部未删除流水：按主键范围切分为若干段，在回填线程池中并行扫描，
+     * 全部完成后以本次运行的上界初始化水位。上界之后变化的流水由增量汇总再次读到，按汇总状态去重。
+     *
+     * @return 回填的流水数
+     */
+    long backfillShard(String shard, LocalDateTime upperBound) {
+        Long maxId = rollupMapper.selectMaxTransactionId();
+        long total = 0;
+        if (maxId != null && maxId > 0) {
+            int parallelism = properties.getBackfillParallelism();
+            long span = maxId / parallelism + 1;
+            log.info("分片 {} 开始回填流水汇总，最大流水ID: {}，并行段数: {}", shard, maxId, parallelism);
+            List<CompletableFuture<Long>> futures = new ArrayList<>(parallelism);
+            for (long from = 0; from < maxId; from += span) {
+                long afterId = from;
+                long toId = Math.min(from + span, maxId);
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> shardRouter.onShard(shard, () -> backfillRange(afterId, toId)), backfillExecutor));
+            }
+            for (CompletableFuture<Long> future : futures) {
+                try {
+                    total += future.join();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException("流水汇总回填失败: " + shard, cause);
+                }
+            }
+        }
+        rollupMapper.insertWatermarkIfAbsent(WATERMARK_NAME, upperBound, 0L, LocalDateTime.now());
+        log.info("分片 {} 流水汇总回填完成，回填流水: {}", shard, total);
+        return total;
+    }
+
+    private long backfillRange(long afterId, long toId) {
+        int pageSize = properties.getPageSize();
+        long cursor = afterId;
+        long total = 0;
+        while (true) {
+            List<TransactionRollupRow> page = rollupMapper.selectInIdRange(cursor, toId, pageSize);
+            if (page.isEmpty()) {
+                return total;
+            }
+            withLockRetry(() -> transactionTemplate.execute(status -> {
+                apply(page, LocalDateTime.now());
+                return null;
+            }));
+            cursor = page.get(page.size() - 1).getTransactionId();
+            total += page.size();
+            if (page.size() < pageSize) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * 将一页流水计入汇总（调用方开启事务）
+     * 先锁定这页流水的汇总状态，对每条流水移出上次计入的值、计入当前值；
+     * 已逻辑删除的流水只移出；比已计入版本更旧的流水跳过
+     */
+    void apply(List<TransactionRollupRow> page, LocalDateTime now) {
+        List<Long> transactionIds = new ArrayList<>(page.size());
+        for (TransactionRollupRow row : page) {
+            transactionIds.add(row.getTransactionId());
+        }
+        Map<Long, TransactionRollupRow> states = new HashMap<>(page.size() * 2);
+        for (TransactionRollupRow state : rollupMapper.lockStatesByIds(transactionIds)) {
+            states.put(state.getTransactionId(), state);
+        }
+
+        TransactionRollupDeltas deltas = new TransactionRollupDeltas();
+        List<TransactionRollupRow> upserts = new ArrayList<>(page.size());
+        List<Long> removed = new ArrayList<>();
+        for (TransactionRollupRow row : page) {
+            TransactionRollupRow previous = states.get(row.getTransactionId());
+            if (previous != null && isStale(row, previous)) {
+                continue;
+            }
+            if (previous != null) {
+                deltas.subtract(previous);
+            }
+            if (row.isDeleted()) {
+                if (previous != null) {
+                    removed.add(row.getTransactionId());
+                }
+                continue;
+            }
+            row.setBucketStart(bucketOf(row, now));
+            deltas.add(row);
+            upserts.add(row);
+        }
+
+        if (!upserts.isEmpty()) {
+            rollupMapper.upsertStates(upserts);
+        }
+        if (!removed.isEmpty()) {
+            rollupMapper.deleteStatesByIds(removed);
+        }
+        List<TransactionRollupEntity> hourly = deltas.hourly(now);
+        if (!hourly.isEmpty()) {
+            rollupMapper.upsertHourly(hourly);
+            rollupMapper.upsertDaily(deltas.daily(now));
+        }
+    }
+
+    /**
+     * 流水更新时间早于已计入版本（并发的回填读到旧版本）
+     */
+    private static boolean isStale(TransactionRollupRow row, TransactionRollupRow previous) {
+        return row.getUpdateTime() != null && previous.getUpdateTime() != null
+                && row.getUpdateTime().isBefore(previous.getUpdateTime());
+    }
+
+    /**
+     * 流水所属小时桶：按创建时间，历史数据缺失时依次退回更新时间、当前时间
+     */
+    private static LocalDateTime bucketOf(TransactionRollupRow row, LocalDateTime now) {
+        LocalDateTime time = row.getCreateTime() != null ? row.getCreateTime()
+                : row.getUpdateTime() != null ? row.getUpdateTime() : now;
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private <T> T withLockRetry(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= LOCK_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("流水汇总锁冲突，重试第 {} 次", attempt, e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        backfillExecutor.shutdownNow();
+    }
+
+    private static ThreadFactory backfillThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "payment-rollup-backfill-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
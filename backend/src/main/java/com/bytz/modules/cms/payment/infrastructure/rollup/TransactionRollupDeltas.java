@@ -0,0 +1,112 @@
+package com.bytz.modules.cms.payment.infrastructure.rollup;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.infrastructure.entity.TransactionRollupEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 流水汇总增量累加器
+ * Transaction Rollup Deltas
+ * <p>
+ * 一页流水内把"移出上次计入的状态、计入当前状态"的变化按汇总键合并，抵消为零的键不写库；
+ * 按键有序输出，并发的汇总事务以相同顺序锁定汇总行，避免死锁
+ */
+final class TransactionRollupDeltas {
+
+    private final Map<String, TransactionRollupEntity> hourly = new TreeMap<>();
+
+    /**
+     * 计入流水的当前状态
+     */
+    void add(TransactionRollupRow row) {
+        accumulate(hourly, row.getBucketStart(), row, 1, row.getAmount());
+    }
+
+    /**
+     * 移出流水上次计入的状态
+     */
+    void subtract(TransactionRollupRow row) {
+        accumulate(hourly, row.getBucketStart(), row, -1, row.getAmount());
+    }
+
+    /**
+     * 小时表的非零增量（按键有序）
+     */
+    List<TransactionRollupEntity> hourly(LocalDateTime updateTime) {
+        return nonZero(hourly, updateTime);
+    }
+
+    /**
+     * 日表的非零增量（由小时增量按日合并，按键有序）
+     */
+    List<TransactionRollupEntity> daily(LocalDateTime updateTime) {
+        Map<String, TransactionRollupEntity> daily = new TreeMap<>();
+        for (TransactionRollupEntity delta : hourly.values()) {
+            TransactionRollupEntity target = daily.computeIfAbsent(
+                    key(delta.getBucketStart().truncatedTo(ChronoUnit.DAYS), delta.getPaymentChannel(),
+                            delta.getPaymentType(), delta.getTransactionType(), delta.getTransactionStatus(),
+                            delta.getCurrency()),
+                    k -> empty(delta.getBucketStart().truncatedTo(ChronoUnit.DAYS), delta.getPaymentChannel(),
+                            delta.getPaymentType(), delta.getTransactionType(), delta.getTransactionStatus(),
+                            delta.getCurrency()));
+            target.setTransactionCount(target.getTransactionCount() + delta.getTransactionCount());
+            target.setTotalAmount(target.getTotalAmount().add(delta.getTotalAmount()));
+        }
+        return nonZero(daily, updateTime);
+    }
+
+    private static void accumulate(Map<String, TransactionRollupEntity> deltas, LocalDateTime bucketStart,
+                                   TransactionRollupRow row, int sign, BigDecimal amount) {
+        TransactionRollupEntity delta = deltas.computeIfAbsent(
+                key(bucketStart, row.getPaymentChannel(), row.getPaymentType(), row.getTransactionType(),
+                        row.getTransactionStatus(), row.getCurrency()),
+                k -> empty(bucketStart, row.getPaymentChannel(), row.getPaymentType(), row.getTransactionType(),
+                        row.getTransactionStatus(), row.getCurrency()));
+        delta.setTransactionCount(delta.getTransactionCount() + sign);
+        BigDecimal value = amount != null ? amount : BigDecimal.ZERO;
+        delta.setTotalAmount(delta.getTotalAmount().add(sign > 0 ? value : value.negate()));
+    }
+
+    private static List<TransactionRollupEntity> nonZero(Map<String, TransactionRollupEntity> deltas,
+                                                         LocalDateTime updateTime) {
+        List<TransactionRollupEntity> result = new ArrayList<>();
+        for (TransactionRollupEntity delta : deltas.values()) {
+            if (delta.getTransactionCount() != 0 || delta.getTotalAmount().signum() != 0) {
+                delta.setUpdateTime(updateTime);
+                result.add(delta);
+            }
+        }
+        return result;
+    }
+
+    private static String key(LocalDateTime bucketStart, PaymentChannel paymentChannel, PaymentType paymentType,
+                              TransactionType transactionType, TransactionStatus transactionStatus, String currency) {
+        return bucketStart + "\u0000" + paymentChannel + '\u0000' + paymentType + '\u0000' + transactionType
+                + '\u0000' + transactionStatus + '\u0000' + currency;
+    }
+
+    private static TransactionRollupEntity empty(LocalDateTime bucketStart, PaymentChannel paymentChannel,
+                                                 PaymentType paymentType, TransactionType transactionType,
+                                                 TransactionStatus transactionStatus, String currency) {
+        return TransactionRollupEntity.builder()
+                .bucketStart(bucketStart)
+                .paymentChannel(paymentChannel)
+                .paymentType(paymentType)
+                .transactionType(transactionType)
+                .transactionStatus(transactionStatus)
+                .currency(currency)
+                .transactionCount(0L)
+                .totalAmount(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.bytz.modules.cms.payment.infrastructure.rollup;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 流水汇总行
+ * Transaction Rollup Row
+ * 
+ * 流水与所属支付单关联后的汇总维度与金额；从流水表读出时带创建/更新时间，
+ * 作为汇总状态（cms_transaction_rollup_state）读写时只含维度与金额
+ */
+@Data
+public class TransactionRollupRow {
+    
+    private Long transactionId;
+    
+    private Long paymentId;
+    
+    /**
+     * 小时桶起点（流水创建时间截断到小时）
+     */
+    private LocalDateTime bucketStart;
+    
+    private PaymentChannel paymentChannel;
+    
+    private PaymentType paymentType;
+    
+    private TransactionType transactionType;
+    
+    private TransactionStatus transactionStatus;
+    
+    private String currency;
+    
+    private BigDecimal amount;
+    
+    private LocalDateTime createTime;
+    
+    private LocalDateTime updateTime;
+    
+    /**
+     * 流水是否已逻辑删除（已删除的流水从汇总中移出）
+     */
+    private boolean deleted;
+}
@@ -0,0 +1,152 @@
+package com.bytz.modules.cms.payment.infrastructure.search;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.infrastructure.config.SearchProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 经销商可支付支付单读取器
+ * Payable Payment Reader
+ * <p>
+ * 批量支付页面需要经销商全部可支付（与 PaymentAggregate#canPay 一致：未支付/部分支付、待支付金额大于0）
+ * 的支付单，按支付截止时间先到期在前，无截止时间的排最后。
+ * <p>
+ * 对每个可支付状态分别在 (reseller_id, payment_status, payment_deadline) 索引内按序读取一页，
+ * 再按 (截止时间, id) 归并：每次只读 pageSize + 1 行/状态，不随积压数量增长。
+ * 游标记录最后一行所在段（有/无截止时间）与位置。
+ */
+@Component
+public class PayablePaymentReader {
+
+    /**
+     * 可支付状态（处于支付中时状态为 PAYING，因此这两个状态下不存在运行中的流水）
+     */
+    public static final List<PaymentStatus> PAYABLE_STATUSES = Arrays.asList(PaymentStatus.UNPAID, PaymentStatus.PARTIAL_PAID);
+
+    private static final String WITH_DEADLINE = "D";
+    private static final String WITHOUT_DEADLINE = "N";
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private static final Comparator<PaymentEntity> BY_DEADLINE = Comparator
+            .comparing(PaymentEntity::getPaymentDeadline)
+            .thenComparing(payment -> Long.parseLong(payment.getId()));
+    private static final Comparator<PaymentEntity> BY_ID = Comparator.comparing(payment -> Long.parseLong(payment.getId()));
+
+    private final PaymentMapper paymentMapper;
+    private final PaymentShardRouter shardRouter;
+    private final SearchProperties properties;
+
+    public PayablePaymentReader(PaymentMapper paymentMapper,
+                                PaymentShardRouter shardRouter,
+                                SearchProperties properties) {
+        this.paymentMapper = paymentMapper;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+    }
+
+    /**
+     * 读取经销商的一页可支付支付单
+     *
+     * @param resellerId 经销商ID
+     * @param cursor     上一页返回的游标，首页为空
+     * @param pageSize   每页条数，为空时使用默认值
+     * @return 一页支付单与下一页游标
+     * @throws IllegalArgumentException 如果游标无效或每页条数超限
+     */
+    public PaymentSearchResult read(String resellerId, String cursor, Integer pageSize) {
+        if (resellerId == null || resellerId.trim().isEmpty()) {
+            throw new IllegalArgumentException("经销商ID不能为空");
+        }
+        int size = pageSize != null ? pageSize : properties.getDefaultPageSize();
+        if (size <= 0 || size > properties.getMaxPageSize()) {
+            throw new IllegalArgumentException("每页条数必须在1到" + properties.getMaxPageSize() + "之间");
+        }
+        Position position = decodeCursor(cursor);
+
+        List<PaymentEntity> rows = shardRouter.onShard(shardRouter.shardOfReseller(resellerId), () -> {
+            List<PaymentEntity> page = new ArrayList<>(size + 1);
+            if (position.withDeadline) {
+                page.addAll(readSection(resellerId, true, position.deadline, position.id, size + 1, BY_DEADLINE));
+            }
+            if (page.size() <= size) {
+                Long afterId = position.withDeadline ? null : position.id;
+                page.addAll(readSection(resellerId, false, null, afterId, size + 1 - page.size(), BY_ID));
+            }
+            return page;
+        });
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            nextCursor = encodeCursor(rows.get(size - 1));
+        }
+        return PaymentSearchResult.builder()
+                .items(rows)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private List<PaymentEntity> readSection(String resellerId, boolean withDeadline, LocalDateTime afterDeadline,
+                                            Long afterId, int limit, Comparator<PaymentEntity> order) {
+        List<PaymentEntity> merged = new ArrayList<>();
+        for (PaymentStatus status : PAYABLE_STATUSES) {
+            merged.addAll(paymentMapper.selectPayable(resellerId, status, withDeadline, afterDeadline, afterId, limit));
+        }
+        merged.sort(order);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private static String encodeCursor(PaymentEntity last) {
+        String raw = last.getPaymentDeadline() != null
+                ? WITH_DEADLINE + CURSOR_SEPARATOR + last.getPaymentDeadline() + CURSOR_SEPARATOR + last.getId()
+                : WITHOUT_DEADLINE + CURSOR_SEPARATOR + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return new Position(true, null, null);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + CURSOR_SEPARATOR, -1);
+            if (parts.length == 3 && WITH_DEADLINE.equals(parts[0])) {
+                return new Position(true, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            }
+            if (parts.length == 3 && WITHOUT_DEADLINE.equals(parts[0])) {
+                return new Position(false, null, Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // 落到下方统一报错
+        }
+        throw new IllegalArgumentException("无效的分页游标");
+    }
+
+    /**
+     * 游标位置：所在段与段内位置（首页位置为空）
+     */
+    private static final class Position {
+
+        private final boolean withDeadline;
+        private final LocalDateTime deadline;
+        private final Long id;
+
+        Position(boolean withDeadline, LocalDateTime deadline, Long id) {
+            this.withDeadline = withDeadline;
+            this.deadline = deadline;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.bytz.modules.cms.payment.infrastructure.search;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RelatedBusinessType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * 支付单组合查询条件
+ * Payment Search Criteria
+ * 
+ * 过滤条件由调用方填写；索引、游标位置与读取行数由 PaymentSearchPlanner 规划后填写，
+ * 作为 PaymentMapper 组合查询的参数。时间范围均为左闭右开
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSearchCriteria {
+    
+    // ==================== 过滤条件 ====================
+    
+    private String resellerId;
+    
+    private Set<PaymentStatus> statuses;
+    
+    private PaymentType paymentType;
+    
+    private RelatedBusinessType relatedBusinessType;
+    
+    private BigDecimal minAmount;
+    
+    private BigDecimal maxAmount;
+    
+    private LocalDateTime createFrom;
+    
+    private LocalDateTime createTo;
+    
+    private LocalDateTime deadlineFrom;
+    
+    private LocalDateTime deadlineTo;
+    
+    /**
+     * 上一页返回的游标，首页为空
+     */
+    private String cursor;
+    
+    /**
+     * 每页条数，为空时使用默认值
+     */
+    private Integer pageSize;
+    
+    /**
+     * 是否返回总数
+     */
+    private boolean includeTotal;
+    
+    // ==================== 规划结果 ====================
+    
+    /**
+     * 使用的索引
+     */
+    private PaymentSearchIndex index;
+    
+    /**
+     * 游标位置：排序列的值（不含）
+     */
+    private LocalDateTime cursorTime;
+    
+    /**
+     * 游标位置：排序列相同时的支付单ID（不含）
+     */
+    private Long cursorId;
+    
+    /**
+     * 读取行数（每页条数 + 1，用于判断是否有下一页）
+     */
+    private int limit;
+}
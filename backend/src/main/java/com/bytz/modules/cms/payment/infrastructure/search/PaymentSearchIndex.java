@@ -0,0 +1,64 @@
+package com.bytz.modules.cms.payment.infrastructure.search;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 支付单组合查询索引
+ * Payment Search Index
+ * 
+ * 组合查询允许使用的固定索引（见 schema.sql），每个索引决定排序列与排序方向，
+ * 游标分页按 (排序列, id) 在索引内连续读取
+ */
+public enum PaymentSearchIndex {
+    
+    /**
+     * 经销商 + 状态 + 创建时间，按创建时间倒序
+     */
+    RESELLER_STATUS_CREATE("idx_reseller_status_create", "create_time", true),
+    
+    /**
+     * 关联业务类型 + 创建时间，按创建时间倒序
+     */
+    BUSINESS_TYPE_CREATE("idx_business_type_create", "create_time", true),
+    
+    /**
+     * 状态 + 支付截止时间，按截止时间正序（先到期的在前）
+     */
+    STATUS_DEADLINE("idx_status_deadline", "payment_deadline", false),
+    
+    /**
+     * 创建时间，按创建时间倒序
+     */
+    CREATE_TIME("idx_create_time", "create_time", true);
+    
+    private final String indexName;
+    private final String sortColumn;
+    private final boolean descending;
+    
+    PaymentSearchIndex(String indexName, String sortColumn, boolean descending) {
+        this.indexName = indexName;
+        this.sortColumn = sortColumn;
+        this.descending = descending;
+    }
+    
+    public String getIndexName() {
+        return indexName;
+    }
+    
+    public String getSortColumn() {
+        return sortColumn;
+    }
+    
+    public boolean isDescending() {
+        return descending;
+    }
+    
+    /**
+     * 支付单在本索引排序列上的值
+     */
+    public LocalDateTime sortValueOf(PaymentEntity payment) {
+        return this == STATUS_DEADLINE ? payment.getPaymentDeadline() : payment.getCreateTime();
+    }
+}
@@ -0,0 +1,147 @@
+package com.bytz.modules.cms.payment.infrastructure.search;
+
+import com.bytz.modules.cms.payment.infrastructure.config.SearchProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 支付单组合查询规划器
+ * Payment Search Planner
+ * <p>
+ * 为查询条件选择一个固定索引，索引的前导列必须被条件约束，否则拒绝查询（会退化为全表扫描）：
+ * 1. 指定经销商：经销商 + 状态 + 创建时间
+ * 2. 指定关联业务类型与创建时间范围：关联业务类型 + 创建时间
+ * 3. 指定状态与支付截止时间范围：状态 + 截止时间
+ * 4. 只指定创建时间范围：创建时间
+ * 2~4 的时间范围必须有上下界且不超过最大跨度（关联业务类型、状态的取值很少，不能单独圈定范围）。
+ * 金额范围、支付类型等其余条件在索引范围内过滤。
+ * <p>
+ * 游标编码了索引、最后一行的排序列值与ID，换了查询条件导致索引变化时拒绝旧游标。
+ */
+public class PaymentSearchPlanner {
+
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private final SearchProperties properties;
+
+    public PaymentSearchPlanner(SearchProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 规划查询：选择索引、解析游标、确定读取行数
+     *
+     * @param criteria 查询条件
+     * @return 填写了规划结果的查询条件副本
+     * @throws IllegalArgumentException 如果条件无法命中索引或参数不合法
+     */
+    public PaymentSearchCriteria plan(PaymentSearchCriteria criteria) {
+        validateRanges(criteria);
+        PaymentSearchIndex index = chooseIndex(criteria);
+        int pageSize = criteria.getPageSize() != null ? criteria.getPageSize() : properties.getDefaultPageSize();
+        if (pageSize <= 0 || pageSize > properties.getMaxPageSize()) {
+            throw new IllegalArgumentException("每页条数必须在1到" + properties.getMaxPageSize() + "之间");
+        }
+        PaymentSearchCriteria planned = criteria.toBuilder()
+                .index(index)
+                .limit(pageSize + 1)
+                .cursorTime(null)
+                .cursorId(null)
+                .build();
+        if (criteria.getCursor() != null && !criteria.getCursor().isEmpty()) {
+            decodeCursor(criteria.getCursor(), planned);
+        }
+        return planned;
+    }
+
+    /**
+     * 总数缓存键：去掉游标与分页参数，同一条件的各页共享总数
+     */
+    public PaymentSearchCriteria countKey(PaymentSearchCriteria planned) {
+        return planned.toBuilder()
+                .cursor(null)
+                .cursorTime(null)
+                .cursorId(null)
+                .pageSize(null)
+                .limit(0)
+                .includeTotal(false)
+                .build();
+    }
+
+    /**
+     * 以本页最后一行生成下一页游标
+     */
+    public String encodeCursor(PaymentSearchIndex index, PaymentEntity last) {
+        String raw = index.name() + CURSOR_SEPARATOR + index.sortValueOf(last) + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private PaymentSearchIndex chooseIndex(PaymentSearchCriteria criteria) {
+        if (hasText(criteria.getResellerId())) {
+            return PaymentSearchIndex.RESELLER_STATUS_CREATE;
+        }
+        if (criteria.getRelatedBusinessType() != null
+                && isBounded(criteria.getCreateFrom(), criteria.getCreateTo())) {
+            return PaymentSearchIndex.BUSINESS_TYPE_CREATE;
+        }
+        if (criteria.getStatuses() != null && !criteria.getStatuses().isEmpty()
+                && isBounded(criteria.getDeadlineFrom(), criteria.getDeadlineTo())) {
+            return PaymentSearchIndex.STATUS_DEADLINE;
+        }
+        if (isBounded(criteria.getCreateFrom(), criteria.getCreateTo())) {
+            return PaymentSearchIndex.CREATE_TIME;
+        }
+        throw new IllegalArgumentException(String.format(
+                "查询条件无法命中索引：需指定经销商ID，或指定不超过%d天的创建时间范围（可附加关联业务类型），"
+                        + "或指定支付状态及不超过%d天的支付截止时间范围",
+                properties.getMaxTimeSpan().toDays(), properties.getMaxTimeSpan().toDays()));
+    }
+
+    private boolean isBounded(LocalDateTime from, LocalDateTime to) {
+        return from != null && to != null
+                && Duration.between(from, to).compareTo(properties.getMaxTimeSpan()) <= 0;
+    }
+
+    private static void validateRanges(PaymentSearchCriteria criteria) {
+        if (criteria.getMinAmount() != null && criteria.getMaxAmount() != null
+                && criteria.getMinAmount().compareTo(criteria.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("最小金额不能大于最大金额");
+        }
+        if (criteria.getCreateFrom() != null && criteria.getCreateTo() != null
+                && !criteria.getCreateFrom().isBefore(criteria.getCreateTo())) {
+            throw new IllegalArgumentException("创建起始时间必须早于结束时间");
+        }
+        if (criteria.getDeadlineFrom() != null && criteria.getDeadlineTo() != null
+                && !criteria.getDeadlineFrom().isBefore(criteria.getDeadlineTo())) {
+            throw new IllegalArgumentException("截止起始时间必须早于结束时间");
+        }
+    }
+
+    private static void decodeCursor(String cursor, PaymentSearchCriteria planned) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + CURSOR_SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+        if (parts.length != 3 || !planned.getIndex().name().equals(parts[0])) {
+            throw new IllegalArgumentException("分页游标与查询条件不匹配");
+        }
+        try {
+            planned.setCursorTime(LocalDateTime.parse(parts[1]));
+            planned.setCursorId(Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,37 @@
+package com.bytz.modules.cms.payment.infrastructure.search;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 支付单组合查询结果
+ * Payment Search Result
+ * 
+ * 组合查询、可支付列表等游标分页查询的一页结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSearchResult {
+    
+    /**
+     * 本页支付单
+     */
+    private List<PaymentEntity> items;
+    
+    /**
+     * 下一页游标，没有下一页时为空
+     */
+    private String nextCursor;
+    
+    /**
+     * 总数（未要求或不可用时为空），短时缓存，可能略滞后于实际数据
+     */
+    private Long total;
+}
@@ -0,0 +1,86 @@
+package com.bytz.modules.cms.payment.infrastructure.search;
+
+import com.bytz.modules.cms.payment.infrastructure.config.SearchProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.shared.util.TtlCache;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 支付单组合查询执行器
+ * Payment Searcher
+ * <p>
+ * 规划查询后在相关分片执行：指定经销商时只查其所在分片，否则各分片并行读取一页后按排序键归并；
+ * 游标是全局的 (排序列, id)，各分片用同一游标继续读取。
+ * 总数按查询条件（不含游标）短时缓存，翻页与重复查询不重复计数。
+ */
+@Component
+public class PaymentSearcher {
+
+    private final PaymentMapper paymentMapper;
+    private final PaymentShardRouter shardRouter;
+    private final PaymentSearchPlanner planner;
+    private final TtlCache<PaymentSearchCriteria, Long> countCache;
+
+    public PaymentSearcher(PaymentMapper paymentMapper,
+                           PaymentShardRouter shardRouter,
+                           SearchProperties properties) {
+        this.paymentMapper = paymentMapper;
+        this.shardRouter = shardRouter;
+        this.planner = new PaymentSearchPlanner(properties);
+        this.countCache = new TtlCache<>(properties.getCountCacheTtl(), properties.getCountCacheMaxEntries());
+    }
+
+    /**
+     * 执行组合查询
+     *
+     * @param criteria 查询条件
+     * @return 一页支付单、下一页游标、总数（按需）
+     * @throws IllegalArgumentException 如果条件无法命中索引或参数不合法
+     */
+    public PaymentSearchResult search(PaymentSearchCriteria criteria) {
+        PaymentSearchCriteria planned = planner.plan(criteria);
+        List<String> shards = planned.getResellerId() != null
+                ? Collections.singletonList(shardRouter.shardOfReseller(planned.getResellerId()))
+                : shardRouter.getShards();
+
+        List<PaymentEntity> rows = shardRouter.scatterGather(shards, shard -> paymentMapper.searchPayments(planned));
+        if (shards.size() > 1) {
+            rows.sort(order(planned.getIndex()));
+        }
+        int pageSize = planned.getLimit() - 1;
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            nextCursor = planner.encodeCursor(planned.getIndex(), rows.get(pageSize - 1));
+        }
+
+        Long total = null;
+        if (criteria.isIncludeTotal()) {
+            total = countCache.get(planner.countKey(planned), key -> shardRouter
+                    .scatterGather(shards, shard -> Collections.singletonList(paymentMapper.countPayments(key)))
+                    .stream().mapToLong(Long::longValue).sum());
+        }
+        return PaymentSearchResult.builder()
+                .items(rows)
+                .nextCursor(nextCursor)
+                .total(total)
+                .build();
+    }
+
+    /**
+     * 与索引一致的排序：排序列、ID（数值）
+     */
+    static Comparator<PaymentEntity> order(PaymentSearchIndex index) {
+        Comparator<PaymentEntity> comparator = Comparator
+                .comparing(index::sortValueOf)
+                .thenComparing(payment -> Long.parseLong(payment.getId()));
+        return index.isDescending() ? comparator.reversed() : comparator;
+    }
+}
@@ -0,0 +1,135 @@
+package com.bytz.modules.cms.payment.infrastructure.sharding;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 支付单路由索引
+ * Payment Route Index
+ * <p>
+ * 记录支付单ID、支付单号到物理分片的映射（表 cms_payment_route，存放在路由分片上），
+ * 用于按ID或单号查询时定位分片。
+ * <p>
+ * 直接使用路由分片的物理数据源而不经过MyBatis会话：调用方可能处于另一个分片的事务中，
+ * 经由分片路由数据源会复用该事务已绑定的连接而读到错误的库。
+ */
+@Slf4j
+public class PaymentRouteIndex {
+
+    /**
+     * IN查询单批最大ID数
+     */
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public PaymentRouteIndex(DataSource routeDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(routeDataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * 登记支付单路由，重复登记（同一支付单重复保存）忽略
+     *
+     * @param paymentId  支付单ID
+     * @param code       支付单号
+     * @param resellerId 经销商ID
+     * @param shard      分片名称
+     */
+    public void register(String paymentId, String code, String resellerId, String shard) {
+        try {
+            jdbcTemplate.update("INSERT INTO cms_payment_route (payment_id, code, reseller_id, shard_name, create_time) "
+                    + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)", paymentId, code, resellerId, shard);
+        } catch (DuplicateKeyException e) {
+            log.debug("支付单路由已存在，忽略: paymentId={}", paymentId);
+        }
+    }
+
+    /**
+     * 批量登记新支付单的路由（JDBC批处理，驱动开启rewriteBatchedStatements时改写为多行INSERT）
+     * 仅用于新分配ID的支付单，不做重复登记容错
+     *
+     * @param routes 路由列表
+     * @param shard  分片名称
+     */
+    public void registerAll(List<Route> routes, String shard) {
+        List<Object[]> args = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            args.add(new Object[]{route.getPaymentId(), route.getCode(), route.getResellerId(), shard});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cms_payment_route (payment_id, code, reseller_id, shard_name, create_time) "
+                + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)", args);
+    }
+
+    /**
+     * 根据支付单ID查找分片
+     *
+     * @param paymentId 支付单ID
+     * @return 分片名称
+     */
+    public Optional<String> findShardByPaymentId(String paymentId) {
+        List<String> shards = jdbcTemplate.queryForList(
+                "SELECT shard_name FROM cms_payment_route WHERE payment_id = ?", String.class, paymentId);
+        return shards.isEmpty() ? Optional.empty() : Optional.of(shards.get(0));
+    }
+
+    /**
+     * 根据支付单号查找分片
+     *
+     * @param code 支付单号
+     * @return 分片名称
+     */
+    public Optional<String> findShardByCode(String code) {
+        List<String> shards = jdbcTemplate.queryForList(
+                "SELECT shard_name FROM cms_payment_route WHERE code = ?", String.class, code);
+        return shards.isEmpty() ? Optional.empty() : Optional.of(shards.get(0));
+    }
+
+    /**
+     * 批量查找支付单ID所在分片
+     *
+     * @param paymentIds 支付单ID集合
+     * @return 支付单ID到分片名称的映射，未登记的ID不在结果中
+     */
+    public Map<String, String> findShardsByPaymentIds(Collection<String> paymentIds) {
+        Map<String, String> result = new HashMap<>(paymentIds.size() * 2);
+        List<String> ids = new ArrayList<>(paymentIds);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            namedJdbcTemplate.query("SELECT payment_id, shard_name FROM cms_payment_route WHERE payment_id IN (:ids)",
+                    new MapSqlParameterSource("ids", chunk),
+                    rs -> {
+                        result.put(rs.getString(1), rs.getString(2));
+                    });
+        }
+        return result;
+    }
+
+    /**
+     * 支付单路由项
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Route {
+
+        private final String paymentId;
+
+        private final String code;
+
+        private final String resellerId;
+    }
+}
@@ -0,0 +1,267 @@
+package com.bytz.modules.cms.payment.infrastructure.sharding;
+
+import com.bytz.modules.cms.payment.infrastructure.datasource.ReplicaReadContext;
+import com.bytz.modules.cms.payment.shared.util.ConsistentHashRing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 支付单分片路由器
+ * Payment Shard Router
+ * <p>
+ * 分片规则：按经销商ID一致性哈希定位分片，支付流水与所属支付单同分片存放。
+ * 按ID/单号访问时先查路由索引定位分片；按订单号、关联业务等无法定位分片的条件查询时，
+ * 向全部分片并行散发查询再汇总（scatter-gather）。
+ * <p>
+ * 未开启分片时退化为单分片：所有操作在调用线程直接执行，不访问路由索引。
+ * <p>
+ * 约束：一个事务只能访问一个分片（同一经销商的支付单满足该约束），
+ * 事务内访问其他分片会抛出IllegalStateException。
+ */
+@Slf4j
+public class PaymentShardRouter implements DisposableBean {
+
+    /**
+     * 未开启分片时的唯一分片名称
+     */
+    public static final String SINGLE_SHARD = "default";
+
+    private final ConsistentHashRing ring;
+    private final PaymentRouteIndex routeIndex;
+    private final ExecutorService scatterExecutor;
+
+    /**
+     * 构造分片路由器
+     *
+     * @param shards       分片名称列表
+     * @param virtualNodes 每个分片的虚拟节点数
+     * @param routeIndex   路由索引，单分片时为null
+     */
+    public PaymentShardRouter(List<String> shards, int virtualNodes, PaymentRouteIndex routeIndex) {
+        this.ring = new ConsistentHashRing(shards, virtualNodes);
+        this.routeIndex = routeIndex;
+        this.scatterExecutor = shards.size() > 1 ? Executors.newFixedThreadPool(shards.size(), scatterThreadFactory()) : null;
+    }
+
+    /**
+     * 创建单分片路由器（未开启分片）
+     *
+     * @return 单分片路由器
+     */
+    public static PaymentShardRouter singleShard() {
+        return new PaymentShardRouter(Collections.singletonList(SINGLE_SHARD), 1, null);
+    }
+
+    /**
+     * 是否开启了分片
+     */
+    public boolean isSharded() {
+        return routeIndex != null;
+    }
+
+    /**
+     * 全部分片名称
+     */
+    public List<String> getShards() {
+        return ring.getNodes();
+    }
+
+    /**
+     * 默认分片（路由未命中时使用）
+     */
+    public String getDefaultShard() {
+        return ring.getNodes().get(0);
+    }
+
+    /**
+     * 根据经销商ID定位分片
+     *
+     * @param resellerId 经销商ID
+     * @return 分片名称
+     */
+    public String shardOfReseller(String resellerId) {
+        return ring.locate(resellerId);
+    }
+
+    /**
+     * 根据支付单ID定位分片
+     *
+     * @param paymentId 支付单ID
+     * @return 分片名称，未登记路由时为空
+     */
+    public Optional<String> shardOfPaymentId(String paymentId) {
+        if (!isSharded()) {
+            return Optional.of(getDefaultShard());
+        }
+        return routeIndex.findShardByPaymentId(paymentId);
+    }
+
+    /**
+     * 根据支付单号定位分片
+     *
+     * @param code 支付单号
+     * @return 分片名称，未登记路由时为空
+     */
+    public Optional<String> shardOfPaymentCode(String code) {
+        if (!isSharded()) {
+            return Optional.of(getDefaultShard());
+        }
+        return routeIndex.findShardByCode(code);
+    }
+
+    /**
+     * 按分片对支付单ID分组（一次查询路由索引）
+     *
+     * @param paymentIds 支付单ID集合
+     * @return 分片名称到支付单ID列表的映射，未登记路由的ID被忽略
+     */
+    public Map<String, List<String>> groupPaymentIdsByShard(Collection<String> paymentIds) {
+        if (!isSharded()) {
+            return Collections.singletonMap(getDefaultShard(), new ArrayList<>(paymentIds));
+        }
+        Map<String, String> shardById = routeIndex.findShardsByPaymentIds(paymentIds);
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (String paymentId : paymentIds) {
+            String shard = shardById.get(paymentId);
+            if (shard != null) {
+                groups.computeIfAbsent(shard, key -> new ArrayList<>()).add(paymentId);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * 登记新支付单的路由，未开启分片时不做任何事
+     *
+     * @param paymentId  支付单ID
+     * @param code       支付单号
+     * @param resellerId 经销商ID
+     * @param shard      分片名称
+     */
+    public void registerRoute(String paymentId, String code, String resellerId, String shard) {
+        if (isSharded()) {
+            routeIndex.register(paymentId, code, resellerId, shard);
+        }
+    }
+
+    /**
+     * 批量登记新支付单的路由，未开启分片时不做任何事
+     *
+     * @param routes 路由列表
+     * @param shard  分片名称
+     */
+    public void registerRoutes(List<PaymentRouteIndex.Route> routes, String shard) {
+        if (isSharded() && !routes.isEmpty()) {
+            routeIndex.registerAll(routes, shard);
+        }
+    }
+
+    /**
+     * 在指定分片上执行操作（调用线程内执行，参与当前事务）
+     *
+     * @param shard  分片名称
+     * @param action 数据访问操作
+     * @return 操作结果
+     */
+    public <T> T onShard(String shard, Supplier<T> action) {
+        String transactionShard = ShardContext.transactionShard();
+        if (transactionShard != null && !transactionShard.equals(shard)) {
+            throw new IllegalStateException(
+                    String.format("事务已绑定分片 %s，不能在同一事务内访问分片 %s", transactionShard, shard));
+        }
+        String previous = ShardContext.currentShard();
+        ShardContext.setCurrentShard(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.setCurrentShard(previous);
+        }
+    }
+
+    /**
+     * 在全部分片上并行执行查询并汇总结果
+     *
+     * @param query 单分片查询，参数为分片名称
+     * @return 各分片结果合并后的列表
+     */
+    public <T> List<T> scatterGather(Function<String, List<T>> query) {
+        return scatterGather(getShards(), query);
+    }
+
+    /**
+     * 在指定分片上并行执行查询并汇总结果
+     * <p>
+     * 只涉及一个分片时在调用线程执行（可参与当前事务）；
+     * 涉及多个分片时每个分片在独立线程执行，不参与调用方事务：
+     * 调用方处于只读事务（且未被钉在主库）时，各分片查询按从库读标记路由到该分片的从库，否则走主库。
+     *
+     * @param shards 分片名称集合
+     * @param query  单分片查询，参数为分片名称
+     * @return 各分片结果合并后的列表
+     */
+    public <T> List<T> scatterGather(Collection<String> shards, Function<String, List<T>> query) {
+        if (shards.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (shards.size() == 1 || scatterExecutor == null) {
+            List<T> result = new ArrayList<>();
+            for (String shard : shards) {
+                result.addAll(onShard(shard, () -> query.apply(shard)));
+            }
+            return result;
+        }
+
+        boolean replicaRead = ReplicaReadContext.capture();
+        Map<String, CompletableFuture<List<T>>> futures = new HashMap<>(shards.size() * 2);
+        for (String shard : shards) {
+            futures.put(shard, CompletableFuture.supplyAsync(() -> ReplicaReadContext.callWith(replicaRead,
+                    () -> onShard(shard, () -> query.apply(shard))), scatterExecutor));
+        }
+        List<T> result = new ArrayList<>();
+        for (String shard : shards) {
+            try {
+                result.addAll(futures.get(shard).join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("分片查询失败: " + shard, cause);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+    private static ThreadFactory scatterThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "payment-shard-scatter-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.bytz.modules.cms.payment.infrastructure.sharding;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 分片上下文
+ * Shard Context
+ * <p>
+ * 以线程为范围保存当前要访问的物理分片，由PaymentShardRouter设置和恢复。
+ * <p>
+ * 同时记录当前事务已绑定的分片：事务的连接在第一条语句执行时确定，之后事务内所有语句
+ * 都复用该连接，因此一个事务只能访问一个分片。PaymentShardRouter据此拒绝事务内跨分片访问。
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    /**
+     * 事务资源键：当前事务绑定的分片
+     */
+    private static final Object TRANSACTION_SHARD_KEY = new Object();
+
+    private ShardContext() {
+    }
+
+    /**
+     * 当前线程要访问的分片
+     *
+     * @return 分片名称，未设置时返回null
+     */
+    public static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * 设置当前线程要访问的分片
+     *
+     * @param shard 分片名称，null表示清除
+     */
+    static void setCurrentShard(String shard) {
+        if (shard == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(shard);
+        }
+    }
+
+    /**
+     * 当前事务已绑定的分片
+     *
+     * @return 分片名称，无事务或事务尚未取连接时返回null
+     */
+    public static String transactionShard() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        return (String) TransactionSynchronizationManager.getResource(TRANSACTION_SHARD_KEY);
+    }
+
+    /**
+     * 在事务取连接时记录事务绑定的分片；事务挂起、恢复、结束时同步解绑/重绑
+     *
+     * @param shard 分片名称
+     */
+    static void bindTransactionShard(String shard) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(TRANSACTION_SHARD_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD_KEY, shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionShardBinding(shard));
+    }
+
+    /**
+     * 事务分片绑定的生命周期同步
+     */
+    private static final class TransactionShardBinding implements TransactionSynchronization {
+
+        private final String shard;
+
+        private TransactionShardBinding(String shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD_KEY);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD_KEY, shard);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD_KEY);
+        }
+    }
+}
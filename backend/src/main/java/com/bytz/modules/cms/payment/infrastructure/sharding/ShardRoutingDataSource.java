@@ -0,0 +1,61 @@
+package com.bytz.modules.cms.payment.infrastructure.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分片路由数据源
+ * Shard Routing DataSource
+ * <p>
+ * 按ShardContext中的当前分片选择物理数据源，未设置分片时使用默认分片。
+ * 与读写分离路由一样，必须包在LazyConnectionDataSourceProxy之内，
+ * 使声明式事务开启后、第一条语句执行前设置的分片仍然生效。
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final String defaultShard;
+
+    /**
+     * 构造分片路由数据源
+     *
+     * @param shardDataSources 分片名称到物理数据源的映射
+     * @param defaultShard     默认分片名称
+     */
+    public ShardRoutingDataSource(Map<String, DataSource> shardDataSources, String defaultShard) {
+        if (!shardDataSources.containsKey(defaultShard)) {
+            throw new IllegalArgumentException("默认分片不存在: " + defaultShard);
+        }
+        this.defaultShard = defaultShard;
+        setTargetDataSources(new HashMap<>(shardDataSources));
+        setDefaultTargetDataSource(shardDataSources.get(defaultShard));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * 获取分片的物理数据源
+     *
+     * @param shard 分片名称
+     * @return 物理数据源
+     */
+    public DataSource getShardDataSource(String shard) {
+        DataSource dataSource = getResolvedDataSources().get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("分片不存在: " + shard);
+        }
+        return dataSource;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.currentShard();
+        if (shard == null) {
+            shard = defaultShard;
+        }
+        ShardContext.bindTransactionShard(shard);
+        return shard;
+    }
+}
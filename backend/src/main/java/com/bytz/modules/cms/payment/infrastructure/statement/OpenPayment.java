@@ -0,0 +1,35 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 待匹配支付单（内存索引条目）
+ * Open Payment
+ * <p>
+ * 匹配后标记为已占用，各索引结构在读取时跳过已占用条目
+ */
+@Getter
+final class OpenPayment {
+
+    private final String id;
+    private final String resellerId;
+    private final String currency;
+    private final BigDecimal pendingAmount;
+    private final LocalDateTime paymentDeadline;
+    private boolean taken;
+
+    OpenPayment(String id, String resellerId, String currency, BigDecimal pendingAmount, LocalDateTime paymentDeadline) {
+        this.id = id;
+        this.resellerId = resellerId;
+        this.currency = currency;
+        this.pendingAmount = pendingAmount;
+        this.paymentDeadline = paymentDeadline;
+    }
+
+    void take() {
+        this.taken = true;
+    }
+}
@@ -0,0 +1,215 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 待匹配支付单内存索引
+ * Open Payment Index
+ * <p>
+ * 按（经销商, 币种）哈希分桶，桶内三种视图共享同一批条目：
+ * - 金额哈希：待支付金额 → 支付单队列，精确匹配 O(1)
+ * - 金额有序表：与哈希共享队列，容差匹配取容差范围内金额最接近的一组
+ * - 到期顺序列表：截止时间先到期在前（无截止时间排最后），合并匹配按此顺序累加
+ * <p>
+ * 同金额的支付单按到期顺序排队，先到期的先被匹配。条目被占用后只做标记，
+ * 各视图读取时跳过并顺带清理，不做随机删除。非线程安全，一次导入一个索引。
+ */
+public final class OpenPaymentIndex {
+
+    private static final Comparator<OpenPayment> DUE_ORDER = Comparator
+            .comparing(OpenPayment::getPaymentDeadline, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(OpenPayment::getId);
+
+    private final Map<String, Bucket> buckets = new HashMap<>();
+    private final int size;
+
+    /**
+     * @param payments 可支付的支付单（需含ID、经销商、币种、待支付金额、截止时间）
+     */
+    public OpenPaymentIndex(Collection<PaymentEntity> payments) {
+        List<OpenPayment> entries = new ArrayList<>(payments.size());
+        for (PaymentEntity payment : payments) {
+            if (payment.getPendingAmount() != null && payment.getPendingAmount().signum() > 0) {
+                entries.add(new OpenPayment(payment.getId(), payment.getResellerId(), payment.getCurrency(),
+                        payment.getPendingAmount(), payment.getPaymentDeadline()));
+            }
+        }
+        entries.sort(DUE_ORDER);
+        for (OpenPayment entry : entries) {
+            buckets.computeIfAbsent(bucketKey(entry.getResellerId(), entry.getCurrency()), key -> new Bucket()).add(entry);
+        }
+        this.size = entries.size();
+    }
+
+    /**
+     * 索引的支付单数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 占用待支付金额等于到账金额的支付单（同金额取最先到期的）
+     *
+     * @return 被占用的支付单，没有时为空
+     */
+    OpenPayment takeExact(String resellerId, String currency, BigDecimal amount) {
+        Bucket bucket = buckets.get(bucketKey(resellerId, currency));
+        if (bucket == null) {
+            return null;
+        }
+        BigDecimal key = amountKey(amount);
+        ArrayDeque<OpenPayment> queue = bucket.byAmount.get(key);
+        OpenPayment head = bucket.liveHead(key, queue);
+        return head == null ? null : bucket.take(key, queue);
+    }
+
+    /**
+     * 占用待支付金额与到账金额之差在容差以内且最接近的支付单；差值相同时取待支付金额较小的（到账可全额结清）
+     *
+     * @return 被占用的支付单，没有时为空
+     */
+    OpenPayment takeClosest(String resellerId, String currency, BigDecimal amount, BigDecimal tolerance) {
+        Bucket bucket = buckets.get(bucketKey(resellerId, currency));
+        if (bucket == null) {
+            return null;
+        }
+        Map.Entry<BigDecimal, ArrayDeque<OpenPayment>> below = bucket.liveEntry(bucket.sortedByAmount.floorEntry(amount), true);
+        Map.Entry<BigDecimal, ArrayDeque<OpenPayment>> above = bucket.liveEntry(bucket.sortedByAmount.ceilingEntry(amount), false);
+        BigDecimal belowDiff = below == null ? null : amount.subtract(below.getKey());
+        BigDecimal aboveDiff = above == null ? null : above.getKey().subtract(amount);
+        Map.Entry<BigDecimal, ArrayDeque<OpenPayment>> closest;
+        if (belowDiff != null && belowDiff.compareTo(tolerance) <= 0
+                && (aboveDiff == null || belowDiff.compareTo(aboveDiff) <= 0)) {
+            closest = below;
+        } else if (aboveDiff != null && aboveDiff.compareTo(tolerance) <= 0) {
+            closest = above;
+        } else {
+            return null;
+        }
+        return bucket.take(closest.getKey(), closest.getValue());
+    }
+
+    /**
+     * 按到期顺序从最早的未占用支付单起累加待支付金额，累计金额与到账金额之差在容差以内且不少于两单时全部占用
+     * （银行附言不含支付单号时，经销商通常按到期顺序一次付清多单）
+     *
+     * @return 被占用的支付单（按到期顺序），没有时为空
+     */
+    List<OpenPayment> takeDuePrefix(String resellerId, String currency, BigDecimal amount, BigDecimal tolerance) {
+        Bucket bucket = buckets.get(bucketKey(resellerId, currency));
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        BigDecimal lowest = amount.subtract(tolerance);
+        BigDecimal highest = amount.add(tolerance);
+        List<OpenPayment> covered = new ArrayList<>();
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = bucket.firstLiveDue(); i < bucket.byDue.size() && sum.compareTo(lowest) < 0; i++) {
+            OpenPayment entry = bucket.byDue.get(i);
+            if (!entry.isTaken()) {
+                covered.add(entry);
+                sum = sum.add(entry.getPendingAmount());
+            }
+        }
+        if (covered.size() < 2 || sum.compareTo(lowest) < 0 || sum.compareTo(highest) > 0) {
+            return Collections.emptyList();
+        }
+        covered.forEach(OpenPayment::take);
+        return covered;
+    }
+
+    private static String bucketKey(String resellerId, String currency) {
+        return resellerId + '\u0001' + currency;
+    }
+
+    /**
+     * 哈希键：去除尾零，使 100 与 100.00 落在同一键
+     */
+    private static BigDecimal amountKey(BigDecimal amount) {
+        return amount.signum() == 0 ? BigDecimal.ZERO : amount.stripTrailingZeros();
+    }
+
+    /**
+     * 一个（经销商, 币种）的待匹配支付单
+     */
+    private static final class Bucket {
+
+        private final Map<BigDecimal, ArrayDeque<OpenPayment>> byAmount = new HashMap<>();
+        private final TreeMap<BigDecimal, ArrayDeque<OpenPayment>> sortedByAmount = new TreeMap<>();
+        private final List<OpenPayment> byDue = new ArrayList<>();
+        private int dueCursor;
+
+        /**
+         * 按到期顺序追加条目
+         */
+        void add(OpenPayment entry) {
+            BigDecimal key = amountKey(entry.getPendingAmount());
+            ArrayDeque<OpenPayment> queue = byAmount.get(key);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                byAmount.put(key, queue);
+                sortedByAmount.put(key, queue);
+            }
+            queue.addLast(entry);
+            byDue.add(entry);
+        }
+
+        /**
+         * 队首未占用条目；队列已空时从两个金额视图中移除
+         */
+        OpenPayment liveHead(BigDecimal key, ArrayDeque<OpenPayment> queue) {
+            if (queue == null) {
+                return null;
+            }
+            while (!queue.isEmpty() && queue.peekFirst().isTaken()) {
+                queue.pollFirst();
+            }
+            if (queue.isEmpty()) {
+                byAmount.remove(key);
+                sortedByAmount.remove(key);
+                return null;
+            }
+            return queue.peekFirst();
+        }
+
+        /**
+         * 从给定位置向下（或向上）找到第一个仍有未占用条目的金额
+         */
+        Map.Entry<BigDecimal, ArrayDeque<OpenPayment>> liveEntry(Map.Entry<BigDecimal, ArrayDeque<OpenPayment>> entry,
+                                                                 boolean descending) {
+            while (entry != null && liveHead(entry.getKey(), entry.getValue()) == null) {
+                entry = descending ? sortedByAmount.lowerEntry(entry.getKey()) : sortedByAmount.higherEntry(entry.getKey());
+            }
+            return entry;
+        }
+
+        OpenPayment take(BigDecimal key, ArrayDeque<OpenPayment> queue) {
+            OpenPayment head = queue.pollFirst();
+            head.take();
+            if (queue.isEmpty()) {
+                byAmount.remove(key);
+                sortedByAmount.remove(key);
+            }
+            return head;
+        }
+
+        int firstLiveDue() {
+            while (dueCursor < byDue.size() && byDue.get(dueCursor).isTaken()) {
+                dueCursor++;
+            }
+            return dueCursor;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * 银行对账单文件解析器
+ * Bank Statement File Parser
+ * <p>
+ * 文件格式：UTF-8，每行一笔到账，逗号分隔（不支持引号转义），首行可为以 reference 开头的表头：
+ * <pre>
+ * reference,resellerId,amount,currency,valueDate
+ * B20240101000001,RESELLER-001,1280.50,CNY,2024-01-01
+ * </pre>
+ * 按窗口内存映射文件（不经过堆内缓冲和逐字节的流读取），在映射区内直接扫描换行与分隔符；
+ * 金额按字节累加为定点数、日期按固定位置解析，每行只为流水号、经销商ID、币种创建字符串。
+ * 跨窗口的末行从下一个窗口的行首重新映射，单行长度不能超过窗口大小。
+ */
+public final class StatementFileParser {
+
+    /**
+     * 默认映射窗口大小
+     */
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final String HEADER_PREFIX = "reference";
+    private static final int FIELD_COUNT = 5;
+
+    private StatementFileParser() {
+    }
+
+    /**
+     * 解析对账单文件
+     *
+     * @param file     对账单文件
+     * @param consumer 到账行消费者（按文件顺序回调）
+     * @return 到账行数（不含表头与空行）
+     * @throws IllegalArgumentException 如果某行格式错误（消息含行号）
+     */
+    public static int parse(Path file, Consumer<StatementLine> consumer) throws IOException {
+        return parse(file, DEFAULT_WINDOW_SIZE, consumer);
+    }
+
+    static int parse(Path file, int windowSize, Consumer<StatementLine> consumer) throws IOException {
+        LineParser parser = new LineParser(consumer);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(windowSize, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+                int lineStart = position == 0 ? skipBom(buffer, length) : 0;
+                for (int i = lineStart; i < length; i++) {
+                    if (buffer.get(i) == '\n') {
+                        parser.parse(buffer, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                if (lastWindow) {
+                    if (lineStart < length) {
+                        parser.parse(buffer, lineStart, length);
+                    }
+                    position = size;
+                } else if (lineStart == 0) {
+                    throw new IllegalArgumentException("对账单第" + (parser.lineNumber + 1) + "行超过最大长度 " + windowSize);
+                } else {
+                    position += lineStart;
+                }
+            }
+        }
+        return parser.count;
+    }
+
+    private static int skipBom(MappedByteBuffer buffer, int length) {
+        boolean bom = length >= 3 && (buffer.get(0) & 0xFF) == 0xEF
+                && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF;
+        return bom ? 3 : 0;
+    }
+
+    /**
+     * 逐行解析状态：行号、到账行数、复用的字段位置与字符串缓冲
+     */
+    private static final class LineParser {
+
+        private final Consumer<StatementLine> consumer;
+        private final int[] fieldStarts = new int[FIELD_COUNT];
+        private final int[] fieldEnds = new int[FIELD_COUNT];
+        private byte[] scratch = new byte[64];
+        private int lineNumber;
+        private int count;
+
+        LineParser(Consumer<StatementLine> consumer) {
+            this.consumer = consumer;
+        }
+
+        void parse(MappedByteBuffer buffer, int from, int to) {
+            lineNumber++;
+            if (to > from && buffer.get(to - 1) == '\r') {
+                to--;
+            }
+            if (isBlank(buffer, from, to)) {
+                return;
+            }
+            int fields = 0;
+            int fieldStart = from;
+            for (int i = from; i <= to; i++) {
+                if (i == to || buffer.get(i) == ',') {
+                    if (fields == FIELD_COUNT) {
+                        throw malformed("字段数超过" + FIELD_COUNT);
+                    }
+                    fieldStarts[fields] = fieldStart;
+                    fieldEnds[fields] = i;
+                    fields++;
+                    fieldStart = i + 1;
+                }
+            }
+            if (fields != FIELD_COUNT) {
+                throw malformed("字段数应为" + FIELD_COUNT + "，实际为" + fields);
+            }
+            String reference = text(buffer, 0);
+            if (lineNumber == 1 && HEADER_PREFIX.equalsIgnoreCase(reference)) {
+                return;
+            }
+            String resellerId = text(buffer, 1);
+            if (reference.isEmpty() || resellerId.isEmpty()) {
+                throw malformed("银行流水号与经销商ID不能为空");
+            }
+            consumer.accept(new StatementLine(lineNumber, reference, resellerId,
+                    amount(buffer, 2), text(buffer, 3), date(buffer, 4)));
+            count++;
+        }
+
+        /**
+         * 字段文本（去除首尾空格）
+         */
+        private String text(MappedByteBuffer buffer, int field) {
+            int from = fieldStarts[field];
+            int to = fieldEnds[field];
+            while (from < to && buffer.get(from) == ' ') {
+                from++;
+            }
+            while (to > from && buffer.get(to - 1) == ' ') {
+                to--;
+            }
+            int length = to - from;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                scratch[i] = buffer.get(from + i);
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * 金额：可选负号、整数部分、可选小数部分，按字节累加为定点数；超过18位有效数字时按文本解析
+         */
+        private BigDecimal amount(MappedByteBuffer buffer, int field) {
+            int from = fieldStarts[field];
+            int to = fieldEnds[field];
+            while (from < to && buffer.get(from) == ' ') {
+                from++;
+            }
+            while (to > from && buffer.get(to - 1) == ' ') {
+                to--;
+            }
+            boolean negative = from < to && buffer.get(from) == '-';
+            int i = negative ? from + 1 : from;
+            long unscaled = 0;
+            int digits = 0;
+            int scale = -1;
+            for (; i < to; i++) {
+                byte b = buffer.get(i);
+                if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else if (b >= '0' && b <= '9') {
+                    unscaled = unscaled * 10 + (b - '0');
+                    digits++;
+                    if (scale >= 0) {
+                        scale++;
+                    }
+                } else {
+                    throw malformed("金额格式错误: " + text(buffer, field));
+                }
+            }
+            if (digits == 0) {
+                throw malformed("金额不能为空");
+            }
+            if (digits > 18) {
+                return new BigDecimal(text(buffer, field));
+            }
+            return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+        }
+
+        /**
+         * 日期：yyyy-MM-dd
+         */
+        private LocalDate date(MappedByteBuffer buffer, int field) {
+            int from = fieldStarts[field];
+            int to = fieldEnds[field];
+            while (from < to && buffer.get(from) == ' ') {
+                from++;
+            }
+            while (to > from && buffer.get(to - 1) == ' ') {
+                to--;
+            }
+            if (to - from != 10 || buffer.get(from + 4) != '-' || buffer.get(from + 7) != '-') {
+                throw malformed("起息日格式应为yyyy-MM-dd: " + text(buffer, field));
+            }
+            try {
+                return LocalDate.of(digits(buffer, from, 4), digits(buffer, from + 5, 2), digits(buffer, from + 8, 2));
+            } catch (DateTimeException e) {
+                throw malformed("起息日无效: " + text(buffer, field));
+            }
+        }
+
+        private int digits(MappedByteBuffer buffer, int from, int length) {
+            int value = 0;
+            for (int i = from; i < from + length; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    throw malformed("起息日格式应为yyyy-MM-dd");
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        private static boolean isBlank(MappedByteBuffer buffer, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (buffer.get(i) != ' ' && buffer.get(i) != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private IllegalArgumentException malformed(String reason) {
+            return new IllegalArgumentException("对账单第" + lineNumber + "行格式错误，" + reason);
+        }
+    }
+}
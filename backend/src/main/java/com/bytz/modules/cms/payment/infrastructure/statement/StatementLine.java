@@ -0,0 +1,48 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 银行对账单到账行
+ * Bank Statement Line
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StatementLine {
+    
+    /**
+     * 文件中的行号（从1开始）
+     */
+    private final int lineNumber;
+    
+    /**
+     * 银行流水号
+     */
+    private final String reference;
+    
+    /**
+     * 付款经销商ID（银行附言中的客户识别码）
+     */
+    private final String resellerId;
+    
+    /**
+     * 到账金额
+     */
+    private final BigDecimal amount;
+    
+    /**
+     * 币种
+     */
+    private final String currency;
+    
+    /**
+     * 起息日
+     */
+    private final LocalDate valueDate;
+}
@@ -0,0 +1,40 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import com.bytz.modules.cms.payment.domain.enums.StatementMatchType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 到账行匹配结果
+ * Statement Match
+ * <p>
+ * 一笔到账与其结算的支付单（合并匹配时多个），各支付单的结算金额之和不超过到账金额
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StatementMatch {
+
+    private final StatementLine line;
+
+    private final StatementMatchType matchType;
+
+    private final List<Allocation> allocations;
+
+    /**
+     * 到账在单个支付单上的结算金额
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Allocation {
+
+        private final String paymentId;
+
+        private final BigDecimal amount;
+    }
+}
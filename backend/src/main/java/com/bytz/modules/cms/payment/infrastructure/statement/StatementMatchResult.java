@@ -0,0 +1,35 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 对账单匹配结果
+ * Statement Match Result
+ */
+@Getter
+@AllArgsConstructor
+public class StatementMatchResult {
+
+    /**
+     * 到账行数
+     */
+    private final int totalLines;
+
+    /**
+     * 已匹配的到账（按匹配轮次，轮次内按文件顺序）
+     */
+    private final List<StatementMatch> matches;
+
+    /**
+     * 未匹配的到账（按文件顺序，含非正金额的出账行）
+     */
+    private final List<StatementLine> unmatched;
+
+    /**
+     * 文件内银行流水号重复的到账（只处理首次出现的行）
+     */
+    private final List<StatementLine> duplicates;
+}
@@ -0,0 +1,102 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import com.bytz.modules.cms.payment.domain.enums.StatementMatchType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 对账单批量匹配
+ * Statement Matcher
+ * <p>
+ * 对全部到账依次做三轮匹配，每轮只处理上一轮剩下的到账：
+ * 1. 精确匹配：同经销商、同币种、待支付金额等于到账金额
+ * 2. 容差匹配：差值在容差以内、金额最接近的支付单，结算金额取到账金额与待支付金额的较小者
+ * 3. 合并匹配：按到期顺序累加同经销商的支付单，累计金额与到账金额之差在容差以内时一并结算
+ * <p>
+ * 先让全部到账完成精确匹配，避免逐行三轮时前面的容差/合并匹配占用后面到账的精确匹配对象。
+ * 每轮每行只做哈希查找或有序表邻近查找，整体与到账行数、支付单数成线性关系。
+ */
+public final class StatementMatcher {
+
+    private StatementMatcher() {
+    }
+
+    /**
+     * 匹配到账与待匹配支付单
+     *
+     * @param lines     到账行（文件顺序）
+     * @param index     待匹配支付单索引（匹配过程中被占用）
+     * @param tolerance 容差
+     * @return 匹配结果
+     */
+    public static StatementMatchResult match(List<StatementLine> lines, OpenPaymentIndex index, BigDecimal tolerance) {
+        List<StatementLine> pending = new ArrayList<>(lines.size());
+        List<StatementLine> unmatched = new ArrayList<>();
+        List<StatementLine> duplicates = new ArrayList<>();
+        Set<String> references = new HashSet<>(lines.size() * 2);
+        for (StatementLine line : lines) {
+            if (!references.add(line.getReference())) {
+                duplicates.add(line);
+            } else if (line.getAmount().signum() <= 0) {
+                unmatched.add(line);
+            } else {
+                pending.add(line);
+            }
+        }
+
+        List<StatementMatch> matches = new ArrayList<>(pending.size());
+        List<StatementLine> remaining = new ArrayList<>(pending.size());
+
+        // ========== 第1轮: 精确匹配 ==========
+        for (StatementLine line : pending) {
+            OpenPayment payment = index.takeExact(line.getResellerId(), line.getCurrency(), line.getAmount());
+            if (payment != null) {
+                matches.add(single(line, StatementMatchType.EXACT, payment, payment.getPendingAmount()));
+            } else {
+                remaining.add(line);
+            }
+        }
+
+        // ========== 第2轮: 容差匹配 ==========
+        pending = remaining;
+        remaining = new ArrayList<>(pending.size());
+        for (StatementLine line : pending) {
+            OpenPayment payment = index.takeClosest(line.getResellerId(), line.getCurrency(), line.getAmount(), tolerance);
+            if (payment != null) {
+                matches.add(single(line, StatementMatchType.TOLERANCE, payment, line.getAmount().min(payment.getPendingAmount())));
+            } else {
+                remaining.add(line);
+            }
+        }
+
+        // ========== 第3轮: 合并匹配 ==========
+        for (StatementLine line : remaining) {
+            List<OpenPayment> payments = index.takeDuePrefix(line.getResellerId(), line.getCurrency(), line.getAmount(), tolerance);
+            if (payments.isEmpty()) {
+                unmatched.add(line);
+                continue;
+            }
+            List<StatementMatch.Allocation> allocations = new ArrayList<>(payments.size());
+            BigDecimal left = line.getAmount();
+            for (OpenPayment payment : payments) {
+                BigDecimal amount = left.min(payment.getPendingAmount());
+                allocations.add(new StatementMatch.Allocation(payment.getId(), amount));
+                left = left.subtract(amount);
+            }
+            matches.add(new StatementMatch(line, StatementMatchType.MANY_TO_ONE, allocations));
+        }
+
+        unmatched.sort((a, b) -> Integer.compare(a.getLineNumber(), b.getLineNumber()));
+        return new StatementMatchResult(lines.size(), matches, unmatched, duplicates);
+    }
+
+    private static StatementMatch single(StatementLine line, StatementMatchType type, OpenPayment payment, BigDecimal amount) {
+        return new StatementMatch(line, type,
+                Collections.singletonList(new StatementMatch.Allocation(payment.getId(), amount)));
+    }
+}
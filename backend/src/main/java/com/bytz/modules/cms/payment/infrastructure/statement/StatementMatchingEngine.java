@@ -0,0 +1,116 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import com.bytz.modules.cms.payment.infrastructure.config.WireTransferProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
+import com.bytz.modules.cms.payment.infrastructure.search.PayablePaymentReader;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 电汇对账单匹配引擎
+ * Statement Matching Engine
+ * <p>
+ * 1. 内存映射解析对账单文件
+ * 2. 按分片并行、按经销商分批读取对账单涉及经销商的全部可支付支付单，建立内存索引
+ * 3. 三轮批量匹配（精确、容差、合并）
+ * <p>
+ * 只读不写：结算由应用层按匹配结果分批调用领域服务完成
+ */
+@Slf4j
+@Component
+public class StatementMatchingEngine {
+
+    private final PaymentMapper paymentMapper;
+    private final PaymentShardRouter shardRouter;
+    private final WireTransferProperties properties;
+
+    public StatementMatchingEngine(PaymentMapper paymentMapper,
+                                   PaymentShardRouter shardRouter,
+                                   WireTransferProperties properties) {
+        this.paymentMapper = paymentMapper;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+    }
+
+    /**
+     * 解析并匹配对账单目录下的文件
+     *
+     * @param fileName 对账单文件名（相对对账单目录）
+     * @return 匹配结果
+     * @throws IllegalArgumentException 如果文件不在对账单目录下、不存在或格式错误
+     */
+    public StatementMatchResult match(String fileName) {
+        Path file = resolve(fileName);
+        long start = System.nanoTime();
+
+        List<StatementLine> lines = new ArrayList<>();
+        try {
+            StatementFileParser.parse(file, lines::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取对账单失败: " + file, e);
+        }
+        long parsed = System.nanoTime();
+
+        OpenPaymentIndex index = new OpenPaymentIndex(loadOpenPayments(lines));
+        long indexed = System.nanoTime();
+
+        StatementMatchResult result = StatementMatcher.match(lines, index, properties.getAmountTolerance());
+        log.info("对账单匹配完成，文件: {}, 到账行数: {}, 待匹配支付单: {}, 已匹配: {}, 未匹配: {}, 重复: {}, "
+                        + "解析耗时: {}ms, 加载耗时: {}ms, 匹配耗时: {}ms",
+                fileName, result.getTotalLines(), index.size(), result.getMatches().size(),
+                result.getUnmatched().size(), result.getDuplicates().size(),
+                (parsed - start) / 1_000_000, (indexed - parsed) / 1_000_000, (System.nanoTime() - indexed) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * 对账单涉及经销商的全部可支付支付单：经销商按分片分组，各分片并行、每批 loadBatchSize 个经销商一次查询
+     */
+    private List<PaymentEntity> loadOpenPayments(List<StatementLine> lines) {
+        Map<String, List<String>> resellersByShard = new LinkedHashMap<>();
+        Set<String> resellerIds = new LinkedHashSet<>();
+        for (StatementLine line : lines) {
+            if (resellerIds.add(line.getResellerId())) {
+                resellersByShard.computeIfAbsent(shardRouter.shardOfReseller(line.getResellerId()),
+                        shard -> new ArrayList<>()).add(line.getResellerId());
+            }
+        }
+        int batchSize = properties.getLoadBatchSize();
+        return shardRouter.scatterGather(resellersByShard.keySet(), shard -> {
+            List<String> shardResellers = resellersByShard.get(shard);
+            List<PaymentEntity> payments = new ArrayList<>();
+            for (int from = 0; from < shardResellers.size(); from += batchSize) {
+                payments.addAll(paymentMapper.selectOpenByResellerIds(
+                        shardResellers.subList(from, Math.min(from + batchSize, shardResellers.size())),
+                        PayablePaymentReader.PAYABLE_STATUSES));
+            }
+            return payments;
+        });
+    }
+
+    private Path resolve(String fileName) {
+        if (fileName == null || fileName.trim().isEmpty()) {
+            throw new IllegalArgumentException("对账单文件名不能为空");
+        }
+        Path directory = Paths.get(properties.getStatementDirectory()).toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("对账单文件不存在: " + fileName);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,187 @@
+package com.bytz.modules.cms.payment.infrastructure.summary;
+
+import com.bytz.modules.cms.payment.infrastructure.config.ResellerSummaryProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.ResellerPaymentSummaryEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.ResellerPaymentSummaryMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * 经销商汇总对账任务
+ * Reseller Summary Reconcile Job
+ * <p>
+ * 汇总表以增量维护，手工改库、历史数据导入等绕过仓储的写入会使其偏离。
+ * 本任务在每个分片上按经销商ID游标分批，从支付单表与归档表重算汇总并与汇总表比对，
+ * 有偏差的经销商整体重写并记录日志。
+ * <p>
+ * 每批一个短事务：先 FOR UPDATE 锁定这批经销商的汇总行（含间隙），并发保存在累加汇总时等待，
+ * 随后的一致性读看到的支付单与锁定时的汇总一致；批次之间停顿。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.reseller-summary", name = "reconcile-enabled", havingValue = "true")
+public class ResellerSummaryReconcileJob {
+
+    private final ResellerPaymentSummaryMapper summaryMapper;
+    private final PaymentShardRouter shardRouter;
+    private final ResellerSummaryProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public ResellerSummaryReconcileJob(ResellerPaymentSummaryMapper summaryMapper,
+                                       PaymentShardRouter shardRouter,
+                                       ResellerSummaryProperties properties,
+                                       PlatformTransactionManager transactionManager) {
+        this.summaryMapper = summaryMapper;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 定时执行对账
+     */
+    @Scheduled(cron = "${payment.reseller-summary.reconcile-cron:0 0 4 * * ?}")
+    public void run() {
+        log.info("开始经销商汇总对账");
+        for (String shard : shardRouter.getShards()) {
+            try {
+                int corrected = shardRouter.onShard(shard, this::reconcileShard);
+                log.info("分片 {} 汇总对账完成，校正经销商: {}", shard, corrected);
+            } catch (InterruptedRuntimeException e) {
+                log.warn("汇总对账任务被中断，分片: {}", shard);
+                return;
+            } catch (RuntimeException e) {
+                // 单个分片失败不影响其他分片，下次运行从头继续
+                log.error("分片 {} 汇总对账失败", shard, e);
+            }
+        }
+    }
+
+    /**
+     * 对账当前分片
+     *
+     * @return 校正的经销商数
+     */
+    int reconcileShard() {
+        int corrected = 0;
+        String afterResellerId = "";
+        while (true) {
+            List<String> resellerIds = summaryMapper.selectResellerIds(afterResellerId, properties.getChunkSize());
+            if (resellerIds.isEmpty()) {
+                break;
+            }
+            afterResellerId = resellerIds.get(resellerIds.size() - 1);
+            Integer chunkCorrected = transactionTemplate.execute(status -> reconcileChunk(resellerIds));
+            corrected += chunkCorrected == null ? 0 : chunkCorrected;
+            if (resellerIds.size() < properties.getChunkSize()) {
+                break;
+            }
+            pause();
+        }
+        return corrected;
+    }
+
+    private int reconcileChunk(List<String> resellerIds) {
+        Map<String, Map<String, ResellerPaymentSummaryEntity>> current =
+                byReseller(summaryMapper.lockByResellerIds(resellerIds));
+        Map<String, Map<String, ResellerPaymentSummaryEntity>> derived =
+                byReseller(summaryMapper.deriveByResellerIds(resellerIds));
+
+        int corrected = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (String resellerId : resellerIds) {
+            Map<String, ResellerPaymentSummaryEntity> expected = derived.getOrDefault(resellerId, new HashMap<>());
+            if (matches(current.getOrDefault(resellerId, new HashMap<>()), expected)) {
+                continue;
+            }
+            log.warn("经销商汇总偏差，已按支付单重算，经销商ID: {}, 汇总行: {}, 重算行: {}",
+                    resellerId, current.get(resellerId), expected.values());
+            summaryMapper.deleteByResellerIds(Collections.singletonList(resellerId));
+            for (ResellerPaymentSummaryEntity row : expected.values()) {
+                row.setUpdateTime(now);
+                summaryMapper.insert(row);
+            }
+            corrected++;
+        }
+        return corrected;
+    }
+
+    /**
+     * 比对汇总行与重算行：计数与金额全为零的汇总行视同不存在
+     */
+    static boolean matches(Map<String, ResellerPaymentSummaryEntity> current,
+                           Map<String, ResellerPaymentSummaryEntity> expected) {
+        Set<String> keys = new TreeSet<>(current.keySet());
+        keys.addAll(expected.keySet());
+        for (String key : keys) {
+            ResellerPaymentSummaryEntity actual = current.get(key);
+            ResellerPaymentSummaryEntity wanted = expected.get(key);
+            if (count(actual) != count(wanted)
+                    || amount(actual, ResellerPaymentSummaryEntity::getPaymentAmount)
+                    .compareTo(amount(wanted, ResellerPaymentSummaryEntity::getPaymentAmount)) != 0
+                    || amount(actual, ResellerPaymentSummaryEntity::getPaidAmount)
+                    .compareTo(amount(wanted, ResellerPaymentSummaryEntity::getPaidAmount)) != 0
+                    || amount(actual, ResellerPaymentSummaryEntity::getRefundedAmount)
+                    .compareTo(amount(wanted, ResellerPaymentSummaryEntity::getRefundedAmount)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Map<String, ResellerPaymentSummaryEntity>> byReseller(List<ResellerPaymentSummaryEntity> rows) {
+        Map<String, Map<String, ResellerPaymentSummaryEntity>> result = new HashMap<>();
+        for (ResellerPaymentSummaryEntity row : rows) {
+            result.computeIfAbsent(row.getResellerId(), k -> new HashMap<>())
+                    .put(row.getCurrency() + '\u0000' + row.getPaymentStatus(), row);
+        }
+        return result;
+    }
+
+    private static long count(ResellerPaymentSummaryEntity row) {
+        return row == null || row.getPaymentCount() == null ? 0L : row.getPaymentCount();
+    }
+
+    private static BigDecimal amount(ResellerPaymentSummaryEntity row,
+                                     Function<ResellerPaymentSummaryEntity, BigDecimal> getter) {
+        BigDecimal value = row == null ? null : getter.apply(row);
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private void pause() {
+        long millis = properties.getPause().toMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedRuntimeException();
+        }
+    }
+
+    /**
+     * 批次停顿期间线程被中断（应用关闭）
+     */
+    private static final class InterruptedRuntimeException extends RuntimeException {
+        private InterruptedRuntimeException() {
+            super(null, null, false, false);
+        }
+    }
+}
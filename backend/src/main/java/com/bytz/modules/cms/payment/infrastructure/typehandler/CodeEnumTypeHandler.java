@@ -0,0 +1,80 @@
+package com.bytz.modules.cms.payment.infrastructure.typehandler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 按编码映射的枚举类型处理器
+ * Code Enum Type Handler
+ * <p>
+ * 枚举以 code 字段存库（与 @EnumValue 标注一致）。构造时预先建立"编码 → 枚举"查找表，
+ * 读取时一次Map查找；MyBatis-Plus默认的枚举处理器每行都要复制枚举常量数组并逐个反射读取编码比较。
+ * <p>
+ * 与默认处理器行为一致：编码两端空白忽略，未知编码返回null
+ *
+ * @param <E> 枚举类型
+ */
+public class CodeEnumTypeHandler<E extends Enum<E>> extends BaseTypeHandler<E> {
+
+    private final Class<E> enumType;
+    private final Function<E, String> codeOf;
+    private final Map<String, E> byCode;
+
+    public CodeEnumTypeHandler(Class<E> enumType, Function<E, String> codeOf) {
+        this.enumType = enumType;
+        this.codeOf = codeOf;
+        E[] constants = enumType.getEnumConstants();
+        this.byCode = new HashMap<>(constants.length * 2);
+        for (E constant : constants) {
+            if (byCode.put(codeOf.apply(constant), constant) != null) {
+                throw new IllegalArgumentException("枚举编码重复: " + enumType.getSimpleName() + "." + constant);
+            }
+        }
+    }
+
+    public Class<E> getEnumType() {
+        return enumType;
+    }
+
+    /**
+     * 根据编码查找枚举
+     *
+     * @param code 编码
+     * @return 枚举，编码为null或未知时返回null
+     */
+    public E fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        E value = byCode.get(code);
+        return value != null ? value : byCode.get(code.trim());
+    }
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, E parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, codeOf.apply(parameter));
+    }
+
+    @Override
+    public E getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return fromCode(rs.getString(columnName));
+    }
+
+    @Override
+    public E getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return fromCode(rs.getString(columnIndex));
+    }
+
+    @Override
+    public E getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return fromCode(cs.getString(columnIndex));
+    }
+}
@@ -0,0 +1,67 @@
+package com.bytz.modules.cms.payment.infrastructure.typehandler;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RefundStatus;
+import com.bytz.modules.cms.payment.domain.enums.RelatedBusinessType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 支付模块枚举类型处理器
+ * Payment Enum Type Handlers
+ * <p>
+ * 支付单与流水表中全部按编码存储的枚举字段各一个处理器（查找表在类加载时建立一次），
+ * 注册到MyBatis后取代默认枚举处理器；手写的行映射器（见PaymentRowReader）也直接使用
+ */
+public final class PaymentEnumTypeHandlers {
+
+    public static final CodeEnumTypeHandler<PaymentType> PAYMENT_TYPE =
+            new CodeEnumTypeHandler<>(PaymentType.class, PaymentType::getCode);
+
+    public static final CodeEnumTypeHandler<PaymentStatus> PAYMENT_STATUS =
+            new CodeEnumTypeHandler<>(PaymentStatus.class, PaymentStatus::getCode);
+
+    public static final CodeEnumTypeHandler<RefundStatus> REFUND_STATUS =
+            new CodeEnumTypeHandler<>(RefundStatus.class, RefundStatus::getCode);
+
+    public static final CodeEnumTypeHandler<RelatedBusinessType> RELATED_BUSINESS_TYPE =
+            new CodeEnumTypeHandler<>(RelatedBusinessType.class, RelatedBusinessType::getCode);
+
+    public static final CodeEnumTypeHandler<TransactionType> TRANSACTION_TYPE =
+            new CodeEnumTypeHandler<>(TransactionType.class, TransactionType::getCode);
+
+    public static final CodeEnumTypeHandler<TransactionStatus> TRANSACTION_STATUS =
+            new CodeEnumTypeHandler<>(TransactionStatus.class, TransactionStatus::getCode);
+
+    public static final CodeEnumTypeHandler<PaymentChannel> PAYMENT_CHANNEL =
+            new CodeEnumTypeHandler<>(PaymentChannel.class, PaymentChannel::getCode);
+
+    private static final List<CodeEnumTypeHandler<?>> ALL = Collections.unmodifiableList(Arrays.asList(
+            PAYMENT_TYPE, PAYMENT_STATUS, REFUND_STATUS, RELATED_BUSINESS_TYPE,
+            TRANSACTION_TYPE, TRANSACTION_STATUS, PAYMENT_CHANNEL));
+
+    private PaymentEnumTypeHandlers() {
+    }
+
+    /**
+     * 注册全部处理器；按Java类型显式注册的处理器优先于默认枚举处理器
+     *
+     * @param registry MyBatis类型处理器注册表
+     */
+    public static void registerAll(TypeHandlerRegistry registry) {
+        for (CodeEnumTypeHandler<?> handler : ALL) {
+            register(registry, handler);
+        }
+    }
+
+    private static <E extends Enum<E>> void register(TypeHandlerRegistry registry, CodeEnumTypeHandler<E> handler) {
+        registry.register(handler.getEnumType(), handler);
+    }
+}
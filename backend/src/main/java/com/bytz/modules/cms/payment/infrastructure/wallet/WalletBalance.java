@@ -0,0 +1,34 @@
+package com.bytz.modules.cms.payment.infrastructure.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * 钱包余额状态
+ * Wallet Balance
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class WalletBalance {
+    
+    private final String resellerId;
+    
+    /**
+     * 余额（含冻结）
+     */
+    private final BigDecimal balance;
+    
+    /**
+     * 冻结金额
+     */
+    private final BigDecimal heldAmount;
+    
+    /**
+     * 可用余额 = 余额 - 冻结金额
+     */
+    private final BigDecimal availableAmount;
+}
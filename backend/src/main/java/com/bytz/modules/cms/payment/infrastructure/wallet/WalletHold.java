@@ -0,0 +1,23 @@
+package com.bytz.modules.cms.payment.infrastructure.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * 钱包冻结
+ * Wallet Hold
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class WalletHold {
+    
+    private final String holdId;
+    
+    private final String resellerId;
+    
+    private final BigDecimal amount;
+}
@@ -0,0 +1,352 @@
+package com.bytz.modules.cms.payment.infrastructure.wallet;
+
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.bytz.modules.cms.payment.domain.enums.WalletHoldStatus;
+import com.bytz.modules.cms.payment.infrastructure.config.WalletProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.WalletAccountEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.WalletHoldEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.WalletMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import com.bytz.modules.cms.payment.shared.util.GroupCommitter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 钱包余额服务
+ * Wallet Service
+ * <p>
+ * 钱包支付先冻结、再扣款或解冻。账户行不加锁读-改-写：读取余额与版本号后按版本号比较并交换，
+ * 版本号已变（其他请求先写入）时整个事务回滚，重新读取后重试。
+ * <p>
+ * - 冻结请求经组提交器汇集：同一批内同一经销商的冻结按提交顺序依次判断余额，
+ *   合并为一次账户更新和一次冻结记录批量插入，经销商一次支付数百张支付单时账户行只更新一次
+ * - 扣款与解冻按经销商合并：锁定仍为 HELD 的冻结记录后一次更新账户，重复扣款或解冻不生效
+ * - 全部写入在独立事务（REQUIRES_NEW）中进行，不随调用方事务回滚
+ */
+@Slf4j
+@Component
+public class WalletService implements DisposableBean {
+
+    private final WalletMapper walletMapper;
+    private final PaymentShardRouter shardRouter;
+    private final WalletProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final GroupCommitter<HoldRequest, HoldOutcome> holdCommitter;
+
+    public WalletService(WalletMapper walletMapper,
+                         PaymentShardRouter shardRouter,
+                         WalletProperties properties,
+                         PlatformTransactionManager transactionManager) {
+        this.walletMapper = walletMapper;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.holdCommitter = new GroupCommitter<>("wallet-hold-commit", this::writeHolds,
+                properties.getHoldWindow(), properties.getHoldMaxBatchSize());
+    }
+
+    /**
+     * 冻结余额
+     *
+     * @param resellerId 经销商ID
+     * @param amount     冻结金额
+     * @param reference  业务参考号（如支付流水号），可为空
+     * @return 冻结；可用余额不足时以 PaymentException 失败
+     */
+    public CompletableFuture<WalletHold> hold(String resellerId, BigDecimal amount, String reference) {
+        if (resellerId == null) {
+            throw new IllegalArgumentException("经销商ID不能为空");
+        }
+        requirePositive(amount);
+        return holdCommitter.submit(new HoldRequest(resellerId, amount, reference)).thenApply(HoldOutcome::get);
+    }
+
+    /**
+     * 扣款：冻结金额从余额中扣除；已扣款或已解冻的冻结忽略
+     */
+    public void capture(Collection<WalletHold> holds) {
+        settle(holds, WalletHoldStatus.CAPTURED);
+    }
+
+    /**
+     * 解冻：冻结金额退回可用余额；已扣款或已解冻的冻结忽略
+     */
+    public void release(Collection<WalletHold> holds) {
+        settle(holds, WalletHoldStatus.RELEASED);
+    }
+
+    /**
+     * 充值，账户不存在时创建
+     *
+     * @return 充值后的余额状态
+     */
+    public WalletBalance deposit(String resellerId, BigDecimal amount) {
+        return deposit(resellerId, amount, null);
+    }
+
+    /**
+     * 以入账ID幂等的充值（如退款退回，入账ID为渠道退款记录ID），账户不存在时创建
+     * <p>
+     * 入账记录与余额更新在同一事务中写入；入账ID已存在时不再入账，返回当前余额状态
+     *
+     * @param depositId 入账ID，为空时不做幂等判断
+     * @return 充值后的余额状态
+     */
+    public WalletBalance deposit(String resellerId, BigDecimal amount, String depositId) {
+        requirePositive(amount);
+        return withCasRetry(resellerId, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (depositId != null) {
+                try {
+                    walletMapper.insertDeposit(depositId, resellerId, amount, now);
+                } catch (DuplicateKeyException e) {
+                    log.info("钱包已按该入账ID入账，忽略，经销商ID: {}, 入账ID: {}", resellerId, depositId);
+                    WalletAccountEntity account = walletMapper.selectAccount(resellerId);
+                    return toBalance(resellerId, account.getBalance(), account.getHeldAmount());
+                }
+            }
+            WalletAccountEntity account = walletMapper.selectAccount(resellerId);
+            if (account == null) {
+                try {
+                    walletMapper.insertAccount(WalletAccountEntity.builder()
+                            .resellerId(resellerId)
+                            .balance(amount)
+                            .heldAmount(BigDecimal.ZERO)
+                            .version(0L)
+                            .createTime(now)
+                            .updateTime(now)
+                            .build());
+                } catch (DuplicateKeyException e) {
+                    // 其他请求已创建账户
+                    throw new CasConflictException();
+                }
+                return toBalance(resellerId, amount, BigDecimal.ZERO);
+            }
+            BigDecimal balance = account.getBalance().add(amount);
+            compareAndSet(account, balance, account.getHeldAmount(), now);
+            return toBalance(resellerId, balance, account.getHeldAmount());
+        });
+    }
+
+    /**
+     * 查询余额状态，账户不存在时余额为0
+     */
+    public WalletBalance balance(String resellerId) {
+        WalletAccountEntity account = shardRouter.onShard(shardRouter.shardOfReseller(resellerId),
+                () -> walletMapper.selectAccount(resellerId));
+        return account == null
+                ? toBalance(resellerId, BigDecimal.ZERO, BigDecimal.ZERO)
+                : toBalance(resellerId, account.getBalance(), account.getHeldAmount());
+    }
+
+    @Override
+    public void destroy() {
+        holdCommitter.close();
+    }
+
+    /**
+     * 组提交批量写入：按经销商分组，每个经销商一个事务
+     * 单个经销商失败只影响该经销商的冻结请求，不影响同批其他经销商
+     */
+    List<HoldOutcome> writeHolds(List<HoldRequest> requests) {
+        Map<String, List<Integer>> indexesByReseller = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            indexesByReseller.computeIfAbsent(requests.get(i).resellerId, k -> new ArrayList<>()).add(i);
+        }
+        List<HoldOutcome> outcomes = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        indexesByReseller.forEach((resellerId, indexes) -> {
+            List<HoldRequest> group = indexes.stream().map(requests::get).collect(Collectors.toList());
+            List<HoldOutcome> groupOutcomes;
+            try {
+                groupOutcomes = withCasRetry(resellerId, () -> holdGroup(resellerId, group));
+            } catch (RuntimeException e) {
+                log.error("钱包冻结失败，经销商ID: {}, 冻结请求数: {}", resellerId, group.size(), e);
+                groupOutcomes = Collections.nCopies(group.size(), HoldOutcome.failed(e));
+            }
+            for (int i = 0; i < indexes.size(); i++) {
+                outcomes.set(indexes.get(i), groupOutcomes.get(i));
+            }
+        });
+        return outcomes;
+    }
+
+    /**
+     * 按提交顺序依次判断可用余额，通过的冻结合并为一次账户更新
+     */
+    private List<HoldOutcome> holdGroup(String resellerId, List<HoldRequest> group) {
+        LocalDateTime now = LocalDateTime.now();
+        WalletAccountEntity account = walletMapper.selectAccount(resellerId);
+        BigDecimal available = account == null
+                ? BigDecimal.ZERO : account.getBalance().subtract(account.getHeldAmount());
+        BigDecimal total = BigDecimal.ZERO;
+        List<HoldOutcome> outcomes = new ArrayList<>(group.size());
+        List<WalletHoldEntity> holds = new ArrayList<>();
+        for (HoldRequest request : group) {
+            BigDecimal remaining = available.subtract(total);
+            if (remaining.compareTo(request.amount) < 0) {
+                outcomes.add(HoldOutcome.failed(new PaymentException(String.format(
+                        "钱包余额不足，经销商: %s, 可用: %s, 需要: %s", resellerId, remaining, request.amount))));
+                continue;
+            }
+            total = total.add(request.amount);
+            String holdId = IdWorker.getIdStr();
+            holds.add(WalletHoldEntity.builder()
+                    .holdId(holdId)
+                    .resellerId(resellerId)
+                    .amount(request.amount)
+                    .status(WalletHoldStatus.HELD)
+                    .reference(request.reference)
+                    .createTime(now)
+                    .updateTime(now)
+                    .build());
+            outcomes.add(HoldOutcome.held(new WalletHold(holdId, resellerId, request.amount)));
+        }
+        if (!holds.isEmpty()) {
+            compareAndSet(account, account.getBalance(), account.getHeldAmount().add(total), now);
+            walletMapper.insertHolds(holds);
+        }
+        return outcomes;
+    }
+
+    private void settle(Collection<WalletHold> holds, WalletHoldStatus target) {
+        Map<String, List<String>> holdIdsByReseller = holds.stream()
+                .collect(Collectors.groupingBy(WalletHold::getResellerId, LinkedHashMap::new,
+                        Collectors.mapping(WalletHold::getHoldId, Collectors.toList())));
+        RuntimeException failure = null;
+        for (Map.Entry<String, List<String>> entry : holdIdsByReseller.entrySet()) {
+            try {
+                withCasRetry(entry.getKey(), () -> settleGroup(entry.getKey(), entry.getValue(), target));
+            } catch (RuntimeException e) {
+                // 继续处理其他经销商，最后抛出首个异常
+                log.error("钱包{}失败，经销商ID: {}, 冻结ID: {}", target.getDescription(), entry.getKey(), entry.getValue(), e);
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Integer settleGroup(String resellerId, List<String> holdIds, WalletHoldStatus target) {
+        List<WalletHoldEntity> held = walletMapper.lockHeld(holdIds);
+        if (held.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BigDecimal total = held.stream().map(WalletHoldEntity::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        WalletAccountEntity account = walletMapper.selectAccount(resellerId);
+        BigDecimal balance = target == WalletHoldStatus.CAPTURED
+                ? account.getBalance().subtract(total) : account.getBalance();
+        compareAndSet(account, balance, account.getHeldAmount().subtract(total), now);
+        walletMapper.updateHeldStatus(held.stream().map(WalletHoldEntity::getHoldId).collect(Collectors.toList()),
+                target, now);
+        return held.size();
+    }
+
+    private void compareAndSet(WalletAccountEntity account, BigDecimal balance, BigDecimal heldAmount,
+                               LocalDateTime now) {
+        if (walletMapper.compareAndSet(account.getResellerId(), account.getVersion(), balance, heldAmount, now) == 0) {
+            throw new CasConflictException();
+        }
+    }
+
+    /**
+     * 在经销商所在分片的独立事务中执行；版本号冲突时回滚并重新执行（新事务读取最新余额）
+     */
+    private <T> T withCasRetry(String resellerId, Supplier<T> action) {
+        String shard = shardRouter.shardOfReseller(resellerId);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> action.get()));
+            } catch (CasConflictException e) {
+                if (attempt >= properties.getMaxCasRetries()) {
+                    throw new PaymentException("钱包余额并发更新冲突，请稍后重试，经销商ID: " + resellerId);
+                }
+                log.debug("钱包余额版本冲突，重试，经销商ID: {}, 第{}次", resellerId, attempt + 1);
+            }
+        }
+    }
+
+    private static WalletBalance toBalance(String resellerId, BigDecimal balance, BigDecimal heldAmount) {
+        return new WalletBalance(resellerId, balance, heldAmount, balance.subtract(heldAmount));
+    }
+
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("金额必须大于0");
+        }
+    }
+
+    /**
+     * 冻结请求
+     */
+    static final class HoldRequest {
+
+        private final String resellerId;
+        private final BigDecimal amount;
+        private final String reference;
+
+        HoldRequest(String resellerId, BigDecimal amount, String reference) {
+            this.resellerId = resellerId;
+            this.amount = amount;
+            this.reference = reference;
+        }
+    }
+
+    /**
+     * 冻结结果：冻结成功或失败原因
+     */
+    static final class HoldOutcome {
+
+        private final WalletHold hold;
+        private final RuntimeException failure;
+
+        private HoldOutcome(WalletHold hold, RuntimeException failure) {
+            this.hold = hold;
+            this.failure = failure;
+        }
+
+        static HoldOutcome held(WalletHold hold) {
+            return new HoldOutcome(hold, null);
+        }
+
+        static HoldOutcome failed(RuntimeException failure) {
+            return new HoldOutcome(null, failure);
+        }
+
+        WalletHold get() {
+            if (failure != null) {
+                throw failure;
+            }
+            return hold;
+        }
+    }
+
+    /**
+     * 账户版本号已被其他请求更新（事务内抛出以回滚本次尝试）
+     */
+    private static final class CasConflictException extends RuntimeException {
+        private CasConflictException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -1,22 +1,47 @@
 package com.bytz.modules.cms.payment.interfaces.controller;
 
+import com.bytz.modules.cms.payment.application.CreditLineService;
 import com.bytz.modules.cms.payment.application.IPaymentApplicationService;
 import com.bytz.modules.cms.payment.application.PaymentQueryService;
+import com.bytz.modules.cms.payment.application.StatementImportService;
+import com.bytz.modules.cms.payment.application.WalletAccountService;
 import com.bytz.modules.cms.payment.application.assembler.PaymentAssembler;
 import com.bytz.modules.cms.payment.application.command.ExecutePaymentCommand;
+import com.bytz.modules.cms.payment.application.command.QueryTransactionRollupCommand;
+import com.bytz.modules.cms.payment.domain.enums.CallbackOutcome;
 import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RollupGranularity;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.domain.response.CallbackResult;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.interfaces.model.BatchCallbackRO;
+import com.bytz.modules.cms.payment.interfaces.model.BatchCallbackResultVO;
 import com.bytz.modules.cms.payment.interfaces.model.BatchPaymentExecuteRO;
 import com.bytz.modules.cms.payment.interfaces.model.BatchPaymentResultVO;
+import com.bytz.modules.cms.payment.interfaces.model.ChannelRecordCallbackRO;
+import com.bytz.modules.cms.payment.interfaces.model.CreditLimitRO;
+import com.bytz.modules.cms.payment.interfaces.model.CreditLineVO;
+import com.bytz.modules.cms.payment.interfaces.model.PaymentSearchRO;
+import com.bytz.modules.cms.payment.interfaces.model.PaymentSearchResultVO;
 import com.bytz.modules.cms.payment.interfaces.model.PaymentVO;
+import com.bytz.modules.cms.payment.interfaces.model.ResellerPaymentSummaryVO;
+import com.bytz.modules.cms.payment.interfaces.model.StatementImportRO;
+import com.bytz.modules.cms.payment.interfaces.model.StatementImportResultVO;
+import com.bytz.modules.cms.payment.interfaces.model.TransactionRollupVO;
+import com.bytz.modules.cms.payment.interfaces.model.WalletBalanceVO;
+import com.bytz.modules.cms.payment.interfaces.model.WalletDepositRO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -35,6 +60,9 @@ public class PaymentController {
 
     private final IPaymentApplicationService paymentApplicationService;
     private final PaymentQueryService paymentQueryService;
+    private final StatementImportService statementImportService;
+    private final CreditLineService creditLineService;
+    private final WalletAccountService walletAccountService;
     private final PaymentAssembler paymentAssembler;
 
     /**
@@ -94,6 +122,106 @@ public class PaymentController {
         return ResponseEntity.ok(vos);
     }
 
+    /**
+     * 支付单组合查询（经销商、状态、支付类型、关联业务类型、金额范围、创建/截止时间范围）
+     * 条件须命中固定的组合索引之一，否则返回参数错误；按游标分页，总数按条件短时缓存
+     * <p>
+     * GET /api/v1/payments/search?resellerId=...&statuses=UNPAID,PARTIAL_PAID&pageSize=20&cursor=...
+     *
+     * @param ro 组合查询请求对象
+     * @return 一页支付单、下一页游标、总数（按需）
+     */
+    @GetMapping("/search")
+    public ResponseEntity<PaymentSearchResultVO> searchPayments(@Valid PaymentSearchRO ro) {
+        PaymentSearchResultVO vo = paymentAssembler.toSearchResultVO(
+                paymentQueryService.searchPayments(paymentAssembler.toSearchCommand(ro)));
+
+        return ResponseEntity.ok(vo);
+    }
+
+    /**
+     * 查询经销商可支付的支付单（批量支付页面使用）
+     * 只返回可支付（未支付/部分支付且待支付金额大于0）的支付单及其待支付金额，
+     * 按支付截止时间先到期在前，游标分页
+     * <p>
+     * GET /api/v1/payments/by-reseller/{resellerId}/payable?pageSize=50&cursor=...
+     *
+     * @param resellerId 经销商ID
+     * @param cursor     上一页返回的游标（可选）
+     * @param pageSize   每页条数（可选）
+     * @return 一页可支付支付单与下一页游标
+     */
+    @GetMapping("/by-reseller/{resellerId}/payable")
+    public ResponseEntity<PaymentSearchResultVO> getPayablePayments(
+            @PathVariable String resellerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer pageSize) {
+
+        PaymentSearchResultVO vo = paymentAssembler.toSearchResultVO(
+                paymentQueryService.getPayablePayments(resellerId, cursor, pageSize));
+
+        return ResponseEntity.ok(vo);
+    }
+
+    /**
+     * 查询经销商支付汇总（待支付、累计已支付、累计已退款，按币种）
+     * 读取增量维护的汇总表，不随支付单数量增长
+     * <p>
+     * GET /api/v1/payments/by-reseller/{resellerId}/summary
+     *
+     * @param resellerId 经销商ID
+     * @return 经销商支付汇总
+     */
+    @GetMapping("/by-reseller/{resellerId}/summary")
+    public ResponseEntity<ResellerPaymentSummaryVO> getResellerSummary(@PathVariable String resellerId) {
+        log.info("查询经销商支付汇总，经销商ID: {}", resellerId);
+
+        ResellerPaymentSummaryVO vo = paymentAssembler.toResellerSummaryVO(resellerId,
+                paymentQueryService.getResellerSummary(resellerId));
+
+        return ResponseEntity.ok(vo);
+    }
+
+    /**
+     * 查询流水汇总报表（按支付渠道、支付类型、流水类型、流水状态、币种，小时/日粒度）
+     * 读取后台任务增量维护的汇总表，数据滞后于流水约一个汇总周期加结清余量
+     * <p>
+     * GET /api/v1/payments/reports/transaction-rollups?granularity=DAY&from=...&to=...
+     *
+     * @param granularity       汇总粒度（HOUR/DAY）
+     * @param from              起始时间（含）
+     * @param to                结束时间（不含）
+     * @param paymentChannel    支付渠道（可选）
+     * @param paymentType       支付类型（可选）
+     * @param transactionType   流水类型（可选）
+     * @param transactionStatus 流水状态（可选）
+     * @return 流水汇总列表
+     */
+    @GetMapping("/reports/transaction-rollups")
+    public ResponseEntity<List<TransactionRollupVO>> getTransactionRollups(
+            @RequestParam RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) PaymentChannel paymentChannel,
+            @RequestParam(required = false) PaymentType paymentType,
+            @RequestParam(required = false) TransactionType transactionType,
+            @RequestParam(required = false) TransactionStatus transactionStatus) {
+
+        QueryTransactionRollupCommand command = QueryTransactionRollupCommand.builder()
+                .granularity(granularity)
+                .from(from)
+                .to(to)
+                .paymentChannel(paymentChannel)
+                .paymentType(paymentType)
+                .transactionType(transactionType)
+                .transactionStatus(transactionStatus)
+                .build();
+        List<TransactionRollupVO> vos = paymentAssembler.toTransactionRollupVOs(
+                paymentQueryService.getTransactionRollups(command));
+
+        return ResponseEntity.ok(vos);
+    }
+
     /**
      * 根据关联业务ID查询支付单列表（用于信用还款查询）
      * <p>
@@ -137,6 +265,116 @@ public class PaymentController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 批量回调接口
+     * 渠道批量推送结算通知，一次请求处理多笔支付/退款结果，逐项返回处理结果
+     * <p>
+     * POST /api/v1/payments/callbacks/batch
+     *
+     * @param ro 批量回调请求对象
+     * @return 批量回调结果响应对象
+     */
+    @PostMapping("/callbacks/batch")
+    public ResponseEntity<BatchCallbackResultVO> batchCallback(@Valid @RequestBody BatchCallbackRO ro) {
+        List<CallbackResult> results = paymentApplicationService.processCallbacks(
+                paymentAssembler.toCallbackCommands(ro.getItems()));
+
+        BatchCallbackResultVO vo = buildBatchCallbackResult(results);
+        log.info("批量回调处理完成，总数: {}, 已处理: {}, 重复: {}, 失败: {}",
+                vo.getTotal(), vo.getProcessed(), vo.getDuplicate(), vo.getFailed());
+        return ResponseEntity.ok(vo);
+    }
+
+    /**
+     * 渠道支付记录回调接口
+     * 统一支付的渠道结算通知，按渠道支付记录ID一次结算同批全部支付单
+     * <p>
+     * POST /api/v1/payments/callbacks/channel-record
+     *
+     * @param ro 渠道支付记录回调请求对象
+     * @return 同批各支付单的处理结果
+     */
+    @PostMapping("/callbacks/channel-record")
+    public ResponseEntity<BatchCallbackResultVO> channelRecordCallback(@Valid @RequestBody ChannelRecordCallbackRO ro) {
+        List<CallbackResult> results = paymentApplicationService.processChannelRecordCallback(
+                paymentAssembler.toChannelRecordCallbackCommand(ro));
+
+        BatchCallbackResultVO vo = buildBatchCallbackResult(results);
+        log.info("渠道支付记录回调处理完成，渠道支付记录ID: {}, 支付单数量: {}, 已处理: {}",
+                ro.getChannelPaymentRecordId(), vo.getTotal(), vo.getProcessed());
+        return ResponseEntity.ok(vo);
+    }
+
+    /**
+     * 电汇对账单导入接口
+     * 解析对账单目录下的银行对账单，到账批量匹配支付单并结算；重复导入不会重复入账
+     * <p>
+     * POST /api/v1/payments/wire-transfers/statements/import
+     *
+     * @param ro 对账单导入请求对象
+     * @return 匹配与结算结果
+     */
+    @PostMapping("/wire-transfers/statements/import")
+    public ResponseEntity<StatementImportResultVO> importStatement(@Valid @RequestBody StatementImportRO ro) {
+        return ResponseEntity.ok(statementImportService.importStatement(ro.getFileName()));
+    }
+
+    /**
+     * 查询经销商信用额度
+     * <p>
+     * GET /api/v1/payments/credit-lines/{resellerId}
+     *
+     * @param resellerId 经销商ID
+     * @return 信用额度、已用、预占与可用额度
+     */
+    @GetMapping("/credit-lines/{resellerId}")
+    public ResponseEntity<CreditLineVO> getCreditLine(@PathVariable String resellerId) {
+        return ResponseEntity.ok(creditLineService.getCreditLine(resellerId));
+    }
+
+    /**
+     * 设定经销商信用额度
+     * <p>
+     * PUT /api/v1/payments/credit-lines/{resellerId}
+     *
+     * @param resellerId 经销商ID
+     * @param ro         信用额度设定请求对象
+     * @return 设定后的信用额度状态
+     */
+    @PutMapping("/credit-lines/{resellerId}")
+    public ResponseEntity<CreditLineVO> setCreditLimit(@PathVariable String resellerId,
+                                                       @Valid @RequestBody CreditLimitRO ro) {
+        return ResponseEntity.ok(creditLineService.setCreditLimit(resellerId, ro.getCreditLimit()));
+    }
+
+    /**
+     * 查询经销商钱包余额
+     * <p>
+     * GET /api/v1/payments/wallets/{resellerId}
+     *
+     * @param resellerId 经销商ID
+     * @return 余额、冻结与可用余额
+     */
+    @GetMapping("/wallets/{resellerId}")
+    public ResponseEntity<WalletBalanceVO> getWalletBalance(@PathVariable String resellerId) {
+        return ResponseEntity.ok(walletAccountService.getBalance(resellerId));
+    }
+
+    /**
+     * 经销商钱包充值
+     * <p>
+     * POST /api/v1/payments/wallets/{resellerId}/deposits
+     *
+     * @param resellerId 经销商ID
+     * @param ro         充值请求对象
+     * @return 充值后的余额状态
+     */
+    @PostMapping("/wallets/{resellerId}/deposits")
+    public ResponseEntity<WalletBalanceVO> depositWallet(@PathVariable String resellerId,
+                                                         @Valid @RequestBody WalletDepositRO ro) {
+        return ResponseEntity.ok(walletAccountService.deposit(resellerId, ro.getAmount()));
+    }
+
     /**
      * 查询当前经销商可用支付渠道
      * <p>
@@ -197,4 +435,24 @@ public class PaymentController {
                 .paymentResults(paymentResults)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * 构建回调结果响应对象
+     *
+     * @param results 逐项处理结果
+     * @return 回调结果响应对象
+     */
+    private BatchCallbackResultVO buildBatchCallbackResult(List<CallbackResult> results) {
+        return BatchCallbackResultVO.builder()
+                .total(results.size())
+                .processed(countOutcome(results, CallbackOutcome.PROCESSED))
+                .duplicate(countOutcome(results, CallbackOutcome.DUPLICATE))
+                .failed(countOutcome(results, CallbackOutcome.FAILED) + countOutcome(results, CallbackOutcome.NOT_FOUND))
+                .results(paymentAssembler.toCallbackResultItems(results))
+                .build();
+    }
+
+    private static int countOutcome(List<CallbackResult> results, CallbackOutcome outcome) {
+        return (int) results.stream().filter(result -> result.getOutcome() == outcome).count();
+    }
+}
@@ -0,0 +1,83 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 批量回调请求对象
+ * Batch Callback Request Object
+ * 
+ * 渠道批量推送的结算通知，一次请求包含多笔支付/退款结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCallbackRO {
+    
+    /**
+     * 回调项列表
+     */
+    @NotEmpty(message = "回调列表不能为空")
+    @Size(max = 5000, message = "单次回调不能超过5000项")
+    @Valid
+    private List<CallbackItem> items;
+    
+    /**
+     * 回调项
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CallbackItem {
+        
+        /**
+         * 支付单ID（数据库主键）
+         */
+        @NotNull(message = "支付单ID不能为空")
+        private String paymentId;
+        
+        /**
+         * 流水号
+         */
+        @NotNull(message = "流水号不能为空")
+        private String transactionCode;
+        
+        /**
+         * 流水类型（PAYMENT/REFUND，为空按支付处理）
+         */
+        private TransactionType transactionType;
+        
+        /**
+         * 渠道交易号（回调去重的业务键）
+         */
+        private String channelTransactionNumber;
+        
+        /**
+         * 是否成功
+         */
+        @NotNull(message = "回调结果不能为空")
+        private Boolean success;
+        
+        /**
+         * 完成时间
+         */
+        private LocalDateTime completeTime;
+        
+        /**
+         * 渠道返回消息（用于签名验证）
+         */
+        private String channelMessage;
+    }
+}
@@ -0,0 +1,82 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import com.bytz.modules.cms.payment.domain.enums.CallbackOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量回调结果响应对象
+ * Batch Callback Result Value Object
+ * 
+ * 返回批量回调的汇总与逐项处理结果，结果项与请求项顺序一致
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCallbackResultVO {
+    
+    /**
+     * 回调总数
+     */
+    private Integer total;
+    
+    /**
+     * 已处理数
+     */
+    private Integer processed;
+    
+    /**
+     * 重复回调数
+     */
+    private Integer duplicate;
+    
+    /**
+     * 失败数（含支付单不存在）
+     */
+    private Integer failed;
+    
+    /**
+     * 逐项结果
+     */
+    private List<CallbackResultItem> results;
+    
+    /**
+     * 回调结果项
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CallbackResultItem {
+        
+        /**
+         * 支付单ID
+         */
+        private String paymentId;
+        
+        /**
+         * 流水号
+         */
+        private String transactionCode;
+        
+        /**
+         * 渠道交易号
+         */
+        private String channelTransactionNumber;
+        
+        /**
+         * 处理结果
+         */
+        private CallbackOutcome outcome;
+        
+        /**
+         * 失败原因
+         */
+        private String message;
+    }
+}
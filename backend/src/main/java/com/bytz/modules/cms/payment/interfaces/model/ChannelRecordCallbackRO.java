@@ -0,0 +1,45 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * 渠道支付记录回调请求对象
+ * Channel Record Callback Request Object
+ * 
+ * 统一支付结算通知，按渠道支付记录ID结算同批全部支付单
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelRecordCallbackRO {
+    
+    /**
+     * 渠道支付记录ID
+     */
+    @NotBlank(message = "渠道支付记录ID不能为空")
+    private String channelPaymentRecordId;
+    
+    /**
+     * 是否成功
+     */
+    @NotNull(message = "回调结果不能为空")
+    private Boolean success;
+    
+    /**
+     * 完成时间
+     */
+    private LocalDateTime completeTime;
+    
+    /**
+     * 渠道返回消息（用于签名验证）
+     */
+    private String channelMessage;
+}
@@ -0,0 +1,28 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * 信用额度设定请求对象
+ * Credit Limit Request Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditLimitRO {
+    
+    /**
+     * 信用额度
+     */
+    @NotNull(message = "信用额度不能为空")
+    @DecimalMin(value = "0", message = "信用额度不能为负")
+    private BigDecimal creditLimit;
+}
@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 信用额度响应对象
+ * Credit Line Value Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditLineVO {
+    
+    /**
+     * 经销商ID
+     */
+    private String resellerId;
+    
+    /**
+     * 信用额度
+     */
+    private BigDecimal creditLimit;
+    
+    /**
+     * 已用额度
+     */
+    private BigDecimal usedAmount;
+    
+    /**
+     * 预占额度（支付进行中）
+     */
+    private BigDecimal reservedAmount;
+    
+    /**
+     * 可用额度
+     */
+    private BigDecimal availableAmount;
+}
@@ -0,0 +1,101 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RelatedBusinessType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * 支付单组合查询请求对象
+ * Payment Search Request Object
+ * 
+ * 以查询参数接收，时间参数为ISO格式（如 2024-03-01T00:00:00），状态可传多个
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSearchRO {
+    
+    /**
+     * 经销商ID
+     */
+    private String resellerId;
+    
+    /**
+     * 支付状态集合
+     */
+    private Set<PaymentStatus> statuses;
+    
+    /**
+     * 支付类型
+     */
+    private PaymentType paymentType;
+    
+    /**
+     * 关联业务类型
+     */
+    private RelatedBusinessType relatedBusinessType;
+    
+    /**
+     * 最小支付金额（含）
+     */
+    @DecimalMin(value = "0", message = "最小金额不能为负")
+    private BigDecimal minAmount;
+    
+    /**
+     * 最大支付金额（含）
+     */
+    @DecimalMin(value = "0", message = "最大金额不能为负")
+    private BigDecimal maxAmount;
+    
+    /**
+     * 创建时间起（含）
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createFrom;
+    
+    /**
+     * 创建时间止（不含）
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createTo;
+    
+    /**
+     * 支付截止时间起（含）
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime deadlineFrom;
+    
+    /**
+     * 支付截止时间止（不含）
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime deadlineTo;
+    
+    /**
+     * 上一页返回的游标
+     */
+    private String cursor;
+    
+    /**
+     * 每页条数
+     */
+    @Positive(message = "每页条数必须大于0")
+    private Integer pageSize;
+    
+    /**
+     * 是否返回总数
+     */
+    private boolean includeTotal;
+}
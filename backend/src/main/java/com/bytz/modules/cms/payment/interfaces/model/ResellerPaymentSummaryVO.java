@@ -0,0 +1,113 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 经销商支付汇总响应对象
+ * Reseller Payment Summary Value Object
+ * 
+ * 经销商按币种汇总的支付单数与金额（含已归档支付单），以及按支付状态的明细
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResellerPaymentSummaryVO {
+    
+    /**
+     * 经销商ID
+     */
+    private String resellerId;
+    
+    /**
+     * 按币种汇总
+     */
+    private List<CurrencySummary> currencies;
+    
+    /**
+     * 币种汇总
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CurrencySummary {
+        
+        /**
+         * 币种
+         */
+        private String currency;
+        
+        /**
+         * 支付单数
+         */
+        private Long paymentCount;
+        
+        /**
+         * 支付金额合计
+         */
+        private BigDecimal paymentAmount;
+        
+        /**
+         * 累计已支付金额
+         */
+        private BigDecimal paidAmount;
+        
+        /**
+         * 累计已退款金额
+         */
+        private BigDecimal refundedAmount;
+        
+        /**
+         * 待支付金额（已取消、已停止的支付单不计）
+         */
+        private BigDecimal outstandingAmount;
+        
+        /**
+         * 按支付状态明细
+         */
+        private List<StatusSummary> statuses;
+    }
+    
+    /**
+     * 支付状态明细
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusSummary {
+        
+        /**
+         * 支付状态
+         */
+        private PaymentStatus paymentStatus;
+        
+        /**
+         * 支付单数
+         */
+        private Long paymentCount;
+        
+        /**
+         * 支付金额合计
+         */
+        private BigDecimal paymentAmount;
+        
+        /**
+         * 已支付金额合计
+         */
+        private BigDecimal paidAmount;
+        
+        /**
+         * 已退款金额合计
+         */
+        private BigDecimal refundedAmount;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+
+/**
+ * 电汇对账单导入请求对象
+ * Statement Import Request Object
+ * 
+ * 对账单文件由银行前置机落地到对账单目录，这里只传文件名
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementImportRO {
+    
+    /**
+     * 对账单文件名（相对对账单目录）
+     */
+    @NotBlank(message = "对账单文件名不能为空")
+    private String fileName;
+}
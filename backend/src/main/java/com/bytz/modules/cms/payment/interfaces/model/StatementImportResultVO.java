@@ -0,0 +1,117 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import com.bytz.modules.cms.payment.domain.enums.CallbackOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 电汇对账单导入结果响应对象
+ * Statement Import Result Value Object
+ * 
+ * 返回到账匹配与支付单结算的汇总，以及需要人工处理的未匹配到账和结算失败项
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementImportResultVO {
+    
+    /**
+     * 对账单文件名
+     */
+    private String fileName;
+    
+    /**
+     * 到账行数
+     */
+    private Integer totalLines;
+    
+    /**
+     * 精确匹配的到账数
+     */
+    private Integer exactMatched;
+    
+    /**
+     * 容差匹配的到账数
+     */
+    private Integer toleranceMatched;
+    
+    /**
+     * 合并匹配的到账数
+     */
+    private Integer manyToOneMatched;
+    
+    /**
+     * 未匹配的到账数
+     */
+    private Integer unmatched;
+    
+    /**
+     * 文件内银行流水号重复的到账数
+     */
+    private Integer duplicateLines;
+    
+    /**
+     * 本次结算的支付单数
+     */
+    private Integer settledPayments;
+    
+    /**
+     * 已入账过的支付单数（对账单重复导入）
+     */
+    private Integer duplicatePayments;
+    
+    /**
+     * 结算失败的支付单数
+     */
+    private Integer failedPayments;
+    
+    /**
+     * 导入耗时（毫秒）
+     */
+    private Long elapsedMillis;
+    
+    /**
+     * 未匹配到账的银行流水号（最多列出 payment.wire-transfer.max-reported-unmatched 个）
+     */
+    private List<String> unmatchedReferences;
+    
+    /**
+     * 结算失败项
+     */
+    private List<FailureItem> failures;
+    
+    /**
+     * 结算失败项
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailureItem {
+        
+        /**
+         * 银行流水号
+         */
+        private String reference;
+        
+        /**
+         * 支付单ID
+         */
+        private String paymentId;
+        
+        /**
+         * 处理结果
+         */
+        private CallbackOutcome outcome;
+        
+        /**
+         * 失败原因
+         */
+        private String message;
+    }
+}
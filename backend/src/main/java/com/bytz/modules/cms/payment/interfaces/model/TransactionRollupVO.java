@@ -0,0 +1,71 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 流水汇总响应对象
+ * Transaction Rollup Value Object
+ * 
+ * 一个时间桶内某一维度组合的流水笔数与金额合计
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRollupVO {
+    
+    /**
+     * 桶起点（小时粒度为整点，日粒度为当日0点）
+     */
+    private LocalDateTime bucketStart;
+    
+    /**
+     * 支付渠道
+     */
+    private PaymentChannel paymentChannel;
+    
+    /**
+     * 支付类型
+     */
+    private PaymentType paymentType;
+    
+    /**
+     * 流水类型
+     */
+    private TransactionType transactionType;
+    
+    /**
+     * 流水状态
+     */
+    private TransactionStatus transactionStatus;
+    
+    /**
+     * 币种
+     */
+    private String currency;
+    
+    /**
+     * 流水笔数
+     */
+    private Long transactionCount;
+    
+    /**
+     * 流水金额合计
+     */
+    private BigDecimal totalAmount;
+    
+    /**
+     * 汇总最近更新时间
+     */
+    private LocalDateTime updateTime;
+}
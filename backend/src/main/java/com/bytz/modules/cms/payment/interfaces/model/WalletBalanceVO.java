@@ -0,0 +1,39 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 钱包余额响应对象
+ * Wallet Balance Value Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletBalanceVO {
+    
+    /**
+     * 经销商ID
+     */
+    private String resellerId;
+    
+    /**
+     * 余额（含冻结）
+     */
+    private BigDecimal balance;
+    
+    /**
+     * 冻结金额（支付进行中）
+     */
+    private BigDecimal heldAmount;
+    
+    /**
+     * 可用余额
+     */
+    private BigDecimal availableAmount;
+}
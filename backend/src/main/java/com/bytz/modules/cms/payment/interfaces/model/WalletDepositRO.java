@@ -0,0 +1,28 @@
+package com.bytz.modules.cms.payment.interfaces.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * 钱包充值请求对象
+ * Wallet Deposit Request Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletDepositRO {
+    
+    /**
+     * 充值金额
+     */
+    @NotNull(message = "充值金额不能为空")
+    @DecimalMin(value = "0.01", message = "充值金额必须大于0")
+    private BigDecimal amount;
+}
@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.shared.model;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 支付单批量已创建事件
+ * Payment Batch Created Event
+ * 
+ * 批量创建支付单成功后发布一次，携带每个支付单的创建事件；
+ * 监听单条 {@link PaymentCreatedEvent} 的订阅方需同时订阅此事件并逐条处理
+ */
+@Getter
+public class PaymentBatchCreatedEvent extends ApplicationEvent {
+    
+    /**
+     * 事件ID
+     */
+    private final String eventId;
+    
+    /**
+     * 各支付单的创建事件（与创建顺序一致）
+     */
+    private final List<PaymentCreatedEvent> payments;
+    
+    /**
+     * 事件发生时间
+     */
+    private final LocalDateTime occurredOn;
+    
+    /**
+     * 构造函数
+     */
+    public PaymentBatchCreatedEvent(Object source, String eventId, List<PaymentCreatedEvent> payments,
+                                    LocalDateTime occurredOn) {
+        super(source);
+        this.eventId = eventId;
+        this.payments = payments;
+        this.occurredOn = occurredOn;
+    }
+}
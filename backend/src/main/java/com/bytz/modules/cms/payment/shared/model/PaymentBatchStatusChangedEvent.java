@@ -0,0 +1,71 @@
+package com.bytz.modules.cms.payment.shared.model;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentScope;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatusTransition;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 支付单批量状态变更事件
+ * Payment Batch Status Changed Event
+ * 
+ * 按订单/经销商/关联业务批量取消、冻结、停止支付单后发布一次，携带实际变更的支付单ID；
+ * 持有支付单状态副本（缓存、报表等）的订阅方据此按ID失效
+ */
+@Getter
+public class PaymentBatchStatusChangedEvent extends ApplicationEvent {
+    
+    /**
+     * 事件ID
+     */
+    private final String eventId;
+    
+    /**
+     * 状态迁移（目标状态见 {@link PaymentStatusTransition#getTargetStatus()}）
+     */
+    private final PaymentStatusTransition transition;
+    
+    /**
+     * 范围维度
+     */
+    private final PaymentScope scope;
+    
+    /**
+     * 范围ID（订单号/经销商ID/关联业务ID）
+     */
+    private final String scopeId;
+    
+    /**
+     * 迁移原因
+     */
+    private final String reason;
+    
+    /**
+     * 实际变更的支付单ID
+     */
+    private final List<String> paymentIds;
+    
+    /**
+     * 事件发生时间
+     */
+    private final LocalDateTime occurredOn;
+    
+    /**
+     * 构造函数
+     */
+    public PaymentBatchStatusChangedEvent(Object source, String eventId, PaymentStatusTransition transition,
+                                          PaymentScope scope, String scopeId, String reason,
+                                          List<String> paymentIds, LocalDateTime occurredOn) {
+        super(source);
+        this.eventId = eventId;
+        this.transition = transition;
+        this.scope = scope;
+        this.scopeId = scopeId;
+        this.reason = reason;
+        this.paymentIds = paymentIds;
+        this.occurredOn = occurredOn;
+    }
+}
@@ -0,0 +1,151 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 批量子任务作用域
+ * Batch Task Scope
+ * <p>
+ * 结构化并发：一个批次内的子任务在作用域内派生、在作用域内汇合，作用域关闭时不会遗留运行中的子任务。
+ * 语义等同JDK 21 StructuredTaskScope.ShutdownOnFailure，但只依赖Java 8 API：
+ * - 任一子任务失败或超时，立即取消其余子任务并抛出首个失败原因
+ * - join按派生顺序返回结果；joinInOrder按派生顺序逐个交付已完成的结果，
+ *   调用线程处理前面的结果时后面的子任务继续运行
+ * - close取消所有未完成的子任务（try-with-resources保证）
+ * <p>
+ * 子任务运行在执行器线程上，不继承调用线程的事务、分片上下文等ThreadLocal状态，
+ * 只应执行渠道调用这类无需事务的阻塞IO。作用域对象只由创建它的线程使用。
+ *
+ * @param <T> 子任务结果类型
+ */
+public final class BatchTaskScope<T> implements AutoCloseable {
+
+    private final Executor executor;
+    private final List<Future<T>> futures = new ArrayList<>();
+    private final BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<>();
+    private boolean joined;
+
+    /**
+     * @param executor 子任务执行器（不归作用域所有，不会被关闭）
+     */
+    public BatchTaskScope(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 派生子任务，在执行器上运行
+     *
+     * @param task 子任务
+     */
+    public void fork(Callable<T> task) {
+        checkOpen();
+        FutureTask<T> future = new FutureTask<T>(task) {
+            @Override
+            protected void done() {
+                completed.add(this);
+            }
+        };
+        futures.add(future);
+        executor.execute(future);
+    }
+
+    /**
+     * 纳入已发起的异步子任务（如渠道的原生异步调用）
+     *
+     * @param future 异步结果
+     */
+    public void fork(CompletableFuture<T> future) {
+        checkOpen();
+        futures.add(future);
+        future.whenComplete((result, error) -> completed.add(future));
+    }
+
+    /**
+     * 等待全部子任务完成
+     *
+     * @param timeout 整个批次的超时时间
+     * @return 按派生顺序排列的结果
+     * @throws RuntimeException 首个失败子任务抛出的运行时异常（原样抛出）
+     * @throws IllegalStateException 子任务抛出受检异常、批次超时或等待被中断
+     */
+    public List<T> join(Duration timeout) {
+        List<T> results = new ArrayList<>(futures.size());
+        joinInOrder(timeout, (result, index) -> results.add(result));
+        return results;
+    }
+
+    /**
+     * 按派生顺序逐个交付结果：第i个结果在前i-1个结果交付后、自身完成时立即交付，
+     * 不等待后续子任务。任一子任务失败（不论顺序）立即抛出。
+     * 消费者在调用线程执行，抛出异常时取消其余子任务。
+     *
+     * @param timeout  整个批次的超时时间
+     * @param consumer 结果消费者，参数为结果和派生序号
+     */
+    public void joinInOrder(Duration timeout, ObjIntConsumer<T> consumer) {
+        joined = true;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int next = 0;
+        try {
+            while (next < futures.size()) {
+                Future<T> head = futures.get(next);
+                if (head.isDone()) {
+                    consumer.accept(head.get(), next++);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                Future<T> done = remaining > 0 ? completed.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (done == null) {
+                    throw new IllegalStateException("批量子任务超时，未完成: " + (futures.size() - next));
+                }
+                // 任一子任务失败立即抛出，finally中取消其余子任务
+                done.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("批量子任务失败", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待批量子任务被中断", e);
+        } finally {
+            cancelUnfinished();
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelUnfinished();
+    }
+
+    private void checkOpen() {
+        if (joined) {
+            throw new IllegalStateException("作用域已汇合，不能再派生子任务");
+        }
+    }
+
+    private void cancelUnfinished() {
+        for (Future<T> future : futures) {
+            if (!future.isDone()) {
+                future.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环
+ * Consistent Hash Ring
+ * <p>
+ * 每个节点在环上放置若干虚拟节点以平衡分布；增删节点时只有相邻区间的键需要迁移。
+ * 哈希取MD5摘要的前8字节，与JVM、进程无关，保证不同实例对同一键得到相同节点。
+ * 构造后不可变，线程安全。
+ */
+public class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final List<String> nodes;
+
+    /**
+     * 构造一致性哈希环
+     *
+     * @param nodes        节点名称列表
+     * @param virtualNodes 每个节点的虚拟节点数
+     */
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            throw new IllegalArgumentException("哈希环节点不能为空");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("虚拟节点数必须大于0");
+        }
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        for (String node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#VN" + i), node);
+            }
+        }
+    }
+
+    /**
+     * 定位键所属节点：环上顺时针方向第一个虚拟节点
+     *
+     * @param key 键
+     * @return 节点名称
+     */
+    public String locate(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("哈希键不能为空");
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * 获取全部节点
+     *
+     * @return 不可修改的节点列表
+     */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    private static long hash(String key) {
+        byte[] digest = md5().digest(key.getBytes(StandardCharsets.UTF_8));
+        long h = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            h = (h << 8) | (digest[i] & 0xFF);
+        }
+        return h;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5算法不可用", e);
+        }
+    }
+}
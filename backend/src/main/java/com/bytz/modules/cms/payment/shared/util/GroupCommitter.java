@@ -0,0 +1,167 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 组提交器
+ * Group Committer
+ * <p>
+ * 把多个并发调用方各自的单条写入合并为一次批量写入：提交的条目进入队列，
+ * 由单个刷写线程取出首条后在合并窗口内继续收集，窗口到期或达到批量上限即调用批量写入函数，
+ * 再按提交顺序把各自的结果交付给调用方的Future。一次提交（事务提交、redo刷盘）的开销由整批分摊。
+ * <p>
+ * - 批量写入失败时，本批全部调用方以同一异常失败
+ * - 只有一个刷写线程：批量写入串行执行，吞吐上限约为 批量上限 / 单次批量写入耗时
+ * - 刷写线程不继承调用线程的事务等ThreadLocal状态，批量写入函数需自行开启事务
+ *
+ * @param <T> 写入条目类型
+ * @param <R> 写入结果类型
+ */
+public final class GroupCommitter<T, R> implements AutoCloseable {
+
+    /**
+     * 空闲时检查关闭标记的间隔
+     */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final Function<List<T>, List<R>> batchWriter;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<Pending<T, R>> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    /**
+     * @param name         刷写线程名称
+     * @param batchWriter  批量写入函数，返回与入参等长、顺序一致的结果
+     * @param window       合并窗口（自收到本批首条起计算），为0时只合并已排队的条目
+     * @param maxBatchSize 单批最大条目数
+     */
+    public GroupCommitter(String name, Function<List<T>, List<R>> batchWriter, Duration window, int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("批量上限必须大于0");
+        }
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("合并窗口不能为负");
+        }
+        this.batchWriter = batchWriter;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = new Thread(this::run, name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 提交一个写入条目
+     *
+     * @param item 写入条目
+     * @return 该条目的写入结果
+     * @throws IllegalStateException 如果组提交器已关闭
+     */
+    public CompletableFuture<R> submit(T item) {
+        if (closed) {
+            throw new IllegalStateException("组提交器已关闭");
+        }
+        Pending<T, R> pending = new Pending<>(item);
+        queue.add(pending);
+        // 与close竞争：刷写线程已退出时条目仍在队列中，由提交方自行失败
+        if (closed && queue.remove(pending)) {
+            pending.future.completeExceptionally(new IllegalStateException("组提交器已关闭"));
+        }
+        return pending.future;
+    }
+
+    /**
+     * 关闭组提交器：不再接受新条目，已排队的条目写完后刷写线程退出
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending<T, R> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+            } catch (InterruptedException e) {
+                // 刷写线程只在关闭时退出，中断视为关闭
+                closed = true;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在合并窗口内继续收集条目，直至窗口到期或达到批量上限
+     */
+    private void collect(List<Pending<T, R>> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            // 先无等待地取走已排队的条目
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Pending<T, R> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending<T, R>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Pending<T, R> pending : batch) {
+            items.add(pending.item);
+        }
+        try {
+            List<R> results = batchWriter.apply(items);
+            if (results == null || results.size() != batch.size()) {
+                throw new IllegalStateException("批量写入结果数量与条目数量不一致");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Throwable e) {
+            for (Pending<T, R> pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Pending<T, R> {
+
+        private final T item;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        Pending(T item) {
+            this.item = item;
+        }
+    }
+}
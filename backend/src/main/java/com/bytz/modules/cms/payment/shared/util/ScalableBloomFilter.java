@@ -0,0 +1,209 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 可扩容布隆过滤器
+ * Scalable Bloom Filter
+ * <p>
+ * 由若干级布隆过滤器组成：当前级写满后追加容量翻倍、误判率减半的新一级，
+ * 使总体误判率收敛于初始误判率的两倍以内，同时不需要预先知道元素总量。
+ * <p>
+ * 语义：mightContain返回false时元素一定不存在；返回true时元素可能存在，需要权威数据源确认。
+ * 线程安全：位图使用AtomicLongArray无锁写入，仅在扩容时加锁。
+ */
+public class ScalableBloomFilter {
+
+    /**
+     * 每次扩容的容量增长倍数
+     */
+    private static final int GROWTH_FACTOR = 2;
+
+    /**
+     * 每次扩容的误判率收紧比例
+     */
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private static final double LN2 = Math.log(2);
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+
+    /**
+     * 构造可扩容布隆过滤器
+     *
+     * @param initialCapacity 首级容量（预期元素数）
+     * @param falsePositiveRate 首级误判率，取值(0, 1)
+     */
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("初始容量必须大于0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("误判率必须在0到1之间");
+        }
+        stages.add(new Stage(initialCapacity, falsePositiveRate));
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param key 元素
+     * @return false表示一定不存在；true表示可能存在
+     */
+    public boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = secondaryHash(h1);
+        for (Stage stage : stages) {
+            if (stage.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param key 元素
+     * @return true如果元素此前一定不存在，false如果此前可能已存在
+     */
+    public boolean put(String key) {
+        long h1 = hash(key);
+        long h2 = secondaryHash(h1);
+        for (Stage stage : stages) {
+            if (stage.mightContain(h1, h2)) {
+                return false;
+            }
+        }
+        Stage current = currentStage();
+        current.put(h1, h2);
+        if (current.isFull()) {
+            grow(current);
+        }
+        return true;
+    }
+
+    /**
+     * 当前级数（用于监控）
+     *
+     * @return 过滤器级数
+     */
+    public int getStageCount() {
+        return stages.size();
+    }
+
+    /**
+     * 当前写入位图占用的总内存（字节，用于监控）
+     *
+     * @return 位图字节数
+     */
+    public long getBitmapBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += stage.bitCount / Byte.SIZE;
+        }
+        return bytes;
+    }
+
+    private Stage currentStage() {
+        return stages.get(stages.size() - 1);
+    }
+
+    private synchronized void grow(Stage full) {
+        // 双重检查：并发写入时只由第一个线程追加新一级
+        if (currentStage() != full) {
+            return;
+        }
+        stages.add(new Stage(full.capacity * GROWTH_FACTOR, full.falsePositiveRate * TIGHTENING_RATIO));
+    }
+
+    /**
+     * 64位字符串哈希（逐字符混合后做murmur3 fmix64终混）
+     */
+    private static long hash(String key) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0xBF58476D1CE4E5B9L;
+            h = Long.rotateLeft(h, 31);
+        }
+        return fmix64(h ^ key.length());
+    }
+
+    /**
+     * 第二哈希，强制为奇数保证双重哈希步长与位图长度互质的概率
+     */
+    private static long secondaryHash(long h1) {
+        return fmix64(h1 ^ 0xC2B2AE3D27D4EB4FL) | 1L;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * 单级定长布隆过滤器
+     */
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+        private final AtomicLong size = new AtomicLong();
+
+        Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            // m = -n·ln(p) / (ln2)^2，向上取整到64位的倍数
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            int words = (int) Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+            this.bitCount = (long) words * Long.SIZE;
+            // k = m/n·ln2
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * LN2));
+            this.bits = new AtomicLongArray(words);
+        }
+
+        boolean mightContain(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = (combined & Long.MAX_VALUE) % bitCount;
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+                combined += h2;
+            }
+            return true;
+        }
+
+        void put(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = (combined & Long.MAX_VALUE) % bitCount;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+                combined += h2;
+            }
+            size.incrementAndGet();
+        }
+
+        boolean isFull() {
+            return size.get() >= capacity;
+        }
+    }
+}
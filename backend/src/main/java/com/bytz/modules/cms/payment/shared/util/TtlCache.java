@@ -0,0 +1,130 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 短时效缓存
+ * TTL Cache
+ * <p>
+ * 缓存计算代价高、允许短时间内不精确的值（如查询总数）：条目写入后在有效期内直接返回，
+ * 过期后由下一次读取重新加载。同一键并发未命中时只加载一次，其余调用方等待同一结果。
+ * <p>
+ * - 加载失败时不缓存，等待中的调用方以同一异常失败
+ * - 条目数超过上限时先清理过期条目，仍超出则任意淘汰
+ *
+ * @param <K> 键类型（需正确实现 equals/hashCode）
+ * @param <V> 值类型
+ */
+public final class TtlCache<K, V> {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttl        有效期
+     * @param maxEntries 最大条目数
+     */
+    public TtlCache(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    TtlCache(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("有效期必须大于0");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("最大条目数必须大于0");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 读取缓存值，未命中或已过期时加载
+     *
+     * @param key    键
+     * @param loader 加载函数
+     * @return 缓存值
+     */
+    public V get(K key, Function<K, V> loader) {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            Entry<V> current = entries.get(key);
+            if (current != null && !current.isExpired(now)) {
+                return current.await();
+            }
+            Entry<V> created = new Entry<>(now + ttlNanos);
+            boolean installed = current == null
+                    ? entries.putIfAbsent(key, created) == null
+                    : entries.replace(key, current, created);
+            if (!installed) {
+                // 其他线程已开始加载，重新读取
+                continue;
+            }
+            evictIfFull(now);
+            try {
+                V value = loader.apply(key);
+                created.future.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                entries.remove(key, created);
+                created.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 当前条目数（含已过期未清理的条目）
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictIfFull(long now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        Iterator<K> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final long expiresAt;
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+
+        V await() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程工具
+ * Virtual Threads
+ * <p>
+ * 通过反射访问JDK 21的虚拟线程API，使同一份代码既能在Java 8编译运行，
+ * 也能在JDK 21上启用虚拟线程。运行时不支持时isSupported返回false，由调用方回退到平台线程。
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     *
+     * @return true如果运行在JDK 21及以上
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建命名的虚拟线程工厂，线程名为 prefix + 递增序号
+     *
+     * @param prefix 线程名前缀
+     * @return 虚拟线程工厂
+     * @throws IllegalStateException 如果运行时不支持虚拟线程
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        requireSupported();
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程工厂失败", e);
+        }
+    }
+
+    /**
+     * 创建每任务一个虚拟线程的执行器（Executors.newThreadPerTaskExecutor）
+     *
+     * @param prefix 线程名前缀
+     * @return 执行器，不需要池化也不需要限制大小
+     * @throws IllegalStateException 如果运行时不支持虚拟线程
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory factory = threadFactory(prefix);
+        try {
+            Method method = java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程执行器失败", e);
+        }
+    }
+
+    private static void requireSupported() {
+        if (!isSupported()) {
+            throw new IllegalStateException("当前运行时不支持虚拟线程，需要JDK 21及以上: " + System.getProperty("java.version"));
+        }
+    }
+
+    private static Method lookup(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
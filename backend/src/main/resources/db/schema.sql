@@ -17,6 +17,7 @@ CREATE TABLE IF NOT EXISTS cms_payment
     paid_amount             DECIMAL(20, 6) NOT NULL DEFAULT 0.000000 COMMENT '已支付金额',
     refunded_amount         DECIMAL(20, 6) NOT NULL DEFAULT 0.000000 COMMENT '已退款金额',
     actual_amount           DECIMAL(20, 6) NOT NULL DEFAULT 0.000000 COMMENT '实际收款金额',
+    pending_amount          DECIMAL(20, 6) AS (payment_amount - paid_amount) STORED COMMENT '待支付金额（生成列，与 PaymentAggregate#getPendingAmount 一致）',
     currency                VARCHAR(3) NOT NULL DEFAULT 'CNY' COMMENT '币种',
     payment_type            VARCHAR(20) NOT NULL COMMENT '支付类型（ADVANCE_PAYMENT/FINAL_PAYMENT/OTHER_PAYMENT/CREDIT_REPAYMENT）',
     payment_status          VARCHAR(20) NOT NULL COMMENT '支付状态（UNPAID/PAYING/PARTIAL_PAID/PAID/FAILED/STOPPED/FROZEN）',
@@ -46,6 +47,14 @@ CREATE INDEX idx_payment_type ON cms_payment (payment_type);
 CREATE INDEX idx_related_business ON cms_payment (related_business_type, related_business_id);
 CREATE INDEX idx_create_time ON cms_payment (create_time);
 
+-- 支付单组合查询索引：查询条件必须以其中一个索引的前导列约束，按索引顺序做游标分页
+CREATE INDEX idx_reseller_status_create ON cms_payment (reseller_id, payment_status, create_time);
+CREATE INDEX idx_status_deadline ON cms_payment (payment_status, payment_deadline);
+CREATE INDEX idx_business_type_create ON cms_payment (related_business_type, create_time);
+
+-- 可支付列表索引：按经销商、可支付状态逐个状态读取，索引内按截止时间有序
+CREATE INDEX idx_reseller_status_deadline ON cms_payment (reseller_id, payment_status, payment_deadline);
+
 -- 支付流水表（Payment Transaction Table）
 CREATE TABLE IF NOT EXISTS cms_payment_transaction
 (
@@ -57,6 +66,7 @@ CREATE TABLE IF NOT EXISTS cms_payment_transaction
     transaction_amount          DECIMAL(20, 6) NOT NULL COMMENT '交易金额',
     payment_channel             VARCHAR(50) NOT NULL COMMENT '支付渠道（ONLINE_PAYMENT/WALLET_PAYMENT/WIRE_TRANSFER/CREDIT_ACCOUNT）',
     channel_transaction_number  VARCHAR(64) NULL COMMENT '渠道交易号',
+    channel_payment_record_id   VARCHAR(64) NULL COMMENT '渠道支付记录ID（统一支付时同批流水共享）',
     payment_way                 VARCHAR(20) NULL COMMENT '支付方式',
     original_transaction_id     BIGINT NULL COMMENT '原流水ID（退款时使用）',
     business_order_id           VARCHAR(32) NULL COMMENT '业务单号（如退款单号）',
@@ -79,5 +89,264 @@ CREATE INDEX idx_payment_id ON cms_payment_transaction (payment_id);
 CREATE INDEX idx_transaction_type ON cms_payment_transaction (transaction_type);
 CREATE INDEX idx_transaction_status ON cms_payment_transaction (transaction_status);
 CREATE INDEX idx_channel_transaction_number ON cms_payment_transaction (channel_transaction_number);
+-- 按渠道支付记录ID回调时定位同批全部流水
+CREATE INDEX idx_channel_payment_record_id ON cms_payment_transaction (channel_payment_record_id);
 CREATE INDEX idx_original_transaction_id ON cms_payment_transaction (original_transaction_id);
-CREATE INDEX idx_create_time ON cms_payment_transaction (create_time);
\ No newline at end of file
+CREATE INDEX idx_create_time ON cms_payment_transaction (create_time);
+-- 分析导出按 (update_time, id) 游标增量读取（InnoDB二级索引隐含主键）
+CREATE INDEX idx_update_time ON cms_payment_transaction (update_time);
+-- 渠道回调处理记录表（Payment Callback Record Table）
+CREATE TABLE IF NOT EXISTS cms_payment_callback_record
+(
+    id                          BIGINT AUTO_INCREMENT NOT NULL COMMENT '主键ID，自增',
+    channel_transaction_number  VARCHAR(64) NOT NULL COMMENT '渠道交易号',
+    callback_status             VARCHAR(20) NOT NULL COMMENT '回调结果状态（SUCCESS/FAILED）',
+    payment_id                  BIGINT NOT NULL COMMENT '支付单ID',
+    create_time                 DATETIME NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_channel_txn_status (channel_transaction_number, callback_status)
+) COMMENT '渠道回调处理记录表' ROW_FORMAT = DYNAMIC;
+
+-- 电汇入账记录表（Wire Transfer Settlement Table）
+-- 一笔电汇到账（同一银行流水号）可结算多个支付单，各支付单分别登记，判重键为（银行流水号，支付单ID）
+CREATE TABLE IF NOT EXISTS cms_wire_transfer_settlement
+(
+    id                          BIGINT AUTO_INCREMENT NOT NULL COMMENT '主键ID，自增',
+    bank_reference              VARCHAR(64) NOT NULL COMMENT '银行流水号',
+    payment_id                  BIGINT NOT NULL COMMENT '支付单ID',
+    create_time                 DATETIME NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_bank_reference_payment (bank_reference, payment_id)
+) COMMENT '电汇入账记录表' ROW_FORMAT = DYNAMIC;
+
+-- 支付单路由索引表（Payment Route Table）
+-- 开启分片时仅建在路由分片（payment.sharding.route-shard，默认第一个分片）上，
+-- cms_payment、cms_payment_transaction、cms_payment_callback_record、cms_wire_transfer_settlement 在每个分片上建表
+CREATE TABLE IF NOT EXISTS cms_payment_route
+(
+    payment_id                  BIGINT NOT NULL COMMENT '支付单ID',
+    code                        VARCHAR(32) NOT NULL COMMENT '支付单号',
+    reseller_id                 VARCHAR(32) NOT NULL COMMENT '经销商ID',
+    shard_name                  VARCHAR(32) NOT NULL COMMENT '所在分片名称',
+    create_time                 DATETIME NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (payment_id),
+    UNIQUE KEY uk_code (code)
+) COMMENT '支付单路由索引表' ROW_FORMAT = DYNAMIC;
+
+-- 支付单归档表（Payment Archive Table）
+-- 已结清且超过保留期的支付单由归档任务从 cms_payment 搬迁至此，列与热表一致
+CREATE TABLE IF NOT EXISTS cms_payment_archive
+(
+    id                      BIGINT NOT NULL COMMENT '主键ID（沿用热表ID）',
+    code                    VARCHAR(32) NOT NULL COMMENT '支付单号，业务编码',
+    order_id                VARCHAR(32) NOT NULL COMMENT '关联订单号',
+    reseller_id             VARCHAR(32) NOT NULL COMMENT '经销商ID',
+    payment_amount          DECIMAL(20, 6) NOT NULL COMMENT '支付金额',
+    paid_amount             DECIMAL(20, 6) NOT NULL DEFAULT 0.000000 COMMENT '已支付金额',
+    refunded_amount         DECIMAL(20, 6) NOT NULL DEFAULT 0.000000 COMMENT '已退款金额',
+    actual_amount           DECIMAL(20, 6) NOT NULL DEFAULT 0.000000 COMMENT '实际收款金额',
+    pending_amount          DECIMAL(20, 6) NOT NULL DEFAULT 0.000000 COMMENT '待支付金额',
+    currency                VARCHAR(3) NOT NULL DEFAULT 'CNY' COMMENT '币种',
+    payment_type            VARCHAR(20) NOT NULL COMMENT '支付类型',
+    payment_status          VARCHAR(20) NOT NULL COMMENT '支付状态（PAID/CANCELED）',
+    refund_status           VARCHAR(20) NOT NULL DEFAULT 'NO_REFUND' COMMENT '退款状态',
+    business_desc           VARCHAR(500) NULL COMMENT '业务描述',
+    payment_deadline        DATETIME NULL COMMENT '支付截止时间',
+    priority_level          INT NULL COMMENT '优先级（1-高，2-中，3-低）',
+    related_business_id     VARCHAR(32) NULL COMMENT '关联业务ID',
+    related_business_type   VARCHAR(20) NULL COMMENT '关联业务类型',
+    business_expire_date    DATETIME NULL COMMENT '业务到期日',
+    del_flag                INT NULL DEFAULT 0 COMMENT '删除状态（0-正常，1-删除）',
+    create_by               VARCHAR(32) NULL COMMENT '创建人',
+    create_by_name          VARCHAR(32) NULL COMMENT '创建人姓名',
+    create_time             DATETIME NULL COMMENT '创建时间',
+    update_by               VARCHAR(32) NULL COMMENT '更新人',
+    update_by_name          VARCHAR(32) NULL COMMENT '更新人姓名',
+    update_time             DATETIME NULL COMMENT '更新时间',
+    archive_time            DATETIME NOT NULL COMMENT '归档时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_code (code)
+) COMMENT '支付单归档表' ROW_FORMAT = DYNAMIC;
+
+CREATE INDEX idx_archive_order_id ON cms_payment_archive (order_id);
+CREATE INDEX idx_archive_reseller_id ON cms_payment_archive (reseller_id);
+
+-- 支付流水归档表（Payment Transaction Archive Table）
+CREATE TABLE IF NOT EXISTS cms_payment_transaction_archive
+(
+    id                          BIGINT NOT NULL COMMENT '主键ID（沿用热表ID）',
+    code                        VARCHAR(32) NOT NULL COMMENT '流水号，业务编码',
+    payment_id                  BIGINT NOT NULL COMMENT '支付单ID',
+    transaction_type            VARCHAR(20) NOT NULL COMMENT '流水类型（PAYMENT/REFUND）',
+    transaction_status          VARCHAR(20) NOT NULL COMMENT '流水状态（SUCCESS/FAILED）',
+    transaction_amount          DECIMAL(20, 6) NOT NULL COMMENT '交易金额',
+    payment_channel             VARCHAR(50) NOT NULL COMMENT '支付渠道',
+    channel_transaction_number  VARCHAR(64) NULL COMMENT '渠道交易号',
+    channel_payment_record_id   VARCHAR(64) NULL COMMENT '渠道支付记录ID（统一支付时同批流水共享）',
+    payment_way                 VARCHAR(20) NULL COMMENT '支付方式',
+    original_transaction_id     BIGINT NULL COMMENT '原流水ID（退款时使用）',
+    business_order_id           VARCHAR(32) NULL COMMENT '业务单号（如退款单号）',
+    create_time                 DATETIME NOT NULL COMMENT '创建时间',
+    complete_date_time          DATETIME NULL COMMENT '完成时间',
+    expiration_time             DATETIME NULL COMMENT '过期时间',
+    business_remark             VARCHAR(500) NULL COMMENT '业务备注',
+    del_flag                    INT NULL DEFAULT 0 COMMENT '删除状态（0-正常，1-删除）',
+    create_by                   VARCHAR(32) NULL COMMENT '创建人',
+    create_by_name              VARCHAR(32) NULL COMMENT '创建人姓名',
+    update_by                   VARCHAR(32) NULL COMMENT '更新人',
+    update_by_name              VARCHAR(32) NULL COMMENT '更新人姓名',
+    update_time                 DATETIME NULL COMMENT '更新时间',
+    archive_time                DATETIME NOT NULL COMMENT '归档时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_code (code)
+) COMMENT '支付流水归档表' ROW_FORMAT = DYNAMIC;
+
+CREATE INDEX idx_archive_payment_id ON cms_payment_transaction_archive (payment_id);
+
+-- 经销商支付汇总表（Reseller Payment Summary Table）
+-- 按 经销商 × 币种 × 支付状态 累计支付单数与金额，与支付单在同一分片、同一事务内以增量更新；
+-- 统计口径为未逻辑删除的支付单（含已归档），由对账任务定期从支付单表与归档表重算校正
+CREATE TABLE IF NOT EXISTS cms_reseller_payment_summary
+(
+    reseller_id             VARCHAR(32) NOT NULL COMMENT '经销商ID',
+    currency                VARCHAR(3) NOT NULL COMMENT '币种',
+    payment_status          VARCHAR(20) NOT NULL COMMENT '支付状态',
+    payment_count           BIGINT NOT NULL DEFAULT 0 COMMENT '支付单数',
+    payment_amount          DECIMAL(24, 6) NOT NULL DEFAULT 0.000000 COMMENT '支付金额合计',
+    paid_amount             DECIMAL(24, 6) NOT NULL DEFAULT 0.000000 COMMENT '已支付金额合计',
+    refunded_amount         DECIMAL(24, 6) NOT NULL DEFAULT 0.000000 COMMENT '已退款金额合计',
+    update_time             DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (reseller_id, currency, payment_status)
+) COMMENT '经销商支付汇总表' ROW_FORMAT = DYNAMIC;
+
+-- 流水小时/日汇总表（Transaction Rollup Tables）
+-- 按流水创建时间分桶，键为 渠道 × 支付类型 × 流水类型 × 流水状态 × 币种；
+-- 由汇总任务从 (update_time, id) 水位增量维护，每个分片各自汇总本分片的流水，报表查询向全部分片并行读取后合并
+CREATE TABLE IF NOT EXISTS cms_transaction_rollup_hourly
+(
+    bucket_start            DATETIME NOT NULL COMMENT '小时桶起点',
+    payment_channel         VARCHAR(50) NOT NULL COMMENT '支付渠道',
+    payment_type            VARCHAR(20) NOT NULL COMMENT '支付类型',
+    transaction_type        VARCHAR(20) NOT NULL COMMENT '流水类型',
+    transaction_status      VARCHAR(20) NOT NULL COMMENT '流水状态',
+    currency                VARCHAR(3) NOT NULL COMMENT '币种',
+    transaction_count       BIGINT NOT NULL DEFAULT 0 COMMENT '流水笔数',
+    total_amount            DECIMAL(24, 6) NOT NULL DEFAULT 0.000000 COMMENT '流水金额合计',
+    update_time             DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (bucket_start, payment_channel, payment_type, transaction_type, transaction_status, currency)
+) COMMENT '流水小时汇总表' ROW_FORMAT = DYNAMIC;
+
+CREATE TABLE IF NOT EXISTS cms_transaction_rollup_daily
+(
+    bucket_start            DATETIME NOT NULL COMMENT '日桶起点（当日0点）',
+    payment_channel         VARCHAR(50) NOT NULL COMMENT '支付渠道',
+    payment_type            VARCHAR(20) NOT NULL COMMENT '支付类型',
+    transaction_type        VARCHAR(20) NOT NULL COMMENT '流水类型',
+    transaction_status      VARCHAR(20) NOT NULL COMMENT '流水状态',
+    currency                VARCHAR(3) NOT NULL COMMENT '币种',
+    transaction_count       BIGINT NOT NULL DEFAULT 0 COMMENT '流水笔数',
+    total_amount            DECIMAL(24, 6) NOT NULL DEFAULT 0.000000 COMMENT '流水金额合计',
+    update_time             DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (bucket_start, payment_channel, payment_type, transaction_type, transaction_status, currency)
+) COMMENT '流水日汇总表' ROW_FORMAT = DYNAMIC;
+
+-- 流水汇总状态表：记录每条流水最近一次计入汇总时的维度与金额，
+-- 流水状态变化时据此先移出旧值再计入新值，重复读到同一流水不会重复计数
+CREATE TABLE IF NOT EXISTS cms_transaction_rollup_state
+(
+    transaction_id          BIGINT NOT NULL COMMENT '流水ID',
+    payment_id              BIGINT NOT NULL COMMENT '支付单ID',
+    bucket_start            DATETIME NOT NULL COMMENT '小时桶起点',
+    payment_channel         VARCHAR(50) NOT NULL COMMENT '支付渠道',
+    payment_type            VARCHAR(20) NOT NULL COMMENT '支付类型',
+    transaction_type        VARCHAR(20) NOT NULL COMMENT '流水类型',
+    transaction_status      VARCHAR(20) NOT NULL COMMENT '流水状态',
+    currency                VARCHAR(3) NOT NULL COMMENT '币种',
+    amount                  DECIMAL(20, 6) NOT NULL COMMENT '流水金额',
+    update_time             DATETIME NULL COMMENT '计入时的流水更新时间',
+    PRIMARY KEY (transaction_id)
+) COMMENT '流水汇总状态表' ROW_FORMAT = DYNAMIC;
+
+CREATE INDEX idx_rollup_state_payment_id ON cms_transaction_rollup_state (payment_id);
+
+-- 汇总水位表：每个分片一行，汇总任务在事务内锁定水位、处理一页、推进水位
+CREATE TABLE IF NOT EXISTS cms_rollup_watermark
+(
+    name                    VARCHAR(32) NOT NULL COMMENT '汇总名称',
+    watermark_time          DATETIME NOT NULL COMMENT '水位更新时间（不含）',
+    watermark_id            BIGINT NOT NULL COMMENT '水位流水ID（同一更新时间内，不含）',
+    update_time             DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (name)
+) COMMENT '汇总水位表' ROW_FORMAT = DYNAMIC;
+
+-- 信用账户流水日志表（Credit Journal Table）
+-- 每个经销商的分录按序号连续追加，(reseller_id, seq) 主键保证多实例并发追加时同一序号只有一条成功，
+-- 额度变化只插入分录、不更新余额行；当前余额 = 最近快照 + 快照序号之后的分录
+-- 退款退还（RESTORE）以渠道退款记录ID为参考号，按 (reseller_id, reference) 判断是否已退还
+CREATE TABLE IF NOT EXISTS cms_credit_journal
+(
+    reseller_id             VARCHAR(32) NOT NULL COMMENT '经销商ID',
+    seq                     BIGINT NOT NULL COMMENT '分录序号（每个经销商从1连续递增）',
+    entry_type              VARCHAR(20) NOT NULL COMMENT '分录类型（LIMIT/RESERVE/COMMIT/RELEASE/RESTORE）',
+    amount                  DECIMAL(20, 6) NOT NULL COMMENT '分录金额',
+    reservation_id          VARCHAR(32) NULL COMMENT '预占ID（RESERVE/COMMIT/RELEASE）',
+    reference               VARCHAR(64) NULL COMMENT '业务参考号（支付流水号、退款记录等）',
+    create_time             DATETIME NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (reseller_id, seq),
+    KEY idx_reseller_reference (reseller_id, reference)
+) COMMENT '信用账户流水日志表' ROW_FORMAT = DYNAMIC;
+
+-- 信用账户快照表（Credit Snapshot Table）
+-- 定期写入各经销商额度状态与对应的分录序号，恢复时从快照起重放，无需重放全部日志
+CREATE TABLE IF NOT EXISTS cms_credit_snapshot
+(
+    reseller_id             VARCHAR(32) NOT NULL COMMENT '经销商ID',
+    seq                     BIGINT NOT NULL COMMENT '快照包含的最后分录序号',
+    credit_limit            DECIMAL(20, 6) NOT NULL COMMENT '信用额度',
+    used_amount             DECIMAL(20, 6) NOT NULL COMMENT '已用额度',
+    reserved_amount         DECIMAL(20, 6) NOT NULL COMMENT '预占额度',
+    open_reservations       TEXT NULL COMMENT '未结预占（预占ID|金额|预占时间，分号分隔）',
+    update_time             DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (reseller_id)
+) COMMENT '信用账户快照表' ROW_FORMAT = DYNAMIC;
+
+-- 钱包账户表（Wallet Account Table）
+-- 每个经销商一行，余额变更按版本号比较并交换（UPDATE ... WHERE version = 读取时的版本），不持有行锁读-改-写；
+-- 同一批支付的多笔冻结合并为一次更新
+CREATE TABLE IF NOT EXISTS cms_wallet_account
+(
+    reseller_id             VARCHAR(32) NOT NULL COMMENT '经销商ID',
+    balance                 DECIMAL(20, 6) NOT NULL DEFAULT 0 COMMENT '余额（含冻结）',
+    held_amount             DECIMAL(20, 6) NOT NULL DEFAULT 0 COMMENT '冻结金额',
+    version                 BIGINT NOT NULL DEFAULT 0 COMMENT '版本号（每次更新加1）',
+    create_time             DATETIME NOT NULL COMMENT '创建时间',
+    update_time             DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (reseller_id)
+) COMMENT '钱包账户表' ROW_FORMAT = DYNAMIC;
+
+-- 钱包冻结表（Wallet Hold Table）
+-- 钱包支付请求时冻结，支付成功扣款、失败或取消解冻；状态只从 HELD 迁出一次
+CREATE TABLE IF NOT EXISTS cms_wallet_hold
+(
+    hold_id                 VARCHAR(32) NOT NULL COMMENT '冻结ID',
+    reseller_id             VARCHAR(32) NOT NULL COMMENT '经销商ID',
+    amount                  DECIMAL(20, 6) NOT NULL COMMENT '冻结金额',
+    status                  VARCHAR(20) NOT NULL COMMENT '状态（HELD/CAPTURED/RELEASED）',
+    reference               VARCHAR(64) NULL COMMENT '业务参考号（支付流水号）',
+    create_time             DATETIME NOT NULL COMMENT '创建时间',
+    update_time             DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (hold_id),
+    KEY idx_reseller_status (reseller_id, status)
+) COMMENT '钱包冻结表' ROW_FORMAT = DYNAMIC;
+
+-- 钱包入账表（Wallet Deposit Table）
+-- 幂等入账（如退款退回）的入账记录，与余额更新在同一事务中写入；入账ID重复表示已入账
+CREATE TABLE IF NOT EXISTS cms_wallet_deposit
+(
+    deposit_id              VARCHAR(64) NOT NULL COMMENT '入账ID（渠道退款记录ID）',
+    reseller_id             VARCHAR(32) NOT NULL COMMENT '经销商ID',
+    amount                  DECIMAL(20, 6) NOT NULL COMMENT '入账金额',
+    create_time             DATETIME NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (deposit_id),
+    KEY idx_reseller_id (reseller_id)
+) COMMENT '钱包入账表' ROW_FORMAT = DYNAMIC;
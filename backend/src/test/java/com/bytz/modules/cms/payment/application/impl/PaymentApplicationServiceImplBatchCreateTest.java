@@ -0,0 +1,178 @@
+package com.bytz.modules.cms.payment.application.impl;
+
+import com.bytz.modules.cms.payment.application.assembler.PaymentAssembler;
+import com.bytz.modules.cms.payment.application.command.CreatePaymentCommand;
+import com.bytz.modules.cms.payment.domain.PaymentCodeGenerator;
+import com.bytz.modules.cms.payment.domain.PaymentDomainService;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.infrastructure.config.ExecutionProperties;
+import com.bytz.modules.cms.payment.shared.model.PaymentBatchCreatedEvent;
+import com.bytz.modules.cms.payment.shared.model.PaymentCreatedEvent;
+import com.bytz.modules.cms.payment.shared.util.GroupCommitter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.validation.Validation;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 支付单批量创建应用服务测试
+ * Payment Batch Create Application Service Test
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentApplicationServiceImpl 批量创建测试")
+class PaymentApplicationServiceImplBatchCreateTest {
+
+    @Mock
+    private IPaymentRepository paymentRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PaymentDomainService domainService;
+
+    @Mock
+    private ExecutorService channelCallExecutor;
+
+    @Mock
+    private PaymentAssembler paymentAssembler;
+
+    @Mock
+    private ObjectProvider<GroupCommitter<PaymentAggregate, PaymentAggregate>> paymentCreateCommitter;
+
+    private PaymentApplicationServiceImpl paymentApplicationService;
+
+    @BeforeEach
+    void setUp() {
+        paymentApplicationService = new PaymentApplicationServiceImpl(paymentRepository, eventPublisher,
+                Collections.emptyList(), domainService, new PaymentCodeGenerator(), channelCallExecutor,
+                new ExecutionProperties(), paymentAssembler,
+                Validation.buildDefaultValidatorFactory().getValidator(), paymentCreateCommitter);
+    }
+
+    @Test
+    @DisplayName("一次批量写入（每个分片一个事务）、批量分配不重复的支付单号，并只发布一次批量事件")
+    void testCreatePayments_SingleWriteAndSingleEvent() {
+        // Given 2500个命令
+        List<CreatePaymentCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            commands.add(command("ORDER-" + i, new BigDecimal("100.00")));
+        }
+        List<PaymentAggregate> saved = new ArrayList<>();
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PaymentAggregate> batch = invocation.getArgument(0);
+            saved.addAll(batch);
+            return batch;
+        });
+
+        // When
+        paymentApplicationService.createPayments(commands);
+
+        // Then
+        verify(paymentRepository, times(1)).saveAll(anyList());
+        verify(paymentRepository, never()).save(any());
+        assertEquals(2500, saved.size());
+        assertEquals(2500, saved.stream().map(PaymentAggregate::getCode).collect(Collectors.toSet()).size());
+        assertEquals("ORDER-0", saved.get(0).getOrderId());
+
+        ArgumentCaptor<PaymentBatchCreatedEvent> event = ArgumentCaptor.forClass(PaymentBatchCreatedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(2500, event.getValue().getPayments().size());
+    }
+
+    @Test
+    @DisplayName("部分分片写入失败：为已提交的支付单发布批量事件后抛出异常")
+    void testCreatePayments_PublishesCommittedShardsOnFailure() {
+        // Given 前两个支付单所在分片已提交，第三个支付单所在分片写入失败（ID已分配但随事务回滚）
+        List<CreatePaymentCommand> commands = Arrays.asList(command("ORDER-1", new BigDecimal("100.00")),
+                command("ORDER-2", new BigDecimal("100.00")), command("ORDER-3", new BigDecimal("100.00")));
+        List<PaymentAggregate> committed = new ArrayList<>();
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PaymentAggregate> payments = invocation.getArgument(0);
+            for (int i = 0; i < payments.size(); i++) {
+                payments.get(i).setId("P" + i);
+            }
+            committed.addAll(payments.subList(0, 2));
+            throw new IllegalStateException("shard down");
+        });
+        when(paymentRepository.findByIds(Arrays.asList("P0", "P1", "P2"))).thenReturn(committed);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> paymentApplicationService.createPayments(commands));
+
+        // Then
+        ArgumentCaptor<PaymentBatchCreatedEvent> event = ArgumentCaptor.forClass(PaymentBatchCreatedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(Arrays.asList(committed.get(0).getCode(), committed.get(1).getCode()),
+                event.getValue().getPayments().stream().map(PaymentCreatedEvent::getPaymentCode)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("单分片写入失败：没有已提交的支付单，不发布事件")
+    void testCreatePayments_NoEventWhenNothingCommitted() {
+        // Given
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PaymentAggregate> payments = invocation.getArgument(0);
+            payments.forEach(payment -> payment.setId("P-" + payment.getOrderId()));
+            throw new IllegalStateException("db down");
+        });
+        when(paymentRepository.findByIds(anyList())).thenReturn(Collections.emptyList());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> paymentApplicationService.createPayments(
+                Collections.singletonList(command("ORDER-1", new BigDecimal("100.00")))));
+
+        // Then
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("任一命令不合法时汇总全部错误并整体拒绝，不写入数据")
+    void testCreatePayments_ReportsAllViolations() {
+        // Given 第2项金额为0，第3项缺少订单号
+        List<CreatePaymentCommand> commands = Arrays.asList(
+                command("ORDER-1", new BigDecimal("100.00")),
+                command("ORDER-2", BigDecimal.ZERO),
+                command(null, new BigDecimal("100.00")));
+
+        // When
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> paymentApplicationService.createPayments(commands));
+
+        // Then
+        assertTrue(exception.getMessage().contains("第2项"));
+        assertTrue(exception.getMessage().contains("第3项"));
+        verifyNoInteractions(paymentRepository, eventPublisher);
+    }
+
+    private static CreatePaymentCommand command(String orderId, BigDecimal amount) {
+        return CreatePaymentCommand.builder()
+                .orderId(orderId)
+                .resellerId("RESELLER-001")
+                .paymentAmount(amount)
+                .paymentType(PaymentType.CREDIT_REPAYMENT)
+                .build();
+    }
+}
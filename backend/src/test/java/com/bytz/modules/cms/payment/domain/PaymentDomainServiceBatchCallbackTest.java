@@ -0,0 +1,160 @@
+package com.bytz.modules.cms.payment.domain;
+
+import com.bytz.modules.cms.payment.domain.command.PaymentCallbackCommand;
+import com.bytz.modules.cms.payment.domain.enums.CallbackOutcome;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.repository.ICallbackRecordRepository;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.domain.response.CallbackResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量回调的领域服务测试
+ * 验证判重只读预检、回调登记随saveAll在同一事务内提交，以及持久化失败时的逐项结果
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentDomainService 批量回调测试")
+class PaymentDomainServiceBatchCallbackTest {
+
+    @Mock
+    private IPaymentRepository paymentRepository;
+
+    @Mock
+    private ICallbackRecordRepository callbackRecordRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private PaymentDomainService domainService;
+
+    @BeforeEach
+    void setUp() {
+        domainService = new PaymentDomainService(paymentRepository, callbackRecordRepository,
+                eventPublisher, Collections.emptyList());
+    }
+
+    @Test
+    @DisplayName("批内重复：同一回调只应用一次，登记随支付单一次写入")
+    void testDuplicateWithinBatch() {
+        // Given
+        PaymentAggregate p1 = payingPayment("P1");
+        PaymentAggregate p2 = payingPayment("P2");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Arrays.asList(p1, p2));
+
+        // When
+        List<CallbackResult> results = domainService.processCallbacks(Arrays.asList(
+                callback("P1", "CH-1"), callback("P2", "CH-2"), callback("P1", "CH-1")));
+
+        // Then
+        assertEquals(CallbackOutcome.PROCESSED, results.get(0).getOutcome());
+        assertEquals(CallbackOutcome.PROCESSED, results.get(1).getOutcome());
+        assertEquals(CallbackOutcome.DUPLICATE, results.get(2).getOutcome());
+        assertEquals(1, p1.getCompletedTransactions().size());
+        verify(paymentRepository).saveAll(Arrays.asList(p1, p2), Arrays.asList(record("CH-1", "P1"), record("CH-2", "P2")));
+        verify(callbackRecordRepository, never()).markProcessed(anyList());
+    }
+
+    @Test
+    @DisplayName("库中已登记：回调按重复确认，不加载支付单、不登记")
+    void testDuplicateAlreadyInDatabase() {
+        // Given CH-1已处理
+        PaymentAggregate p2 = payingPayment("P2");
+        when(callbackRecordRepository.isProcessed(record("CH-1", "P1"))).thenReturn(true);
+        when(paymentRepository.findByIds(Collections.singletonList("P2"))).thenReturn(Collections.singletonList(p2));
+
+        // When
+        List<CallbackResult> results = domainService.processCallbacks(Arrays.asList(
+                callback("P1", "CH-1"), callback("P2", "CH-2")));
+
+        // Then
+        assertEquals(CallbackOutcome.DUPLICATE, results.get(0).getOutcome());
+        assertEquals(CallbackOutcome.PROCESSED, results.get(1).getOutcome());
+        verify(paymentRepository).saveAll(Collections.singletonList(p2),
+                Collections.singletonList(record("CH-2", "P2")));
+    }
+
+    @Test
+    @DisplayName("并发投递在提交时被唯一键拒绝：已被抢先登记的项确认为重复，其余项失败待重投")
+    void testConcurrentDuplicateRejectedAtCommit() {
+        // Given 预检时CH-1尚未登记，提交时已被并发投递登记
+        PaymentAggregate p1 = payingPayment("P1");
+        PaymentAggregate p2 = payingPayment("P2");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Arrays.asList(p1, p2));
+        when(callbackRecordRepository.isProcessed(record("CH-1", "P1"))).thenReturn(false, true);
+        when(paymentRepository.saveAll(anyList(), anyList())).thenThrow(new DuplicateKeyException("uk_channel_txn_status"));
+
+        // When
+        List<CallbackResult> results = domainService.processCallbacks(Arrays.asList(
+                callback("P1", "CH-1"), callback("P2", "CH-2")));
+
+        // Then
+        assertEquals(CallbackOutcome.DUPLICATE, results.get(0).getOutcome());
+        assertEquals(CallbackOutcome.FAILED, results.get(1).getOutcome());
+    }
+
+    @Test
+    @DisplayName("持久化失败：已应用的项标记失败，登记随事务回滚，不做事后撤销")
+    void testFailedSaveMarksAppliedFailed() {
+        // Given
+        when(paymentRepository.findByIds(anyList())).thenReturn(Arrays.asList(payingPayment("P1"), payingPayment("P2")));
+        when(paymentRepository.saveAll(anyList(), anyList())).thenThrow(new IllegalStateException("db down"));
+
+        // When
+        List<CallbackResult> results = domainService.processCallbacks(Arrays.asList(
+                callback("P1", "CH-1"), callback("P2", "CH-2"), callback("P3", "CH-3")));
+
+        // Then
+        assertEquals(CallbackOutcome.FAILED, results.get(0).getOutcome());
+        assertEquals(CallbackOutcome.FAILED, results.get(1).getOutcome());
+        assertEquals(CallbackOutcome.NOT_FOUND, results.get(2).getOutcome());
+        verify(callbackRecordRepository, never()).markProcessed(anyList());
+    }
+
+    private static PaymentCallbackCommand callback(String paymentId, String channelTransactionNumber) {
+        return PaymentCallbackCommand.builder()
+                .paymentId(paymentId)
+                .transactionCode("TXN-" + paymentId)
+                .transactionType(TransactionType.PAYMENT)
+                .channelTransactionNumber(channelTransactionNumber)
+                .success(true)
+                .completeTime(LocalDateTime.of(2024, 6, 1, 10, 0))
+                .build();
+    }
+
+    private static CallbackRecord record(String channelTransactionNumber, String paymentId) {
+        return CallbackRecord.channelCallback(channelTransactionNumber, TransactionStatus.SUCCESS, paymentId);
+    }
+
+    private static PaymentAggregate payingPayment(String id) {
+        PaymentAggregate payment = PaymentAggregate.create("ORDER-" + id, "RESELLER-001", new BigDecimal("100.00"),
+                "CNY", PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+        payment.setId(id);
+        payment.executePayment(PaymentChannel.ONLINE_PAYMENT, new BigDecimal("100.00"), "在线支付")
+                .setCode("TXN-" + id);
+        assertEquals(PaymentStatus.PAYING, payment.getPaymentStatus());
+        return payment;
+    }
+}
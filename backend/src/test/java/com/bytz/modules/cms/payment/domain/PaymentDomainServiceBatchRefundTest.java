@@ -0,0 +1,228 @@
+package com.bytz.modules.cms.payment.domain;
+
+import com.bytz.modules.cms.payment.domain.command.CreateRefundRequestCommand;
+import com.bytz.modules.cms.payment.domain.command.RefundCommand;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RefundStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.domain.repository.ICallbackRecordRepository;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentChannelService;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.domain.response.RefundRequestResponse;
+import com.bytz.modules.cms.payment.domain.response.RefundResult;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量退款领域服务测试
+ * 验证按原渠道支付记录合并渠道退款请求、一次校验、一次批量写入
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentDomainService 批量退款测试")
+class PaymentDomainServiceBatchRefundTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Mock
+    private IPaymentRepository paymentRepository;
+
+    @Mock
+    private ICallbackRecordRepository callbackRecordRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IPaymentChannelService walletChannel;
+
+    private PaymentDomainService domainService;
+
+    @BeforeEach
+    void setUp() {
+        domainService = new PaymentDomainService(paymentRepository, callbackRecordRepository,
+                eventPublisher, Collections.singletonList(walletChannel));
+    }
+
+    @Test
+    @DisplayName("同一统一支付记录的支付单合并为一次渠道退款请求，并只做一次批量写入")
+    void testRefundsGroupedByOriginalRecord() {
+        // Given P1、P2来自统一支付记录R1，P3来自R2
+        PaymentAggregate p1 = paidPayment("P1", "100.00", "R1");
+        PaymentAggregate p2 = paidPayment("P2", "50.00", "R1");
+        PaymentAggregate p3 = paidPayment("P3", "30.00", "R2");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Arrays.asList(p1, p2, p3));
+        when(walletChannel.getChannelType()).thenReturn(PaymentChannel.WALLET_PAYMENT);
+        when(walletChannel.createRefundRequestAsync(any(), any())).thenAnswer(invocation -> {
+            CreateRefundRequestCommand request = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(RefundRequestResponse.builder()
+                    .channelPaymentRecordId("REFUND-" + request.getOriginalChannelPaymentRecordId())
+                    .refundTransactionNumber("RTXN-" + request.getOriginalChannelPaymentRecordId())
+                    .build());
+        });
+
+        // When
+        List<RefundResult> result = domainService.executeRefunds(Arrays.asList(
+                refund("P1", "100.00"), refund("P2", "20.00"), refund("P3", "30.00")), DIRECT, Duration.ofSeconds(5));
+
+        // Then 两个渠道退款请求，R1合并金额120
+        ArgumentCaptor<CreateRefundRequestCommand> requests = ArgumentCaptor.forClass(CreateRefundRequestCommand.class);
+        verify(walletChannel, times(2)).createRefundRequestAsync(requests.capture(), any());
+        assertEquals("R1", requests.getAllValues().get(0).getOriginalChannelPaymentRecordId());
+        assertEquals(0, new BigDecimal("120.00").compareTo(requests.getAllValues().get(0).getRefundAmount()));
+        assertEquals("R2", requests.getAllValues().get(1).getOriginalChannelPaymentRecordId());
+
+        assertEquals(Arrays.asList(p1, p2, p3),
+                result.stream().map(RefundResult::getPayment).collect(Collectors.toList()));
+        assertSame(p2.getRunningTransaction(), result.get(1).getRefundTransaction());
+        assertEquals("REFUND-R1", p2.getRunningTransaction().getChannelPaymentRecordId());
+        assertEquals("REFUND-R2", p3.getRunningTransaction().getChannelPaymentRecordId());
+        assertEquals(RefundStatus.REFUNDING, p1.getRefundStatus());
+        verify(paymentRepository, times(1)).findByIds(anyList());
+        verify(paymentRepository, times(1)).saveAll(Arrays.asList(p1, p2, p3));
+        verify(paymentRepository, never()).save(any());
+        verify(walletChannel, never()).confirmRefund(any(), any());
+    }
+
+    @Test
+    @DisplayName("渠道在退款请求中即完成退款时随本次保存结算流水，并在保存后确认退款")
+    void testCompletedRefundSettledAndConfirmedAfterSave() {
+        // Given 渠道响应状态为成功（无回调）
+        PaymentAggregate p1 = paidPayment("P1", "100.00", "R1");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Collections.singletonList(p1));
+        when(walletChannel.getChannelType()).thenReturn(PaymentChannel.WALLET_PAYMENT);
+        RefundRequestResponse response = RefundRequestResponse.builder()
+                .transactionStatus(TransactionStatus.SUCCESS)
+                .channelPaymentRecordId("REFUND-R1")
+                .refundTransactionNumber("RTXN-R1")
+                .build();
+        when(walletChannel.createRefundRequestAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        // When
+        List<RefundResult> result = domainService.executeRefunds(
+                Collections.singletonList(refund("P1", "40.00")), DIRECT, Duration.ofSeconds(5));
+
+        // Then 流水已结算，保存后确认
+        PaymentTransaction refundTransaction = result.get(0).getRefundTransaction();
+        assertEquals(TransactionStatus.SUCCESS, refundTransaction.getTransactionStatus());
+        assertEquals("REFUND-R1", refundTransaction.getChannelPaymentRecordId());
+        assertNull(p1.getRunningTransaction());
+        assertEquals(RefundStatus.PARTIAL_REFUNDED, p1.getRefundStatus());
+        assertEquals(0, new BigDecimal("40.00").compareTo(p1.getRefundedAmount()));
+        InOrder inOrder = inOrder(paymentRepository, walletChannel);
+        inOrder.verify(paymentRepository).saveAll(Collections.singletonList(p1));
+        inOrder.verify(walletChannel).confirmRefund(any(CreateRefundRequestCommand.class), same(response));
+    }
+
+    @Test
+    @DisplayName("批量保存失败时不确认渠道退款")
+    void testCompletedRefundNotConfirmedWhenSaveFails() {
+        // Given
+        PaymentAggregate p1 = paidPayment("P1", "100.00", "R1");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Collections.singletonList(p1));
+        when(walletChannel.getChannelType()).thenReturn(PaymentChannel.WALLET_PAYMENT);
+        when(walletChannel.createRefundRequestAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(
+                RefundRequestResponse.builder()
+                        .transactionStatus(TransactionStatus.SUCCESS)
+                        .channelPaymentRecordId("REFUND-R1")
+                        .build()));
+        doThrow(new IllegalStateException("db down")).when(paymentRepository).saveAll(anyList());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> domainService.executeRefunds(
+                Collections.singletonList(refund("P1", "40.00")), DIRECT, Duration.ofSeconds(5)));
+
+        // Then
+        verify(walletChannel, never()).confirmRefund(any(), any());
+    }
+
+    @Test
+    @DisplayName("任一退款不合法时汇总全部错误并整体拒绝，不调用渠道")
+    void testValidationFailsWholeBatch() {
+        // Given P1退款超额，P9不存在
+        PaymentAggregate p1 = paidPayment("P1", "100.00", "R1");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Collections.singletonList(p1));
+
+        // When
+        PaymentException exception = assertThrows(PaymentException.class, () -> domainService.executeRefunds(
+                Arrays.asList(refund("P1", "200.00"), refund("P9", "10.00")), DIRECT, Duration.ofSeconds(5)));
+
+        // Then
+        assertTrue(exception.getMessage().contains("超过可退款金额"));
+        assertTrue(exception.getMessage().contains("P9"));
+        verifyNoInteractions(walletChannel);
+        verify(paymentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("渠道退款响应为空时整批不持久化，按需人工对账失败")
+    void testEmptyChannelResponseFailsBatch() {
+        // Given R1的渠道退款请求返回了空响应
+        PaymentAggregate p1 = paidPayment("P1", "100.00", "R1");
+        PaymentAggregate p3 = paidPayment("P3", "30.00", "R2");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Arrays.asList(p1, p3));
+        when(walletChannel.getChannelType()).thenReturn(PaymentChannel.WALLET_PAYMENT);
+        when(walletChannel.createRefundRequestAsync(any(), any())).thenAnswer(invocation -> {
+            CreateRefundRequestCommand request = invocation.getArgument(0);
+            return CompletableFuture.completedFuture("R1".equals(request.getOriginalChannelPaymentRecordId())
+                    ? null : RefundRequestResponse.builder().channelPaymentRecordId("REFUND-R2").build());
+        });
+
+        // When
+        PaymentException exception = assertThrows(PaymentException.class, () -> domainService.executeRefunds(
+                Arrays.asList(refund("P1", "100.00"), refund("P3", "30.00")), DIRECT, Duration.ofSeconds(5)));
+
+        // Then
+        assertTrue(exception.getMessage().contains("需人工对账"));
+        verify(paymentRepository, never()).saveAll(anyList());
+    }
+
+    private static RefundCommand refund(String paymentId, String amount) {
+        return RefundCommand.builder()
+                .paymentId(paymentId)
+                .refundAmount(new BigDecimal(amount))
+                .businessOrderId("RETURN-001")
+                .refundReason("整单退货")
+                .build();
+    }
+
+    private static PaymentAggregate paidPayment(String id, String amount, String recordId) {
+        PaymentAggregate payment = PaymentAggregate.create("ORDER-001", "RESELLER-001", new BigDecimal(amount),
+                "CNY", PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+        payment.setId(id);
+        payment.setCode("PAY-" + id);
+        PaymentTransaction transaction = payment.executePayment(PaymentChannel.WALLET_PAYMENT, new BigDecimal(amount), "统一支付");
+        transaction.setId("TXN-" + id);
+        transaction.setChannelPaymentRecordId(recordId);
+        transaction.setChannelTransactionNumber("CH-" + recordId);
+        payment.handlePaymentCallback(transaction.getCode(), true, LocalDateTime.now());
+        return payment;
+    }
+}
@@ -0,0 +1,240 @@
+package com.bytz.modules.cms.payment.domain;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.bytz.modules.cms.payment.domain.command.PaymentCallbackCommand;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RefundStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.infrastructure.config.CallbackDedupProperties;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentCallbackRecordMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.WireTransferSettlementMapper;
+import com.bytz.modules.cms.payment.infrastructure.repository.CallbackRecordRepositoryImpl;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.infrastructure.typehandler.PaymentEnumTypeHandlers;
+import org.apache.ibatis.logging.nologging.NoLoggingImpl;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 单个回调判重的领域服务测试
+ * 回调登记使用H2内存库（MySQL模式）上的真实仓储，支付单仓储的saveAll在同一事务内写入登记；
+ * 验证渠道重复投递的支付/退款回调按重复确认、不再修改支付单，以及布隆过滤器误判时回落到数据库确认
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentDomainService 回调判重测试")
+class PaymentDomainServiceCallbackDedupTest {
+
+    private static final LocalDateTime COMPLETE_TIME = LocalDateTime.of(2024, 6, 1, 10, 0);
+
+    @Mock
+    private IPaymentRepository paymentRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private TransactionTemplate transactionTemplate;
+
+    private PaymentCallbackRecordMapper recordMapper;
+
+    private CallbackRecordRepositoryImpl callbackRecordRepository;
+
+    private PaymentDomainService domainService;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:callback_dedup_" + UUID.randomUUID().toString().replace("-", "")
+                        + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE cms_payment_callback_record (id VARCHAR(32) PRIMARY KEY, "
+                + "channel_transaction_number VARCHAR(64) NOT NULL, callback_status VARCHAR(20) NOT NULL, "
+                + "payment_id VARCHAR(32) NOT NULL, create_time DATETIME NOT NULL, "
+                + "CONSTRAINT uk_channel_txn_status UNIQUE (channel_transaction_number, callback_status))");
+        jdbcTemplate.execute("CREATE TABLE cms_wire_transfer_settlement (id VARCHAR(32) PRIMARY KEY, "
+                + "bank_reference VARCHAR(64) NOT NULL, payment_id VARCHAR(32) NOT NULL, create_time DATETIME NOT NULL, "
+                + "CONSTRAINT uk_bank_reference_payment UNIQUE (bank_reference, payment_id))");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setLogImpl(NoLoggingImpl.class);
+        PaymentEnumTypeHandlers.registerAll(configuration.getTypeHandlerRegistry());
+        configuration.addMapper(PaymentCallbackRecordMapper.class);
+        configuration.addMapper(WireTransferSettlementMapper.class);
+        SqlSessionFactory sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+        SqlSessionTemplate sqlSession = new SqlSessionTemplate(sqlSessionFactory);
+
+        // 委托真实Mapper，用于确认判重何时访问数据库
+        recordMapper = mock(PaymentCallbackRecordMapper.class,
+                AdditionalAnswers.delegatesTo(sqlSession.getMapper(PaymentCallbackRecordMapper.class)));
+        callbackRecordRepository = new CallbackRecordRepositoryImpl(recordMapper,
+                sqlSession.getMapper(WireTransferSettlementMapper.class), PaymentShardRouter.singleShard(),
+                sqlSessionFactory, new CallbackDedupProperties());
+        // 与真实仓储一致：回调登记在支付单写入的同一事务内提交
+        lenient().when(paymentRepository.saveAll(anyList(), anyList())).thenAnswer(invocation -> {
+            List<CallbackRecord> records = invocation.getArgument(1);
+            transactionTemplate.executeWithoutResult(status -> callbackRecordRepository.markProcessed(records));
+            return invocation.getArgument(0);
+        });
+        domainService = new PaymentDomainService(paymentRepository, callbackRecordRepository,
+                eventPublisher, Collections.emptyList());
+    }
+
+    @Test
+    @DisplayName("支付回调重复投递：首次处理返回true，重复投递返回false，不再加载和修改支付单")
+    void testRedeliveredPaymentCallbackIsDuplicate() {
+        // Given
+        PaymentAggregate payment = payingPayment();
+        when(paymentRepository.findById("P1")).thenReturn(Optional.of(payment));
+        PaymentCallbackCommand callback = paymentCallback(payment);
+
+        // When
+        boolean first = domainService.processPaymentCallback(callback);
+        boolean redelivered = domainService.processPaymentCallback(callback);
+
+        // Then
+        assertTrue(first);
+        assertFalse(redelivered);
+        assertEquals(PaymentStatus.PAID, payment.getPaymentStatus());
+        assertEquals(0, new BigDecimal("100.00").compareTo(payment.getPaidAmount()));
+        verify(paymentRepository, times(1)).findById("P1");
+        verify(paymentRepository, times(1)).saveAll(anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("退款回调重复投递：首次处理返回true，重复投递返回false，已退款金额只累加一次")
+    void testRedeliveredRefundCallbackIsDuplicate() {
+        // Given 已支付的支付单上有一笔处理中的退款
+        PaymentAggregate payment = payingPayment();
+        payment.handlePaymentCallback("TXN-P1", true, COMPLETE_TIME);
+        PaymentTransaction refund = payment.executeRefund(new BigDecimal("40.00"), "T1", "REFUND-1", "测试退款");
+        refund.setCode("RFD-P1");
+        when(paymentRepository.findById("P1")).thenReturn(Optional.of(payment));
+        PaymentCallbackCommand callback = PaymentCallbackCommand.builder()
+                .paymentId("P1")
+                .transactionCode("RFD-P1")
+                .transactionType(TransactionType.REFUND)
+                .channelTransactionNumber("CH-RFD-1")
+                .success(true)
+                .completeTime(COMPLETE_TIME)
+                .build();
+
+        // When
+        boolean first = domainService.processRefundCallback(callback);
+        boolean redelivered = domainService.processRefundCallback(callback);
+
+        // Then
+        assertTrue(first);
+        assertFalse(redelivered);
+        assertEquals(RefundStatus.PARTIAL_REFUNDED, payment.getRefundStatus());
+        assertEquals(0, new BigDecimal("40.00").compareTo(payment.getRefundedAmount()));
+        verify(paymentRepository, times(1)).findById("P1");
+        verify(paymentRepository, times(1)).saveAll(anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("首次投递的回调：布隆过滤器判定一定未处理，不访问数据库")
+    void testFirstDeliverySkipsDatabase() {
+        // Given
+        PaymentAggregate payment = payingPayment();
+        when(paymentRepository.findById("P1")).thenReturn(Optional.of(payment));
+
+        // When
+        boolean processed = domainService.processPaymentCallback(paymentCallback(payment));
+
+        // Then
+        assertTrue(processed);
+        verify(recordMapper, never()).countByChannelTransactionNumber(anyString(), any(TransactionStatus.class));
+    }
+
+    @Test
+    @DisplayName("布隆过滤器误判（键已写入过滤器但登记已回滚）：回落到数据库确认未处理，回调照常处理")
+    void testBloomFalsePositiveFallsThroughToDatabase() {
+        // Given 首次投递时持久化失败：过滤器已记下该键，登记随事务回滚
+        when(paymentRepository.findById("P1")).thenAnswer(invocation -> Optional.of(payingPayment()));
+        when(paymentRepository.saveAll(anyList(), anyList())).thenAnswer(invocation -> {
+            List<CallbackRecord> records = invocation.getArgument(1);
+            transactionTemplate.executeWithoutResult(status -> {
+                callbackRecordRepository.markProcessed(records);
+                throw new IllegalStateException("db down");
+            });
+            return invocation.getArgument(0);
+        }).thenAnswer(invocation -> {
+            List<CallbackRecord> records = invocation.getArgument(1);
+            transactionTemplate.executeWithoutResult(status -> callbackRecordRepository.markProcessed(records));
+            return invocation.getArgument(0);
+        });
+        PaymentCallbackCommand callback = paymentCallback(payingPayment());
+        assertThrows(IllegalStateException.class, () -> domainService.processPaymentCallback(callback));
+
+        // When 渠道重新投递
+        boolean processed = domainService.processPaymentCallback(callback);
+
+        // Then 过滤器判定可能已处理，查库确认未登记，本次正常处理并登记
+        assertTrue(processed);
+        verify(recordMapper, times(1)).countByChannelTransactionNumber("CH-1", TransactionStatus.SUCCESS);
+        assertTrue(callbackRecordRepository.isProcessed(
+                CallbackRecord.channelCallback("CH-1", TransactionStatus.SUCCESS, "P1")));
+    }
+
+    private static PaymentCallbackCommand paymentCallback(PaymentAggregate payment) {
+        return PaymentCallbackCommand.builder()
+                .paymentId(payment.getId())
+                .transactionCode(payment.getRunningTransaction().getCode())
+                .transactionType(TransactionType.PAYMENT)
+                .channelTransactionNumber("CH-1")
+                .success(true)
+                .completeTime(COMPLETE_TIME)
+                .build();
+    }
+
+    private static PaymentAggregate payingPayment() {
+        PaymentAggregate payment = PaymentAggregate.create("ORDER-P1", "RESELLER-001", new BigDecimal("100.00"),
+                "CNY", PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+        payment.setId("P1");
+        payment.setCode("PAY-P1");
+        PaymentTransaction transaction = payment.executePayment(PaymentChannel.ONLINE_PAYMENT,
+                new BigDecimal("100.00"), "测试支付");
+        transaction.setId("T1");
+        transaction.setCode("TXN-P1");
+        transaction.setChannelTransactionNumber("CH-1");
+        return payment;
+    }
+}
@@ -0,0 +1,176 @@
+package com.bytz.modules.cms.payment.domain;
+
+import com.bytz.modules.cms.payment.domain.command.ChannelRecordCallbackCommand;
+import com.bytz.modules.cms.payment.domain.enums.CallbackOutcome;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.repository.ICallbackRecordRepository;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.domain.response.CallbackResult;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 按渠道支付记录ID回调的领域服务测试
+ * 验证统一支付的同批支付单一次回调、一次批量写入结算
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentDomainService 渠道支付记录回调测试")
+class PaymentDomainServiceRecordCallbackTest {
+
+    private static final String RECORD_ID = "WALLET_RECORD_1";
+
+    @Mock
+    private IPaymentRepository paymentRepository;
+
+    @Mock
+    private ICallbackRecordRepository callbackRecordRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private PaymentDomainService domainService;
+
+    @BeforeEach
+    void setUp() {
+        domainService = new PaymentDomainService(paymentRepository, callbackRecordRepository,
+                eventPublisher, Collections.emptyList());
+    }
+
+    @Test
+    @DisplayName("一次回调结算同批全部支付单，并只做一次批量写入")
+    void testSettlesWholeGroupInOneWrite() {
+        // Given 两个支付单的运行中流水共享同一渠道支付记录ID
+        PaymentAggregate first = payingPayment("P1", "100.00", RECORD_ID);
+        PaymentAggregate second = payingPayment("P2", "50.00", RECORD_ID);
+        when(paymentRepository.findByChannelPaymentRecordId(RECORD_ID)).thenReturn(Arrays.asList(first, second));
+
+        // When
+        List<CallbackResult> results = domainService.processChannelRecordCallback(command());
+
+        // Then
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getOutcome() == CallbackOutcome.PROCESSED));
+        assertEquals(PaymentStatus.PAID, first.getPaymentStatus());
+        assertEquals(PaymentStatus.PAID, second.getPaymentStatus());
+        verify(paymentRepository, times(1)).saveAll(Arrays.asList(first, second),
+                Collections.singletonList(CallbackRecord.channelCallback(RECORD_ID, TransactionStatus.SUCCESS, "P1")));
+        verify(paymentRepository, never()).save(any());
+        verify(callbackRecordRepository, never()).markProcessed(anyList());
+    }
+
+    @Test
+    @DisplayName("回调登记在待结算支付单中ID最小的一个上，与散发查询的返回顺序无关")
+    void testClaimsOnSmallestPendingPaymentId() {
+        // Given P1的同批流水已单独结清，散发查询按P3、P2、P1顺序返回
+        PaymentAggregate settled = payingPayment("P1", "100.00", "OTHER_RECORD");
+        PaymentAggregate second = payingPayment("P2", "50.00", RECORD_ID);
+        PaymentAggregate third = payingPayment("P3", "50.00", RECORD_ID);
+        when(paymentRepository.findByChannelPaymentRecordId(RECORD_ID)).thenReturn(Arrays.asList(third, second, settled));
+
+        // When
+        List<CallbackResult> results = domainService.processChannelRecordCallback(command());
+
+        // Then
+        assertEquals(CallbackOutcome.PROCESSED, results.get(0).getOutcome());
+        assertEquals(CallbackOutcome.PROCESSED, results.get(1).getOutcome());
+        assertEquals(CallbackOutcome.DUPLICATE, results.get(2).getOutcome());
+        verify(paymentRepository).saveAll(Arrays.asList(third, second),
+                Collections.singletonList(CallbackRecord.channelCallback(RECORD_ID, TransactionStatus.SUCCESS, "P2")));
+    }
+
+    @Test
+    @DisplayName("重复回调不修改支付单")
+    void testDuplicateCallbackIsIgnored() {
+        // Given 渠道支付记录已登记
+        PaymentAggregate payment = payingPayment("P1", "100.00", RECORD_ID);
+        when(paymentRepository.findByChannelPaymentRecordId(RECORD_ID)).thenReturn(Collections.singletonList(payment));
+        when(callbackRecordRepository.isProcessed(CallbackRecord.channelCallback(RECORD_ID, TransactionStatus.SUCCESS, "P1"))).thenReturn(true);
+
+        // When
+        List<CallbackResult> results = domainService.processChannelRecordCallback(command());
+
+        // Then
+        assertEquals(CallbackOutcome.DUPLICATE, results.get(0).getOutcome());
+        assertEquals(PaymentStatus.PAYING, payment.getPaymentStatus());
+        verify(paymentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("持久化失败时抛出异常，登记随事务回滚，不做事后撤销")
+    void testPersistenceFailurePropagates() {
+        // Given
+        PaymentAggregate payment = payingPayment("P1", "100.00", RECORD_ID);
+        when(paymentRepository.findByChannelPaymentRecordId(RECORD_ID)).thenReturn(Collections.singletonList(payment));
+        when(paymentRepository.saveAll(anyList(), anyList())).thenThrow(new PaymentException("数据库不可用"));
+
+        // When & Then
+        assertThrows(PaymentException.class, () -> domainService.processChannelRecordCallback(command()));
+        verify(callbackRecordRepository, never()).markProcessed(anyList());
+    }
+
+    @Test
+    @DisplayName("并发投递在提交时被唯一键拒绝：各项返回DUPLICATE")
+    void testConcurrentDuplicateRejectedAtCommit() {
+        // Given
+        PaymentAggregate payment = payingPayment("P1", "100.00", RECORD_ID);
+        when(paymentRepository.findByChannelPaymentRecordId(RECORD_ID)).thenReturn(Collections.singletonList(payment));
+        when(paymentRepository.saveAll(anyList(), anyList())).thenThrow(new DuplicateKeyException("uk_channel_txn_status"));
+
+        // When
+        List<CallbackResult> results = domainService.processChannelRecordCallback(command());
+
+        // Then
+        assertEquals(CallbackOutcome.DUPLICATE, results.get(0).getOutcome());
+    }
+
+    @Test
+    @DisplayName("渠道支付记录不存在时抛出PaymentException")
+    void testUnknownRecord() {
+        // Given
+        when(paymentRepository.findByChannelPaymentRecordId(RECORD_ID)).thenReturn(Collections.emptyList());
+
+        // When & Then
+        assertThrows(PaymentException.class, () -> domainService.processChannelRecordCallback(command()));
+        verifyNoInteractions(callbackRecordRepository);
+    }
+
+    private static ChannelRecordCallbackCommand command() {
+        return ChannelRecordCallbackCommand.builder()
+                .channelPaymentRecordId(RECORD_ID)
+                .success(true)
+                .completeTime(LocalDateTime.now())
+                .build();
+    }
+
+    private static PaymentAggregate payingPayment(String id, String amount, String recordId) {
+        PaymentAggregate payment = PaymentAggregate.create("ORDER-" + id, "RESELLER-001", new BigDecimal(amount),
+                "CNY", PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+        payment.setId(id);
+        payment.executePayment(PaymentChannel.WALLET_PAYMENT, new BigDecimal(amount), "统一支付")
+                .setChannelPaymentRecordId(recordId);
+        return payment;
+    }
+}
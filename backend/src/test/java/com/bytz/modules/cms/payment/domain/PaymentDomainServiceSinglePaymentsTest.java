@@ -0,0 +1,158 @@
+package com.bytz.modules.cms.payment.domain;
+
+import com.bytz.modules.cms.payment.domain.command.StartPaymentCommand;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.repository.ICallbackRecordRepository;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentChannelService;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.domain.response.StarPaymentResponse;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 逐单支付扇出的领域服务测试
+ * 验证批内某个渠道调用失败时，已被渠道受理的支付单在抛出异常前落库
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentDomainService 逐单支付扇出测试")
+class PaymentDomainServiceSinglePaymentsTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Mock
+    private IPaymentRepository paymentRepository;
+
+    @Mock
+    private ICallbackRecordRepository callbackRecordRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IPaymentChannelService channelService;
+
+    private PaymentDomainService domainService;
+
+    @BeforeEach
+    void setUp() {
+        domainService = new PaymentDomainService(paymentRepository, callbackRecordRepository,
+                eventPublisher, Collections.emptyList());
+        when(channelService.getChannelType()).thenReturn(PaymentChannel.ONLINE_PAYMENT);
+    }
+
+    @Test
+    @DisplayName("中间一项渠道调用失败：前后已受理的支付单都落库后再抛出异常")
+    void testSavesAcceptedPaymentsWhenOneCallFails() {
+        // Given P2的渠道调用失败，P1、P3已受理
+        List<PaymentAggregate> payments = Arrays.asList(unpaidPayment("P1"), unpaidPayment("P2"), unpaidPayment("P3"));
+        stubChannelCalls(CompletableFuture.completedFuture(accepted("R1")),
+                failed(new PaymentException("渠道拒绝")),
+                CompletableFuture.completedFuture(accepted("R3")));
+
+        // When
+        PaymentException exception = assertThrows(PaymentException.class, () -> execute(payments));
+
+        // Then
+        assertEquals("渠道拒绝", exception.getMessage());
+        verify(paymentRepository).save(payments.get(0));
+        verify(paymentRepository).save(payments.get(2));
+        verify(paymentRepository, never()).save(payments.get(1));
+        assertEquals("R3", payments.get(2).getRunningTransaction().getChannelPaymentRecordId());
+        assertEquals(TransactionStatus.PROCESSING, payments.get(2).getRunningTransaction().getTransactionStatus());
+    }
+
+    @Test
+    @DisplayName("排在前面的调用未返回时后面一项失败：已返回的受理结果照常落库，未返回的不落库")
+    void testSavesCompletedPaymentsBehindPendingHead() {
+        // Given P1的渠道调用尚未返回，P2已受理，P3失败
+        List<PaymentAggregate> payments = Arrays.asList(unpaidPayment("P1"), unpaidPayment("P2"), unpaidPayment("P3"));
+        CompletableFuture<StarPaymentResponse> pending = new CompletableFuture<>();
+        stubChannelCalls(pending,
+                CompletableFuture.completedFuture(accepted("R2")),
+                failed(new IllegalStateException("渠道超时")));
+
+        // When
+        assertThrows(IllegalStateException.class, () -> execute(payments));
+
+        // Then
+        verify(paymentRepository, times(1)).save(any());
+        verify(paymentRepository).save(payments.get(1));
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    @DisplayName("补存已受理结果时单项保存失败：记入原异常的suppressed，其余项继续保存")
+    void testSaveFailureIsSuppressed() {
+        // Given P1失败，P2、P3已受理，P2保存失败
+        List<PaymentAggregate> payments = Arrays.asList(unpaidPayment("P1"), unpaidPayment("P2"), unpaidPayment("P3"));
+        stubChannelCalls(failed(new PaymentException("渠道拒绝")),
+                CompletableFuture.completedFuture(accepted("R2")),
+                CompletableFuture.completedFuture(accepted("R3")));
+        doThrow(new IllegalStateException("db down")).when(paymentRepository).save(payments.get(1));
+
+        // When
+        PaymentException exception = assertThrows(PaymentException.class, () -> execute(payments));
+
+        // Then
+        assertEquals(1, exception.getSuppressed().length);
+        verify(paymentRepository).save(payments.get(2));
+    }
+
+    private List<String> execute(List<PaymentAggregate> payments) {
+        Map<String, BigDecimal> amounts = new LinkedHashMap<>();
+        payments.forEach(payment -> amounts.put(payment.getId(), new BigDecimal("100.00")));
+        return domainService.executeSinglePayments(payments, amounts, channelService, "RESELLER-001",
+                DIRECT, Duration.ofSeconds(1));
+    }
+
+    @SafeVarargs
+    private final void stubChannelCalls(CompletableFuture<StarPaymentResponse>... calls) {
+        when(channelService.starPaymentRequestAsync(any(StartPaymentCommand.class), any(Executor.class)))
+                .thenReturn(calls[0], Arrays.copyOfRange(calls, 1, calls.length));
+    }
+
+    private static CompletableFuture<StarPaymentResponse> failed(RuntimeException error) {
+        CompletableFuture<StarPaymentResponse> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    private static StarPaymentResponse accepted(String recordId) {
+        return StarPaymentResponse.builder()
+                .transactionStatus(TransactionStatus.PROCESSING)
+                .channelPaymentRecordId(recordId)
+                .channelTransactionNumber("CH-" + recordId)
+                .build();
+    }
+
+    private static PaymentAggregate unpaidPayment(String id) {
+        PaymentAggregate payment = PaymentAggregate.create("ORDER-" + id, "RESELLER-001", new BigDecimal("100.00"),
+                "CNY", PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+        payment.setId(id);
+        payment.setCode("PAY-" + id);
+        return payment;
+    }
+}
@@ -0,0 +1,230 @@
+package com.bytz.modules.cms.payment.domain;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.bytz.modules.cms.payment.domain.command.WireTransferSettlementCommand;
+import com.bytz.modules.cms.payment.domain.enums.CallbackOutcome;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.domain.response.CallbackResult;
+import com.bytz.modules.cms.payment.infrastructure.config.CallbackDedupProperties;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentCallbackRecordMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.WireTransferSettlementMapper;
+import com.bytz.modules.cms.payment.infrastructure.repository.CallbackRecordRepositoryImpl;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.infrastructure.typehandler.PaymentEnumTypeHandlers;
+import org.apache.ibatis.logging.nologging.NoLoggingImpl;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 电汇到账批量结算的领域服务测试
+ * 入账登记使用H2内存库（MySQL模式）上的真实仓储，支付单仓储的saveAll在同一事务内写入登记；
+ * 验证一笔到账结算多个支付单时各支付单分别登记，失败项与持久化失败不留登记，以及一次加载、一次批量写入
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentDomainService 电汇到账结算测试")
+class PaymentDomainServiceWireTransferTest {
+
+    @Mock
+    private IPaymentRepository paymentRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private CallbackRecordRepositoryImpl callbackRecordRepository;
+
+    private PaymentDomainService domainService;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:wire_transfer_" + UUID.randomUUID().toString().replace("-", "")
+                        + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE cms_payment_callback_record (id VARCHAR(32) PRIMARY KEY, "
+                + "channel_transaction_number VARCHAR(64) NOT NULL, callback_status VARCHAR(20) NOT NULL, "
+                + "payment_id VARCHAR(32) NOT NULL, create_time DATETIME NOT NULL, "
+                + "CONSTRAINT uk_channel_txn_status UNIQUE (channel_transaction_number, callback_status))");
+        jdbcTemplate.execute("CREATE TABLE cms_wire_transfer_settlement (id VARCHAR(32) PRIMARY KEY, "
+                + "bank_reference VARCHAR(64) NOT NULL, payment_id VARCHAR(32) NOT NULL, create_time DATETIME NOT NULL, "
+                + "CONSTRAINT uk_bank_reference_payment UNIQUE (bank_reference, payment_id))");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setLogImpl(NoLoggingImpl.class);
+        PaymentEnumTypeHandlers.registerAll(configuration.getTypeHandlerRegistry());
+        configuration.addMapper(PaymentCallbackRecordMapper.class);
+        configuration.addMapper(WireTransferSettlementMapper.class);
+        SqlSessionFactory sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+        SqlSessionTemplate sqlSession = new SqlSessionTemplate(sqlSessionFactory);
+
+        callbackRecordRepository = new CallbackRecordRepositoryImpl(
+                sqlSession.getMapper(PaymentCallbackRecordMapper.class),
+                sqlSession.getMapper(WireTransferSettlementMapper.class), PaymentShardRouter.singleShard(),
+                sqlSessionFactory, new CallbackDedupProperties());
+        // 与真实仓储一致：入账登记在支付单写入的同一事务内提交
+        lenient().when(paymentRepository.saveAll(anyList(), anyList())).thenAnswer(invocation -> {
+            List<CallbackRecord> records = invocation.getArgument(1);
+            transactionTemplate.executeWithoutResult(status -> callbackRecordRepository.markProcessed(records));
+            return invocation.getArgument(0);
+        });
+        domainService = new PaymentDomainService(paymentRepository, callbackRecordRepository,
+                eventPublisher, Collections.emptyList());
+    }
+
+    @Test
+    @DisplayName("一笔到账结算多个支付单，各支付单分别登记，流水记录银行流水号，只做一次批量写入")
+    void testSettlesWithBankReference() {
+        // Given 合并匹配：B1覆盖P1全额与P2部分
+        PaymentAggregate p1 = unpaidPayment("P1", "30.00");
+        PaymentAggregate p2 = unpaidPayment("P2", "50.00");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Arrays.asList(p1, p2));
+
+        // When
+        List<CallbackResult> results = domainService.settleWireTransfers(Arrays.asList(
+                settlement("P1", "30.00", "B1"), settlement("P2", "20.00", "B1")));
+
+        // Then
+        assertTrue(results.stream().allMatch(result -> result.getOutcome() == CallbackOutcome.PROCESSED));
+        assertEquals(PaymentStatus.PAID, p1.getPaymentStatus());
+        assertEquals(PaymentStatus.PARTIAL_PAID, p2.getPaymentStatus());
+        PaymentTransaction transaction = p2.getCompletedTransactions().get(0);
+        assertEquals(PaymentChannel.WIRE_TRANSFER, transaction.getPaymentChannel());
+        assertEquals("B1", transaction.getChannelTransactionNumber());
+        assertEquals(Arrays.asList("P1", "P2"), claimedPayments("B1"));
+        verify(paymentRepository, times(1)).saveAll(Arrays.asList(p1, p2), Arrays.asList(
+                CallbackRecord.wireTransfer("B1", "P1"), CallbackRecord.wireTransfer("B1", "P2")));
+    }
+
+    @Test
+    @DisplayName("同一对账单重复导入：已入账的支付单按重复处理，不重复入账")
+    void testReimportIsDuplicate() {
+        // Given B1已为P1、P2入账
+        PaymentAggregate p1 = unpaidPayment("P1", "30.00");
+        PaymentAggregate p2 = unpaidPayment("P2", "50.00");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Arrays.asList(p1, p2));
+        domainService.settleWireTransfers(Arrays.asList(
+                settlement("P1", "30.00", "B1"), settlement("P2", "20.00", "B1")));
+
+        // When
+        List<CallbackResult> results = domainService.settleWireTransfers(Arrays.asList(
+                settlement("P1", "30.00", "B1"), settlement("P2", "20.00", "B1")));
+
+        // Then
+        assertTrue(results.stream().allMatch(result -> result.getOutcome() == CallbackOutcome.DUPLICATE));
+        assertEquals(1, p2.getCompletedTransactions().size());
+        verify(paymentRepository).findByIds(Collections.emptyList());
+    }
+
+    @Test
+    @DisplayName("同一到账中单个支付单失败时不登记该支付单，已结算的兄弟项正常登记")
+    void testFailedSiblingIsNotRecorded() {
+        // Given B1给P2的金额超过待支付金额
+        PaymentAggregate p1 = unpaidPayment("P1", "30.00");
+        PaymentAggregate p2 = unpaidPayment("P2", "50.00");
+        when(paymentRepository.findByIds(anyList())).thenReturn(Arrays.asList(p1, p2));
+
+        // When
+        List<CallbackResult> results = domainService.settleWireTransfers(Arrays.asList(
+                settlement("P1", "30.00", "B1"), settlement("P2", "60.00", "B1")));
+
+        // Then
+        assertEquals(CallbackOutcome.PROCESSED, results.get(0).getOutcome());
+        assertEquals(CallbackOutcome.FAILED, results.get(1).getOutcome());
+        assertEquals(PaymentStatus.PAID, p1.getPaymentStatus());
+        assertEquals(PaymentStatus.UNPAID, p2.getPaymentStatus());
+        assertEquals(Collections.singletonList("P1"), claimedPayments("B1"));
+
+        // When 修正金额后重新导入
+        List<CallbackResult> retried = domainService.settleWireTransfers(Arrays.asList(
+                settlement("P1", "30.00", "B1"), settlement("P2", "20.00", "B1")));
+
+        // Then P1按重复处理，P2入账
+        assertEquals(CallbackOutcome.DUPLICATE, retried.get(0).getOutcome());
+        assertEquals(CallbackOutcome.PROCESSED, retried.get(1).getOutcome());
+        assertEquals(PaymentStatus.PARTIAL_PAID, p2.getPaymentStatus());
+        assertEquals(Arrays.asList("P1", "P2"), claimedPayments("B1"));
+    }
+
+    @Test
+    @DisplayName("批量持久化失败时本批登记随事务回滚，可重新导入")
+    void testPersistenceFailureRollsBackRecords() {
+        // Given 登记写入后支付单写入失败
+        when(paymentRepository.findByIds(anyList())).thenReturn(Arrays.asList(
+                unpaidPayment("P1", "30.00"), unpaidPayment("P2", "50.00")));
+        when(paymentRepository.saveAll(anyList(), anyList())).thenAnswer(invocation -> {
+            List<CallbackRecord> records = invocation.getArgument(1);
+            return transactionTemplate.execute(status -> {
+                callbackRecordRepository.markProcessed(records);
+                throw new IllegalStateException("db down");
+            });
+        });
+
+        // When
+        List<CallbackResult> results = domainService.settleWireTransfers(Arrays.asList(
+                settlement("P1", "30.00", "B1"), settlement("P2", "20.00", "B1")));
+
+        // Then
+        assertTrue(results.stream().allMatch(result -> result.getOutcome() == CallbackOutcome.FAILED));
+        assertTrue(claimedPayments("B1").isEmpty());
+    }
+
+    private List<String> claimedPayments(String bankReference) {
+        return jdbcTemplate.queryForList("SELECT payment_id FROM cms_wire_transfer_settlement "
+                + "WHERE bank_reference = ? ORDER BY payment_id", String.class, bankReference);
+    }
+
+    private static WireTransferSettlementCommand settlement(String paymentId, String amount, String reference) {
+        return WireTransferSettlementCommand.builder()
+                .paymentId(paymentId)
+                .amount(new BigDecimal(amount))
+                .bankReference(reference)
+                .valueTime(LocalDateTime.of(2024, 6, 1, 0, 0))
+                .remark("电汇到账: " + reference)
+                .build();
+    }
+
+    private static PaymentAggregate unpaidPayment(String id, String amount) {
+        PaymentAggregate payment = PaymentAggregate.create("ORDER-" + id, "RESELLER-001", new BigDecimal(amount),
+                "CNY", PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+        payment.setId(id);
+        return payment;
+    }
+}
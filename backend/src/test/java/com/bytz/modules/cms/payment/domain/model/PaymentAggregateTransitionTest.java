@@ -0,0 +1,84 @@
+package com.bytz.modules.cms.payment.domain.model;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatusTransition;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 支付单状态迁移（冻结/停止）测试
+ * Payment Status Transition Test
+ */
+@DisplayName("PaymentAggregate 状态迁移测试")
+class PaymentAggregateTransitionTest {
+
+    private PaymentAggregate payment;
+
+    @BeforeEach
+    void setUp() {
+        payment = PaymentAggregate.create("ORDER001", "RESELLER001", new BigDecimal("1000.00"), "CNY",
+                PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+        payment.setId("PAYMENT001");
+    }
+
+    @Test
+    @DisplayName("未支付的支付单可以冻结")
+    void testFreeze_Unpaid() {
+        // When
+        payment.freeze("风控审查");
+
+        // Then
+        assertEquals(PaymentStatus.FROZEN, payment.getPaymentStatus());
+        assertTrue(payment.getBusinessDesc().contains("冻结原因: 风控审查"));
+    }
+
+    @Test
+    @DisplayName("存在运行中的流水时不能冻结")
+    void testFreeze_WithRunningTransaction() {
+        // Given
+        payment.executePayment(PaymentChannel.WALLET_PAYMENT, new BigDecimal("100.00"), "钱包支付");
+
+        // When & Then
+        assertFalse(payment.canTransition(PaymentStatusTransition.FREEZE));
+        assertThrows(IllegalStateException.class, () -> payment.freeze("风控审查"));
+        assertEquals(PaymentStatus.PAYING, payment.getPaymentStatus());
+    }
+
+    @Test
+    @DisplayName("部分支付的支付单可以冻结和停止，但不能取消")
+    void testTransitions_PartialPaid() {
+        // Given
+        PaymentTransaction transaction = payment.executePayment(PaymentChannel.WALLET_PAYMENT, new BigDecimal("100.00"), "钱包支付");
+        payment.handlePaymentCallback(transaction.getCode(), true, LocalDateTime.now());
+
+        // When
+        assertEquals(PaymentStatus.PARTIAL_PAID, payment.getPaymentStatus());
+        assertFalse(payment.canTransition(PaymentStatusTransition.CANCEL));
+        payment.freeze("风控审查");
+        payment.stop("订单作废");
+
+        // Then
+        assertEquals(PaymentStatus.STOPPED, payment.getPaymentStatus());
+        assertTrue(payment.getBusinessDesc().contains("冻结原因: 风控审查"));
+        assertTrue(payment.getBusinessDesc().contains("停止原因: 订单作废"));
+    }
+
+    @Test
+    @DisplayName("已停止的支付单不能再冻结")
+    void testFreeze_Stopped() {
+        // Given
+        payment.stop("订单作废");
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> payment.freeze("风控审查"));
+        assertEquals(PaymentStatus.STOPPED, payment.getPaymentStatus());
+    }
+}
@@ -0,0 +1,159 @@
+package com.bytz.modules.cms.payment.domain.model;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.RefundStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 支付单流水索引测试
+ * 验证倒序视图、按ID查找（含后回填ID）、最新成功支付流水随流水增加增量维护
+ */
+@DisplayName("PaymentAggregate 流水索引测试")
+class TransactionIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Test
+    @DisplayName("加载的流水无序时视图按创建时间倒序，运行期流水位于首位")
+    void testDescendingViewFromUnorderedLoad() {
+        // Given 仓储加载的已完成流水顺序与创建时间无关
+        PaymentAggregate payment = loaded(
+                transaction("T2", TransactionType.PAYMENT, TransactionStatus.SUCCESS, 2),
+                transaction("T1", TransactionType.PAYMENT, TransactionStatus.FAILED, 1),
+                transaction("T3", TransactionType.REFUND, TransactionStatus.SUCCESS, 3));
+
+        // When
+        List<PaymentTransaction> view = payment.getTransactions();
+        PaymentTransaction running = payment.executeRefund(new BigDecimal("10.00"), "T2", "RETURN-001", "退货");
+
+        // Then 视图随聚合根变化
+        assertEquals(Arrays.asList(running, tx(payment, "T3"), tx(payment, "T2"), tx(payment, "T1")), view);
+        assertSame(view, payment.getTransactions());
+        assertThrows(UnsupportedOperationException.class, () -> view.add(running));
+    }
+
+    @Test
+    @DisplayName("最新成功支付流水：跳过失败与退款流水，新完成的支付流水即时生效")
+    void testLatestSuccessfulPaymentTransaction() {
+        // Given
+        PaymentAggregate payment = loaded(
+                transaction("T1", TransactionType.PAYMENT, TransactionStatus.SUCCESS, 1),
+                transaction("T2", TransactionType.PAYMENT, TransactionStatus.FAILED, 2),
+                transaction("T3", TransactionType.REFUND, TransactionStatus.SUCCESS, 3));
+        assertEquals("T1", payment.findLatestSuccessfulPaymentTransaction().get().getId());
+
+        // When 再支付一笔成功
+        PaymentTransaction transaction = payment.executePayment(PaymentChannel.WALLET_PAYMENT,
+                new BigDecimal("50.00"), "补款");
+        payment.handlePaymentCallback(transaction.getCode(), true, BASE.plusHours(1));
+
+        // Then 新流水尚无创建时间与ID（未持久化），视为最新
+        assertSame(transaction, payment.findLatestSuccessfulPaymentTransaction().get());
+        assertSame(transaction, payment.getTransactions().get(0));
+    }
+
+    @Test
+    @DisplayName("完成时尚无ID的流水在仓储回填ID后可按ID查找")
+    void testFindByIdAfterIdBackfill() {
+        // Given
+        PaymentAggregate payment = loaded(transaction("T1", TransactionType.PAYMENT, TransactionStatus.SUCCESS, 1));
+        PaymentTransaction transaction = payment.executePayment(PaymentChannel.WALLET_PAYMENT,
+                new BigDecimal("50.00"), "补款");
+        payment.handlePaymentCallback(transaction.getCode(), true, BASE.plusHours(1));
+        assertFalse(payment.findCompletedTransactionById("T9").isPresent());
+
+        // When
+        transaction.setId("T9");
+
+        // Then
+        assertSame(transaction, payment.findCompletedTransactionById("T9").get());
+        assertEquals("T1", payment.findCompletedTransactionById("T1").get().getId());
+        assertFalse(payment.findCompletedTransactionById(null).isPresent());
+    }
+
+    @Test
+    @DisplayName("toBuilder复制出的聚合根使用自己的运行期流水")
+    void testToBuilderRebuildsIndex() {
+        // Given
+        PaymentAggregate payment = loaded(transaction("T1", TransactionType.PAYMENT, TransactionStatus.SUCCESS, 1));
+        payment.getTransactions();
+
+        // When
+        PaymentTransaction running = transaction("T2", TransactionType.REFUND, TransactionStatus.PROCESSING, 2);
+        PaymentAggregate copy = payment.toBuilder().runningTransaction(running)
+                .completedTransactions(new ArrayList<>(payment.getCompletedTransactions())).build();
+
+        // Then
+        assertEquals(2, copy.getTransactions().size());
+        assertSame(running, copy.getTransactions().get(0));
+        assertEquals(1, payment.getTransactions().size());
+    }
+
+    @Test
+    @DisplayName("大量流水：每条流水均可按ID查找，最新成功支付流水与倒序视图正确")
+    void testLargeHistory() {
+        // Given 5000条已完成流水
+        List<PaymentTransaction> completed = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            completed.add(transaction("T" + i, i % 2 == 0 ? TransactionType.PAYMENT : TransactionType.REFUND,
+                    TransactionStatus.SUCCESS, i));
+        }
+        PaymentAggregate payment = loaded(completed.toArray(new PaymentTransaction[0]));
+
+        // When
+        int found = 0;
+        for (int i = 0; i < 5000; i++) {
+            found += payment.findCompletedTransactionById("T" + i).isPresent() ? 1 : 0;
+        }
+
+        // Then
+        assertEquals(5000, found);
+        assertFalse(payment.findCompletedTransactionById("T5000").isPresent());
+        assertEquals("T4998", payment.findLatestSuccessfulPaymentTransaction().get().getId());
+        assertEquals("T4999", payment.getTransactions().get(0).getId());
+    }
+
+    private static PaymentTransaction tx(PaymentAggregate payment, String id) {
+        return payment.findCompletedTransactionById(id).get();
+    }
+
+    private static PaymentAggregate loaded(PaymentTransaction... completed) {
+        return PaymentAggregate.builder()
+                .id("P1")
+                .code("PAY-P1")
+                .resellerId("RESELLER-001")
+                .paymentAmount(new BigDecimal("100000.00"))
+                .paidAmount(new BigDecimal("100.00"))
+                .refundedAmount(BigDecimal.ZERO)
+                .actualAmount(new BigDecimal("100.00"))
+                .paymentStatus(PaymentStatus.PARTIAL_PAID)
+                .refundStatus(RefundStatus.NO_REFUND)
+                .completedTransactions(new ArrayList<>(Arrays.asList(completed)))
+                .build();
+    }
+
+    private static PaymentTransaction transaction(String id, TransactionType type, TransactionStatus status,
+                                                  int minutes) {
+        return PaymentTransaction.builder()
+                .id(id)
+                .paymentId("P1")
+                .transactionType(type)
+                .transactionStatus(status)
+                .transactionAmount(new BigDecimal("10.00"))
+                .paymentChannel(PaymentChannel.WALLET_PAYMENT)
+                .createTime(BASE.plusMinutes(minutes))
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.bytz.modules.cms.payment.infrastructure.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列式文件读写单元测试
+ * 测试编码往返、空值、谓词下推跳过行组和列投影
+ */
+@DisplayName("列式文件读写单元测试")
+class ColumnarFileTest {
+
+    private static final ColumnarSchema SCHEMA = ColumnarSchema.builder()
+            .column("id", ColumnType.STRING)
+            .column("channel", ColumnType.DICTIONARY)
+            .column("amount", ColumnType.DECIMAL)
+            .column("complete_time", ColumnType.TIMESTAMP)
+            .build();
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("写入后读取的值与原值一致（含空值）")
+    void testRoundTrip() throws Exception {
+        // Given
+        Path file = tempDir.resolve("round-trip.pcol");
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, SCHEMA, 3)) {
+            writer.write("T1", "ONLINE_PAYMENT", new BigDecimal("100.50"), BASE);
+            writer.write("T2", "WALLET_PAYMENT", new BigDecimal("-20.000001"), BASE.plusSeconds(1));
+            writer.write("T3", null, null, null);
+            writer.write("T4", "ONLINE_PAYMENT", new BigDecimal("0"), BASE.minusDays(3));
+        }
+
+        // When
+        List<Object[]> rows = new ArrayList<>();
+        ColumnarFileReader.ScanMetrics metrics = ColumnarFileReader.scan(file,
+                Arrays.asList("id", "channel", "amount", "complete_time"), Collections.emptyList(),
+                row -> rows.add(row.clone()));
+
+        // Then
+        assertEquals(SCHEMA, ColumnarFileReader.readSchema(file));
+        assertEquals(2, metrics.getRowGroups());
+        assertEquals(4, rows.size());
+        assertArrayEquals(new Object[]{"T1", "ONLINE_PAYMENT", new BigDecimal("100.500000"), BASE}, rows.get(0));
+        assertEquals(0, new BigDecimal("-20.000001").compareTo((BigDecimal) rows.get(1)[2]));
+        assertEquals(BASE.plusSeconds(1), rows.get(1)[3]);
+        assertArrayEquals(new Object[]{"T3", null, null, null}, rows.get(2));
+        assertEquals(BASE.minusDays(3), rows.get(3)[3]);
+    }
+
+    @Test
+    @DisplayName("时间区间与字典谓词不相交的行组被整组跳过")
+    void testPredicatePushdownSkipsRowGroups() throws Exception {
+        // Given 每个行组100行，每组一天，渠道按组交替
+        Path file = tempDir.resolve("pushdown.pcol");
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, SCHEMA, 100)) {
+            for (int day = 0; day < 10; day++) {
+                String channel = day % 2 == 0 ? "ONLINE_PAYMENT" : "WALLET_PAYMENT";
+                for (int i = 0; i < 100; i++) {
+                    writer.write("T" + day + "-" + i, channel, BigDecimal.ONE, BASE.plusDays(day).plusMinutes(i));
+                }
+            }
+        }
+
+        // When 只查第2、3天的在线支付
+        List<Object[]> rows = new ArrayList<>();
+        ColumnarFileReader.ScanMetrics metrics = ColumnarFileReader.scan(file,
+                Collections.singletonList("id"),
+                Arrays.asList(
+                        ColumnPredicate.between("complete_time", BASE.plusDays(2), BASE.plusDays(4)),
+                        ColumnPredicate.eq("channel", "ONLINE_PAYMENT")),
+                row -> rows.add(row.clone()));
+
+        // Then 只有第2天的行组被解码
+        assertEquals(10, metrics.getRowGroups());
+        assertEquals(9, metrics.getSkippedRowGroups());
+        assertEquals(100, metrics.getScannedRows());
+        assertEquals(100, rows.size());
+        assertTrue(rows.stream().allMatch(row -> ((String) row[0]).startsWith("T2-")));
+    }
+
+    @Test
+    @DisplayName("低基数与有序时间列压缩后明显小于原始大小")
+    void testCompression() throws Exception {
+        // Given
+        Path file = tempDir.resolve("compression.pcol");
+        int rows = 20000;
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, SCHEMA)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(String.valueOf(1_000_000 + i), i % 3 == 0 ? "WALLET_PAYMENT" : "ONLINE_PAYMENT",
+                        new BigDecimal(i % 500), BASE.plusSeconds(i * 7L));
+            }
+        }
+
+        // Then 原始行（id + 渠道 + 金额 + 时间）至少约40字节
+        assertTrue(Files.size(file) < rows * 10L, "文件大小: " + Files.size(file));
+    }
+}
@@ -11,15 +11,31 @@ import com.bytz.modules.cms.payment.infrastructure.channel.impl.WalletPaymentCha
 import com.bytz.modules.cms.payment.infrastructure.channel.impl.WireTransferChannelService;
 import com.bytz.modules.cms.payment.domain.response.StarPaymentResponse;
 import com.bytz.modules.cms.payment.domain.response.RefundRequestResponse;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.infrastructure.config.CreditLedgerProperties;
+import com.bytz.modules.cms.payment.infrastructure.config.WalletProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.WalletAccountEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.WalletMapper;
+import com.bytz.modules.cms.payment.infrastructure.wallet.WalletService;
+import com.bytz.modules.cms.payment.infrastructure.credit.CreditLedger;
+import com.bytz.modules.cms.payment.infrastructure.mapper.CreditLedgerMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * 支付渠道服务单元测试
@@ -32,6 +48,8 @@ class PaymentChannelServiceTest {
     private WireTransferChannelService wireTransferChannelService;
     private CreditAccountChannelService creditAccountChannelService;
     private OnlinePaymentChannelService onlinePaymentChannelService;
+    private CreditLedger creditLedger;
+    private WalletService walletService;
 
     private String resellerId;
     private String channelPaymentRecordId;
@@ -39,14 +57,29 @@ class PaymentChannelServiceTest {
 
     @BeforeEach
     void setUp() {
-        walletChannelService = new WalletPaymentChannelService();
+        WalletMapper walletMapper = mock(WalletMapper.class);
+        when(walletMapper.selectAccount(anyString())).thenReturn(WalletAccountEntity.builder()
+                .resellerId("RESELLER-001").balance(new BigDecimal("100000.00")).heldAmount(BigDecimal.ZERO)
+                .version(0L).build());
+        when(walletMapper.compareAndSet(anyString(), anyLong(), any(), any(), any())).thenReturn(1);
+        walletService = new WalletService(walletMapper, PaymentShardRouter.singleShard(),
+                new WalletProperties(), mock(PlatformTransactionManager.class));
+        walletChannelService = new WalletPaymentChannelService(walletService);
         wireTransferChannelService = new WireTransferChannelService();
-        creditAccountChannelService = new CreditAccountChannelService();
+        creditLedger = new CreditLedger(mock(CreditLedgerMapper.class), PaymentShardRouter.singleShard(),
+                new CreditLedgerProperties(), mock(PlatformTransactionManager.class));
+        creditAccountChannelService = new CreditAccountChannelService(creditLedger);
         onlinePaymentChannelService = new OnlinePaymentChannelService();
 
         resellerId = "RESELLER-001";
         channelPaymentRecordId = "CHANNEL_RECORD_001";
         paymentAmount = new BigDecimal("5000.00");
+        creditLedger.setLimit(resellerId, new BigDecimal("50000.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletService.destroy();
     }
 
     @Test
@@ -173,7 +206,7 @@ class PaymentChannelServiceTest {
     }
 
     @Test
-    @DisplayName("测试信用账户渠道 - 创建支付请求返回响应对象")
+    @DisplayName("测试信用账户渠道 - 创建支付请求即扣减信用额度并返回成功")
     void testCreditAccountChannel_CreatePaymentRequest() {
         // Given
         StartPaymentCommand command = StartPaymentCommand.builder()
@@ -189,7 +222,9 @@ class PaymentChannelServiceTest {
         assertNotNull(response);
         assertNotNull(response.getChannelPaymentRecordId());
         assertNotNull(response.getChannelTransactionNumber());
-        assertTrue(response.getChannelPaymentRecordId().startsWith("CREDIT_RECORD_"));
+        assertEquals(TransactionStatus.SUCCESS, response.getTransactionStatus());
+        assertEquals(0, new BigDecimal("45000.00").compareTo(creditLedger.balance(resellerId).getAvailableAmount()));
+        assertEquals(0, paymentAmount.compareTo(creditLedger.balance(resellerId).getUsedAmount()));
     }
 
     @Test
@@ -0,0 +1,402 @@
+package com.bytz.modules.cms.payment.infrastructure.credit;
+
+import com.bytz.modules.cms.payment.domain.enums.CreditEntryType;
+import com.bytz.modules.cms.payment.infrastructure.config.CreditLedgerProperties;
+import com.bytz.modules.cms.payment.infrastructure.mapper.CreditLedgerMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CreditLedger 单元测试
+ * 以内存流水日志模拟数据库唯一键，两个账本实例共享同一日志模拟多实例部署；
+ * 以读写次数与挂起追加验证稳态开销和锁分段并行，不依赖计时
+ */
+@DisplayName("CreditLedger 单元测试")
+class CreditLedgerTest {
+
+    private static final String RESELLER = "RESELLER-001";
+
+    private InMemoryCreditLedgerMapper mapper;
+    private CreditLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new InMemoryCreditLedgerMapper();
+        ledger = newLedger(mapper);
+    }
+
+    @Test
+    @DisplayName("预占占用可用额度，确认转为已用，释放退回可用")
+    void testReserveCommitRelease() {
+        // Given
+        ledger.setLimit(RESELLER, new BigDecimal("1000.00"));
+
+        // When
+        CreditReservation committed = ledger.reserve(RESELLER, new BigDecimal("300.00"), "TXN-1");
+        CreditReservation released = ledger.reserve(RESELLER, new BigDecimal("200.00"), "TXN-2");
+        CreditBalance reserved = ledger.balance(RESELLER);
+        ledger.commit(RESELLER, committed.getReservationId());
+        ledger.release(RESELLER, released.getReservationId());
+        ledger.release(RESELLER, released.getReservationId());
+
+        // Then 重复释放不追加分录
+        assertAmount("500.00", reserved.getReservedAmount());
+        assertAmount("500.00", reserved.getAvailableAmount());
+        CreditBalance balance = ledger.balance(RESELLER);
+        assertAmount("300.00", balance.getUsedAmount());
+        assertAmount("0", balance.getReservedAmount());
+        assertAmount("700.00", balance.getAvailableAmount());
+        assertEquals(5, balance.getSeq());
+    }
+
+    @Test
+    @DisplayName("可用额度不足时拒绝预占，不追加分录")
+    void testInsufficientCredit() {
+        // Given
+        ledger.setLimit(RESELLER, new BigDecimal("100.00"));
+
+        // When
+        PaymentException exception = assertThrows(PaymentException.class,
+                () -> ledger.reserve(RESELLER, new BigDecimal("100.01"), null));
+
+        // Then
+        assertTrue(exception.getMessage().contains("信用额度不足"));
+        assertEquals(1, mapper.entries(RESELLER).size());
+    }
+
+    @Test
+    @DisplayName("退款退还已用额度，不能超过已用额度")
+    void testRestore() {
+        // Given
+        ledger.setLimit(RESELLER, new BigDecimal("1000.00"));
+        ledger.commit(RESELLER, ledger.reserve(RESELLER, new BigDecimal("300.00"), null).getReservationId());
+
+        // When
+        ledger.restore(RESELLER, new BigDecimal("100.00"), "REFUND-1");
+
+        // Then
+        assertAmount("200.00", ledger.balance(RESELLER).getUsedAmount());
+        assertThrows(PaymentException.class, () -> ledger.restore(RESELLER, new BigDecimal("200.01"), "REFUND-2"));
+    }
+
+    @Test
+    @DisplayName("同一参考号重复退还只退还一次，其他实例重复确认同样忽略")
+    void testRestoreIdempotentOnReference() {
+        // Given
+        ledger.setLimit(RESELLER, new BigDecimal("1000.00"));
+        ledger.commit(RESELLER, ledger.reserve(RESELLER, new BigDecimal("300.00"), null).getReservationId());
+        CreditLedger other = newLedger(mapper);
+
+        // When
+        boolean first = ledger.restore(RESELLER, new BigDecimal("100.00"), "REFUND-1");
+        boolean again = ledger.restore(RESELLER, new BigDecimal("100.00"), "REFUND-1");
+        boolean otherInstance = other.restore(RESELLER, new BigDecimal("100.00"), "REFUND-1");
+
+        // Then
+        assertTrue(first);
+        assertFalse(again);
+        assertFalse(otherInstance);
+        assertAmount("200.00", ledger.balance(RESELLER).getUsedAmount());
+        assertAmount("200.00", other.balance(RESELLER).getUsedAmount());
+        assertEquals(4, mapper.entries(RESELLER).size());
+    }
+
+    @Test
+    @DisplayName("其他实例已追加同一序号时，追平后按最新额度重新判断")
+    void testConflictCatchesUpAndRedecides() {
+        // Given 实例A设定额度，实例B预占50
+        CreditLedger other = newLedger(mapper);
+        ledger.setLimit(RESELLER, new BigDecimal("100.00"));
+        other.reserve(RESELLER, new BigDecimal("50.00"), null);
+
+        // When 实例A内存状态仍为可用100，预占60时序号冲突
+        PaymentException exception = assertThrows(PaymentException.class,
+                () -> ledger.reserve(RESELLER, new BigDecimal("60.00"), null));
+        CreditReservation reservation = ledger.reserve(RESELLER, new BigDecimal("40.00"), null);
+
+        // Then
+        assertTrue(exception.getMessage().contains("信用额度不足"));
+        assertNotNull(reservation);
+        assertAmount("10.00", other.balance(RESELLER).getAvailableAmount());
+        assertEquals(3, mapper.entries(RESELLER).size());
+    }
+
+    @Test
+    @DisplayName("重启后从快照加载并重放快照之后的分录")
+    void testRecoverFromSnapshotAndJournal() {
+        // Given 快照之后又确认了一笔预占
+        ledger.setLimit(RESELLER, new BigDecimal("1000.00"));
+        CreditReservation open = ledger.reserve(RESELLER, new BigDecimal("100.00"), null);
+        ledger.commit(RESELLER, ledger.reserve(RESELLER, new BigDecimal("200.00"), null).getReservationId());
+        assertEquals(1, ledger.snapshot());
+        assertEquals(0, ledger.snapshot());
+        ledger.commit(RESELLER, open.getReservationId());
+
+        // When
+        CreditLedger restarted = newLedger(mapper);
+        CreditBalance balance = restarted.balance(RESELLER);
+
+        // Then
+        assertEquals(4, mapper.snapshots.get(RESELLER).getSeq());
+        assertEquals(5, balance.getSeq());
+        assertAmount("300.00", balance.getUsedAmount());
+        assertAmount("0", balance.getReservedAmount());
+        assertAmount("700.00", balance.getAvailableAmount());
+    }
+
+    @Test
+    @DisplayName("快照保留未结预占，重启后仍可确认")
+    void testOpenReservationSurvivesRestart() {
+        // Given
+        ledger.setLimit(RESELLER, new BigDecimal("1000.00"));
+        CreditReservation reservation = ledger.reserve(RESELLER, new BigDecimal("250.00"), null);
+        ledger.snapshot();
+
+        // When
+        CreditLedger restarted = newLedger(mapper);
+        restarted.commit(RESELLER, reservation.getReservationId());
+
+        // Then
+        CreditBalance balance = restarted.balance(RESELLER);
+        assertAmount("250.00", balance.getUsedAmount());
+        assertAmount("0", balance.getReservedAmount());
+        assertEquals(CreditEntryType.COMMIT, mapper.entries(RESELLER).get(2).getEntryType());
+    }
+
+    @Test
+    @DisplayName("并发预占：两个实例争用同一经销商时额度不超用，不同经销商并行")
+    void testConcurrentReservations() throws Exception {
+        // Given 两个实例共享流水日志；热点经销商额度100，另有200个经销商额度充足
+        CreditLedger other = newLedger(mapper);
+        List<CreditLedger> nodes = Arrays.asList(ledger, other);
+        ledger.setLimit("HOT", new BigDecimal("100"));
+        int resellers = 200;
+        for (int i = 0; i < resellers; i++) {
+            ledger.setLimit("R" + i, new BigDecimal("1000000"));
+        }
+        int threads = 16;
+        int operations = 2000;
+        AtomicInteger hotReserved = new AtomicInteger();
+        AtomicInteger committed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        // When 每个线程交替使用两个实例
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < operations; i++) {
+                        CreditLedger node = nodes.get((thread + i) % 2);
+                        if (i % 100 == 0) {
+                            try {
+                                node.reserve("HOT", BigDecimal.ONE, null);
+                                hotReserved.incrementAndGet();
+                            } catch (PaymentException e) {
+                                // 额度不足或冲突重试耗尽
+                            }
+                            continue;
+                        }
+                        String resellerId = "R" + ThreadLocalRandom.current().nextInt(resellers);
+                        CreditReservation reservation = node.reserve(resellerId, BigDecimal.ONE, null);
+                        node.commit(resellerId, reservation.getReservationId());
+                        committed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        BigDecimal used = BigDecimal.ZERO;
+        for (int i = 0; i < resellers; i++) {
+            CreditBalance balance = other.balance("R" + i);
+            assertEquals(0, balance.getReservedAmount().signum());
+            assertEquals(ledger.balance("R" + i).getSeq(), balance.getSeq());
+            used = used.add(balance.getUsedAmount());
+        }
+        assertEquals(committed.get(), used.intValue());
+        CreditBalance hot = other.balance("HOT");
+        assertTrue(hotReserved.get() <= 100);
+        assertEquals(hotReserved.get(), hot.getReservedAmount().intValue());
+    }
+
+    @Test
+    @DisplayName("稳态开销：账户已在内存时，每次预占、确认只追加一条分录，不读库")
+    void testSteadyStateAppendsWithoutReads() {
+        // Given 账户已加载
+        ledger.setLimit(RESELLER, new BigDecimal("1000"));
+        int readsBefore = mapper.reads.get();
+        int insertsBefore = mapper.inserts.get();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            CreditReservation reservation = ledger.reserve(RESELLER, BigDecimal.ONE, null);
+            ledger.commit(RESELLER, reservation.getReservationId());
+        }
+
+        // Then
+        assertEquals(200, mapper.inserts.get() - insertsBefore);
+        assertEquals(readsBefore, mapper.reads.get());
+        assertAmount("100", ledger.balance(RESELLER).getUsedAmount());
+    }
+
+    @Test
+    @DisplayName("不同经销商并行：一个经销商的分录追加未返回时，其他锁分段的经销商照常预占、确认")
+    void testOtherStripeProceedsWhileAppendIsHeld() throws Exception {
+        // Given R0与R1哈希相邻，落在不同锁分段；R0的下一次追加被挂起
+        ledger.setLimit("R0", new BigDecimal("100"));
+        ledger.setLimit("R1", new BigDecimal("100"));
+        mapper.holdNextInsertOf("R0");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CreditReservation> held = executor.submit(() -> ledger.reserve("R0", BigDecimal.ONE, null));
+            assertTrue(mapper.held.await(5, TimeUnit.SECONDS));
+
+            // When
+            CreditReservation reservation = ledger.reserve("R1", BigDecimal.ONE, null);
+            ledger.commit("R1", reservation.getReservationId());
+
+            // Then
+            assertAmount("1", ledger.balance("R1").getUsedAmount());
+            assertFalse(held.isDone());
+            mapper.release.countDown();
+            assertNotNull(held.get(5, TimeUnit.SECONDS));
+            assertAmount("1", ledger.balance("R0").getReservedAmount());
+        } finally {
+            mapper.release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static CreditLedger newLedger(CreditLedgerMapper mapper) {
+        return new CreditLedger(mapper, PaymentShardRouter.singleShard(), new CreditLedgerProperties(),
+                new NoOpTransactionManager());
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "实际: " + actual);
+    }
+
+    /**
+     * 内存流水日志：(经销商ID, 序号) 重复时抛出 DuplicateKeyException，快照按序号只进不退；
+     * 记录读写次数，可挂起指定经销商的下一次追加
+     */
+    private static final class InMemoryCreditLedgerMapper implements CreditLedgerMapper {
+
+        private final Map<String, ConcurrentSkipListMap<Long, CreditJournalEntry>> journal = new ConcurrentHashMap<>();
+        private final Map<String, CreditSnapshot> snapshots = new ConcurrentHashMap<>();
+        private final AtomicInteger inserts = new AtomicInteger();
+        private final AtomicInteger reads = new AtomicInteger();
+        private final CountDownLatch held = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile String heldReseller;
+
+        void holdNextInsertOf(String resellerId) {
+            heldReseller = resellerId;
+        }
+
+        @Override
+        public int insertEntry(CreditJournalEntry entry) {
+            if (entry.getResellerId().equals(heldReseller)) {
+                heldReseller = null;
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            inserts.incrementAndGet();
+            if (journal.computeIfAbsent(entry.getResellerId(), k -> new ConcurrentSkipListMap<>())
+                    .putIfAbsent(entry.getSeq(), entry) != null) {
+                throw new DuplicateKeyException("Duplicate entry for key 'PRIMARY'");
+            }
+            return 1;
+        }
+
+        @Override
+        public List<CreditJournalEntry> selectEntriesAfter(String resellerId, long afterSeq) {
+            reads.incrementAndGet();
+            return entriesAfter(resellerId, afterSeq);
+        }
+
+        private List<CreditJournalEntry> entriesAfter(String resellerId, long afterSeq) {
+            ConcurrentSkipListMap<Long, CreditJournalEntry> entries = journal.get(resellerId);
+            return entries == null ? new ArrayList<>() : new ArrayList<>(entries.tailMap(afterSeq, false).values());
+        }
+
+        @Override
+        public long countEntries(String resellerId, CreditEntryType entryType, String reference) {
+            return entries(resellerId).stream()
+                    .filter(entry -> entry.getEntryType() == entryType && reference.equals(entry.getReference()))
+                    .count();
+        }
+
+        @Override
+        public CreditSnapshot selectSnapshot(String resellerId) {
+            reads.incrementAndGet();
+            return snapshots.get(resellerId);
+        }
+
+        @Override
+        public int upsertSnapshot(CreditSnapshot snapshot) {
+            snapshots.merge(snapshot.getResellerId(), snapshot,
+                    (current, next) -> next.getSeq() > current.getSeq() ? next : current);
+            return 1;
+        }
+
+        List<CreditJournalEntry> entries(String resellerId) {
+            return entriesAfter(resellerId, 0);
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
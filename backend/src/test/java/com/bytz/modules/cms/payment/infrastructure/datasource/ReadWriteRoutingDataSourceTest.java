@@ -0,0 +1,156 @@
+package com.bytz.modules.cms.payment.infrastructure.datasource;
+
+import com.bytz.modules.cms.payment.infrastructure.config.DataSourceRoutingConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReadWriteRoutingDataSource 单元测试
+ * 使用两个本地H2内存库分别模拟主库和从库，验证读写路由与读己之写粘滞
+ */
+@DisplayName("ReadWriteRoutingDataSource 单元测试")
+class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTemplate;
+    private TransactionTemplate readOnlyTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = createInstance("primary");
+        DataSource replica = createInstance("replica");
+        DataSource routing = DataSourceRoutingConfig.createRoutingDataSource(primary, replica);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbcTemplate = new JdbcTemplate(routing);
+        writeTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWritesContext.clear();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("只读事务路由到从库")
+    void testReadOnlyTransactionGoesToReplica() {
+        // When
+        String instance = readOnlyTemplate.execute(status -> currentInstance());
+
+        // Then
+        assertEquals("replica", instance);
+    }
+
+    @Test
+    @DisplayName("读写事务和无事务访问路由到主库")
+    void testWriteTransactionGoesToPrimary() {
+        // When
+        String inTransaction = writeTemplate.execute(status -> currentInstance());
+        String withoutTransaction = currentInstance();
+
+        // Then
+        assertEquals("primary", inTransaction);
+        assertEquals("primary", withoutTransaction);
+    }
+
+    @Test
+    @DisplayName("同一请求内写后读走主库，并在会话上记录写入时间")
+    void testReadAfterWriteInSameRequestGoesToPrimary() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // When
+        writeTemplate.execute(status -> currentInstance());
+        String instance = readOnlyTemplate.execute(status -> currentInstance());
+
+        // Then
+        assertEquals("primary", instance);
+        assertNotNull(request.getSession(false));
+        assertNotNull(request.getSession(false).getAttribute(ReadYourWritesContext.LAST_WRITE_AT_ATTRIBUTE));
+    }
+
+    @Test
+    @DisplayName("非请求线程写入后不钉选主库")
+    void testWriteOutsideRequestDoesNotPin() {
+        // When
+        writeTemplate.execute(status -> currentInstance());
+        String instance = readOnlyTemplate.execute(status -> currentInstance());
+
+        // Then
+        assertEquals("replica", instance);
+    }
+
+    @Test
+    @DisplayName("会话在粘滞窗口内写过时，后续请求的读走主库")
+    void testStickySessionWithinWindow() throws Exception {
+        // Given
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(ReadYourWritesContext.LAST_WRITE_AT_ATTRIBUTE, System.currentTimeMillis());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        AtomicReference<String> instance = new AtomicReference<>();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> instance.set(readOnlyTemplate.execute(status -> currentInstance())));
+
+        // Then
+        assertEquals("primary", instance.get());
+        assertFalse(ReadYourWritesContext.isPinnedToPrimary());
+    }
+
+    @Test
+    @DisplayName("会话写入超出粘滞窗口后，读回到从库")
+    void testStickySessionExpired() throws Exception {
+        // Given
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(ReadYourWritesContext.LAST_WRITE_AT_ATTRIBUTE, System.currentTimeMillis() - 60_000L);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        AtomicReference<String> instance = new AtomicReference<>();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> instance.set(readOnlyTemplate.execute(status -> currentInstance())));
+
+        // Then
+        assertEquals("replica", instance.get());
+    }
+
+    private String currentInstance() {
+        return jdbcTemplate.queryForObject("SELECT name FROM ds_instance", String.class);
+    }
+
+    private static DataSource createInstance(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:rw_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE IF NOT EXISTS ds_instance (name VARCHAR(16))");
+        template.execute("DELETE FROM ds_instance");
+        template.update("INSERT INTO ds_instance (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
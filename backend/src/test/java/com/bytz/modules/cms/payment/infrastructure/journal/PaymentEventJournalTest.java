@@ -0,0 +1,211 @@
+package com.bytz.modules.cms.payment.infrastructure.journal;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentTransitionType;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PaymentEventJournal 单元测试
+ * 使用最小段文件大小验证追加、切段、单支付单回放、重启恢复与订阅
+ */
+@DisplayName("PaymentEventJournal 单元测试")
+class PaymentEventJournalTest {
+
+    private static final int SEGMENT_SIZE = PaymentEventJournal.MIN_SEGMENT_SIZE;
+
+    @TempDir
+    Path directory;
+
+    private PaymentEventJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = new PaymentEventJournal(directory, SEGMENT_SIZE, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("跨段追加后按支付单回放，只返回该支付单的记录且顺序与字段不变")
+    void testReplayAcrossSegments() throws IOException {
+        // Given 500个支付单交替追加，共4000条记录，超过一个段
+        for (int round = 0; round < 8; round++) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(record("P" + i, PaymentTransitionType.values()[round], round));
+            }
+        }
+
+        // When
+        List<PaymentJournalRecord> replayed = journal.replay("P42");
+
+        // Then
+        assertTrue(segmentCount() > 1);
+        assertEquals(8, replayed.size());
+        for (int round = 0; round < 8; round++) {
+            PaymentJournalRecord record = replayed.get(round);
+            assertEquals("P42", record.getPaymentId());
+            assertEquals(PaymentTransitionType.values()[round], record.getTransitionType());
+            assertEquals(0, new BigDecimal(round + ".50").compareTo(record.getPaidAmount()));
+            assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(round), record.getOccurredAt());
+        }
+        assertNull(replayed.get(0).getRefundedAmount());
+        assertEquals(-1, replayed.get(0).getPreviousPosition());
+        assertTrue(journal.replay("P-NONE").isEmpty());
+    }
+
+    @Test
+    @DisplayName("顺序读取覆盖全部记录，返回位置可作为下次读取起点")
+    void testReadFromPosition() {
+        // Given
+        for (int i = 0; i < 3000; i++) {
+            journal.append(record("P" + (i % 7), PaymentTransitionType.CREATE, i));
+        }
+
+        // When 每次最多读100条，直至末尾
+        List<PaymentJournalRecord> records = new ArrayList<>();
+        long position = 0;
+        long next;
+        while ((next = journal.read(position, 100, records::add)) != position) {
+            position = next;
+        }
+
+        // Then
+        assertEquals(3000, records.size());
+        assertEquals(journal.endPosition(), position);
+        for (int i = 1; i < records.size(); i++) {
+            assertTrue(records.get(i).getPosition() > records.get(i - 1).getPosition());
+        }
+    }
+
+    @Test
+    @DisplayName("重启后重建索引并继续追加，末段残缺记录被丢弃")
+    void testRecoverAfterRestart() throws IOException {
+        // Given 追加后在写入位置伪造一条写了一半的记录（长度已写、载荷与校验和不符）
+        for (int i = 0; i < 2000; i++) {
+            journal.append(record("P" + (i % 10), PaymentTransitionType.EXECUTE_PAYMENT, i));
+        }
+        long end = journal.endPosition();
+        journal.close();
+        Path lastSegment = segments().get(segments().size() - 1);
+        long base = Long.parseLong(lastSegment.getFileName().toString().replace(".journal", ""));
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(12).putInt(40).putInt(12345).putInt(7);
+            torn.flip();
+            channel.write(torn, end - base);
+        }
+
+        // When
+        journal = new PaymentEventJournal(directory, SEGMENT_SIZE, false);
+        journal.append(record("P3", PaymentTransitionType.CANCEL, 9999));
+
+        // Then
+        assertEquals(10, journal.paymentCount());
+        List<PaymentJournalRecord> replayed = journal.replay("P3");
+        assertEquals(201, replayed.size());
+        assertEquals(PaymentTransitionType.CANCEL, replayed.get(200).getTransitionType());
+        assertEquals(end, replayed.get(200).getPosition());
+    }
+
+    @Test
+    @DisplayName("订阅线程按顺序收到订阅之后追加的记录")
+    void testTailerReceivesNewRecords() throws Exception {
+        // Given
+        journal.append(record("P0", PaymentTransitionType.CREATE, 0));
+        List<PaymentJournalRecord> received = new CopyOnWriteArrayList<>();
+        try (PaymentJournalTailer tailer = new PaymentJournalTailer(journal, "journal-test-tailer",
+                journal.endPosition(), Duration.ofMillis(50), received::add)) {
+
+            // When
+            for (int i = 1; i <= 100; i++) {
+                journal.append(record("P" + i, PaymentTransitionType.CREATE, i));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.size() < 100 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // Then
+            assertEquals(100, received.size());
+            assertEquals("P1", received.get(0).getPaymentId());
+            assertEquals("P100", received.get(99).getPaymentId());
+            assertEquals(journal.endPosition(), tailer.getPosition());
+        }
+    }
+
+    @Test
+    @DisplayName("聚合根按发生顺序记录状态变更，持久化后清空")
+    void testAggregateRecordsTransitions() {
+        // Given
+        PaymentAggregate payment = PaymentAggregate.create("ORDER-001", "RESELLER-001", new BigDecimal("100.00"),
+                "CNY", PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+
+        // When
+        PaymentTransaction transaction = payment.executePayment(PaymentChannel.WALLET_PAYMENT,
+                new BigDecimal("100.00"), "支付");
+        payment.handlePaymentCallback(transaction.getCode(), true, LocalDateTime.now());
+        List<PaymentTransition> transitions = new ArrayList<>(payment.getUnjournaledTransitions());
+        payment.updateAggregateAfterPersistence();
+
+        // Then
+        assertEquals(Stream.of(PaymentTransitionType.CREATE, PaymentTransitionType.EXECUTE_PAYMENT,
+                        PaymentTransitionType.PAYMENT_CALLBACK).collect(Collectors.toList()),
+                transitions.stream().map(PaymentTransition::getTransitionType).collect(Collectors.toList()));
+        assertEquals(PaymentStatus.PAYING, transitions.get(1).getPaymentStatus());
+        assertEquals(PaymentStatus.PAID, transitions.get(2).getPaymentStatus());
+        assertSame(transaction, transitions.get(2).getTransaction());
+        assertTrue(payment.getUnjournaledTransitions().isEmpty());
+    }
+
+    private static PaymentJournalRecord record(String paymentId, PaymentTransitionType type, int round) {
+        return PaymentJournalRecord.builder()
+                .paymentId(paymentId)
+                .paymentCode("PAY-" + paymentId)
+                .resellerId("RESELLER-001")
+                .transitionType(type)
+                .paymentStatus(PaymentStatus.PAYING)
+                .paidAmount(new BigDecimal(round + ".50"))
+                .transactionCode("TXN-" + round)
+                .occurredAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(round))
+                .build();
+    }
+
+    private long segmentCount() throws IOException {
+        return segments().size();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
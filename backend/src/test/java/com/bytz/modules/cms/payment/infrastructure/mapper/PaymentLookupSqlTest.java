@@ -0,0 +1,131 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentCallbackRecordEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.typehandler.PaymentEnumTypeHandlers;
+import org.apache.ibatis.logging.nologging.NoLoggingImpl;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按键查询固定SQL测试
+ * 使用H2内存库（MySQL模式）验证固定SQL与LambdaQueryWrapper查询结果一致（含逻辑删除过滤、枚举参数）
+ */
+@DisplayName("按键查询固定SQL 单元测试")
+class PaymentLookupSqlTest {
+
+    private static final int PAYMENT_COUNT = 200;
+
+    private static SqlSessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:payment_lookup_sql;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", true);
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE cms_payment (id VARCHAR(32) PRIMARY KEY, code VARCHAR(64) UNIQUE, "
+                + "order_id VARCHAR(64), reseller_id VARCHAR(64), payment_amount DECIMAL(18,2), "
+                + "paid_amount DECIMAL(18,2), refunded_amount DECIMAL(18,2), actual_amount DECIMAL(18,2), "
+                + "pending_amount DECIMAL(18,2), currency VARCHAR(8), payment_type VARCHAR(32), "
+                + "payment_status VARCHAR(32), refund_status VARCHAR(32), business_desc VARCHAR(255), "
+                + "payment_deadline DATETIME, priority_level INT, related_business_id VARCHAR(64), "
+                + "related_business_type VARCHAR(32), business_expire_date DATETIME, del_flag INT DEFAULT 0, "
+                + "create_by VARCHAR(64), create_by_name VARCHAR(64), create_time DATETIME, update_by VARCHAR(64), "
+                + "update_by_name VARCHAR(64), update_time DATETIME)");
+        template.execute("CREATE INDEX idx_order_id ON cms_payment (order_id)");
+        template.execute("CREATE INDEX idx_reseller_id ON cms_payment (reseller_id)");
+        template.execute("CREATE TABLE cms_payment_callback_record (id VARCHAR(32) PRIMARY KEY, "
+                + "channel_transaction_number VARCHAR(64), callback_status VARCHAR(32), payment_id VARCHAR(32), "
+                + "create_time DATETIME, UNIQUE (channel_transaction_number, callback_status))");
+        template.execute("CREATE TABLE cms_wire_transfer_settlement (id VARCHAR(32) PRIMARY KEY, "
+                + "bank_reference VARCHAR(64), payment_id VARCHAR(32), create_time DATETIME, "
+                + "UNIQUE (bank_reference, payment_id))");
+        for (int i = 0; i < PAYMENT_COUNT; i++) {
+            template.update("INSERT INTO cms_payment (id, code, order_id, reseller_id, payment_status, del_flag) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", "P" + i, "PAY-" + i, "ORDER-" + (i / 2), "RESELLER-" + (i % 10),
+                    PaymentStatus.UNPAID.getCode(), i % 50 == 49 ? 1 : 0);
+        }
+        template.update("INSERT INTO cms_payment_callback_record (id, channel_transaction_number, callback_status, "
+                + "payment_id) VALUES ('C1', 'CH-1', ?, 'P1')", TransactionStatus.SUCCESS.getCode());
+        template.update("INSERT INTO cms_wire_transfer_settlement (id, bank_reference, payment_id) "
+                + "VALUES ('W1', 'B1', 'P1'), ('W2', 'B1', 'P2')");
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setLogImpl(NoLoggingImpl.class);
+        PaymentEnumTypeHandlers.registerAll(configuration.getTypeHandlerRegistry());
+        configuration.addMapper(PaymentMapper.class);
+        configuration.addMapper(PaymentCallbackRecordMapper.class);
+        configuration.addMapper(WireTransferSettlementMapper.class);
+        sessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @Test
+    @DisplayName("固定SQL与LambdaQueryWrapper查询结果一致，逻辑删除的行均被过滤")
+    void testSameResultsAsWrapper() {
+        try (SqlSession session = sessionFactory.openSession()) {
+            PaymentMapper paymentMapper = session.getMapper(PaymentMapper.class);
+
+            // When / Then
+            assertEquals(paymentMapper.selectOne(new LambdaQueryWrapper<PaymentEntity>()
+                    .eq(PaymentEntity::getCode, "PAY-3")), paymentMapper.selectByCode("PAY-3"));
+            assertEquals(PaymentStatus.UNPAID, paymentMapper.selectByCode("PAY-3").getPaymentStatus());
+            assertNull(paymentMapper.selectByCode("PAY-49"));
+            assertEquals(paymentMapper.selectList(new LambdaQueryWrapper<PaymentEntity>()
+                    .eq(PaymentEntity::getOrderId, "ORDER-24")), paymentMapper.selectByOrderId("ORDER-24"));
+            assertEquals(1, paymentMapper.selectByOrderId("ORDER-24").size());
+            List<PaymentEntity> byReseller = paymentMapper.selectByResellerId("RESELLER-9");
+            assertEquals(paymentMapper.selectList(new LambdaQueryWrapper<PaymentEntity>()
+                    .eq(PaymentEntity::getResellerId, "RESELLER-9")), byReseller);
+            assertEquals(PAYMENT_COUNT / 10 - PAYMENT_COUNT / 50, byReseller.size());
+        }
+    }
+
+    @Test
+    @DisplayName("回调处理记录：枚举参数按编码绑定，计数命中唯一索引键")
+    void testCallbackRecordLookup() {
+        try (SqlSession session = sessionFactory.openSession()) {
+            PaymentCallbackRecordMapper mapper = session.getMapper(PaymentCallbackRecordMapper.class);
+
+            // When / Then
+            assertEquals(1, mapper.countByChannelTransactionNumber("CH-1", TransactionStatus.SUCCESS));
+            assertEquals(0, mapper.countByChannelTransactionNumber("CH-1", TransactionStatus.FAILED));
+            assertEquals(0, mapper.countByChannelTransactionNumber("CH-2", TransactionStatus.SUCCESS));
+            assertEquals(mapper.selectCount(new LambdaQueryWrapper<PaymentCallbackRecordEntity>()
+                            .eq(PaymentCallbackRecordEntity::getChannelTransactionNumber, "CH-1")
+                            .eq(PaymentCallbackRecordEntity::getCallbackStatus, TransactionStatus.SUCCESS)),
+                    mapper.countByChannelTransactionNumber("CH-1", TransactionStatus.SUCCESS));
+        }
+    }
+
+    @Test
+    @DisplayName("电汇入账记录：一笔到账的各支付单分别计数")
+    void testWireTransferSettlementLookup() {
+        try (SqlSession session = sessionFactory.openSession()) {
+            WireTransferSettlementMapper mapper = session.getMapper(WireTransferSettlementMapper.class);
+
+            // When / Then
+            assertEquals(1, mapper.countByBankReference("B1", "P1"));
+            assertEquals(1, mapper.countByBankReference("B1", "P2"));
+            assertEquals(0, mapper.countByBankReference("B1", "P3"));
+            assertEquals(0, mapper.countByBankReference("B2", "P1"));
+        }
+    }
+}
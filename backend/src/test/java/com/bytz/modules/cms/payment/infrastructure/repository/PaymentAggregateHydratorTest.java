@@ -0,0 +1,104 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RefundStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.infrastructure.assembler.InfrastructureAssembler;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 支付单聚合根装配测试
+ * 验证批量装配结果
+ */
+@DisplayName("PaymentAggregateHydrator 单元测试")
+class PaymentAggregateHydratorTest {
+
+    private final InfrastructureAssembler assembler = Mappers.getMapper(InfrastructureAssembler.class);
+
+    @Test
+    @DisplayName("批量装配：按支付单行顺序输出，处理中流水作为运行期流水，其余进入已完成列表")
+    void testHydrateBatch() {
+        // Given 流水行与支付单行顺序无关，含一条不属于本批支付单的流水
+        List<PaymentEntity> payments = Arrays.asList(payment("P1"), payment("P2"), payment("P3"));
+        List<PaymentTransactionEntity> transactions = Arrays.asList(
+                transaction("T1", "P2", TransactionStatus.SUCCESS, 1),
+                transaction("T2", "P1", TransactionStatus.SUCCESS, 2),
+                transaction("T3", "P2", TransactionStatus.PROCESSING, 3),
+                transaction("T4", "P9", TransactionStatus.SUCCESS, 4),
+                transaction("T5", "P2", TransactionStatus.FAILED, 5));
+
+        // When
+        List<PaymentAggregate> aggregates = PaymentAggregateHydrator.hydrate(payments, transactions, assembler);
+
+        // Then
+        assertEquals(3, aggregates.size());
+        assertEquals("P1", aggregates.get(0).getId());
+        assertEquals(1, aggregates.get(0).getCompletedTransactions().size());
+        assertNull(aggregates.get(0).getRunningTransaction());
+
+        PaymentAggregate p2 = aggregates.get(1);
+        assertEquals("T3", p2.getRunningTransaction().getId());
+        assertEquals(Arrays.asList("T1", "T5"), ids(p2.getCompletedTransactions()));
+        assertEquals(Arrays.asList("T3", "T5", "T1"), ids(p2.getTransactions()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(p2.getPaymentAmount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(p2.getRefundedAmount()));
+        assertEquals("CNY", p2.getCurrency());
+
+        PaymentAggregate p3 = aggregates.get(2);
+        assertTrue(p3.getCompletedTransactions().isEmpty());
+        // 已完成列表与结果列表均可追加（findByIds 会追加归档支付单）
+        p3.getCompletedTransactions().add(PaymentTransaction.builder().id("T9").build());
+        aggregates.add(p3);
+    }
+
+    private static List<String> ids(List<PaymentTransaction> transactions) {
+        List<String> ids = new ArrayList<>();
+        transactions.forEach(transaction -> ids.add(transaction.getId()));
+        return ids;
+    }
+
+    private static PaymentEntity payment(String id) {
+        return PaymentEntity.builder()
+                .id(id)
+                .code("PAY-" + id)
+                .orderId("ORDER-001")
+                .resellerId("RESELLER-001")
+                .paymentAmount(new BigDecimal("100.00"))
+                .paidAmount(new BigDecimal("20.00"))
+                .paymentType(PaymentType.ADVANCE_PAYMENT)
+                .paymentStatus(PaymentStatus.PAYING)
+                .refundStatus(RefundStatus.NO_REFUND)
+                .createTime(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+
+    private static PaymentTransactionEntity transaction(String id, String paymentId, TransactionStatus status,
+                                                        int minutes) {
+        PaymentTransactionEntity entity = new PaymentTransactionEntity();
+        entity.setId(id);
+        entity.setPaymentId(paymentId);
+        entity.setTransactionType(TransactionType.PAYMENT);
+        entity.setTransactionStatus(status);
+        entity.setTransactionAmount(new BigDecimal("10.00"));
+        entity.setPaymentChannel(PaymentChannel.WALLET_PAYMENT);
+        entity.setCreateTime(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(minutes));
+        return entity;
+    }
+}
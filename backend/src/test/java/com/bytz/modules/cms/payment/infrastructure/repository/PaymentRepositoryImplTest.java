@@ -0,0 +1,397 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.model.CallbackRecord;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.infrastructure.archive.PaymentArchiveJob;
+import com.bytz.modules.cms.payment.infrastructure.assembler.InfrastructureAssembler;
+import com.bytz.modules.cms.payment.infrastructure.config.ArchiveProperties;
+import com.bytz.modules.cms.payment.infrastructure.config.CallbackDedupProperties;
+import com.bytz.modules.cms.payment.infrastructure.journal.PaymentEventJournal;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentArchiveMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentCallbackRecordMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentTransactionMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.ResellerPaymentSummaryMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.WireTransferSettlementMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.infrastructure.typehandler.PaymentEnumTypeHandlers;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import org.apache.ibatis.logging.nologging.NoLoggingImpl;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 支付单仓储测试
+ * 使用H2内存库（MySQL模式）上的真实Mapper与事务管理器，验证批量保存时回调登记与支付单
+ * 在同一分片事务内提交或回滚，以及归档任务搬迁后按ID/单号回查归档表
+ */
+@DisplayName("PaymentRepositoryImpl 单元测试")
+class PaymentRepositoryImplTest {
+
+    private static final LocalDateTime COMPLETE_TIME = LocalDateTime.of(2024, 6, 1, 10, 0);
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PaymentRepositoryImpl repository;
+
+    private PaymentArchiveJob archiveJob;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:payment_repository_" + UUID.randomUUID().toString().replace("-", "")
+                        + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        String paymentColumns = "id VARCHAR(32) PRIMARY KEY, code VARCHAR(64) UNIQUE, order_id VARCHAR(64), "
+                + "reseller_id VARCHAR(64), payment_amount DECIMAL(18,2), paid_amount DECIMAL(18,2), "
+                + "refunded_amount DECIMAL(18,2), actual_amount DECIMAL(18,2), "
+                + "pending_amount DECIMAL(18,2) AS (payment_amount - paid_amount), currency VARCHAR(8), "
+                + "payment_type VARCHAR(32), payment_status VARCHAR(32), refund_status VARCHAR(32), "
+                + "business_desc VARCHAR(255), payment_deadline DATETIME, priority_level INT, "
+                + "related_business_id VARCHAR(64), related_business_type VARCHAR(32), business_expire_date DATETIME, "
+                + "del_flag INT DEFAULT 0, create_by VARCHAR(64), create_by_name VARCHAR(64), create_time DATETIME, "
+                + "update_by VARCHAR(64), update_by_name VARCHAR(64), update_time DATETIME";
+        String transactionColumns = "id VARCHAR(32) PRIMARY KEY, code VARCHAR(64), payment_id VARCHAR(32), "
+                + "transaction_type VARCHAR(32), transaction_status VARCHAR(32), transaction_amount DECIMAL(18,2), "
+                + "payment_channel VARCHAR(32), channel_transaction_number VARCHAR(64), "
+                + "channel_payment_record_id VARCHAR(64), payment_way VARCHAR(32), original_transaction_id VARCHAR(32), "
+                + "business_order_id VARCHAR(64), create_time DATETIME, complete_date_time DATETIME, "
+                + "expiration_time DATETIME, business_remark VARCHAR(255), del_flag INT DEFAULT 0, "
+                + "create_by VARCHAR(64), create_by_name VARCHAR(64), update_by VARCHAR(64), "
+                + "update_by_name VARCHAR(64), update_time DATETIME";
+        jdbcTemplate.execute("CREATE TABLE cms_payment (" + paymentColumns + ")");
+        jdbcTemplate.execute("CREATE TABLE cms_payment_transaction (" + transactionColumns + ")");
+        jdbcTemplate.execute("CREATE TABLE cms_payment_archive ("
+                + paymentColumns.replace(" AS (payment_amount - paid_amount)", "") + ", archive_time DATETIME)");
+        jdbcTemplate.execute("CREATE TABLE cms_payment_transaction_archive (" + transactionColumns
+                + ", archive_time DATETIME)");
+        jdbcTemplate.execute("CREATE TABLE cms_reseller_payment_summary (reseller_id VARCHAR(64), "
+                + "currency VARCHAR(8), payment_status VARCHAR(32), payment_count BIGINT, "
+                + "payment_amount DECIMAL(18,2), paid_amount DECIMAL(18,2), refunded_amount DECIMAL(18,2), "
+                + "update_time DATETIME, PRIMARY KEY (reseller_id, currency, payment_status))");
+        jdbcTemplate.execute("CREATE TABLE cms_payment_callback_record (id VARCHAR(32) PRIMARY KEY, "
+                + "channel_transaction_number VARCHAR(64) NOT NULL, callback_status VARCHAR(20) NOT NULL, "
+                + "payment_id VARCHAR(32) NOT NULL, create_time DATETIME NOT NULL, "
+                + "CONSTRAINT uk_channel_txn_status UNIQUE (channel_transaction_number, callback_status))");
+        jdbcTemplate.execute("CREATE TABLE cms_wire_transfer_settlement (id VARCHAR(32) PRIMARY KEY, "
+                + "bank_reference VARCHAR(64) NOT NULL, payment_id VARCHAR(32) NOT NULL, create_time DATETIME NOT NULL, "
+                + "CONSTRAINT uk_bank_reference_payment UNIQUE (bank_reference, payment_id))");
+        jdbcTemplate.execute("CREATE TABLE cms_transaction_rollup_state (transaction_id VARCHAR(32) PRIMARY KEY, "
+                + "payment_id VARCHAR(32) NOT NULL)");
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setLogImpl(NoLoggingImpl.class);
+        PaymentEnumTypeHandlers.registerAll(configuration.getTypeHandlerRegistry());
+        configuration.addMapper(PaymentMapper.class);
+        configuration.addMapper(PaymentTransactionMapper.class);
+        configuration.addMapper(PaymentArchiveMapper.class);
+        configuration.addMapper(ResellerPaymentSummaryMapper.class);
+        configuration.addMapper(PaymentCallbackRecordMapper.class);
+        configuration.addMapper(WireTransferSettlementMapper.class);
+        SqlSessionFactory sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+        SqlSessionTemplate sqlSession = new SqlSessionTemplate(sqlSessionFactory);
+
+        PaymentShardRouter shardRouter = PaymentShardRouter.singleShard();
+        CallbackRecordRepositoryImpl callbackRecordRepository = new CallbackRecordRepositoryImpl(
+                sqlSession.getMapper(PaymentCallbackRecordMapper.class),
+                sqlSession.getMapper(WireTransferSettlementMapper.class), shardRouter, sqlSessionFactory,
+                new CallbackDedupProperties());
+        repository = new PaymentRepositoryImpl(sqlSession.getMapper(PaymentMapper.class),
+                sqlSession.getMapper(PaymentTransactionMapper.class), sqlSession.getMapper(PaymentArchiveMapper.class),
+                sqlSession.getMapper(ResellerPaymentSummaryMapper.class), Mappers.getMapper(InfrastructureAssembler.class),
+                shardRouter, new PaymentRowReader(dataSource), new DataSourceTransactionManager(dataSource),
+                sqlSessionFactory, callbackRecordRepository,
+                new DefaultListableBeanFactory().getBeanProvider(PaymentEventJournal.class));
+
+        ArchiveProperties archiveProperties = new ArchiveProperties();
+        archiveProperties.setPause(Duration.ZERO);
+        archiveJob = new PaymentArchiveJob(sqlSession.getMapper(PaymentArchiveMapper.class), shardRouter,
+                archiveProperties, new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    @DisplayName("回调登记与支付单更新在同一事务内提交")
+    void testCommitsCallbackRecordsWithPayments() {
+        // Given
+        PaymentAggregate payment = settledInMemory(payingPayment("PAY-1", "CH-1"));
+
+        // When
+        repository.saveAll(Collections.singletonList(payment),
+                Collections.singletonList(record("CH-1", payment.getId())));
+
+        // Then
+        assertEquals(PaymentStatus.PAID.getCode(), paymentStatus(payment.getId()));
+        assertEquals(1, recordCount("CH-1"));
+    }
+
+    @Test
+    @DisplayName("回调已在库中登记：唯一键拒绝本次登记，支付单更新随分片事务回滚")
+    void testDuplicateInDatabaseRollsBackPayment() {
+        // Given 并发投递的同一回调已先提交登记
+        PaymentAggregate payment = settledInMemory(payingPayment("PAY-1", "CH-1"));
+        jdbcTemplate.update("INSERT INTO cms_payment_callback_record (id, channel_transaction_number, callback_status, "
+                + "payment_id, create_time) VALUES ('R1', 'CH-1', ?, ?, ?)",
+                TransactionStatus.SUCCESS.getCode(), payment.getId(), COMPLETE_TIME);
+
+        // When / Then
+        assertThrows(DuplicateKeyException.class, () -> repository.saveAll(Collections.singletonList(payment),
+                Collections.singletonList(record("CH-1", payment.getId()))));
+        assertEquals(PaymentStatus.PAYING.getCode(), paymentStatus(payment.getId()));
+        assertEquals(1, recordCount("CH-1"));
+    }
+
+    @Test
+    @DisplayName("同一批内重复登记：唯一键拒绝，整个分片事务不写入")
+    void testDuplicateWithinBatchRollsBackAll() {
+        // Given
+        PaymentAggregate first = settledInMemory(payingPayment("PAY-1", "CH-1"));
+        PaymentAggregate second = settledInMemory(payingPayment("PAY-2", "CH-2"));
+
+        // When / Then
+        assertThrows(DuplicateKeyException.class, () -> repository.saveAll(Arrays.asList(first, second),
+                Arrays.asList(record("CH-1", first.getId()), record("CH-2", second.getId()),
+                        record("CH-1", first.getId()))));
+        assertEquals(PaymentStatus.PAYING.getCode(), paymentStatus(first.getId()));
+        assertEquals(PaymentStatus.PAYING.getCode(), paymentStatus(second.getId()));
+        assertEquals(0, recordCount("CH-1"));
+        assertEquals(0, recordCount("CH-2"));
+    }
+
+    @Test
+    @DisplayName("支付单保存失败（已归档）时回调登记随分片事务回滚，渠道重投可以重新处理")
+    void testFailedSaveRollsBackCallbackRecord() {
+        // Given 支付单在处理期间被搬入归档表
+        PaymentAggregate payment = settledInMemory(payingPayment("PAY-1", "CH-1"));
+        jdbcTemplate.update("INSERT INTO cms_payment_archive (" + PaymentArchiveMapper.PAYMENT_COLUMNS + ") SELECT "
+                + PaymentArchiveMapper.PAYMENT_COLUMNS + " FROM cms_payment WHERE id = ?", payment.getId());
+        jdbcTemplate.update("DELETE FROM cms_payment WHERE id = ?", payment.getId());
+
+        // When / Then
+        assertThrows(PaymentException.class, () -> repository.saveAll(Collections.singletonList(payment),
+                Collections.singletonList(record("CH-1", payment.getId()))));
+        assertEquals(0, recordCount("CH-1"));
+    }
+
+    @Test
+    @DisplayName("一笔电汇到账结算多个支付单：各支付单分别登记，不占用渠道回调的判重键")
+    void testWireTransferRecordedPerPayment() {
+        // Given
+        PaymentAggregate first = settledInMemory(payingPayment("PAY-1", "CH-1"));
+        PaymentAggregate second = settledInMemory(payingPayment("PAY-2", "CH-2"));
+
+        // When
+        repository.saveAll(Arrays.asList(first, second), Arrays.asList(
+                CallbackRecord.wireTransfer("B1", first.getId()), CallbackRecord.wireTransfer("B1", second.getId())));
+
+        // Then
+        Integer settled = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cms_wire_transfer_settlement "
+                + "WHERE bank_reference = 'B1'", Integer.class);
+        assertEquals(2, settled);
+        assertEquals(0, recordCount("B1"));
+        assertEquals(PaymentStatus.PAID.getCode(), paymentStatus(second.getId()));
+    }
+
+    @Test
+    @DisplayName("回调登记的支付单不在本次保存范围内时拒绝保存")
+    void testRejectsRecordOfUnsavedPayment() {
+        // Given
+        PaymentAggregate payment = settledInMemory(payingPayment("PAY-1", "CH-1"));
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> repository.saveAll(Collections.singletonList(payment),
+                Collections.singletonList(record("CH-9", "OTHER"))));
+        assertEquals(PaymentStatus.PAYING.getCode(), paymentStatus(payment.getId()));
+    }
+
+    @Test
+    @DisplayName("del_flag为NULL的存量支付单：按未删除加载，批量保存照常写入并回填为0")
+    void testSaveAllUpdatesLegacyNullDeleteFlag() {
+        // Given 存量数据未回填del_flag
+        PaymentAggregate payment = legacyPayment("PAY-1", "CH-1");
+
+        // When
+        repository.saveAll(Collections.singletonList(settledInMemory(payment)));
+
+        // Then
+        assertEquals(PaymentStatus.PAID.getCode(), paymentStatus(payment.getId()));
+        assertEquals(TransactionStatus.SUCCESS.getCode(), jdbcTemplate.queryForObject(
+                "SELECT transaction_status FROM cms_payment_transaction WHERE payment_id = ?", String.class,
+                payment.getId()));
+        assertEquals(0, nullDeleteFlagCount());
+    }
+
+    @Test
+    @DisplayName("del_flag为NULL的存量支付单：单个保存照常写入并回填为0")
+    void testSaveUpdatesLegacyNullDeleteFlag() {
+        // Given 存量数据未回填del_flag
+        PaymentAggregate payment = legacyPayment("PAY-1", "CH-1");
+
+        // When
+        repository.save(settledInMemory(payment));
+
+        // Then
+        assertEquals(PaymentStatus.PAID.getCode(), paymentStatus(payment.getId()));
+        assertEquals(0, nullDeleteFlagCount());
+    }
+
+    @Test
+    @DisplayName("已结清且超过保留期的支付单归档后：按ID、ID列表、单号都能从归档表查到，流水一并还原")
+    void testFindsArchivedPayment() {
+        // Given 一个超过保留期的已支付支付单，一个仍在热表的支付中支付单
+        PaymentAggregate paid = settledInMemory(payingPayment("PAY-1", "CH-1"));
+        repository.saveAll(Collections.singletonList(paid));
+        PaymentAggregate paying = payingPayment("PAY-2", "CH-2");
+        ageBeyondRetention(paid.getId(), paying.getId());
+
+        // When
+        archiveJob.run();
+
+        // Then 热表只剩支付中的支付单，已支付的支付单及其流水在归档表
+        assertEquals(0, count("cms_payment", paid.getId()));
+        assertEquals(1, count("cms_payment_archive", paid.getId()));
+        assertEquals(1, count("cms_payment_transaction_archive", paid.getId()));
+
+        PaymentAggregate byId = repository.findById(paid.getId()).orElseThrow(IllegalStateException::new);
+        assertEquals(PaymentStatus.PAID, byId.getPaymentStatus());
+        assertEquals(0, new BigDecimal("100.00").compareTo(byId.getPaidAmount()));
+        assertEquals(1, byId.getTransactions().size());
+        assertEquals(TransactionStatus.SUCCESS, byId.getTransactions().get(0).getTransactionStatus());
+        assertEquals(paid.getId(), repository.findByCode("PAY-1").map(PaymentAggregate::getId).orElse(null));
+
+        List<PaymentAggregate> byIds = repository.findByIds(Arrays.asList(paid.getId(), paying.getId(), "404"));
+        assertEquals(Arrays.asList(PaymentStatus.PAID, PaymentStatus.PAYING), byIds.stream()
+                .sorted((a, b) -> a.getCode().compareTo(b.getCode()))
+                .map(PaymentAggregate::getPaymentStatus)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("未结清的支付单（未支付、支付中）即使超过保留期也不归档；保留期内的已支付支付单不归档")
+    void testNonTerminalPaymentNeverArchived() {
+        // Given 未支付、支付中的支付单超过保留期，已支付的支付单一个在保留期内、一个超过保留期（对照）
+        PaymentAggregate unpaid = PaymentAggregate.create("ORDER-PAY-1", "RESELLER-001", new BigDecimal("100.00"),
+                "CNY", PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+        unpaid.setCode("PAY-1");
+        repository.saveAll(Collections.singletonList(unpaid));
+        PaymentAggregate paying = payingPayment("PAY-2", "CH-2");
+        ageBeyondRetention(unpaid.getId(), paying.getId());
+        PaymentAggregate recentlyPaid = settledInMemory(payingPayment("PAY-3", "CH-3"));
+        repository.saveAll(Collections.singletonList(recentlyPaid));
+        jdbcTemplate.update("UPDATE cms_payment SET update_time = ? WHERE id = ?", LocalDateTime.now(),
+                recentlyPaid.getId());
+        PaymentAggregate oldPaid = settledInMemory(payingPayment("PAY-4", "CH-4"));
+        repository.saveAll(Collections.singletonList(oldPaid));
+        ageBeyondRetention(oldPaid.getId());
+
+        // When
+        archiveJob.run();
+
+        // Then 只有超过保留期的已支付支付单被归档
+        assertEquals(Collections.singletonList(oldPaid.getId()),
+                jdbcTemplate.queryForList("SELECT id FROM cms_payment_archive", String.class));
+        assertEquals(PaymentStatus.UNPAID.getCode(), paymentStatus(unpaid.getId()));
+        assertEquals(PaymentStatus.PAYING.getCode(), paymentStatus(paying.getId()));
+        assertEquals(PaymentStatus.PAID.getCode(), paymentStatus(recentlyPaid.getId()));
+        assertEquals(1, count("cms_payment_transaction", paying.getId()));
+    }
+
+    /**
+     * 创建并保存一个支付中的支付单，重新加载返回
+     */
+    private PaymentAggregate payingPayment(String code, String channelTransactionNumber) {
+        PaymentAggregate payment = PaymentAggregate.create("ORDER-" + code, "RESELLER-001", new BigDecimal("100.00"),
+                "CNY", PaymentType.ADVANCE_PAYMENT, "测试支付单", null, null, null, null);
+        payment.setCode(code);
+        PaymentTransaction transaction = payment.executePayment(PaymentChannel.ONLINE_PAYMENT,
+                new BigDecimal("100.00"), "测试支付");
+        transaction.setCode("TXN-" + code);
+        transaction.setChannelTransactionNumber(channelTransactionNumber);
+        repository.saveAll(Collections.singletonList(payment));
+        return repository.findById(payment.getId()).orElseThrow(IllegalStateException::new);
+    }
+
+    /**
+     * 创建一个支付中的支付单，将其与流水的del_flag置为NULL后重新加载返回
+     */
+    private PaymentAggregate legacyPayment(String code, String channelTransactionNumber) {
+        String paymentId = payingPayment(code, channelTransactionNumber).getId();
+        jdbcTemplate.update("UPDATE cms_payment SET del_flag = NULL WHERE id = ?", paymentId);
+        jdbcTemplate.update("UPDATE cms_payment_transaction SET del_flag = NULL WHERE payment_id = ?", paymentId);
+        return repository.findById(paymentId).orElseThrow(IllegalStateException::new);
+    }
+
+    private int nullDeleteFlagCount() {
+        Integer count = jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM cms_payment WHERE del_flag IS NULL) "
+                + "+ (SELECT COUNT(*) FROM cms_payment_transaction WHERE del_flag IS NULL)", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static PaymentAggregate settledInMemory(PaymentAggregate payment) {
+        payment.handlePaymentCallback(payment.getRunningTransaction().getCode(), true, COMPLETE_TIME);
+        return payment;
+    }
+
+    private static CallbackRecord record(String channelTransactionNumber, String paymentId) {
+        return CallbackRecord.channelCallback(channelTransactionNumber, TransactionStatus.SUCCESS, paymentId);
+    }
+
+    private String paymentStatus(String paymentId) {
+        return jdbcTemplate.queryForObject("SELECT payment_status FROM cms_payment WHERE id = ?", String.class, paymentId);
+    }
+
+    /**
+     * 将支付单的创建、更新时间改为保留期之前
+     */
+    private void ageBeyondRetention(String... paymentIds) {
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(365);
+        for (String paymentId : paymentIds) {
+            jdbcTemplate.update("UPDATE cms_payment SET create_time = ?, update_time = ? WHERE id = ?",
+                    longAgo, longAgo, paymentId);
+        }
+    }
+
+    private int count(String table, String paymentId) {
+        String column = table.startsWith("cms_payment_transaction") ? "payment_id" : "id";
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?",
+                Integer.class, paymentId);
+        return count == null ? 0 : count;
+    }
+
+    private int recordCount(String channelTransactionNumber) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cms_payment_callback_record "
+                + "WHERE channel_transaction_number = ?", Integer.class, channelTransactionNumber);
+        return count == null ? 0 : count;
+    }
+}
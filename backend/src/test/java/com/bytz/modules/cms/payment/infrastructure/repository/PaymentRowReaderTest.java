@@ -0,0 +1,248 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.RefundStatus;
+import com.bytz.modules.cms.payment.domain.enums.RelatedBusinessType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
+import com.bytz.modules.cms.payment.domain.model.PaymentTransaction;
+import com.bytz.modules.cms.payment.infrastructure.assembler.InfrastructureAssembler;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentTransactionMapper;
+import com.bytz.modules.cms.payment.infrastructure.typehandler.PaymentEnumTypeHandlers;
+import org.apache.ibatis.logging.nologging.NoLoggingImpl;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 支付单行读取测试
+ * 使用H2内存库（MySQL模式）验证手写行映射器的字段映射、枚举编码查找表与类型处理器注册，
+ * 并与MyBatis-Plus反射映射 + MapStruct转换的结果一致
+ */
+@DisplayName("PaymentRowReader 单元测试")
+class PaymentRowReaderTest {
+
+    private static final int PAYMENT_COUNT = 2000;
+    private static final int TRANSACTIONS_PER_PAYMENT = 5;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private static DataSource dataSource;
+    private static PaymentRowReader rowReader;
+    private static List<String> paymentIds;
+
+    private final InfrastructureAssembler assembler = Mappers.getMapper(InfrastructureAssembler.class);
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:payment_row_reader;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE cms_payment (id VARCHAR(32) PRIMARY KEY, code VARCHAR(64), "
+                + "order_id VARCHAR(64), reseller_id VARCHAR(64), payment_amount DECIMAL(18,2), "
+                + "paid_amount DECIMAL(18,2), refunded_amount DECIMAL(18,2), actual_amount DECIMAL(18,2), "
+                + "pending_amount DECIMAL(18,2), currency VARCHAR(8), payment_type VARCHAR(32), "
+                + "payment_status VARCHAR(32), refund_status VARCHAR(32), business_desc VARCHAR(255), "
+                + "payment_deadline DATETIME, related_business_id VARCHAR(64), related_business_type VARCHAR(32), "
+                + "business_expire_date DATETIME, del_flag INT DEFAULT 0, create_by VARCHAR(64), "
+                + "create_by_name VARCHAR(64), create_time DATETIME, update_by VARCHAR(64), "
+                + "update_by_name VARCHAR(64), update_time DATETIME)");
+        template.execute("CREATE TABLE cms_payment_transaction (id VARCHAR(32) PRIMARY KEY, code VARCHAR(64), "
+                + "payment_id VARCHAR(32), transaction_type VARCHAR(32), transaction_status VARCHAR(32), "
+                + "transaction_amount DECIMAL(18,2), payment_channel VARCHAR(32), "
+                + "channel_transaction_number VARCHAR(64), channel_payment_record_id VARCHAR(64), "
+                + "payment_way VARCHAR(32), original_transaction_id VARCHAR(32), business_order_id VARCHAR(64), "
+                + "create_time DATETIME, complete_date_time DATETIME, expiration_time DATETIME, "
+                + "business_remark VARCHAR(255), del_flag INT DEFAULT 0, create_by VARCHAR(64), "
+                + "create_by_name VARCHAR(64), update_by VARCHAR(64), update_by_name VARCHAR(64), "
+                + "update_time DATETIME)");
+        template.execute("CREATE INDEX idx_transaction_payment ON cms_payment_transaction (payment_id)");
+
+        paymentIds = new ArrayList<>(PAYMENT_COUNT);
+        List<Object[]> payments = new ArrayList<>(PAYMENT_COUNT);
+        List<Object[]> transactions = new ArrayList<>(PAYMENT_COUNT * TRANSACTIONS_PER_PAYMENT);
+        for (int i = 0; i < PAYMENT_COUNT; i++) {
+            String paymentId = String.valueOf(100000 + i);
+            paymentIds.add(paymentId);
+            payments.add(new Object[]{paymentId, "PAY-" + i, "ORDER-" + i, "RESELLER-" + (i % 10),
+                    new BigDecimal("500.00"), new BigDecimal("300.00"), BigDecimal.ZERO, new BigDecimal("300.00"),
+                    new BigDecimal("200.00"), "CNY", PaymentType.ADVANCE_PAYMENT.getCode(),
+                    PaymentStatus.PARTIAL_PAID.getCode(), RefundStatus.NO_REFUND.getCode(), "测试支付单",
+                    BASE.plusDays(30), "CREDIT-" + i, RelatedBusinessType.CREDIT_RECORD.getCode(), BASE.plusDays(60),
+                    deleteFlag(i == PAYMENT_COUNT - 1, i == 1), "U1", "用户一", BASE, "U1", "用户一", BASE});
+            for (int t = 0; t < TRANSACTIONS_PER_PAYMENT; t++) {
+                TransactionStatus status = t == TRANSACTIONS_PER_PAYMENT - 1
+                        ? TransactionStatus.PROCESSING : TransactionStatus.SUCCESS;
+                transactions.add(new Object[]{paymentId + "-" + t, "TXN-" + i + "-" + t, paymentId,
+                        TransactionType.PAYMENT.getCode(), status.getCode(), new BigDecimal("60.00"),
+                        PaymentChannel.WALLET_PAYMENT.getCode(), "CH-" + i + "-" + t, null, "BALANCE", null,
+                        "ORDER-" + i, BASE.plusMinutes(t), BASE.plusMinutes(t + 1), null, "备注",
+                        deleteFlag(t == 0 && i == 0, t == 1 && i == 1), "U1", "用户一", "U1", "用户一",
+                        BASE.plusMinutes(t + 1)});
+            }
+        }
+        template.batchUpdate("INSERT INTO cms_payment (" + PaymentRowMapper.COLUMNS + ") VALUES "
+                + "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", payments);
+        template.batchUpdate("INSERT INTO cms_payment_transaction (id, code, payment_id, transaction_type, "
+                + "transaction_status, transaction_amount, payment_channel, channel_transaction_number, "
+                + "channel_payment_record_id, payment_way, original_transaction_id, business_order_id, create_time, "
+                + "complete_date_time, expiration_time, business_remark, del_flag, create_by, create_by_name, "
+                + "update_by, update_by_name, update_time) VALUES "
+                + "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", transactions);
+        rowReader = new PaymentRowReader(dataSource);
+    }
+
+    @Test
+    @DisplayName("行映射：字段与枚举按编码还原，逻辑删除的行被过滤，del_flag为NULL的行按未删除读取")
+    void testMapRows() {
+        // When
+        PaymentEntity payment = rowReader.selectPaymentById(paymentIds.get(0));
+        List<PaymentTransaction> transactions = rowReader.selectTransactionsByPaymentId(paymentIds.get(0));
+
+        // Then
+        assertEquals("PAY-0", payment.getCode());
+        assertEquals(PaymentType.ADVANCE_PAYMENT, payment.getPaymentType());
+        assertEquals(PaymentStatus.PARTIAL_PAID, payment.getPaymentStatus());
+        assertEquals(RefundStatus.NO_REFUND, payment.getRefundStatus());
+        assertEquals(RelatedBusinessType.CREDIT_RECORD, payment.getRelatedBusinessType());
+        assertEquals(0, new BigDecimal("200.00").compareTo(payment.getPendingAmount()));
+        assertEquals(BASE.plusDays(30), payment.getPaymentDeadline());
+        assertEquals(Integer.valueOf(0), payment.getDelFlag());
+        assertNull(rowReader.selectPaymentById(paymentIds.get(PAYMENT_COUNT - 1)));
+        assertNull(rowReader.selectPaymentById(paymentIds.get(1)).getDelFlag());
+        assertEquals(TRANSACTIONS_PER_PAYMENT, rowReader.selectTransactionsByPaymentId(paymentIds.get(1)).size());
+
+        assertEquals(TRANSACTIONS_PER_PAYMENT - 1, transactions.size());
+        PaymentTransaction transaction = transactions.stream()
+                .filter(t -> t.getId().endsWith("-1")).findFirst().get();
+        assertEquals(paymentIds.get(0), transaction.getPaymentId());
+        assertEquals(TransactionType.PAYMENT, transaction.getTransactionType());
+        assertEquals(TransactionStatus.SUCCESS, transaction.getTransactionStatus());
+        assertEquals(PaymentChannel.WALLET_PAYMENT, transaction.getPaymentChannel());
+        assertEquals(0, new BigDecimal("60.00").compareTo(transaction.getTransactionAmount()));
+        assertEquals(BASE.plusMinutes(1), transaction.getCreateTime());
+        assertEquals(BASE.plusMinutes(2), transaction.getCompleteDateTime());
+        assertNull(transaction.getExpirationTime());
+        assertEquals("用户一", transaction.getCreateByName());
+    }
+
+    @Test
+    @DisplayName("批量装配：超过单批IN上限的支付单分批查询，结果与单个装配一致")
+    void testHydrateBatchFromRows() {
+        // When
+        List<PaymentEntity> payments = rowReader.selectPaymentsByIds(paymentIds);
+        List<PaymentAggregate> aggregates = PaymentAggregateHydrator.hydrateMapped(payments,
+                rowReader.selectTransactionsByPaymentIds(paymentIds), assembler);
+
+        // Then
+        assertEquals(PAYMENT_COUNT - 1, aggregates.size());
+        PaymentAggregate aggregate = aggregates.stream()
+                .filter(payment -> payment.getId().equals(paymentIds.get(7))).findFirst().get();
+        assertEquals(paymentIds.get(7) + "-4", aggregate.getRunningTransaction().getId());
+        assertEquals(TRANSACTIONS_PER_PAYMENT - 1, aggregate.getCompletedTransactions().size());
+        assertEquals(0, new BigDecimal("200.00").compareTo(aggregate.getPendingAmount()));
+    }
+
+    @Test
+    @DisplayName("枚举类型处理器：显式注册优先于默认枚举处理器，编码查找与默认处理器行为一致")
+    void testEnumTypeHandlers() {
+        // Given
+        MybatisConfiguration configuration = new MybatisConfiguration();
+
+        // When
+        PaymentEnumTypeHandlers.registerAll(configuration.getTypeHandlerRegistry());
+
+        // Then
+        assertSame(PaymentEnumTypeHandlers.PAYMENT_STATUS,
+                configuration.getTypeHandlerRegistry().getTypeHandler(PaymentStatus.class));
+        assertSame(PaymentEnumTypeHandlers.TRANSACTION_STATUS,
+                configuration.getTypeHandlerRegistry().getTypeHandler(TransactionStatus.class));
+        assertEquals(PaymentStatus.PAID, PaymentEnumTypeHandlers.PAYMENT_STATUS.fromCode(" PAID "));
+        assertNull(PaymentEnumTypeHandlers.PAYMENT_STATUS.fromCode("UNKNOWN"));
+        assertNull(PaymentEnumTypeHandlers.PAYMENT_STATUS.fromCode(null));
+    }
+
+    @Test
+    @DisplayName("映射结果一致：手写行映射器与MyBatis-Plus反射映射 + MapStruct转换")
+    void testSameResultsAsMybatis() {
+        // Given 同一批流水（约1万行）分别经三条路径读取为领域流水
+        List<String> ids = paymentIds.subList(0, 1000);
+
+        // When
+        List<PaymentTransaction> expected = sorted(selectViaMybatis(sessionFactory(false), ids));
+        List<PaymentTransaction> withHandlers = sorted(selectViaMybatis(sessionFactory(true), ids));
+        List<PaymentTransaction> actual = sorted(rowReader.selectTransactionsByPaymentIds(ids));
+
+        // Then 三条路径结果一致；del_flag为NULL的流水只有行读取器读出
+        // （MyBatis-Plus逻辑删除条件为 del_flag = 0，行读取器以 IFNULL(del_flag, 0) = 0 按未删除读取）
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, withHandlers);
+        List<String> nullFlagIds = actual.stream()
+                .map(PaymentTransaction::getId)
+                .filter(id -> expected.stream().noneMatch(transaction -> transaction.getId().equals(id)))
+                .collect(Collectors.toList());
+        assertEquals(Collections.singletonList(paymentIds.get(1) + "-1"), nullFlagIds);
+        assertEquals(expected, actual.stream()
+                .filter(transaction -> !nullFlagIds.contains(transaction.getId()))
+                .collect(Collectors.toList()));
+    }
+
+    private List<PaymentTransaction> selectViaMybatis(SqlSessionFactory factory, List<String> ids) {
+        try (SqlSession session = factory.openSession()) {
+            LambdaQueryWrapper<PaymentTransactionEntity> wrapper = new LambdaQueryWrapper<>();
+            wrapper.in(PaymentTransactionEntity::getPaymentId, ids);
+            return assembler.toDomainTransactions(session.getMapper(PaymentTransactionMapper.class).selectList(wrapper));
+        }
+    }
+
+    private static SqlSessionFactory sessionFactory(boolean registerHandlers) {
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setLogImpl(NoLoggingImpl.class);
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        if (registerHandlers) {
+            PaymentEnumTypeHandlers.registerAll(configuration.getTypeHandlerRegistry());
+        }
+        configuration.addMapper(PaymentTransactionMapper.class);
+        return new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    /**
+     * 逻辑删除标记：已删除为1，存量未回填的行为NULL，其余为0
+     */
+    private static Integer deleteFlag(boolean deleted, boolean legacyNull) {
+        return deleted ? Integer.valueOf(1) : legacyNull ? null : Integer.valueOf(0);
+    }
+
+    private static List<PaymentTransaction> sorted(List<PaymentTransaction> transactions) {
+        List<PaymentTransaction> copy = new ArrayList<>(transactions);
+        copy.sort((a, b) -> a.getId().compareTo(b.getId()));
+        return Collections.unmodifiableList(copy);
+    }
+}
@@ -0,0 +1,89 @@
+package com.bytz.modules.cms.payment.infrastructure.repository;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.ResellerPaymentSummaryEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 经销商汇总增量累加器测试
+ * Reseller Summary Deltas Test
+ */
+@DisplayName("ResellerSummaryDeltas 单元测试")
+class ResellerSummaryDeltasTest {
+
+    @Test
+    @DisplayName("状态变化：从原状态移出、计入新状态")
+    void testStatusChangeMovesBetweenRows() {
+        // Given 支付单从未支付变为部分支付，已支付30
+        ResellerSummaryDeltas deltas = new ResellerSummaryDeltas();
+        deltas.subtract(payment("R1", PaymentStatus.UNPAID, "100.00", "0.00"));
+        deltas.add(payment("R1", PaymentStatus.PARTIAL_PAID, "100.00", "30.00"));
+
+        // When
+        List<ResellerPaymentSummaryEntity> result = deltas.nonZero(LocalDateTime.now());
+
+        // Then 按键有序：PARTIAL_PAID 在 UNPAID 之前
+        assertEquals(2, result.size());
+        ResellerPaymentSummaryEntity partialPaid = result.get(0);
+        assertEquals(PaymentStatus.PARTIAL_PAID, partialPaid.getPaymentStatus());
+        assertEquals(1L, partialPaid.getPaymentCount());
+        assertEquals(0, new BigDecimal("30.00").compareTo(partialPaid.getPaidAmount()));
+        ResellerPaymentSummaryEntity unpaid = result.get(1);
+        assertEquals(PaymentStatus.UNPAID, unpaid.getPaymentStatus());
+        assertEquals(-1L, unpaid.getPaymentCount());
+        assertEquals(0, new BigDecimal("-100.00").compareTo(unpaid.getPaymentAmount()));
+        assertNotNull(unpaid.getUpdateTime());
+    }
+
+    @Test
+    @DisplayName("汇总口径未变化的保存不产生写入")
+    void testUnchangedPaymentProducesNoDelta() {
+        // Given 只修改了业务描述等非汇总字段
+        ResellerSummaryDeltas deltas = new ResellerSummaryDeltas();
+        deltas.subtract(payment("R1", PaymentStatus.PAID, "100.00", "100.00"));
+        deltas.add(payment("R1", PaymentStatus.PAID, "100.00", "100.000000"));
+
+        // When & Then
+        assertTrue(deltas.nonZero(LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("同一汇总行的多个支付单合并为一条增量")
+    void testSameKeyIsMerged() {
+        // Given
+        ResellerSummaryDeltas deltas = new ResellerSummaryDeltas();
+        deltas.add(payment("R1", PaymentStatus.UNPAID, "100.00", "0.00"));
+        deltas.add(payment("R1", PaymentStatus.UNPAID, "50.00", "0.00"));
+        deltas.add(payment("R2", PaymentStatus.UNPAID, "10.00", "0.00"));
+
+        // When
+        List<ResellerPaymentSummaryEntity> result = deltas.nonZero(LocalDateTime.now());
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("R1", result.get(0).getResellerId());
+        assertEquals(2L, result.get(0).getPaymentCount());
+        assertEquals(0, new BigDecimal("150.00").compareTo(result.get(0).getPaymentAmount()));
+        assertEquals("R2", result.get(1).getResellerId());
+    }
+
+    private static PaymentEntity payment(String resellerId, PaymentStatus status, String amount, String paid) {
+        return PaymentEntity.builder()
+                .id("P-" + resellerId)
+                .resellerId(resellerId)
+                .currency("CNY")
+                .paymentStatus(status)
+                .paymentAmount(new BigDecimal(amount))
+                .paidAmount(new BigDecimal(paid))
+                .refundedAmount(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+package com.bytz.modules.cms.payment.infrastructure.rollup;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.infrastructure.config.RollupProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.TransactionRollupEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.TransactionRollupMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 流水汇总任务测试
+ * 验证按汇总状态移出旧值、计入新值，重复读到同一流水不重复计数
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionRollupAggregator 汇总测试")
+class TransactionRollupAggregatorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 0);
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 9, 25);
+
+    @Mock
+    private TransactionRollupMapper rollupMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionRollupAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new TransactionRollupAggregator(rollupMapper, PaymentShardRouter.singleShard(),
+                new RollupProperties(), transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregator.destroy();
+    }
+
+    @Test
+    @DisplayName("新流水计入小时桶与日桶，并写入汇总状态")
+    void testNewTransactionsAreAdded() {
+        // Given 两条同维度流水，一条不同状态
+        when(rollupMapper.lockStatesByIds(anyCollection())).thenReturn(Collections.emptyList());
+
+        // When
+        aggregator.apply(Arrays.asList(
+                row(1L, TransactionStatus.SUCCESS, "100.00", NOW.minusMinutes(5)),
+                row(2L, TransactionStatus.SUCCESS, "50.00", NOW.minusMinutes(5)),
+                row(3L, TransactionStatus.PROCESSING, "30.00", NOW.minusMinutes(5))), NOW);
+
+        // Then
+        List<TransactionRollupEntity> hourly = captureHourly();
+        assertEquals(2, hourly.size());
+        TransactionRollupEntity success = find(hourly, TransactionStatus.SUCCESS);
+        assertEquals(LocalDateTime.of(2024, 3, 1, 9, 0), success.getBucketStart());
+        assertEquals(2L, success.getTransactionCount());
+        assertEquals(0, new BigDecimal("150.00").compareTo(success.getTotalAmount()));
+
+        List<TransactionRollupEntity> daily = captureDaily();
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), daily.get(0).getBucketStart());
+        verify(rollupMapper).upsertStates(argThat(states -> states.size() == 3));
+    }
+
+    @Test
+    @DisplayName("状态变化时从旧状态移出、计入新状态；重复读到未变化的流水不产生增量")
+    void testStatusChangeMovesBetweenKeys() {
+        // Given 流水1上次以处理中计入，现为成功；流水2上次已计入成功且未变化
+        TransactionRollupRow previous1 = state(1L, TransactionStatus.PROCESSING, "100.00", NOW.minusMinutes(30));
+        TransactionRollupRow previous2 = state(2L, TransactionStatus.SUCCESS, "50.00", NOW.minusMinutes(30));
+        when(rollupMapper.lockStatesByIds(anyCollection())).thenReturn(Arrays.asList(previous1, previous2));
+
+        // When
+        aggregator.apply(Arrays.asList(
+                row(1L, TransactionStatus.SUCCESS, "100.00", NOW.minusMinutes(5)),
+                row(2L, TransactionStatus.SUCCESS, "50.00", NOW.minusMinutes(30))), NOW);
+
+        // Then
+        List<TransactionRollupEntity> hourly = captureHourly();
+        assertEquals(2, hourly.size());
+        assertEquals(-1L, find(hourly, TransactionStatus.PROCESSING).getTransactionCount());
+        assertEquals(1L, find(hourly, TransactionStatus.SUCCESS).getTransactionCount());
+        assertEquals(0, new BigDecimal("100.00").compareTo(find(hourly, TransactionStatus.SUCCESS).getTotalAmount()));
+    }
+
+    @Test
+    @DisplayName("读到比已计入版本更旧的流水时跳过；已删除的流水移出并删除汇总状态")
+    void testStaleSkippedAndDeletedRemoved() {
+        // Given 流水1已计入较新版本；流水2已逻辑删除
+        when(rollupMapper.lockStatesByIds(anyCollection())).thenReturn(Arrays.asList(
+                state(1L, TransactionStatus.SUCCESS, "100.00", NOW.minusMinutes(5)),
+                state(2L, TransactionStatus.SUCCESS, "50.00", NOW.minusMinutes(30))));
+        TransactionRollupRow deleted = row(2L, TransactionStatus.SUCCESS, "50.00", NOW.minusMinutes(5));
+        deleted.setDeleted(true);
+
+        // When
+        aggregator.apply(Arrays.asList(
+                row(1L, TransactionStatus.PROCESSING, "100.00", NOW.minusMinutes(30)), deleted), NOW);
+
+        // Then
+        List<TransactionRollupEntity> hourly = captureHourly();
+        assertEquals(1, hourly.size());
+        assertEquals(-1L, hourly.get(0).getTransactionCount());
+        assertEquals(0, new BigDecimal("-50.00").compareTo(hourly.get(0).getTotalAmount()));
+        verify(rollupMapper).deleteStatesByIds(Collections.singletonList(2L));
+        verify(rollupMapper, never()).upsertStates(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TransactionRollupEntity> captureHourly() {
+        ArgumentCaptor<Collection<TransactionRollupEntity>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(rollupMapper).upsertHourly(captor.capture());
+        return new ArrayList<>(captor.getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TransactionRollupEntity> captureDaily() {
+        ArgumentCaptor<Collection<TransactionRollupEntity>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(rollupMapper).upsertDaily(captor.capture());
+        return new ArrayList<>(captor.getValue());
+    }
+
+    private static TransactionRollupEntity find(List<TransactionRollupEntity> rows, TransactionStatus status) {
+        return rows.stream().filter(row -> row.getTransactionStatus() == status).findFirst()
+                .orElseThrow(() -> new AssertionError("缺少汇总行: " + status));
+    }
+
+    private static TransactionRollupRow row(Long id, TransactionStatus status, String amount, LocalDateTime updateTime) {
+        TransactionRollupRow row = new TransactionRollupRow();
+        row.setTransactionId(id);
+        row.setPaymentId(100L);
+        row.setPaymentChannel(PaymentChannel.WALLET_PAYMENT);
+        row.setPaymentType(PaymentType.ADVANCE_PAYMENT);
+        row.setTransactionType(TransactionType.PAYMENT);
+        row.setTransactionStatus(status);
+        row.setCurrency("CNY");
+        row.setAmount(new BigDecimal(amount));
+        row.setCreateTime(CREATED);
+        row.setUpdateTime(updateTime);
+        return row;
+    }
+
+    private static TransactionRollupRow state(Long id, TransactionStatus status, String amount, LocalDateTime updateTime) {
+        TransactionRollupRow state = row(id, status, amount, updateTime);
+        state.setCreateTime(null);
+        state.setBucketStart(CREATED.withMinute(0));
+        return state;
+    }
+}
@@ -0,0 +1,115 @@
+package com.bytz.modules.cms.payment.infrastructure.search;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.infrastructure.config.SearchProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * 可支付支付单读取器测试
+ * 验证按状态分别读取后按截止时间归并、无截止时间的排最后、游标续读
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PayablePaymentReader 单元测试")
+class PayablePaymentReaderTest {
+
+    private static final String RESELLER_ID = "RESELLER-001";
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Mock
+    private PaymentMapper paymentMapper;
+
+    private PayablePaymentReader reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = new PayablePaymentReader(paymentMapper, PaymentShardRouter.singleShard(), new SearchProperties());
+    }
+
+    @Test
+    @DisplayName("两个可支付状态按截止时间归并，页满时返回游标且不读取无截止时间段")
+    void testMergesStatusesByDeadline() {
+        // Given
+        when(paymentMapper.selectPayable(eq(RESELLER_ID), eq(PaymentStatus.UNPAID), eq(true), isNull(), isNull(), eq(3)))
+                .thenReturn(Arrays.asList(payment("1", DAY.plusDays(1)), payment("4", DAY.plusDays(4))));
+        when(paymentMapper.selectPayable(eq(RESELLER_ID), eq(PaymentStatus.PARTIAL_PAID), eq(true), isNull(), isNull(), eq(3)))
+                .thenReturn(Arrays.asList(payment("2", DAY.plusDays(2)), payment("3", DAY.plusDays(3))));
+
+        // When
+        PaymentSearchResult result = reader.read(RESELLER_ID, null, 2);
+
+        // Then
+        assertEquals(Arrays.asList("1", "2"), ids(result.getItems()));
+        assertNotNull(result.getNextCursor());
+        verify(paymentMapper, never()).selectPayable(any(), any(), eq(false), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("有截止时间的读完后接着读无截止时间的，游标续读只读无截止时间段")
+    void testFallsThroughToPaymentsWithoutDeadline() {
+        // Given 只有1条有截止时间的
+        when(paymentMapper.selectPayable(eq(RESELLER_ID), any(), eq(true), isNull(), isNull(), eq(3)))
+                .thenReturn(Collections.emptyList());
+        when(paymentMapper.selectPayable(RESELLER_ID, PaymentStatus.UNPAID, true, null, null, 3))
+                .thenReturn(Collections.singletonList(payment("9", DAY)));
+        when(paymentMapper.selectPayable(eq(RESELLER_ID), any(), eq(false), isNull(), isNull(), eq(2)))
+                .thenReturn(Collections.emptyList());
+        when(paymentMapper.selectPayable(RESELLER_ID, PaymentStatus.PARTIAL_PAID, false, null, null, 2))
+                .thenReturn(Arrays.asList(payment("5", null), payment("7", null)));
+
+        // When
+        PaymentSearchResult first = reader.read(RESELLER_ID, null, 2);
+
+        // Then
+        assertEquals(Arrays.asList("9", "5"), ids(first.getItems()));
+
+        // When 续读
+        when(paymentMapper.selectPayable(RESELLER_ID, PaymentStatus.UNPAID, false, null, 5L, 3))
+                .thenReturn(Collections.emptyList());
+        when(paymentMapper.selectPayable(RESELLER_ID, PaymentStatus.PARTIAL_PAID, false, null, 5L, 3))
+                .thenReturn(Collections.singletonList(payment("7", null)));
+        PaymentSearchResult second = reader.read(RESELLER_ID, first.getNextCursor(), 2);
+
+        // Then
+        assertEquals(Collections.singletonList("7"), ids(second.getItems()));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("无效游标被拒绝")
+    void testRejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> reader.read(RESELLER_ID, "bad!", 10));
+        verifyNoInteractions(paymentMapper);
+    }
+
+    private static List<String> ids(List<PaymentEntity> payments) {
+        return payments.stream().map(PaymentEntity::getId).collect(Collectors.toList());
+    }
+
+    private static PaymentEntity payment(String id, LocalDateTime deadline) {
+        PaymentEntity payment = new PaymentEntity();
+        payment.setId(id);
+        payment.setPaymentDeadline(deadline);
+        return payment;
+    }
+}
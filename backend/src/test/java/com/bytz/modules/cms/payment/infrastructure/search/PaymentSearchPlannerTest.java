@@ -0,0 +1,106 @@
+package com.bytz.modules.cms.payment.infrastructure.search;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.RelatedBusinessType;
+import com.bytz.modules.cms.payment.infrastructure.config.SearchProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 支付单组合查询规划器测试
+ * 验证索引选择、拒绝会全表扫描的条件、游标编解码
+ */
+@DisplayName("PaymentSearchPlanner 单元测试")
+class PaymentSearchPlannerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    private final PaymentSearchPlanner planner = new PaymentSearchPlanner(new SearchProperties());
+
+    @Test
+    @DisplayName("按条件前导列选择索引")
+    void testChoosesIndexByLeadingColumn() {
+        assertEquals(PaymentSearchIndex.RESELLER_STATUS_CREATE, planner.plan(PaymentSearchCriteria.builder()
+                .resellerId("RESELLER-001").minAmount(new BigDecimal("100")).build()).getIndex());
+        assertEquals(PaymentSearchIndex.BUSINESS_TYPE_CREATE, planner.plan(PaymentSearchCriteria.builder()
+                .relatedBusinessType(RelatedBusinessType.CREDIT_RECORD)
+                .createFrom(DAY).createTo(DAY.plusDays(7)).build()).getIndex());
+        assertEquals(PaymentSearchIndex.STATUS_DEADLINE, planner.plan(PaymentSearchCriteria.builder()
+                .statuses(EnumSet.of(PaymentStatus.UNPAID, PaymentStatus.PARTIAL_PAID))
+                .deadlineFrom(DAY).deadlineTo(DAY.plusDays(3)).build()).getIndex());
+        assertEquals(PaymentSearchIndex.CREATE_TIME, planner.plan(PaymentSearchCriteria.builder()
+                .createFrom(DAY).createTo(DAY.plusDays(1)).build()).getIndex());
+    }
+
+    @Test
+    @DisplayName("无法命中索引前导列的条件被拒绝")
+    void testRejectsTableScans() {
+        // 只有状态、金额；只有关联业务类型；时间范围缺上界；时间范围超过最大跨度
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(PaymentSearchCriteria.builder()
+                .statuses(Collections.singleton(PaymentStatus.UNPAID)).minAmount(BigDecimal.ONE).build()));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(PaymentSearchCriteria.builder()
+                .relatedBusinessType(RelatedBusinessType.ORDER).build()));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(PaymentSearchCriteria.builder()
+                .createFrom(DAY).build()));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(PaymentSearchCriteria.builder()
+                .createFrom(DAY).createTo(DAY.plusDays(90)).build()));
+    }
+
+    @Test
+    @DisplayName("游标往返编码，读取行数为每页条数加一")
+    void testCursorRoundTrip() {
+        // Given
+        PaymentEntity last = new PaymentEntity();
+        last.setId("1790000000000000001");
+        last.setCreateTime(DAY.plusHours(5));
+        String cursor = planner.encodeCursor(PaymentSearchIndex.RESELLER_STATUS_CREATE, last);
+
+        // When
+        PaymentSearchCriteria planned = planner.plan(PaymentSearchCriteria.builder()
+                .resellerId("RESELLER-001").pageSize(50).cursor(cursor).build());
+
+        // Then
+        assertEquals(DAY.plusHours(5), planned.getCursorTime());
+        assertEquals(1790000000000000001L, planned.getCursorId());
+        assertEquals(51, planned.getLimit());
+    }
+
+    @Test
+    @DisplayName("游标与条件选择的索引不一致、游标损坏、每页条数超限时拒绝")
+    void testRejectsMismatchedCursorAndPageSize() {
+        PaymentEntity last = new PaymentEntity();
+        last.setId("1");
+        last.setCreateTime(DAY);
+        String cursor = planner.encodeCursor(PaymentSearchIndex.RESELLER_STATUS_CREATE, last);
+
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(PaymentSearchCriteria.builder()
+                .createFrom(DAY).createTo(DAY.plusDays(1)).cursor(cursor).build()));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(PaymentSearchCriteria.builder()
+                .resellerId("RESELLER-001").cursor("not-a-cursor!").build()));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(PaymentSearchCriteria.builder()
+                .resellerId("RESELLER-001").pageSize(1000).build()));
+    }
+
+    @Test
+    @DisplayName("同一条件的不同页共享总数缓存键")
+    void testCountKeyIgnoresPaging() {
+        PaymentEntity last = new PaymentEntity();
+        last.setId("7");
+        last.setCreateTime(DAY);
+        PaymentSearchCriteria first = planner.plan(PaymentSearchCriteria.builder()
+                .resellerId("RESELLER-001").includeTotal(true).build());
+        PaymentSearchCriteria second = planner.plan(PaymentSearchCriteria.builder()
+                .resellerId("RESELLER-001").includeTotal(true).pageSize(10)
+                .cursor(planner.encodeCursor(PaymentSearchIndex.RESELLER_STATUS_CREATE, last)).build());
+
+        assertEquals(planner.countKey(first), planner.countKey(second));
+    }
+}
@@ -0,0 +1,236 @@
+package com.bytz.modules.cms.payment.infrastructure.sharding;
+
+import com.bytz.modules.cms.payment.infrastructure.config.DataSourceRoutingConfig;
+import com.bytz.modules.cms.payment.infrastructure.datasource.ReadYourWritesContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PaymentShardRouter 单元测试
+ * 使用三个本地H2内存库模拟三个物理分片，验证一致性哈希路由、路由索引、散发汇总与事务内分片约束；
+ * 分片配置从库时，验证只读事务发起的散发查询在各分片的从库上执行
+ */
+@DisplayName("PaymentShardRouter 单元测试")
+class PaymentShardRouterTest {
+
+    private static final List<String> SHARDS = Arrays.asList("ds0", "ds1", "ds2");
+
+    private PaymentShardRouter router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> shardDataSources = new LinkedHashMap<>();
+        for (String shard : SHARDS) {
+            shardDataSources.put(shard, createShard(shard));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shardDataSources, "ds0");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        PaymentRouteIndex routeIndex = new PaymentRouteIndex(routing.getShardDataSource("ds0"));
+        router = new PaymentShardRouter(SHARDS, 160, routeIndex);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.destroy();
+        ReadYourWritesContext.clear();
+    }
+
+    @Test
+    @DisplayName("同一经销商始终路由到同一分片（跨实例一致），且经销商大致均匀分布")
+    void testResellerRoutingIsStableAndBalanced() {
+        // Given
+        PaymentShardRouter another = new PaymentShardRouter(SHARDS, 160, null);
+        Map<String, Integer> counts = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 3000; i++) {
+            String resellerId = "RESELLER" + i;
+            String shard = router.shardOfReseller(resellerId);
+            assertEquals(shard, router.shardOfReseller(resellerId));
+            counts.merge(shard, 1, Integer::sum);
+        }
+
+        // Then
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 600, "分布不均: " + counts));
+        assertEquals(router.shardOfReseller("RESELLER42"), another.shardOfReseller("RESELLER42"));
+        another.destroy();
+    }
+
+    @Test
+    @DisplayName("在指定分片上执行的语句落到对应物理库")
+    void testOnShardRoutesStatements() {
+        // When & Then
+        for (String shard : SHARDS) {
+            assertEquals(shard, router.onShard(shard, this::currentShard));
+        }
+    }
+
+    @Test
+    @DisplayName("路由索引按ID、单号、批量ID定位分片")
+    void testRouteIndexLookup() {
+        // Given
+        router.registerRoute("1001", "PAY001", "RESELLER1", "ds1");
+        router.registerRoute("1002", "PAY002", "RESELLER2", "ds2");
+        router.registerRoute("1001", "PAY001", "RESELLER1", "ds1");
+
+        // When
+        Map<String, List<String>> groups = router.groupPaymentIdsByShard(Arrays.asList("1001", "1002", "9999"));
+
+        // Then
+        assertEquals(Optional.of("ds1"), router.shardOfPaymentId("1001"));
+        assertEquals(Optional.of("ds2"), router.shardOfPaymentCode("PAY002"));
+        assertEquals(Optional.empty(), router.shardOfPaymentId("9999"));
+        assertEquals(2, groups.size());
+        assertEquals(Arrays.asList("1001"), groups.get("ds1"));
+        assertEquals(Arrays.asList("1002"), groups.get("ds2"));
+    }
+
+    @Test
+    @DisplayName("散发查询覆盖全部分片并汇总结果")
+    void testScatterGather() {
+        // When
+        List<String> results = router.scatterGather(shard -> Arrays.asList(currentShard()));
+
+        // Then
+        Set<String> shards = results.stream().collect(Collectors.toSet());
+        assertEquals(3, results.size());
+        assertEquals(SHARDS.stream().collect(Collectors.toSet()), shards);
+    }
+
+    @Test
+    @DisplayName("事务绑定分片后，访问其他分片抛出异常，访问同一分片正常")
+    void testTransactionIsConfinedToOneShard() {
+        // When & Then
+        transactionTemplate.execute(status -> {
+            assertEquals("ds1", router.onShard("ds1", this::currentShard));
+            assertEquals("ds1", router.onShard("ds1", this::currentShard));
+            assertThrows(IllegalStateException.class, () -> router.onShard("ds2", this::currentShard));
+            return null;
+        });
+        // 事务结束后解除绑定
+        assertEquals("ds2", router.onShard("ds2", this::currentShard));
+    }
+
+    @Test
+    @DisplayName("只读事务发起的散发查询：各分片查询在散发线程上执行，并落到该分片的从库")
+    void testScatterGatherInReadOnlyTransactionReadsReplicas() {
+        // Given
+        JdbcTemplate replicated = replicatedShards();
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(
+                replicated.getDataSource()));
+        readOnly.setReadOnly(true);
+
+        // When
+        List<String> results = readOnly.execute(status -> router.scatterGather(shard ->
+                Arrays.asList(shard + "@" + Thread.currentThread().getName() + "=" + marker(replicated))));
+
+        // Then
+        assertEquals(SHARDS.size(), results.size());
+        for (String shard : SHARDS) {
+            String result = results.stream().filter(r -> r.startsWith(shard + "@")).findFirst().orElse("");
+            assertTrue(result.contains("@payment-shard-scatter-"), result);
+            assertTrue(result.endsWith("=" + shard + "-replica"), result);
+        }
+    }
+
+    @Test
+    @DisplayName("写事务、无事务、读己之写钉在主库时发起的散发查询落到各分片的主库")
+    void testScatterGatherOutsideReadOnlyTransactionReadsPrimaries() {
+        // Given
+        JdbcTemplate replicated = replicatedShards();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(replicated.getDataSource());
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Set<String> primaries = SHARDS.stream().map(shard -> shard + "-primary").collect(Collectors.toSet());
+
+        // When
+        List<String> inWrite = write.execute(status -> router.scatterGather(shard ->
+                Arrays.asList(marker(replicated))));
+        List<String> withoutTransaction = router.scatterGather(shard -> Arrays.asList(marker(replicated)));
+        ReadYourWritesContext.pinToPrimary();
+        List<String> pinned = readOnly.execute(status -> router.scatterGather(shard ->
+                Arrays.asList(marker(replicated))));
+
+        // Then
+        assertEquals(primaries, new HashSet<>(inWrite));
+        assertEquals(primaries, new HashSet<>(withoutTransaction));
+        assertEquals(primaries, new HashSet<>(pinned));
+    }
+
+    @Test
+    @DisplayName("单分片路由器不访问路由索引")
+    void testSingleShardRouter() {
+        // Given
+        PaymentShardRouter single = PaymentShardRouter.singleShard();
+
+        // When & Then
+        assertFalse(single.isSharded());
+        assertEquals(Optional.of(PaymentShardRouter.SINGLE_SHARD), single.shardOfPaymentId("ANY"));
+        assertEquals(PaymentShardRouter.SINGLE_SHARD, single.shardOfReseller("RESELLER1"));
+        assertEquals(IntStream.range(0, 3).mapToObj(String::valueOf).collect(Collectors.toList()),
+                single.groupPaymentIdsByShard(Arrays.asList("0", "1", "2")).get(PaymentShardRouter.SINGLE_SHARD));
+        single.destroy();
+    }
+
+    /**
+     * 每个分片配置主库与从库的数据源，返回访问它的JdbcTemplate
+     */
+    private static JdbcTemplate replicatedShards() {
+        Map<String, DataSource> shardDataSources = new LinkedHashMap<>();
+        for (String shard : SHARDS) {
+            shardDataSources.put(shard, DataSourceRoutingConfig.createRoutingDataSource(
+                    createShard(shard + "-primary"), createShard(shard + "-replica")));
+        }
+        return new JdbcTemplate(new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shardDataSources, "ds0")));
+    }
+
+    private static String marker(JdbcTemplate template) {
+        return template.queryForObject("SELECT name FROM shard_marker", String.class);
+    }
+
+    private String currentShard() {
+        return jdbcTemplate.queryForObject("SELECT name FROM shard_marker", String.class);
+    }
+
+    private static DataSource createShard(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:shard_" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE IF NOT EXISTS shard_marker (name VARCHAR(16))");
+        template.execute("DELETE FROM shard_marker");
+        template.update("INSERT INTO shard_marker (name) VALUES (?)", name);
+        template.execute("CREATE TABLE IF NOT EXISTS cms_payment_route (payment_id BIGINT NOT NULL PRIMARY KEY, "
+                + "code VARCHAR(32) NOT NULL UNIQUE, reseller_id VARCHAR(32) NOT NULL, "
+                + "shard_name VARCHAR(32) NOT NULL, create_time DATETIME NOT NULL)");
+        template.execute("DELETE FROM cms_payment_route");
+        return dataSource;
+    }
+}
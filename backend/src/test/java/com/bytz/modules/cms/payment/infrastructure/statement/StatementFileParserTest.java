@@ -0,0 +1,74 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StatementFileParser 单元测试
+ * 测试表头、BOM、CRLF、跨映射窗口的行与格式错误定位
+ */
+@DisplayName("StatementFileParser 单元测试")
+class StatementFileParserTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("跳过BOM、表头与空行，跨映射窗口的行完整解析")
+    void testParseAcrossWindows() throws IOException {
+        // Given 64字节窗口，多数行跨越窗口边界
+        String content = "﻿reference,resellerId,amount,currency,valueDate\r\n"
+                + "B001,RESELLER-001,1280.50,CNY,2024-01-01\r\n"
+                + "\r\n"
+                + "B002, RESELLER-002 ,300,CNY,2024-01-02\n"
+                + "B003,RESELLER-001,-15.2,CNY,2024-01-03";
+        Path file = write(content);
+        List<StatementLine> lines = new ArrayList<>();
+
+        // When
+        int count = StatementFileParser.parse(file, 64, lines::add);
+
+        // Then
+        assertEquals(3, count);
+        assertEquals("B001", lines.get(0).getReference());
+        assertEquals(2, lines.get(0).getLineNumber());
+        assertEquals(new BigDecimal("1280.50"), lines.get(0).getAmount());
+        assertEquals(LocalDate.of(2024, 1, 1), lines.get(0).getValueDate());
+        assertEquals("RESELLER-002", lines.get(1).getResellerId());
+        assertEquals(0, new BigDecimal("300").compareTo(lines.get(1).getAmount()));
+        assertEquals(new BigDecimal("-15.2"), lines.get(2).getAmount());
+        assertEquals(5, lines.get(2).getLineNumber());
+    }
+
+    @Test
+    @DisplayName("格式错误时报告行号")
+    void testMalformedLineReportsLineNumber() throws IOException {
+        // Given 第3行金额非法
+        Path file = write("B001,RESELLER-001,100.00,CNY,2024-01-01\n"
+                + "B002,RESELLER-001,200.00,CNY,2024-01-01\n"
+                + "B003,RESELLER-001,12a.00,CNY,2024-01-01\n");
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> StatementFileParser.parse(file, line -> { }));
+        assertTrue(exception.getMessage().contains("第3行"));
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = directory.resolve("statement.csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
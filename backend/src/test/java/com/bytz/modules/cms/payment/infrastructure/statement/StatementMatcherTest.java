@@ -0,0 +1,162 @@
+package com.bytz.modules.cms.payment.infrastructure.statement;
+
+import com.bytz.modules.cms.payment.domain.enums.StatementMatchType;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StatementMatcher 单元测试
+ * 测试精确、容差、合并三轮匹配的顺序与结算金额，以及10万行对账单的解析与匹配结果
+ */
+@DisplayName("StatementMatcher 单元测试")
+class StatementMatcherTest {
+
+    private static final BigDecimal TOLERANCE = new BigDecimal("1.00");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("精确匹配先于容差匹配：后面到账的精确匹配对象不会被前面的容差匹配占用")
+    void testExactBeforeTolerance() {
+        // Given P1待支付100、P2待支付99.50；先到99.80（只能容差），后到100（精确）
+        OpenPaymentIndex index = new OpenPaymentIndex(Arrays.asList(
+                payment("1", "R1", "100.00", null), payment("2", "R1", "99.50", null)));
+        List<StatementLine> lines = Arrays.asList(line(1, "B1", "R1", "99.80"), line(2, "B2", "R1", "100.00"));
+
+        // When
+        StatementMatchResult result = StatementMatcher.match(lines, index, TOLERANCE);
+
+        // Then B2精确匹配P1，B1容差匹配P2并按待支付金额结算
+        assertEquals(2, result.getMatches().size());
+        StatementMatch exact = result.getMatches().get(0);
+        assertEquals("B2", exact.getLine().getReference());
+        assertEquals(StatementMatchType.EXACT, exact.getMatchType());
+        assertEquals("1", exact.getAllocations().get(0).getPaymentId());
+        StatementMatch tolerance = result.getMatches().get(1);
+        assertEquals(StatementMatchType.TOLERANCE, tolerance.getMatchType());
+        assertEquals("2", tolerance.getAllocations().get(0).getPaymentId());
+        assertEquals(0, new BigDecimal("99.50").compareTo(tolerance.getAllocations().get(0).getAmount()));
+    }
+
+    @Test
+    @DisplayName("同金额先到期的先匹配；容差匹配少付时按到账金额结算")
+    void testDueOrderAndShortPayment() {
+        // Given 两单同为100，P2先到期；另有P3待支付50
+        OpenPaymentIndex index = new OpenPaymentIndex(Arrays.asList(
+                payment("1", "R1", "100.00", LocalDateTime.of(2024, 3, 1, 0, 0)),
+                payment("2", "R1", "100.00", LocalDateTime.of(2024, 2, 1, 0, 0)),
+                payment("3", "R1", "50.00", null)));
+        List<StatementLine> lines = Arrays.asList(line(1, "B1", "R1", "100"), line(2, "B2", "R1", "49.40"));
+
+        // When
+        StatementMatchResult result = StatementMatcher.match(lines, index, TOLERANCE);
+
+        // Then
+        assertEquals("2", result.getMatches().get(0).getAllocations().get(0).getPaymentId());
+        StatementMatch shortPaid = result.getMatches().get(1);
+        assertEquals("3", shortPaid.getAllocations().get(0).getPaymentId());
+        assertEquals(new BigDecimal("49.40"), shortPaid.getAllocations().get(0).getAmount());
+    }
+
+    @Test
+    @DisplayName("合并匹配按到期顺序覆盖多单；不同经销商、重复流水号与出账行不匹配")
+    void testManyToOneAndUnmatched() {
+        // Given R1三单按到期顺序 30、45、80；一笔到账75覆盖前两单
+        OpenPaymentIndex index = new OpenPaymentIndex(Arrays.asList(
+                payment("1", "R1", "30.00", LocalDateTime.of(2024, 1, 1, 0, 0)),
+                payment("2", "R1", "45.00", LocalDateTime.of(2024, 1, 2, 0, 0)),
+                payment("3", "R1", "80.00", LocalDateTime.of(2024, 1, 3, 0, 0))));
+        List<StatementLine> lines = Arrays.asList(
+                line(1, "B1", "R1", "75.00"),
+                line(2, "B1", "R1", "80.00"),
+                line(3, "B2", "R2", "80.00"),
+                line(4, "B3", "R1", "-80.00"));
+
+        // When
+        StatementMatchResult result = StatementMatcher.match(lines, index, TOLERANCE);
+
+        // Then
+        assertEquals(1, result.getMatches().size());
+        StatementMatch merged = result.getMatches().get(0);
+        assertEquals(StatementMatchType.MANY_TO_ONE, merged.getMatchType());
+        assertEquals(Arrays.asList("1", "2"), merged.getAllocations().stream()
+                .map(StatementMatch.Allocation::getPaymentId).collect(Collectors.toList()));
+        assertEquals(1, result.getDuplicates().size());
+        assertEquals(Arrays.asList("B2", "B3"), result.getUnmatched().stream()
+                .map(StatementLine::getReference).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("10万行对账单：内存映射解析全部行，三轮匹配各自命中预期行数")
+    void testHundredThousandLines() throws IOException {
+        // Given 2万个经销商各5单；每个经销商：3笔精确、1笔容差、1笔合并（覆盖剩余两单之和）
+        int resellers = 20_000;
+        List<PaymentEntity> payments = new ArrayList<>(resellers * 6);
+        Path file = directory.resolve("statement.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("reference,resellerId,amount,currency,valueDate\n");
+            int reference = 0;
+            for (int r = 0; r < resellers; r++) {
+                String resellerId = "RESELLER-" + r;
+                for (int p = 0; p < 3; p++) {
+                    String amount = (100 + p) + "." + (r % 100 < 10 ? "0" : "") + (r % 100);
+                    payments.add(payment(r + "-" + p, resellerId, amount, LocalDateTime.of(2024, 1, 1 + p, 0, 0)));
+                    writer.write("B" + (reference++) + "," + resellerId + "," + amount + ",CNY,2024-06-01\n");
+                }
+                payments.add(payment(r + "-3", resellerId, "500.00", LocalDateTime.of(2024, 1, 4, 0, 0)));
+                writer.write("B" + (reference++) + "," + resellerId + ",499.20,CNY,2024-06-01\n");
+                payments.add(payment(r + "-4", resellerId, "70.00", LocalDateTime.of(2024, 1, 5, 0, 0)));
+                payments.add(payment(r + "-5", resellerId, "30.00", LocalDateTime.of(2024, 1, 6, 0, 0)));
+                writer.write("B" + (reference++) + "," + resellerId + ",100.00,CNY,2024-06-01\n");
+            }
+        }
+
+        // When
+        List<StatementLine> lines = new ArrayList<>();
+        StatementFileParser.parse(file, lines::add);
+        StatementMatchResult result = StatementMatcher.match(lines, new OpenPaymentIndex(payments), TOLERANCE);
+
+        // Then
+        assertEquals(100_000, result.getTotalLines());
+        assertEquals(resellers * 3, count(result, StatementMatchType.EXACT));
+        assertEquals(resellers, count(result, StatementMatchType.TOLERANCE));
+        assertEquals(resellers, count(result, StatementMatchType.MANY_TO_ONE));
+        assertTrue(result.getUnmatched().isEmpty());
+    }
+
+    private static long count(StatementMatchResult result, StatementMatchType type) {
+        return result.getMatches().stream().filter(match -> match.getMatchType() == type).count();
+    }
+
+    private static StatementLine line(int lineNumber, String reference, String resellerId, String amount) {
+        return new StatementLine(lineNumber, reference, resellerId, new BigDecimal(amount), "CNY", LocalDate.of(2024, 6, 1));
+    }
+
+    private static PaymentEntity payment(String id, String resellerId, String pendingAmount, LocalDateTime deadline) {
+        PaymentEntity payment = new PaymentEntity();
+        payment.setId(id);
+        payment.setResellerId(resellerId);
+        payment.setCurrency("CNY");
+        payment.setPendingAmount(new BigDecimal(pendingAmount));
+        payment.setPaymentDeadline(deadline);
+        return payment;
+    }
+}
@@ -0,0 +1,337 @@
+package com.bytz.modules.cms.payment.infrastructure.wallet;
+
+import com.bytz.modules.cms.payment.domain.command.CreateRefundRequestCommand;
+import com.bytz.modules.cms.payment.domain.command.StartPaymentCommand;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.WalletHoldStatus;
+import com.bytz.modules.cms.payment.domain.response.RefundRequestResponse;
+import com.bytz.modules.cms.payment.domain.response.StarPaymentResponse;
+import com.bytz.modules.cms.payment.infrastructure.channel.impl.WalletPaymentChannelService;
+import com.bytz.modules.cms.payment.infrastructure.config.WalletProperties;
+import com.bytz.modules.cms.payment.infrastructure.entity.WalletAccountEntity;
+import com.bytz.modules.cms.payment.infrastructure.entity.WalletHoldEntity;
+import com.bytz.modules.cms.payment.infrastructure.mapper.WalletMapper;
+import com.bytz.modules.cms.payment.infrastructure.sharding.PaymentShardRouter;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WalletService 单元测试
+ * 以内存账户表模拟版本号比较并交换，验证冻结合并、余额判断、扣款/解冻与冲突重试
+ */
+@DisplayName("WalletService 单元测试")
+class WalletServiceTest {
+
+    private static final String RESELLER = "RESELLER-001";
+
+    private InMemoryWalletMapper mapper;
+    private WalletService walletService;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new InMemoryWalletMapper();
+        // 合并窗口足够长，同一线程连续提交的冻结落在同一批
+        WalletProperties properties = new WalletProperties();
+        properties.setHoldWindow(Duration.ofMillis(200));
+        walletService = new WalletService(mapper, PaymentShardRouter.singleShard(), properties,
+                new NoOpTransactionManager());
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletService.destroy();
+    }
+
+    @Test
+    @DisplayName("同一批的多笔冻结合并为一次账户更新和一次冻结记录插入")
+    void testHoldsCollapseIntoSingleMutation() {
+        // Given
+        walletService.deposit(RESELLER, new BigDecimal("100000.00"));
+        mapper.casCalls.set(0);
+
+        // When 一次批量支付300张支付单
+        List<CompletableFuture<WalletHold>> holds = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            holds.add(walletService.hold(RESELLER, new BigDecimal("10.00"), "TXN-" + i));
+        }
+        holds.forEach(CompletableFuture::join);
+
+        // Then
+        assertEquals(1, mapper.casCalls.get());
+        assertEquals(1, mapper.holdInserts.get());
+        WalletBalance balance = walletService.balance(RESELLER);
+        assertAmount("3000.00", balance.getHeldAmount());
+        assertAmount("97000.00", balance.getAvailableAmount());
+    }
+
+    @Test
+    @DisplayName("按提交顺序判断可用余额，超出的冻结单独失败")
+    void testInsufficientBalanceRejectsOnlyOverflow() {
+        // Given
+        walletService.deposit(RESELLER, new BigDecimal("100.00"));
+
+        // When
+        CompletableFuture<WalletHold> first = walletService.hold(RESELLER, new BigDecimal("60.00"), null);
+        CompletableFuture<WalletHold> second = walletService.hold(RESELLER, new BigDecimal("50.00"), null);
+        CompletableFuture<WalletHold> third = walletService.hold(RESELLER, new BigDecimal("30.00"), null);
+
+        // Then
+        assertNotNull(first.join());
+        CompletionException exception = assertThrows(CompletionException.class, second::join);
+        assertTrue(exception.getCause() instanceof PaymentException);
+        assertTrue(exception.getCause().getMessage().contains("钱包余额不足"));
+        assertNotNull(third.join());
+        assertAmount("90.00", walletService.balance(RESELLER).getHeldAmount());
+    }
+
+    @Test
+    @DisplayName("扣款从余额扣除，解冻退回可用余额，重复扣款不生效")
+    void testCaptureAndRelease() {
+        // Given
+        walletService.deposit(RESELLER, new BigDecimal("1000.00"));
+        WalletHold captured = walletService.hold(RESELLER, new BigDecimal("300.00"), null).join();
+        WalletHold released = walletService.hold(RESELLER, new BigDecimal("200.00"), null).join();
+
+        // When
+        walletService.capture(Collections.singletonList(captured));
+        walletService.capture(Collections.singletonList(captured));
+        walletService.release(Collections.singletonList(released));
+
+        // Then
+        WalletBalance balance = walletService.balance(RESELLER);
+        assertAmount("700.00", balance.getBalance());
+        assertAmount("0", balance.getHeldAmount());
+        assertAmount("700.00", balance.getAvailableAmount());
+        assertEquals(WalletHoldStatus.CAPTURED, mapper.holds.get(captured.getHoldId()).getStatus());
+        assertEquals(WalletHoldStatus.RELEASED, mapper.holds.get(released.getHoldId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("版本号冲突时重新读取余额后重试")
+    void testCasConflictRetries() {
+        // Given 账户在读取后被其他实例更新两次
+        walletService.deposit(RESELLER, new BigDecimal("1000.00"));
+        mapper.concurrentUpdates.set(2);
+
+        // When
+        WalletHold hold = walletService.hold(RESELLER, new BigDecimal("100.00"), null).join();
+
+        // Then
+        assertNotNull(hold);
+        assertEquals(0, mapper.concurrentUpdates.get());
+        assertAmount("100.00", walletService.balance(RESELLER).getHeldAmount());
+    }
+
+    @Test
+    @DisplayName("钱包渠道：事务内的冻结在提交后一次扣款，回滚后一次解冻")
+    void testChannelSettlesOnTransactionCompletion() {
+        // Given
+        walletService.deposit(RESELLER, new BigDecimal("1000.00"));
+        WalletPaymentChannelService channel = new WalletPaymentChannelService(walletService);
+
+        // When 提交的事务支付两笔，回滚的事务支付一笔
+        List<StarPaymentResponse> committed = inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                () -> Arrays.asList(pay(channel, "100.00"), pay(channel, "200.00")));
+        int casBeforeRollback = mapper.casCalls.get();
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> Collections.singletonList(pay(channel, "400.00")));
+
+        // Then
+        assertTrue(committed.stream().allMatch(r -> r.getTransactionStatus() == TransactionStatus.SUCCESS));
+        assertTrue(committed.get(0).getChannelPaymentRecordId().startsWith("WALLET_RECORD_"));
+        WalletBalance balance = walletService.balance(RESELLER);
+        assertAmount("700.00", balance.getBalance());
+        assertAmount("0", balance.getHeldAmount());
+        // 回滚事务：冻结一次、解冻一次
+        assertEquals(casBeforeRollback + 2, mapper.casCalls.get());
+    }
+
+    @Test
+    @DisplayName("钱包渠道：退款请求即完成，事务提交后按渠道退款记录ID幂等退回，回滚时不退回")
+    void testChannelRefundDepositsAfterCommitOnce() {
+        // Given
+        walletService.deposit(RESELLER, new BigDecimal("100.00"));
+        WalletPaymentChannelService channel = new WalletPaymentChannelService(walletService);
+        CreateRefundRequestCommand command = CreateRefundRequestCommand.builder()
+                .refundAmount(new BigDecimal("30.00"))
+                .resellerId(RESELLER)
+                .build();
+        RefundRequestResponse response = channel.createRefundRequest(command);
+
+        // When 回滚的事务确认一次，提交的事务确认两次
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            channel.confirmRefund(command, response);
+            return Collections.emptyList();
+        });
+        WalletBalance afterRollback = walletService.balance(RESELLER);
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            channel.confirmRefund(command, response);
+            channel.confirmRefund(command, response);
+            return Collections.emptyList();
+        });
+
+        // Then
+        assertEquals(TransactionStatus.SUCCESS, response.getTransactionStatus());
+        assertTrue(response.getChannelPaymentRecordId().startsWith("WALLET_REFUND_RECORD_"));
+        assertAmount("100.00", afterRollback.getBalance());
+        assertAmount("130.00", walletService.balance(RESELLER).getBalance());
+        assertEquals(Collections.singleton(response.getChannelPaymentRecordId()), mapper.deposits);
+    }
+
+    private static StarPaymentResponse pay(WalletPaymentChannelService channel, String amount) {
+        return channel.starPaymentRequest(StartPaymentCommand.builder()
+                .amount(new BigDecimal(amount))
+                .resellerId(RESELLER)
+                .build());
+    }
+
+    private static List<StarPaymentResponse> inTransaction(int completionStatus,
+                                                           Supplier<List<StarPaymentResponse>> body) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            List<StarPaymentResponse> responses = body.get();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (completionStatus == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+            for (TransactionSynchronization synchronization : synchronizations) {
+                synchronization.afterCompletion(completionStatus);
+            }
+            return responses;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "实际: " + actual);
+    }
+
+    /**
+     * 内存钱包表：compareAndSet 按版本号比较；concurrentUpdates 大于0时模拟读取后被其他实例更新
+     */
+    private static final class InMemoryWalletMapper implements WalletMapper {
+
+        private final Map<String, WalletAccountEntity> accounts = new ConcurrentHashMap<>();
+        private final Map<String, WalletHoldEntity> holds = new ConcurrentHashMap<>();
+        private final Set<String> deposits = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger casCalls = new AtomicInteger();
+        private final AtomicInteger holdInserts = new AtomicInteger();
+        private final AtomicInteger concurrentUpdates = new AtomicInteger();
+
+        @Override
+        public WalletAccountEntity selectAccount(String resellerId) {
+            WalletAccountEntity account = accounts.get(resellerId);
+            return account == null ? null : copy(account);
+        }
+
+        @Override
+        public int insertAccount(WalletAccountEntity account) {
+            if (accounts.putIfAbsent(account.getResellerId(), copy(account)) != null) {
+                throw new DuplicateKeyException("Duplicate entry for key 'PRIMARY'");
+            }
+            return 1;
+        }
+
+        @Override
+        public synchronized int compareAndSet(String resellerId, long expectedVersion, BigDecimal balance,
+                                              BigDecimal heldAmount, LocalDateTime updateTime) {
+            casCalls.incrementAndGet();
+            WalletAccountEntity account = accounts.get(resellerId);
+            if (concurrentUpdates.get() > 0) {
+                concurrentUpdates.decrementAndGet();
+                account.setVersion(account.getVersion() + 1);
+            }
+            if (account.getVersion() != expectedVersion) {
+                return 0;
+            }
+            account.setBalance(balance);
+            account.setHeldAmount(heldAmount);
+            account.setVersion(expectedVersion + 1);
+            account.setUpdateTime(updateTime);
+            return 1;
+        }
+
+        @Override
+        public int insertDeposit(String depositId, String resellerId, BigDecimal amount, LocalDateTime createTime) {
+            if (!deposits.add(depositId)) {
+                throw new DuplicateKeyException("Duplicate entry for key 'PRIMARY'");
+            }
+            return 1;
+        }
+
+        @Override
+        public int insertHolds(List<WalletHoldEntity> inserted) {
+            holdInserts.incrementAndGet();
+            inserted.forEach(hold -> holds.put(hold.getHoldId(), hold));
+            return inserted.size();
+        }
+
+        @Override
+        public List<WalletHoldEntity> lockHeld(Collection<String> holdIds) {
+            return holdIds.stream().map(holds::get)
+                    .filter(hold -> hold != null && hold.getStatus() == WalletHoldStatus.HELD)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public int updateHeldStatus(Collection<String> holdIds, WalletHoldStatus status, LocalDateTime updateTime) {
+            List<WalletHoldEntity> held = lockHeld(holdIds);
+            held.forEach(hold -> hold.setStatus(status));
+            return held.size();
+        }
+
+        private static WalletAccountEntity copy(WalletAccountEntity account) {
+            return WalletAccountEntity.builder()
+                    .resellerId(account.getResellerId())
+                    .balance(account.getBalance())
+                    .heldAmount(account.getHeldAmount())
+                    .version(account.getVersion())
+                    .build();
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public org.springframework.transaction.TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(org.springframework.transaction.TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(org.springframework.transaction.TransactionStatus status) {
+        }
+    }
+}
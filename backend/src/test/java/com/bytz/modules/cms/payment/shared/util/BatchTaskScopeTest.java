@@ -0,0 +1,126 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BatchTaskScope 单元测试
+ * 测试结果顺序、失败取消、超时
+ */
+@DisplayName("BatchTaskScope 单元测试")
+class BatchTaskScopeTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("join按派生顺序返回结果")
+    void testJoinReturnsResultsInForkOrder() {
+        // Given
+        try (BatchTaskScope<String> scope = new BatchTaskScope<>(executor)) {
+            scope.fork(() -> {
+                Thread.sleep(50);
+                return "A";
+            });
+            scope.fork(() -> "B");
+            scope.fork(() -> "C");
+
+            // When
+            List<String> results = scope.join(Duration.ofSeconds(5));
+
+            // Then
+            assertEquals(Arrays.asList("A", "B", "C"), results);
+        }
+    }
+
+    @Test
+    @DisplayName("joinInOrder按顺序交付结果，不等待后续异步子任务")
+    void testJoinInOrderDeliversBeforeLaterTasksComplete() {
+        // Given
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        List<String> delivered = new ArrayList<>();
+        try (BatchTaskScope<String> scope = new BatchTaskScope<>(executor)) {
+            scope.fork(first);
+            scope.fork(second);
+            first.complete("A");
+
+            // When 第一个结果交付时第二个仍未完成
+            scope.joinInOrder(Duration.ofSeconds(5), (result, index) -> {
+                delivered.add(index + ":" + result);
+                if (index == 0) {
+                    assertFalse(second.isDone());
+                    second.complete("B");
+                }
+            });
+        }
+
+        // Then
+        assertEquals(Arrays.asList("0:A", "1:B"), delivered);
+    }
+
+    @Test
+    @DisplayName("任一子任务失败时抛出原异常并取消其余子任务")
+    void testFailureCancelsSiblings() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        BatchTaskScope<String> scope = new BatchTaskScope<>(executor);
+        scope.fork(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return "slow";
+        });
+        scope.fork(() -> {
+            started.await();
+            throw new IllegalArgumentException("渠道拒绝");
+        });
+
+        // When
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> scope.join(Duration.ofSeconds(5)));
+
+        // Then
+        assertEquals("渠道拒绝", exception.getMessage());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    @DisplayName("批次超时抛出IllegalStateException")
+    void testTimeout() {
+        // Given
+        try (BatchTaskScope<String> scope = new BatchTaskScope<>(executor)) {
+            scope.fork(() -> {
+                Thread.sleep(10_000);
+                return "slow";
+            });
+
+            // When & Then
+            assertThrows(IllegalStateException.class, () -> scope.join(Duration.ofMillis(100)));
+        }
+    }
+}
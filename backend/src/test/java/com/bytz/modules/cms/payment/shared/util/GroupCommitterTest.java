@@ -0,0 +1,179 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GroupCommitter 单元测试
+ * 测试结果交付、批量上限、失败传播、关闭，以及刷盘开销按批分摊（每次刷写一次提交）
+ */
+@DisplayName("GroupCommitter 单元测试")
+class GroupCommitterTest {
+
+    @Test
+    @DisplayName("并发提交合并为批量写入，各调用方取回自己的结果")
+    void testConcurrentSubmitsAreCoalesced() throws Exception {
+        // Given
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        Function<List<Integer>, List<String>> writer = items -> {
+            batchSizes.add(items.size());
+            return items.stream().map(item -> "R" + item).collect(Collectors.toList());
+        };
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try (GroupCommitter<Integer, String> committer = new GroupCommitter<>("test-commit", writer, Duration.ofMillis(20), 100)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                int item = i;
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return committer.submit(item).join();
+                }));
+            }
+
+            // When
+            start.countDown();
+
+            // Then
+            for (int i = 0; i < 16; i++) {
+                assertEquals("R" + i, results.get(i).get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(16, batchSizes.stream().mapToInt(Integer::intValue).sum());
+            assertTrue(batchSizes.size() < 16);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("单批条目数不超过批量上限")
+    void testMaxBatchSize() {
+        // Given 写入阻塞期间排队20条
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        Function<List<Integer>, List<Integer>> writer = items -> {
+            batchSizes.add(items.size());
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return items;
+        };
+        try (GroupCommitter<Integer, Integer> committer = new GroupCommitter<>("test-commit", writer, Duration.ZERO, 5)) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            futures.add(committer.submit(0));
+            for (int i = 1; i <= 20; i++) {
+                futures.add(committer.submit(i));
+            }
+
+            // When
+            release.countDown();
+            futures.forEach(CompletableFuture::join);
+
+            // Then
+            assertTrue(batchSizes.stream().allMatch(size -> size <= 5));
+            assertEquals(21, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        }
+    }
+
+    @Test
+    @DisplayName("刷盘开销按批分摊：一次刷写期间排队的100次创建只需8次提交，逐条提交需要100次")
+    void testCommitsPerFlush() throws Exception {
+        // Given 模拟数据库：每次批量写入即一次提交；首次提交阻塞，期间再排队99条
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<Integer>> commits = new CopyOnWriteArrayList<>();
+        Function<List<Integer>, List<Integer>> database = items -> {
+            commits.add(new ArrayList<>(items));
+            committing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return items;
+        };
+        try (GroupCommitter<Integer, Integer> committer = new GroupCommitter<>("test-commit", database, Duration.ZERO, 16)) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            futures.add(committer.submit(0));
+            assertTrue(committing.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < 100; i++) {
+                futures.add(committer.submit(i));
+            }
+
+            // When
+            release.countDown();
+
+            // Then 首条单独提交，其余按批量上限整批提交：1 + ceil(99 / 16) = 8 次
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS).intValue());
+            }
+            assertEquals(Arrays.asList(1, 16, 16, 16, 16, 16, 16, 3),
+                    commits.stream().map(List::size).collect(Collectors.toList()));
+            assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()),
+                    commits.stream().flatMap(List::stream).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    @DisplayName("批量写入失败时本批全部调用方以同一异常失败")
+    void testFailurePropagatesToWholeBatch() {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        Function<List<Integer>, List<Integer>> writer = items -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("数据库不可用");
+        };
+        try (GroupCommitter<Integer, Integer> committer = new GroupCommitter<>("test-commit", writer, Duration.ZERO, 10)) {
+            CompletableFuture<Integer> first = committer.submit(1);
+            CompletableFuture<Integer> second = committer.submit(2);
+
+            // When
+            release.countDown();
+
+            // Then
+            for (CompletableFuture<Integer> future : Arrays.asList(first, second)) {
+                CompletionException exception = assertThrows(CompletionException.class, future::join);
+                assertEquals("数据库不可用", exception.getCause().getMessage());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("关闭时写完已排队条目，之后拒绝提交")
+    void testCloseDrainsQueueThenRejects() {
+        // Given
+        GroupCommitter<Integer, Integer> committer = new GroupCommitter<>("test-commit", items -> items, Duration.ofMillis(50), 10);
+        CompletableFuture<Integer> pending = committer.submit(7);
+
+        // When
+        committer.close();
+
+        // Then
+        assertEquals(7, pending.join());
+        assertThrows(IllegalStateException.class, () -> committer.submit(8));
+    }
+}
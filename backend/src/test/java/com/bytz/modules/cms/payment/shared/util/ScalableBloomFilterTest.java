@@ -0,0 +1,72 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScalableBloomFilter 单元测试
+ * 测试布隆过滤器的无漏判、误判率和扩容行为
+ */
+@DisplayName("ScalableBloomFilter 单元测试")
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("已添加的元素一定判定为可能存在")
+    void testNoFalseNegatives() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+
+        // When
+        for (int i = 0; i < 5000; i++) {
+            filter.put("CHN-TXN-" + i + "#SUCCESS");
+        }
+
+        // Then
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(filter.mightContain("CHN-TXN-" + i + "#SUCCESS"));
+        }
+    }
+
+    @Test
+    @DisplayName("重复添加返回false")
+    void testPutReturnsFalseForDuplicate() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+
+        // When & Then
+        assertTrue(filter.put("CHN-TXN-001#SUCCESS"));
+        assertFalse(filter.put("CHN-TXN-001#SUCCESS"));
+    }
+
+    @Test
+    @DisplayName("超过容量后扩容且误判率保持在上界内")
+    void testGrowthKeepsFalsePositiveRateBounded() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("IN-" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        int probes = 20000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("OUT-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(filter.getStageCount() > 1);
+        assertTrue(falsePositives < probes * 0.02, "误判数过高: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("非法参数抛出异常")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(100, 1.0));
+    }
+}
@@ -0,0 +1,97 @@
+package com.bytz.modules.cms.payment.shared.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TtlCache 单元测试
+ */
+@DisplayName("TtlCache 单元测试")
+class TtlCacheTest {
+
+    @Test
+    @DisplayName("有效期内命中，过期后重新加载")
+    void testExpiresAfterTtl() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        TtlCache<String, Integer> cache = new TtlCache<>(Duration.ofSeconds(30), 10, clock::get);
+
+        // When & Then
+        assertEquals(1, cache.get("k", key -> loads.incrementAndGet()));
+        clock.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertEquals(1, cache.get("k", key -> loads.incrementAndGet()));
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(2, cache.get("k", key -> loads.incrementAndGet()));
+    }
+
+    @Test
+    @DisplayName("加载失败不缓存")
+    void testFailureIsNotCached() {
+        TtlCache<String, Integer> cache = new TtlCache<>(Duration.ofSeconds(30), 10);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("k", key -> {
+            throw new IllegalStateException("数据库不可用");
+        }));
+        assertEquals(5, cache.get("k", key -> 5));
+    }
+
+    @Test
+    @DisplayName("同一键并发未命中只加载一次")
+    void testConcurrentMissesLoadOnce() throws Exception {
+        // Given
+        TtlCache<String, Integer> cache = new TtlCache<>(Duration.ofSeconds(30), 10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<Integer> first = executor.submit(() -> cache.get("k", key -> {
+                loading.countDown();
+                awaitQuietly(release);
+                return loads.incrementAndGet();
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = executor.submit(() -> cache.get("k", key -> loads.incrementAndGet()));
+
+            // When
+            release.countDown();
+
+            // Then
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("条目数不超过上限")
+    void testMaxEntries() {
+        TtlCache<Integer, Integer> cache = new TtlCache<>(Duration.ofSeconds(30), 3);
+        for (int i = 0; i < 10; i++) {
+            cache.get(i, key -> key);
+        }
+        assertTrue(cache.size() <= 3);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}